@@ -0,0 +1,55 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.service.AccountStorageDB;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountLookupBenchmark {
+
+    @Param({"100000"})
+    public int accountCount;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    private AccountStorageDB accountStorageDB;
+
+    private int[] sequence;
+
+    @Setup
+    public void setUp() {
+        accountStorageDB = new AccountStorageDB();
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setAccountId(i + 1L);
+            accountStorageDB.addAccount(account);
+        }
+        sequence = distribution.sequence(accountCount, 42L);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Account getAccount(Cursor cursor) throws InvalidAccountException {
+        return accountStorageDB.getAccount(sequence[cursor.position++ & (sequence.length - 1)] + 1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Account getAccountMultiThread(Cursor cursor) throws InvalidAccountException {
+        return accountStorageDB.getAccount(sequence[cursor.position++ & (sequence.length - 1)] + 1L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.auth.AuthProperties;
+import com.tinybank.management.auth.AuthenticatedUser;
+import com.tinybank.management.auth.AuthenticationService;
+import com.tinybank.management.auth.PasswordHasher;
+import com.tinybank.management.auth.SessionTokenCache;
+import com.tinybank.management.exception.AuthenticationException;
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication cost per request: verifying the password hash on every request, against validating a
+ * session token and checking that the account belongs to the caller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    @Param({"100000"})
+    public int hashIterations;
+
+    @Param({"10000"})
+    public int users;
+
+    private PasswordHasher passwordHasher;
+
+    private AuthenticationService authenticationService;
+
+    private String storedPassword;
+
+    private String[] tokens;
+
+    @Setup
+    public void setUp() throws AuthenticationException {
+        passwordHasher = new PasswordHasher(hashIterations);
+        storedPassword = passwordHasher.hash("password");
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        List<Account> accounts = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Account account = new Account();
+            account.setAccountId(i + 1L);
+            account.setUser(User.builder().userName("user" + i).password(storedPassword).role(Role.USER).build());
+            accounts.add(account);
+        }
+        accountStorageDB.addAccounts(accounts);
+        AuthProperties properties = new AuthProperties();
+        authenticationService = new AuthenticationService(accountStorageDB, passwordHasher, new SessionTokenCache(properties.getMaxTokens()), properties);
+        tokens = new String[1024];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = authenticationService.login("user" + i, "password").token();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+    }
+
+    @Benchmark
+    public boolean verifyPasswordPerRequest() {
+        return passwordHasher.matches("password", storedPassword);
+    }
+
+    @Benchmark
+    public boolean validateTokenPerRequest(Cursor cursor) {
+        int index = cursor.position++ & (tokens.length - 1);
+        AuthenticatedUser user = authenticationService.authenticate(tokens[index]);
+        return authenticationService.canAccessAccount(user, index + 1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean validateTokenPerRequestMultiThread(Cursor cursor) {
+        int index = cursor.position++ & (tokens.length - 1);
+        AuthenticatedUser user = authenticationService.authenticate(tokens[index]);
+        return authenticationService.canAccessAccount(user, index + 1L);
+    }
+}
@@ -0,0 +1,31 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.service.impl.AccountTransactionalServiceImpl;
+
+import java.lang.reflect.Field;
+
+/**
+ * Wires services without a Spring context, the way {@code @InjectMocks} does in the unit tests.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static AccountTransactionalServiceImpl newTransactionalService(AccountStorageDB accountStorageDB) {
+        AccountTransactionalServiceImpl service = new AccountTransactionalServiceImpl();
+        inject(service, "accountStorageDB", accountStorageDB);
+        return service;
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getSimpleName(), ex);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.batch.BatchProperties;
+import com.tinybank.management.batch.BatchRunResult;
+import com.tinybank.management.batch.EndOfDayBatchRunner;
+import com.tinybank.management.batch.InterestAccrualJob;
+import com.tinybank.management.persistence.WriteAheadLog;
+import com.tinybank.management.persistence.WriteAheadLogProperties;
+import com.tinybank.management.service.AccountStorageDB;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One end-of-day interest accrual run over {@code accounts} accounts per invocation, each for the next
+ * business date, with and without the write-ahead log. Divide {@code accounts} by the score for the
+ * accounts per second of a run.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EndOfDayBatchBenchmark {
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"false", "true"})
+    public boolean wal;
+
+    private Path directory;
+
+    private WriteAheadLog writeAheadLog;
+
+    private EndOfDayBatchRunner runner;
+
+    private LocalDate businessDate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("end-of-day-batch");
+        AccountStorageDB accountStorageDB;
+        if (wal) {
+            WriteAheadLogProperties walProperties = new WriteAheadLogProperties();
+            walProperties.setDirectory(directory.resolve("wal").toString());
+            writeAheadLog = new WriteAheadLog(walProperties);
+            accountStorageDB = new AccountStorageDB(writeAheadLog);
+            accountStorageDB.recover();
+        } else {
+            accountStorageDB = new AccountStorageDB();
+        }
+        List<Account> batch = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setAccountId(i + 1L);
+            account.addBalance(1_000_000D, "initial");
+            batch.add(account);
+        }
+        accountStorageDB.addAccounts(batch);
+        BatchProperties properties = new BatchProperties();
+        properties.setDirectory(directory.resolve("batch").toString());
+        runner = new EndOfDayBatchRunner(accountStorageDB, properties, List.of(new InterestAccrualJob(250L)));
+        businessDate = LocalDate.of(2024, 1, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public BatchRunResult interestAccrual() {
+        businessDate = businessDate.plusDays(1);
+        return runner.run(InterestAccrualJob.NAME, businessDate);
+    }
+}
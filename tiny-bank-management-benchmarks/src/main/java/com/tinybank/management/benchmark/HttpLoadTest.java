@@ -0,0 +1,206 @@
+package com.tinybank.management.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load generator for comparing the servlet and the reactive front ends: keeps
+ * {@code connections} transfers in flight against a running service, each connection sending its next
+ * request as soon as the previous one completes, and prints throughput and latency percentiles.
+ * <pre>
+ * java -cp benchmarks.jar com.tinybank.management.benchmark.HttpLoadTest &lt;baseUrl&gt; &lt;connections&gt; &lt;seconds&gt; [warmupSeconds] [accounts]
+ * </pre>
+ * Accounts are created and funded through {@code /createAccounts} and {@code /batchTransactions} first.
+ */
+public class HttpLoadTest {
+
+    private static final int SETUP_BATCH_SIZE = 1_000;
+
+    private final HttpClient client;
+
+    private final URI transferUri;
+
+    private final int accounts;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final LongAdder failures = new LongAdder();
+
+    private volatile boolean recording;
+
+    private volatile boolean stopped;
+
+    private HttpLoadTest(HttpClient client, String baseUrl, int accounts) {
+        this.client = client;
+        this.transferUri = URI.create(baseUrl + "/transferMoney");
+        this.accounts = accounts;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: HttpLoadTest <baseUrl> <connections> <seconds> [warmupSeconds] [accounts]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        int connections = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int accounts = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+        HttpLoadTest loadTest = new HttpLoadTest(client, baseUrl, accounts);
+        loadTest.createAccounts(baseUrl);
+        loadTest.run(connections, seconds, warmupSeconds);
+        executor.shutdownNow();
+    }
+
+    private void createAccounts(String baseUrl) throws Exception {
+        for (int first = 0; first < accounts; first += SETUP_BATCH_SIZE) {
+            int count = Math.min(SETUP_BATCH_SIZE, accounts - first);
+            StringJoiner users = new StringJoiner(",", "[", "]");
+            StringJoiner deposits = new StringJoiner(",", "{\"operations\":[", "]}");
+            for (int i = 0; i < count; i++) {
+                users.add("{\"name\":\"load\",\"userName\":\"load" + (first + i) + "\",\"password\":\"secret\",\"role\":\"user\"}");
+                deposits.add("{\"operationType\":\"DEPOSIT\",\"accountId\":" + (first + i + 1) + ",\"amount\":1000000000,\"remarks\":\"initial\"}");
+            }
+            post(baseUrl + "/createAccounts", users.toString());
+            post(baseUrl + "/batchTransactions", deposits.toString());
+        }
+    }
+
+    private void post(String uri, String body) throws Exception {
+        HttpResponse<String> response = client.send(jsonRequest(URI.create(uri), body), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || !response.body().contains("NO_ERROR")) {
+            throw new IllegalStateException("Setup request to " + uri + " failed: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private void run(int connections, int seconds, int warmupSeconds) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            send(done);
+        }
+        Thread.sleep(warmupSeconds * 1_000L);
+        histogram.reset();
+        failures.reset();
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1_000L);
+        recording = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        stopped = true;
+        done.await();
+        long requests = histogram.count();
+        System.out.printf("connections: %d, requests: %d, failures: %d, throughput: %.0f req/s, "
+                        + "p50: %.2f ms, p99: %.2f ms, p99.9: %.2f ms, max: %.2f ms%n",
+                connections, requests, failures.sum(), requests / elapsedSeconds,
+                histogram.percentileMicros(0.5) / 1000.0, histogram.percentileMicros(0.99) / 1000.0,
+                histogram.percentileMicros(0.999) / 1000.0, histogram.maxMicros() / 1000.0);
+    }
+
+    private void send(CountDownLatch done) {
+        if (stopped) {
+            done.countDown();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"fromAccountId\":" + random.nextLong(1, accounts + 1) + ",\"toAccountId\":" + random.nextLong(1, accounts + 1)
+                + ",\"amount\":0.01,\"remarks\":\"load\"}";
+        long start = System.nanoTime();
+        client.sendAsync(jsonRequest(transferUri, body), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, ex) -> {
+                    if (recording) {
+                        histogram.record((System.nanoTime() - start) / 1_000L);
+                        if (ex != null || response.statusCode() != 200 || !response.body().contains("NO_ERROR")) {
+                            failures.increment();
+                        }
+                    }
+                    send(done);
+                });
+    }
+
+    private static HttpRequest jsonRequest(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Lock-free log-linear histogram of microsecond latencies: 16 sub-buckets per power of two, so a
+     * reported percentile is at most about 6% above the true value.
+     */
+    private static final class LatencyHistogram {
+
+        private static final int SUB_BUCKETS = 16;
+
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+        private final LongAdder total = new LongAdder();
+
+        private volatile long max;
+
+        private void record(long micros) {
+            long value = Math.max(1L, micros);
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = exponent < 4 ? (int) value & (SUB_BUCKETS - 1) : (int) (value >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+            counts.incrementAndGet(exponent * SUB_BUCKETS + subBucket);
+            total.increment();
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        private long count() {
+            return total.sum();
+        }
+
+        private long maxMicros() {
+            return max;
+        }
+
+        private void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+            total.reset();
+            max = 0;
+        }
+
+        private long percentileMicros(double percentile) {
+            long target = (long) Math.ceil(percentile * total.sum());
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= target && seen > 0) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static long upperBound(int index) {
+            int exponent = index / SUB_BUCKETS;
+            int subBucket = index % SUB_BUCKETS;
+            if (exponent < 4) {
+                return subBucket;
+            }
+            return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - 4)) - 1;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.persistence.WriteAheadLog;
+import com.tinybank.management.persistence.WriteAheadLogProperties;
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.service.impl.AccountTransactionalServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Waves of {@code inFlight} concurrent transfers through the transactional service with the write-ahead
+ * log enabled, so every transfer blocks until its group commit is forced. {@code PLATFORM} runs them on a
+ * fixed pool of 200 threads, Tomcat's default, and {@code VIRTUAL} on one virtual thread per transfer. A
+ * wave completes with its slowest transfer, so the sampled wave times are the tail latency of that many
+ * in-flight transfers; the point where they start growing faster than {@code inFlight} is where the mode
+ * stops keeping up. {@code VIRTUAL} requires Java 21.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class InFlightTransferBenchmark {
+
+    private static final int ACCOUNT_COUNT = 10_000;
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    public enum ExecutionMode {
+        PLATFORM, VIRTUAL
+    }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutionMode mode;
+
+    @Param({"100", "1000", "10000"})
+    public int inFlight;
+
+    private Path directory;
+
+    private WriteAheadLog writeAheadLog;
+
+    private AccountTransactionalServiceImpl accountTransactionalService;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("in-flight-transfer");
+        WriteAheadLogProperties properties = new WriteAheadLogProperties();
+        properties.setDirectory(directory.toString());
+        writeAheadLog = new WriteAheadLog(properties);
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog);
+        accountStorageDB.recover();
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            Account account = new Account();
+            account.setAccountId(i + 1L);
+            accountStorageDB.addAccount(account);
+            account.addBalance(1_000_000_000D, "initial");
+        }
+        accountTransactionalService = BenchmarkSupport.newTransactionalService(accountStorageDB);
+        executor = mode == ExecutionMode.PLATFORM ? Executors.newFixedThreadPool(PLATFORM_POOL_SIZE) : newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        writeAheadLog.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int wave() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(inFlight);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < inFlight; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    accountTransactionalService.transfer(random.nextLong(1, ACCOUNT_COUNT + 1), random.nextLong(1, ACCOUNT_COUNT + 1), 0.01, "transfer");
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return failed.get();
+    }
+
+    /**
+     * Looked up reflectively so the module still builds for Java 17.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("Virtual threads require Java 21, running " + Runtime.version());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create a virtual thread executor", ex);
+        }
+    }
+}
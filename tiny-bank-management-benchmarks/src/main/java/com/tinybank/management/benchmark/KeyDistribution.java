@@ -0,0 +1,41 @@
+package com.tinybank.management.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * How benchmark operations pick accounts: uniformly, or Zipfian (exponent 1) so a few hot accounts
+ * receive most operations, as payroll and merchant accounts do.
+ */
+public enum KeyDistribution {
+    UNIFORM,
+    ZIPFIAN;
+
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+
+    /**
+     * Pre-draws a sequence of account indexes in {@code [0, accountCount)}, so sampling costs nothing
+     * inside the measured loop. The length is a power of two; index it with {@code & (length - 1)}.
+     */
+    public int[] sequence(int accountCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] sequence = new int[SEQUENCE_LENGTH];
+        if (this == UNIFORM) {
+            for (int i = 0; i < sequence.length; i++) {
+                sequence[i] = random.nextInt(accountCount);
+            }
+            return sequence;
+        }
+        double[] cumulative = new double[accountCount];
+        double total = 0;
+        for (int rank = 0; rank < accountCount; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+        for (int i = 0; i < sequence.length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            sequence[i] = Math.min(index < 0 ? -index - 1 : index, accountCount - 1);
+        }
+        return sequence;
+    }
+}
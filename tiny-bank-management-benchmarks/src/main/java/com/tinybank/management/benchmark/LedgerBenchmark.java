@@ -0,0 +1,114 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.exception.DepositOperationException;
+import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.TransferOperationException;
+import com.tinybank.management.exception.WithdrawOperationException;
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.service.impl.AccountTransactionalServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit, withdraw and transfer through {@link Account} and through
+ * {@link AccountTransactionalServiceImpl}, for uniform and hot-account key distributions. The thread
+ * count is set by the concrete subclasses. Accounts are rebuilt every iteration so journal growth does not
+ * carry over between iterations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public abstract class LedgerBenchmark {
+
+    public static final int ACCOUNT_COUNT = 10_000;
+
+    private static final double INITIAL_BALANCE = 1_000_000_000D;
+
+    @State(Scope.Benchmark)
+    public static class Ledger {
+
+        @Param({"UNIFORM", "ZIPFIAN"})
+        public KeyDistribution distribution;
+
+        public Account[] accounts;
+
+        public AccountStorageDB accountStorageDB;
+
+        public AccountTransactionalServiceImpl accountTransactionalService;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            accounts = new Account[ACCOUNT_COUNT];
+            accountStorageDB = new AccountStorageDB();
+            for (int i = 0; i < ACCOUNT_COUNT; i++) {
+                Account account = new Account();
+                account.setAccountId(i + 1L);
+                account.addBalance(INITIAL_BALANCE, "initial");
+                accounts[i] = account;
+                accountStorageDB.addAccount(account);
+            }
+            accountTransactionalService = BenchmarkSupport.newTransactionalService(accountStorageDB);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+
+        private int[] sequence;
+
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(Ledger ledger) {
+            sequence = ledger.distribution.sequence(ACCOUNT_COUNT, Thread.currentThread().getId());
+        }
+
+        public int next() {
+            return sequence[cursor++ & (sequence.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public boolean deposit(Ledger ledger, Keys keys) {
+        return ledger.accounts[keys.next()].addBalance(0.01, "deposit");
+    }
+
+    @Benchmark
+    public boolean withdraw(Ledger ledger, Keys keys) {
+        return ledger.accounts[keys.next()].subtractBalance(0.01, "withdraw");
+    }
+
+    @Benchmark
+    public boolean transfer(Ledger ledger, Keys keys) {
+        int from = keys.next();
+        int to = keys.next();
+        if (from == to) {
+            to = (to + 1) % ACCOUNT_COUNT;
+        }
+        return ledger.accounts[from].transferTo(ledger.accounts[to], 0.01, "transfer");
+    }
+
+    @Benchmark
+    public void serviceDeposit(Ledger ledger, Keys keys) throws DepositOperationException {
+        ledger.accountTransactionalService.deposit(keys.next() + 1L, 0.01, "deposit");
+    }
+
+    @Benchmark
+    public void serviceWithdraw(Ledger ledger, Keys keys) throws WithdrawOperationException {
+        ledger.accountTransactionalService.withdraw(keys.next() + 1L, 0.01, "withdraw");
+    }
+
+    @Benchmark
+    public void serviceTransfer(Ledger ledger, Keys keys) throws InvalidAccountException, TransferOperationException {
+        long from = keys.next() + 1L;
+        long to = keys.next() + 1L;
+        if (from == to) {
+            to = to % ACCOUNT_COUNT + 1;
+        }
+        ledger.accountTransactionalService.transfer(from, to, 0.01, "transfer");
+    }
+}
@@ -0,0 +1,66 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.reconciliation.LedgerDigest;
+import com.tinybank.management.reconciliation.LedgerReconciler;
+import com.tinybank.management.reconciliation.ReconciliationProperties;
+import com.tinybank.management.reconciliation.ReconciliationReport;
+import com.tinybank.management.service.AccountStorageDB;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciliation sweeps over {@code accounts} accounts of {@code entriesPerAccount} entries each: the
+ * constant-time balance check, the full recomputation of every journal, and a ledger digest.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class LedgerReconciliationBenchmark {
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"10"})
+    public int entriesPerAccount;
+
+    private LedgerReconciler reconciler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        List<Account> batch = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setAccountId(i + 1L);
+            for (int entry = 0; entry < entriesPerAccount; entry++) {
+                account.replayTransaction(TransactionType.DEPOSIT, 100L + entry, 1_000L + entry, "deposit");
+            }
+            batch.add(account);
+        }
+        accountStorageDB.addAccounts(batch);
+        reconciler = new LedgerReconciler(accountStorageDB, new ReconciliationProperties());
+    }
+
+    @Benchmark
+    public ReconciliationReport checkBalances() {
+        return reconciler.checkBalances();
+    }
+
+    @Benchmark
+    public ReconciliationReport verifyAll() {
+        return reconciler.verifyAll();
+    }
+
+    @Benchmark
+    public LedgerDigest digest() {
+        return reconciler.digest();
+    }
+}
@@ -0,0 +1,11 @@
+package com.tinybank.management.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Same operations as {@link SingleThreadLedgerBenchmark} with four threads; with the Zipfian distribution
+ * most of them contend on the same few accounts.
+ */
+@Threads(4)
+public class MultiThreadLedgerBenchmark extends LedgerBenchmark {
+}
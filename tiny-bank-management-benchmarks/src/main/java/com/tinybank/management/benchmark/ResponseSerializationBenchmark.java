@@ -0,0 +1,55 @@
+package com.tinybank.management.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinybank.management.account.Transaction;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.model.transaction.GetTransactionResponseModel;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of {@link ResponseResult} with the {@link ObjectMapper} configuration Spring MVC uses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private ResponseResult<Map<String, Double>> balanceResponse;
+
+    private ResponseResult<GetTransactionResponseModel> transactionPageResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        balanceResponse = ResponseResult.success(Map.of("accountBalance", 1234.56));
+        TransactionJournal journal = new TransactionJournal();
+        for (int i = 0; i < 100; i++) {
+            journal.append(i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW, 1_000L + i, "remarks " + (i % 5));
+        }
+        List<Transaction> transactions = List.copyOf(journal.asList(1L));
+        transactionPageResponse = ResponseResult.success(new GetTransactionResponseModel(transactions, 100L));
+    }
+
+    @Benchmark
+    public byte[] balance() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(balanceResponse);
+    }
+
+    @Benchmark
+    public byte[] transactionPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionPageResponse);
+    }
+}
@@ -0,0 +1,7 @@
+package com.tinybank.management.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+@Threads(1)
+public class SingleThreadLedgerBenchmark extends LedgerBenchmark {
+}
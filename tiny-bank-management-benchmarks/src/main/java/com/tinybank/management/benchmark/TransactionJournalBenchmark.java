@@ -0,0 +1,130 @@
+package com.tinybank.management.benchmark;
+
+import com.tinybank.management.account.SummaryPeriod;
+import com.tinybank.management.account.Transaction;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionSummary;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.persistence.FileHistorySegmentStore;
+import com.tinybank.management.persistence.HistoryStoreProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * History append, random entry reads, reading a page of 100 materialized transactions, and today's
+ * summary from the running aggregates versus a scan of the history, out of a journal of
+ * {@code historySize} entries, either all in memory or with a {@link FileHistorySegmentStore} holding
+ * everything but the most recent 1024 entries.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class TransactionJournalBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String[] REMARKS = {"salary", "rent", "groceries", "transfer"};
+
+    @Param({"1000", "1000000"})
+    public int historySize;
+
+    @Param({"false", "true"})
+    public boolean tiered;
+
+    private Path directory;
+
+    private FileHistorySegmentStore historyStore;
+
+    private TransactionJournal journal;
+
+    private TransactionJournal appendJournal;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUpHistory() throws IOException {
+        if (tiered) {
+            directory = Files.createTempDirectory("journal-history");
+            HistoryStoreProperties properties = new HistoryStoreProperties();
+            properties.setDirectory(directory.toString());
+            historyStore = new FileHistorySegmentStore(properties);
+            historyStore.open();
+        }
+        journal = newJournal();
+        for (int i = 0; i < historySize; i++) {
+            journal.append(i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW, 100L + i, REMARKS[i & 3]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpAppend() {
+        appendJournal = newJournal();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (tiered) {
+            historyStore.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public int append() {
+        return appendJournal.append(TransactionType.DEPOSIT, 100L, REMARKS[cursor++ & 3]);
+    }
+
+    @Benchmark
+    public long readEntry() {
+        int index = (cursor++ * 7919) % historySize;
+        return journal.getAmount(index) + journal.getEpochMicros(index);
+    }
+
+    @Benchmark
+    public void readPage(Blackhole blackhole) {
+        int start = (cursor++ * PAGE_SIZE) % (historySize - PAGE_SIZE + 1);
+        List<Transaction> page = journal.asList(1L, start, start + PAGE_SIZE);
+        for (Transaction transaction : page) {
+            blackhole.consume(transaction);
+        }
+    }
+
+    @Benchmark
+    public TransactionSummary summary() {
+        return journal.summarize(1L, SummaryPeriod.DAY, LocalDate.now());
+    }
+
+    @Benchmark
+    public long summaryByScan() {
+        LocalDate today = LocalDate.now();
+        long deposits = 0L;
+        for (Transaction transaction : journal.asList(1L)) {
+            if (transaction.getTransactionDate().toLocalDate().equals(today) && transaction.getTransactionType() == TransactionType.DEPOSIT) {
+                deposits += (long) (transaction.getAmount() * 100);
+            }
+        }
+        return deposits;
+    }
+
+    private TransactionJournal newJournal() {
+        TransactionJournal newJournal = new TransactionJournal();
+        if (tiered) {
+            newJournal.attachHistoryStore(historyStore, historyStore.getHotEntries());
+        }
+        return newJournal;
+    }
+}
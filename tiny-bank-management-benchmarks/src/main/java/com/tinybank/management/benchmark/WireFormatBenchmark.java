@@ -0,0 +1,86 @@
+package com.tinybank.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.model.account.BalanceResponseModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import com.tinybank.management.wire.BinaryFrames;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wire cost of one request: decoding its body and encoding its response, as JSON with the
+ * {@link ObjectMapper} configuration Spring MVC uses and as {@link BinaryFrames}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private byte[] depositJson;
+
+    private byte[] depositFrame;
+
+    private byte[] transferJson;
+
+    private byte[] transferFrame;
+
+    private ResponseResult<?> successResponse;
+
+    private ResponseResult<BalanceResponseModel> balanceResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        depositJson = objectMapper.writeValueAsBytes(new SingleAccountTransactionRequestModel(1_234_567L, 100.5, "settlement"));
+        depositFrame = BinaryFrames.writeSingleAccountRequest(1_234_567L, 10_050L, "settlement", null);
+        transferJson = objectMapper.writeValueAsBytes(new DualAccountTransactionRequestModel(1_234_567L, 7_654_321L, 100.5, "settlement"));
+        transferFrame = BinaryFrames.writeDualAccountRequest(1_234_567L, 7_654_321L, 10_050L, "settlement", null);
+        successResponse = ResponseResult.success();
+        balanceResponse = ResponseResult.success(new BalanceResponseModel(1234.56));
+    }
+
+    @Benchmark
+    public byte[] depositJson() throws IOException {
+        SingleAccountTransactionRequestModel request = objectMapper.readValue(depositJson, SingleAccountTransactionRequestModel.class);
+        return request.accountId() > 0 ? objectMapper.writeValueAsBytes(successResponse) : null;
+    }
+
+    @Benchmark
+    public byte[] depositBinary() {
+        SingleAccountTransactionRequestModel request = BinaryFrames.readSingleAccountRequest(ByteBuffer.wrap(depositFrame));
+        return request.accountId() > 0 ? BinaryFrames.writeResponse(successResponse) : null;
+    }
+
+    @Benchmark
+    public byte[] transferJson() throws IOException {
+        DualAccountTransactionRequestModel request = objectMapper.readValue(transferJson, DualAccountTransactionRequestModel.class);
+        return request.fromAccountId() > 0 ? objectMapper.writeValueAsBytes(successResponse) : null;
+    }
+
+    @Benchmark
+    public byte[] transferBinary() {
+        DualAccountTransactionRequestModel request = BinaryFrames.readDualAccountRequest(ByteBuffer.wrap(transferFrame));
+        return request.fromAccountId() > 0 ? BinaryFrames.writeResponse(successResponse) : null;
+    }
+
+    @Benchmark
+    public byte[] balanceJson() throws IOException {
+        return objectMapper.writeValueAsBytes(balanceResponse);
+    }
+
+    @Benchmark
+    public byte[] balanceBinary() {
+        return BinaryFrames.writeResponse(balanceResponse);
+    }
+}
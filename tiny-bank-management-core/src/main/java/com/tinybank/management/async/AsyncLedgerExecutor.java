@@ -0,0 +1,132 @@
+package com.tinybank.management.async;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs ledger operations on a dedicated, bounded pool so callers can pipeline them instead of blocking.
+ * <p>
+ * Every operation carries a deadline. An operation still queued when its deadline passes is failed
+ * without being applied; an operation that has started always runs to completion and reports its real
+ * outcome, so a future never reports a timeout for a change that was applied. An operation still queued
+ * when the executor stops is failed as well, so every returned future completes.
+ */
+@Component
+@Slf4j
+public class AsyncLedgerExecutor {
+
+    @FunctionalInterface
+    public interface Operation {
+
+        void run() throws Exception;
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration defaultTimeout;
+
+    @Autowired
+    public AsyncLedgerExecutor(AsyncLedgerProperties properties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "ledger-async-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.defaultTimeout = Duration.ofMillis(properties.getDefaultTimeoutMs());
+    }
+
+    /**
+     * Queues {@code operation}. The returned future completes when it has run, or exceptionally with its
+     * exception, or with {@code failure} applied to a reason when it is rejected or its deadline passes
+     * before it starts. A {@code null} timeout uses the configured default.
+     */
+    public CompletableFuture<Void> submit(Duration timeout, Operation operation, Function<String, ? extends Exception> failure) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long deadline = System.nanoTime() + (Objects.nonNull(timeout) ? timeout : defaultTimeout).toNanos();
+        try {
+            executor.execute(new Task(operation, future, failure, deadline));
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(failure.apply(executor.isShutdown() ? "Executor is stopped" : "Too many pending operations"));
+        }
+        return future;
+    }
+
+    /**
+     * Runs {@code operation} on the calling thread, for callers without an executor.
+     */
+    public static CompletableFuture<Void> runInline(Operation operation) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        run(operation, future);
+        return future;
+    }
+
+    /**
+     * Stops taking operations and waits for the queued ones to run. Operations still queued after that are
+     * dropped and their futures failed with their {@code failure}.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Async ledger executor did not drain, dropped operations: {}", failDropped(executor.shutdownNow()));
+            }
+        } catch (InterruptedException ex) {
+            failDropped(executor.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int failDropped(List<Runnable> dropped) {
+        for (Runnable runnable : dropped) {
+            if (runnable instanceof Task task) {
+                task.future.completeExceptionally(task.failure.apply("Operation dropped while the executor stopped"));
+            }
+        }
+        return dropped.size();
+    }
+
+    /**
+     * Completes {@code future} with the outcome of {@code operation}, whatever it throws. An error is
+     * rethrown once the future is failed with it.
+     */
+    private static void run(Operation operation, CompletableFuture<Void> future) {
+        try {
+            operation.run();
+            future.complete(null);
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+            if (ex instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private record Task(Operation operation, CompletableFuture<Void> future, Function<String, ? extends Exception> failure,
+                        long deadline) implements Runnable {
+
+        @Override
+        public void run() {
+            if (System.nanoTime() - deadline > 0) {
+                future.completeExceptionally(failure.apply("Operation timed out before it started"));
+                return;
+            }
+            AsyncLedgerExecutor.run(operation, future);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.tinybank.management.async;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.async")
+@Data
+public class AsyncLedgerProperties {
+
+    /**
+     * Threads running queued operations. Operations mostly wait for their group commit, so this is sized
+     * for concurrency rather than for the number of processors.
+     */
+    private int threads = 64;
+
+    /**
+     * Maximum number of queued operations; further submissions fail right away.
+     */
+    private int queueCapacity = 65_536;
+
+    /**
+     * Deadline used when the caller does not pass a timeout.
+     */
+    private long defaultTimeoutMs = 5_000L;
+}
@@ -0,0 +1,79 @@
+package com.tinybank.management.auth;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.exception.CreateAccountException;
+import com.tinybank.management.service.AccountCrudService;
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserDirectory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Creates the account of the admin configured by {@code tinybank.auth.admin-user-name} and
+ * {@code admin-password} at startup, after the ledger is recovered, unless that user already exists. Requests
+ * never create admins for themselves, so this is how the first one appears; later admins are created by it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+@Slf4j
+public class AdminBootstrap {
+
+    private final AccountCrudService accountCrudService;
+
+    private final AccountStorageDB accountStorageDB;
+
+    private final AuthProperties properties;
+
+    @Autowired
+    public AdminBootstrap(AccountCrudService accountCrudService, AccountStorageDB accountStorageDB, AuthProperties properties) {
+        this.accountCrudService = accountCrudService;
+        this.accountStorageDB = accountStorageDB;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void createAdmin() {
+        String userName = properties.getAdminUserName();
+        UserDirectory userDirectory = accountStorageDB.getUserDirectory();
+        if (Objects.isNull(userName) || userName.isBlank()) {
+            if (!userDirectory.hasAdmin()) {
+                log.warn("No admin configured and none registered, admin-only endpoints are unavailable");
+            }
+            return;
+        }
+        User existing = userDirectory.getUser(userName);
+        if (Objects.nonNull(existing)) {
+            if (existing.getRole() != Role.ADMIN) {
+                throw new IllegalStateException("Configured admin user name belongs to a user without the ADMIN role: " + userName);
+            }
+            log.info("Admin already registered, userName: {}", userName);
+            return;
+        }
+        if (Objects.isNull(properties.getAdminPassword()) || properties.getAdminPassword().isEmpty()) {
+            throw new IllegalStateException("tinybank.auth.admin-password is required to create admin " + userName);
+        }
+        Account account = new Account();
+        account.setUser(User.builder()
+                .name(userName)
+                .userName(userName)
+                .password(properties.getAdminPassword())
+                .role(Role.ADMIN)
+                .build());
+        try {
+            Account created = accountCrudService.createAccount(account);
+            if (Objects.isNull(created)) {
+                throw new IllegalStateException("Admin account could not be created: " + userName);
+            }
+            log.info("Admin account created, userName: {}, accountId: {}", userName, created.getAccountId());
+        } catch (CreateAccountException ex) {
+            throw new IllegalStateException("Admin account could not be created: " + userName, ex);
+        }
+    }
+}
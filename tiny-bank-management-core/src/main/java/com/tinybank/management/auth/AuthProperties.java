@@ -0,0 +1,38 @@
+package com.tinybank.management.auth;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.auth")
+@Data
+public class AuthProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * PBKDF2 iterations of new password hashes; existing hashes keep the count they were made with.
+     */
+    private int hashIterations = 100_000;
+
+    /**
+     * Lifetime of a session token, counted from login.
+     */
+    private long tokenTtlSeconds = 900;
+
+    /**
+     * Maximum number of live session tokens, oldest evicted first.
+     */
+    private int maxTokens = 100_000;
+
+    /**
+     * User name of the admin created at startup when it does not exist yet; no admin is created when empty.
+     */
+    private String adminUserName;
+
+    /**
+     * Password of that admin, only used to create it.
+     */
+    private String adminPassword;
+}
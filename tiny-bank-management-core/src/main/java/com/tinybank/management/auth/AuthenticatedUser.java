@@ -0,0 +1,17 @@
+package com.tinybank.management.auth;
+
+import com.tinybank.management.user.Role;
+
+/**
+ * The user a session token was issued to, as verified at login.
+ */
+public record AuthenticatedUser(long userId, String userName, Role role, long expiresAtNanos) {
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    boolean isExpired(long now) {
+        return now - expiresAtNanos > 0;
+    }
+}
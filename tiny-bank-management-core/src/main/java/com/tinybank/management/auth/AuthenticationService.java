@@ -0,0 +1,110 @@
+package com.tinybank.management.auth;
+
+import com.tinybank.management.exception.AuthenticationException;
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies a password once, at login, and issues a random session token that later requests present
+ * instead; {@link #authenticate(String)} is a cache lookup. A user may access the accounts listed for them
+ * in the {@link UserDirectory}; an admin may access every account.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+@Slf4j
+public class AuthenticationService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final AccountStorageDB accountStorageDB;
+
+    private final PasswordHasher passwordHasher;
+
+    private final SessionTokenCache tokenCache;
+
+    private final long tokenTtlSeconds;
+
+    private final SecureRandom random;
+
+    /**
+     * Checked against for unknown user names, so they take as long to reject as a wrong password.
+     */
+    private final String unknownUserHash;
+
+    @Autowired
+    public AuthenticationService(AccountStorageDB accountStorageDB, PasswordHasher passwordHasher, SessionTokenCache tokenCache, AuthProperties properties) {
+        this.accountStorageDB = accountStorageDB;
+        this.passwordHasher = passwordHasher;
+        this.tokenCache = tokenCache;
+        this.tokenTtlSeconds = properties.getTokenTtlSeconds();
+        this.random = new SecureRandom();
+        this.unknownUserHash = passwordHasher.hash("unknown user");
+    }
+
+    public SessionToken login(String userName, String password) throws AuthenticationException {
+        User user = accountStorageDB.getUserDirectory().getUser(userName);
+        boolean matches = passwordHasher.matches(password, Objects.nonNull(user) ? user.getPassword() : unknownUserHash);
+        if (Objects.isNull(user) || !matches) {
+            log.info("Login failed, userName: {}", userName);
+            throw new AuthenticationException();
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Role role = Objects.nonNull(user.getRole()) ? user.getRole() : Role.USER;
+        tokenCache.put(token, new AuthenticatedUser(user.getId(), user.getUserName(), role, System.nanoTime() + TimeUnit.SECONDS.toNanos(tokenTtlSeconds)));
+        return new SessionToken(token, tokenTtlSeconds);
+    }
+
+    /**
+     * Returns the user of a live session token, or {@code null}.
+     */
+    public AuthenticatedUser authenticate(String token) {
+        return Objects.nonNull(token) ? tokenCache.get(token) : null;
+    }
+
+    public void logout(String token) {
+        if (Objects.nonNull(token)) {
+            tokenCache.remove(token);
+        }
+    }
+
+    public boolean canAccessAccount(AuthenticatedUser user, long accountId) {
+        return user.isAdmin() || accountStorageDB.getUserDirectory().isOwner(user.userId(), accountId);
+    }
+
+    public boolean canAccessUser(AuthenticatedUser user, String userName, Long userId) {
+        if (user.isAdmin()) {
+            return true;
+        }
+        return (Objects.isNull(userName) || userName.equals(user.userName())) && (Objects.isNull(userId) || userId == user.userId());
+    }
+
+    /**
+     * Whether a new account for {@code userName} with {@code role} may be created by {@code user}, who is
+     * {@code null} when the request is anonymous. Anyone may sign up as a new user; accounts of an existing
+     * user need that user or an admin, and admins are only created by admins, the first one by
+     * {@link AdminBootstrap}.
+     */
+    public boolean canCreateAccount(AuthenticatedUser user, String userName, Role role) {
+        if (Objects.nonNull(user) && user.isAdmin()) {
+            return true;
+        }
+        if (role == Role.ADMIN) {
+            return false;
+        }
+        User existing = Objects.nonNull(userName) ? accountStorageDB.getUserDirectory().getUser(userName) : null;
+        return Objects.isNull(existing) || (Objects.nonNull(user) && userName.equals(user.userName()));
+    }
+}
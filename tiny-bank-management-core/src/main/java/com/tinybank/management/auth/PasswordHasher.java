@@ -0,0 +1,91 @@
+package com.tinybank.management.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes, encoded as {@code pbkdf2-sha256$iterations$salt$hash}. A
+ * stored password without that prefix predates hashing and is compared as plain text, in constant time.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+public class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256$";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final int SALT_BYTES = 16;
+
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+
+    private final SecureRandom random;
+
+    @Autowired
+    public PasswordHasher(AuthProperties properties) {
+        this(properties.getHashIterations());
+    }
+
+    public PasswordHasher(int iterations) {
+        this.iterations = iterations;
+        this.random = new SecureRandom();
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    public boolean isHashed(String storedPassword) {
+        return Objects.nonNull(storedPassword) && storedPassword.startsWith(PREFIX);
+    }
+
+    /**
+     * Checks {@code password} against {@code storedPassword}; costs a full key derivation for a hash. A
+     * malformed hash matches nothing.
+     */
+    public boolean matches(String password, String storedPassword) {
+        if (Objects.isNull(password) || Objects.isNull(storedPassword)) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = storedPassword.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[2]);
+            return MessageDigest.isEqual(expected, derive(password, decoder.decode(parts[1]), Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Password hash could not be derived", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.tinybank.management.auth;
+
+public record SessionToken(String token, long expiresInSeconds) {
+}
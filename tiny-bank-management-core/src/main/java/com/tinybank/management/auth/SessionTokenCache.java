@@ -0,0 +1,97 @@
+package com.tinybank.management.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live session tokens and the users they were issued to, so a request is authenticated with one map
+ * lookup instead of a password hash. Tokens live for a fixed TTL, so insertion order is also expiry order:
+ * like the idempotency cache, a FIFO queue of tokens drives eviction of expired tokens and of the oldest
+ * tokens once {@code maxTokens} is exceeded.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+public class SessionTokenCache {
+
+    private final Map<String, AuthenticatedUser> tokens;
+
+    private final Queue<String> insertionOrder;
+
+    private final ReentrantLock evictionLock;
+
+    private final int maxTokens;
+
+    @Autowired
+    public SessionTokenCache(AuthProperties properties) {
+        this(properties.getMaxTokens());
+    }
+
+    public SessionTokenCache(int maxTokens) {
+        this.tokens = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.evictionLock = new ReentrantLock();
+        this.maxTokens = maxTokens;
+    }
+
+    public void put(String token, AuthenticatedUser user) {
+        tokens.put(token, user);
+        insertionOrder.add(token);
+        evict(System.nanoTime());
+    }
+
+    /**
+     * Returns the user of {@code token}, or {@code null} when it is unknown, expired or evicted.
+     */
+    public AuthenticatedUser get(String token) {
+        AuthenticatedUser user = tokens.get(token);
+        if (Objects.isNull(user)) {
+            return null;
+        }
+        if (user.isExpired(System.nanoTime())) {
+            tokens.remove(token, user);
+            return null;
+        }
+        return user;
+    }
+
+    public void remove(String token) {
+        tokens.remove(token);
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Drops expired, surplus and already removed tokens from the head of the queue. Only one thread evicts
+     * at a time, so the head it inspects is the head it removes.
+     */
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            String head;
+            while (Objects.nonNull(head = insertionOrder.peek())) {
+                AuthenticatedUser user = tokens.get(head);
+                if (Objects.nonNull(user) && tokens.size() <= maxTokens && !user.isExpired(now)) {
+                    break;
+                }
+                insertionOrder.poll();
+                if (Objects.nonNull(user)) {
+                    tokens.remove(head, user);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
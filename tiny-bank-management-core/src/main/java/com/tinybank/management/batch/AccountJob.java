@@ -0,0 +1,64 @@
+package com.tinybank.management.batch;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionJournal;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A job run over every account by {@link EndOfDayBatchRunner}. {@link #apply(Account, LocalDate)} is called
+ * while the account's journal is held, at most once per account and business date, and changes the balance
+ * through the account like any other deposit or withdrawal, so its entries are journaled and logged.
+ */
+public interface AccountJob {
+
+    String getName();
+
+    /**
+     * Applies the job to {@code account}; returns {@code false} when there was nothing to do.
+     */
+    boolean apply(Account account, LocalDate businessDate);
+
+    /**
+     * Called before the first account of a run, including a resumed one.
+     */
+    default void begin(LocalDate businessDate) {
+    }
+
+    /**
+     * Makes everything applied so far durable; called before progress is checkpointed.
+     */
+    default void sync() {
+    }
+
+    /**
+     * Called once the run is over, whether it completed or was stopped.
+     */
+    default void end(LocalDate businessDate) {
+    }
+
+    /**
+     * Remarks of the entries this job appends for {@code businessDate}.
+     */
+    default String remarks(LocalDate businessDate) {
+        return getName() + " " + businessDate;
+    }
+
+    /**
+     * Whether an interrupted run already applied the job to {@code account}. Only asked for the accounts of
+     * chunks that were not checkpointed; looks for an entry with {@link #remarks(LocalDate)} appended since
+     * the run started.
+     */
+    default boolean isApplied(Account account, LocalDate businessDate, long sinceEpochMicros) {
+        TransactionJournal journal = account.getJournal();
+        String remarks = remarks(businessDate);
+        int size = journal.size();
+        for (int index = journal.indexAtOrAfter(sinceEpochMicros, size); index < size; index++) {
+            if (Objects.equals(remarks, journal.getRemarks(index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
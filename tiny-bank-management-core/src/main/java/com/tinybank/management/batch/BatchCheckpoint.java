@@ -0,0 +1,173 @@
+package com.tinybank.management.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Progress of one run of a job for one business date: the account id range it covers, split into chunks of
+ * consecutive ids, and a bitmap of the completed chunks. A chunk is only marked once its changes are
+ * durable. The file is replaced atomically and forced on every write.
+ * <pre>
+ * magic, startedEpochMicros, maxAccountId, chunkSize, finished, bitmapWords, bitmapWords x word
+ * </pre>
+ */
+final class BatchCheckpoint {
+
+    private static final int MAGIC = 0x54424243;
+
+    private final Path file;
+
+    private final long startedEpochMicros;
+
+    private final long maxAccountId;
+
+    private final int chunkSize;
+
+    private final int chunkCount;
+
+    private final boolean resumed;
+
+    private final AtomicLongArray completed;
+
+    private volatile boolean finished;
+
+    private BatchCheckpoint(Path file, long startedEpochMicros, long maxAccountId, int chunkSize, boolean resumed, boolean finished, long[] words) {
+        this.file = file;
+        this.startedEpochMicros = startedEpochMicros;
+        this.maxAccountId = maxAccountId;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) ((maxAccountId + chunkSize - 1) / chunkSize);
+        this.resumed = resumed;
+        this.finished = finished;
+        this.completed = new AtomicLongArray(words);
+    }
+
+    /**
+     * Loads the checkpoint of an earlier run from {@code file}, or starts a new one over the ids up to
+     * {@code maxAccountId} and writes it.
+     */
+    static BatchCheckpoint open(Path file, long startedEpochMicros, long maxAccountId, int chunkSize) throws IOException {
+        if (Files.exists(file)) {
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+                if (input.readInt() != MAGIC) {
+                    throw new IOException("Not a batch checkpoint: " + file);
+                }
+                long started = input.readLong();
+                long maxId = input.readLong();
+                int size = input.readInt();
+                boolean finished = input.readBoolean();
+                long[] words = new long[input.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = input.readLong();
+                }
+                return new BatchCheckpoint(file, started, maxId, size, true, finished, words);
+            }
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        long chunks = (maxAccountId + chunkSize - 1) / chunkSize;
+        if (chunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many chunks for chunk size " + chunkSize + ": " + chunks);
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        BatchCheckpoint checkpoint = new BatchCheckpoint(file, startedEpochMicros, maxAccountId, chunkSize, false, false,
+                new long[(int) ((chunks + 63) >>> 6)]);
+        checkpoint.write(false);
+        return checkpoint;
+    }
+
+    long getStartedEpochMicros() {
+        return startedEpochMicros;
+    }
+
+    long getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Whether the checkpoint was left by an earlier, interrupted run; the changes of its uncompleted chunks
+     * may then be partly applied.
+     */
+    boolean isResumed() {
+        return resumed;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    boolean isCompleted(int chunk) {
+        return (completed.get(chunk >>> 6) & (1L << chunk)) != 0;
+    }
+
+    void markCompleted(int chunk) {
+        long bit = 1L << chunk;
+        completed.getAndUpdate(chunk >>> 6, word -> word | bit);
+    }
+
+    int getCompletedCount() {
+        int count = 0;
+        for (int i = 0; i < completed.length(); i++) {
+            count += Long.bitCount(completed.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Copies the completed chunks, for a {@link #write(long[], boolean)} once everything they cover is durable.
+     */
+    long[] completedChunks() {
+        long[] words = new long[completed.length()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = completed.get(i);
+        }
+        return words;
+    }
+
+    void write(boolean finished) throws IOException {
+        write(completedChunks(), finished);
+    }
+
+    synchronized void write(long[] words, boolean finished) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + words.length * 8);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeLong(startedEpochMicros);
+            output.writeLong(maxAccountId);
+            output.writeInt(chunkSize);
+            output.writeBoolean(finished);
+            output.writeInt(words.length);
+            for (long word : words) {
+                output.writeLong(word);
+            }
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.finished = finished;
+    }
+}
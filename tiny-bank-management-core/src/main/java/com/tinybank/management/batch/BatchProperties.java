@@ -0,0 +1,62 @@
+package com.tinybank.management.batch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.batch")
+@Data
+public class BatchProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the checkpoints of the runs and the statement files.
+     */
+    private String directory = "./data/batch";
+
+    /**
+     * Worker threads of a run; {@code 0} uses half of the available processors, at least one, so a run
+     * never takes every core from the request threads.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Consecutive account ids processed, made durable and checkpointed as a unit.
+     */
+    private int chunkSize = 4096;
+
+    /**
+     * Upper bound on the accounts processed per second by a run; {@code 0} does not throttle.
+     */
+    private long maxAccountsPerSecond = 0;
+
+    /**
+     * Minimum delay between two checkpoint writes of a run.
+     */
+    private long checkpointIntervalMs = 1000;
+
+    /**
+     * Spring cron expression of the nightly run; empty disables it.
+     */
+    private String cron = "";
+
+    /**
+     * Jobs of the nightly run, in order.
+     */
+    private List<String> jobs = new ArrayList<>();
+
+    /**
+     * Yearly interest rate credited daily by the interest accrual job, in basis points.
+     */
+    private long interestRateBasisPoints = 0;
+
+    /**
+     * Fee charged by the maintenance fee job, capped at the balance.
+     */
+    private double maintenanceFee = 0.0;
+}
@@ -0,0 +1,15 @@
+package com.tinybank.management.batch;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one run of a job: accounts visited, accounts the job changed, accounts skipped because an
+ * interrupted run had already processed them, and accounts whose job failed.
+ */
+public record BatchRunResult(String job, LocalDate businessDate, BatchRunStatus status,
+                             long accounts, long applied, long skipped, long failed, long elapsedNanos) {
+
+    public double accountsPerSecond() {
+        return elapsedNanos > 0 ? accounts / (elapsedNanos / 1_000_000_000.0) : 0.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.tinybank.management.batch;
+
+public enum BatchRunStatus {
+
+    COMPLETED,
+
+    /**
+     * Stopped before every account was processed; running the job again for the same business date resumes it.
+     */
+    STOPPED,
+
+    /**
+     * The job had already completed for the business date, so nothing was processed.
+     */
+    ALREADY_COMPLETED
+}
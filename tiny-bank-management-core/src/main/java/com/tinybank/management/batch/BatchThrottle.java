@@ -0,0 +1,34 @@
+package com.tinybank.management.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the workers of a run to a number of accounts per second: every chunk reserves its share of time
+ * after the previous reservation and waits for it to start. Time a run falls behind is not caught up later.
+ */
+final class BatchThrottle {
+
+    private final long nanosPerAccount;
+
+    private final AtomicLong nextStart;
+
+    BatchThrottle(long maxAccountsPerSecond) {
+        this.nanosPerAccount = maxAccountsPerSecond > 0 ? Math.max(1L, TimeUnit.SECONDS.toNanos(1) / maxAccountsPerSecond) : 0L;
+        this.nextStart = new AtomicLong(System.nanoTime());
+    }
+
+    void acquire(long accounts) {
+        if (nanosPerAccount == 0L) {
+            return;
+        }
+        long now = System.nanoTime();
+        long cost = accounts * nanosPerAccount;
+        long start = Math.max(nextStart.getAndAccumulate(cost, (previous, reserved) -> Math.max(previous, now) + reserved), now);
+        long remaining;
+        while ((remaining = start - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
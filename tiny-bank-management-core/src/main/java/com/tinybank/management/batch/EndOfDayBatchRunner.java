@@ -0,0 +1,314 @@
+package com.tinybank.management.batch;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.engine.PartitionedLedgerEngine;
+import com.tinybank.management.service.AccountStorageDB;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs an {@link AccountJob} over every account of the ledger on a dedicated fork/join pool. The account id
+ * range is split into chunks of {@code tinybank.batch.chunk-size} consecutive ids, which the pool's workers
+ * divide among themselves by recursive halving. Each account is processed while its journal is held, so the
+ * job's balance change is ordered with concurrent requests and journaled and logged like any deposit or
+ * withdrawal; with the partitioned engine enabled, the accounts of a chunk are processed on their shards.
+ * <p>
+ * A chunk is checkpointed once its changes are durable, so a stopped or crashed run resumes with the chunks
+ * it had not completed. Accounts of those chunks that the job already changed are recognised by the remarks
+ * of its journal entries and skipped. Runs are throttled by a bounded parallelism and an optional number of
+ * accounts per second, so requests keep being served while a run is in progress.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.batch", name = "enabled", havingValue = "true")
+@Slf4j
+public class EndOfDayBatchRunner {
+
+    private final AccountStorageDB accountStorageDB;
+
+    private final BatchProperties properties;
+
+    private final Map<String, AccountJob> jobs;
+
+    /**
+     * When the partitioned engine is enabled, accounts are processed on the shards owning them.
+     */
+    @Autowired(required = false)
+    private PartitionedLedgerEngine partitionedLedgerEngine;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private volatile boolean stopRequested;
+
+    private volatile boolean closed;
+
+    @Autowired
+    public EndOfDayBatchRunner(AccountStorageDB accountStorageDB, BatchProperties properties, List<AccountJob> jobs) {
+        this.accountStorageDB = accountStorageDB;
+        this.properties = properties;
+        this.jobs = new LinkedHashMap<>();
+        for (AccountJob job : jobs) {
+            this.jobs.put(job.getName(), job);
+        }
+    }
+
+    public EndOfDayBatchRunner(AccountStorageDB accountStorageDB, BatchProperties properties, List<AccountJob> jobs,
+                               PartitionedLedgerEngine partitionedLedgerEngine) {
+        this(accountStorageDB, properties, jobs);
+        this.partitionedLedgerEngine = partitionedLedgerEngine;
+    }
+
+    public List<String> getJobNames() {
+        return new ArrayList<>(jobs.keySet());
+    }
+
+    /**
+     * Runs {@code jobName} for {@code businessDate} over the accounts that existed when it first started,
+     * resuming an earlier run of the same job and date that did not complete. Only one run is in progress at
+     * a time.
+     */
+    public BatchRunResult run(String jobName, LocalDate businessDate) {
+        AccountJob job = jobs.get(jobName);
+        if (Objects.isNull(job)) {
+            throw new IllegalArgumentException("Unknown batch job: " + jobName);
+        }
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("A batch run is already in progress");
+        }
+        try {
+            if (closed) {
+                throw new IllegalStateException("Batch runner is closed");
+            }
+            stopRequested = false;
+            return execute(job, businessDate);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Batch checkpoint failed, job: " + jobName + ", businessDate: " + businessDate, ex);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the run in progress, if any, after the accounts being processed; it can be resumed later.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        stop();
+    }
+
+    private BatchRunResult execute(AccountJob job, LocalDate businessDate) throws IOException {
+        long start = System.nanoTime();
+        Path file = Paths.get(properties.getDirectory()).resolve(job.getName() + "-" + businessDate + ".checkpoint");
+        BatchCheckpoint checkpoint = BatchCheckpoint.open(file, TransactionJournal.toEpochMicros(LocalDateTime.now()),
+                accountStorageDB.getMaxAccountId(), properties.getChunkSize());
+        if (checkpoint.isFinished()) {
+            log.info("Batch run already completed, job: {}, businessDate: {}", job.getName(), businessDate);
+            return new BatchRunResult(job.getName(), businessDate, BatchRunStatus.ALREADY_COMPLETED, 0L, 0L, 0L, 0L, System.nanoTime() - start);
+        }
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        log.info("Start of batch run, job: {}, businessDate: {}, maxAccountId: {}, chunks: {}, completedChunks: {}, parallelism: {}",
+                job.getName(), businessDate, checkpoint.getMaxAccountId(), checkpoint.getChunkCount(), checkpoint.getCompletedCount(), parallelism);
+        Run run = new Run(job, businessDate, checkpoint);
+        job.begin(businessDate);
+        ForkJoinPool pool = new ForkJoinPool(parallelism, EndOfDayBatchRunner::newWorker, null, false);
+        try {
+            pool.invoke(new ChunkRangeTask(run, 0, checkpoint.getChunkCount()));
+            boolean completed = checkpoint.getCompletedCount() == checkpoint.getChunkCount();
+            run.saveCheckpoint(completed);
+            BatchRunResult result = new BatchRunResult(job.getName(), businessDate, completed ? BatchRunStatus.COMPLETED : BatchRunStatus.STOPPED,
+                    run.accounts.sum(), run.applied.sum(), run.skipped.sum(), run.failed.sum(), System.nanoTime() - start);
+            log.info("End of batch run, job: {}, businessDate: {}, status: {}, accounts: {}, applied: {}, skipped: {}, failed: {}, durationMs: {}, accountsPerSecond: {}",
+                    job.getName(), businessDate, result.status(), result.accounts(), result.applied(), result.skipped(), result.failed(),
+                    TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()), Math.round(result.accountsPerSecond()));
+            return result;
+        } finally {
+            pool.shutdown();
+            job.end(businessDate);
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("eod-batch-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    /**
+     * State of one run, shared by the workers.
+     */
+    private final class Run {
+
+        private final AccountJob job;
+
+        private final LocalDate businessDate;
+
+        private final BatchCheckpoint checkpoint;
+
+        private final BatchThrottle throttle;
+
+        private final ReentrantLock checkpointLock = new ReentrantLock();
+
+        private volatile long lastCheckpointNanos = System.nanoTime();
+
+        private final LongAdder accounts = new LongAdder();
+
+        private final LongAdder applied = new LongAdder();
+
+        private final LongAdder skipped = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private Run(AccountJob job, LocalDate businessDate, BatchCheckpoint checkpoint) {
+            this.job = job;
+            this.businessDate = businessDate;
+            this.checkpoint = checkpoint;
+            this.throttle = new BatchThrottle(properties.getMaxAccountsPerSecond());
+        }
+
+        private void processChunk(int chunk) {
+            if (stopRequested || checkpoint.isCompleted(chunk)) {
+                return;
+            }
+            long first = (long) chunk * checkpoint.getChunkSize() + 1;
+            long last = Math.min(first + checkpoint.getChunkSize() - 1, checkpoint.getMaxAccountId());
+            throttle.acquire(last - first + 1);
+            boolean processed;
+            if (Objects.isNull(partitionedLedgerEngine)) {
+                processed = processAccounts(first, last, 1);
+            } else {
+                processed = processOnShards(first, last);
+            }
+            if (!processed) {
+                return;
+            }
+            accountStorageDB.awaitDurable();
+            checkpoint.markCompleted(chunk);
+            if (System.nanoTime() - lastCheckpointNanos >= TimeUnit.MILLISECONDS.toNanos(properties.getCheckpointIntervalMs())
+                    && checkpointLock.tryLock()) {
+                try {
+                    saveCheckpoint(false);
+                } finally {
+                    checkpointLock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Hands each shard the accounts of the chunk it owns, as a single task.
+         */
+        private boolean processOnShards(long first, long last) {
+            int shards = partitionedLedgerEngine.getShardCount();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards && shard <= last - first; shard++) {
+                long shardFirst = first + shard;
+                futures.add(partitionedLedgerEngine.execute(shardFirst, () -> processAccounts(shardFirst, last, shards)));
+            }
+            boolean processed = true;
+            for (CompletableFuture<Boolean> future : futures) {
+                processed &= PartitionedLedgerEngine.join(future);
+            }
+            return processed;
+        }
+
+        /**
+         * Returns {@code false} when the run was stopped before every account was processed.
+         */
+        private boolean processAccounts(long first, long last, int step) {
+            for (long accountId = first; accountId <= last; accountId += step) {
+                if (stopRequested) {
+                    return false;
+                }
+                Account account = accountStorageDB.findAccount(accountId);
+                if (Objects.nonNull(account)) {
+                    account.getJournal().runExclusively(() -> processAccount(account));
+                }
+            }
+            return true;
+        }
+
+        private void processAccount(Account account) {
+            accounts.increment();
+            try {
+                if (checkpoint.isResumed() && job.isApplied(account, businessDate, checkpoint.getStartedEpochMicros())) {
+                    skipped.increment();
+                } else if (job.apply(account, businessDate)) {
+                    applied.increment();
+                }
+            } catch (RuntimeException ex) {
+                failed.increment();
+                log.error("Error in batch job, job: {}, businessDate: {}, accountId: {}", job.getName(), businessDate, account.getAccountId(), ex);
+            }
+        }
+
+        /**
+         * Takes the completed chunks before syncing the job, so whatever the job wrote for them is synced.
+         */
+        private void saveCheckpoint(boolean finished) {
+            long[] completedChunks = checkpoint.completedChunks();
+            job.sync();
+            try {
+                checkpoint.write(completedChunks, finished);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Batch checkpoint could not be written, job: " + job.getName(), ex);
+            }
+            lastCheckpointNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Processes the chunks {@code [from, to)}, halving the range until a task holds a single chunk.
+     */
+    private static final class ChunkRangeTask extends RecursiveAction {
+
+        private final Run run;
+
+        private final int from;
+
+        private final int to;
+
+        private ChunkRangeTask(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    run.processChunk(from);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkRangeTask(run, from, middle), new ChunkRangeTask(run, middle, to));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tinybank.management.batch;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the jobs of {@code tinybank.batch.jobs}, in order, at every {@code tinybank.batch.cron} for the
+ * business date of the previous day, so the cron expression should fire after midnight. A run that is
+ * stopped, for instance by a shutdown, is not retried: running its job again for the same date resumes it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.batch", name = "enabled", havingValue = "true")
+@Slf4j
+public class EndOfDayBatchScheduler {
+
+    private final EndOfDayBatchRunner runner;
+
+    private final BatchProperties properties;
+
+    private ScheduledExecutorService executor;
+
+    private CronExpression cron;
+
+    @Autowired
+    public EndOfDayBatchScheduler(EndOfDayBatchRunner runner, BatchProperties properties) {
+        this.runner = runner;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.getCron().isBlank()) {
+            log.info("End of day batch is not scheduled, jobs: {}", runner.getJobNames());
+            return;
+        }
+        cron = CronExpression.parse(properties.getCron());
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eod-batch-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNext();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void scheduleNext() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = cron.next(now);
+        if (next == null) {
+            log.info("End of day batch has no further run, cron: {}", properties.getCron());
+            return;
+        }
+        executor.schedule(this::runJobs, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+        log.info("End of day batch scheduled, next: {}, jobs: {}", next, properties.getJobs());
+    }
+
+    private void runJobs() {
+        LocalDate businessDate = LocalDate.now().minusDays(1);
+        try {
+            for (String job : properties.getJobs()) {
+                try {
+                    if (runner.run(job, businessDate).status() == BatchRunStatus.STOPPED) {
+                        break;
+                    }
+                } catch (Exception ex) {
+                    log.error("Error in end of day batch, job: {}, businessDate: {}", job, businessDate, ex);
+                }
+            }
+        } finally {
+            scheduleNext();
+        }
+    }
+}
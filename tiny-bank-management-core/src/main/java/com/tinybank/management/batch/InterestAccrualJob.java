@@ -0,0 +1,42 @@
+package com.tinybank.management.batch;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.MinorUnits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Credits one day of interest at {@code tinybank.batch.interest-rate-basis-points} a year on the balance,
+ * rounded down to a minor unit.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.batch", name = "enabled", havingValue = "true")
+public class InterestAccrualJob implements AccountJob {
+
+    public static final String NAME = "interest-accrual";
+
+    private final double dailyRate;
+
+    @Autowired
+    public InterestAccrualJob(BatchProperties properties) {
+        this(properties.getInterestRateBasisPoints());
+    }
+
+    public InterestAccrualJob(long interestRateBasisPoints) {
+        this.dailyRate = interestRateBasisPoints / 10_000.0 / 365;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean apply(Account account, LocalDate businessDate) {
+        long interestMinorUnits = (long) (account.getBalanceMinorUnits() * dailyRate);
+        return interestMinorUnits > 0 && account.addBalance(MinorUnits.toMajor(interestMinorUnits), remarks(businessDate));
+    }
+}
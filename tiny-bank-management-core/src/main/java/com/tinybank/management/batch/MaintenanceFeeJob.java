@@ -0,0 +1,44 @@
+package com.tinybank.management.batch;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.MinorUnits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Charges {@code tinybank.batch.maintenance-fee}, or the whole balance when it is lower.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.batch", name = "enabled", havingValue = "true")
+public class MaintenanceFeeJob implements AccountJob {
+
+    public static final String NAME = "maintenance-fee";
+
+    private final long feeMinorUnits;
+
+    @Autowired
+    public MaintenanceFeeJob(BatchProperties properties) {
+        this(properties.getMaintenanceFee());
+    }
+
+    public MaintenanceFeeJob(double maintenanceFee) {
+        this.feeMinorUnits = MinorUnits.toMinorUnits(maintenanceFee);
+        if (feeMinorUnits == MinorUnits.INVALID) {
+            throw new IllegalArgumentException("Invalid maintenance fee: " + maintenanceFee);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean apply(Account account, LocalDate businessDate) {
+        long chargeMinorUnits = Math.min(feeMinorUnits, account.getBalanceMinorUnits());
+        return chargeMinorUnits > 0 && account.subtractBalance(MinorUnits.toMajor(chargeMinorUnits), remarks(businessDate));
+    }
+}
@@ -0,0 +1,127 @@
+package com.tinybank.management.batch;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.MinorUnits;
+import com.tinybank.management.account.SummaryPeriod;
+import com.tinybank.management.account.TransactionSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Cuts the statement of the month containing the business date: appends the month's deposit and
+ * withdrawal totals and the closing balance of every account to {@code statements-<date>.csv}. The job
+ * journals nothing, so the accounts of a chunk interrupted by a crash may be written twice; consumers keep
+ * the last line of an account.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.batch", name = "enabled", havingValue = "true")
+@Slf4j
+public class StatementCutoffJob implements AccountJob {
+
+    public static final String NAME = "statement-cutoff";
+
+    static final String HEADER = "accountId,periodStart,cutoffDate,depositCount,depositAmount,withdrawalCount,withdrawalAmount,closingBalance";
+
+    private final Path directory;
+
+    private FileOutputStream output;
+
+    private BufferedWriter writer;
+
+    @Autowired
+    public StatementCutoffJob(BatchProperties properties) {
+        this(Paths.get(properties.getDirectory()));
+    }
+
+    public StatementCutoffJob(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    public Path statementFile(LocalDate businessDate) {
+        return directory.resolve("statements-" + businessDate + ".csv");
+    }
+
+    @Override
+    public synchronized void begin(LocalDate businessDate) {
+        Path file = statementFile(businessDate);
+        try {
+            Files.createDirectories(directory);
+            boolean exists = Files.exists(file);
+            output = new FileOutputStream(file.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            if (!exists) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Statement file could not be opened: " + file, ex);
+        }
+    }
+
+    @Override
+    public boolean apply(Account account, LocalDate businessDate) {
+        TransactionSummary summary = account.getJournal().summarize(account.getAccountId(), SummaryPeriod.MONTH, businessDate);
+        String line = account.getAccountId() + "," + summary.getPeriodStart() + "," + businessDate + ","
+                + summary.getDepositCount() + "," + summary.getDepositAmount() + ","
+                + summary.getWithdrawalCount() + "," + summary.getWithdrawalAmount() + ","
+                + MinorUnits.toMajor(account.getBalanceMinorUnits());
+        synchronized (this) {
+            try {
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Statement could not be written, accountId: " + account.getAccountId(), ex);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isApplied(Account account, LocalDate businessDate, long sinceEpochMicros) {
+        return false;
+    }
+
+    @Override
+    public synchronized void sync() {
+        try {
+            writer.flush();
+            output.getChannel().force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Statement file could not be flushed, directory: " + directory, ex);
+        }
+    }
+
+    @Override
+    public synchronized void end(LocalDate businessDate) {
+        if (Objects.isNull(writer)) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            log.error("Error in closing statement file, businessDate: {}", businessDate, ex);
+        } finally {
+            writer = null;
+            output = null;
+        }
+    }
+}
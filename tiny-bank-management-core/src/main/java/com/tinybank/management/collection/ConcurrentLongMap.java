@@ -0,0 +1,437 @@
+package com.tinybank.management.collection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Concurrent hash map keyed by primitive {@code long}, so keys are never boxed and an entry costs a key
+ * and a reference slot instead of a node, a boxed key and a table slot.
+ * <p>
+ * Keys are spread over independently locked segments, each an open-addressing table with linear probing.
+ * Reads take no lock. A slot's key is written once per table, after its value and with release semantics,
+ * so a reader that sees the key also sees the value; removing an entry only clears its value, leaving a
+ * tombstone that a later put of the same key reuses. Tables are rebuilt without tombstones when they grow
+ * and published through a volatile field, so a reader always probes a consistent table.
+ * <p>
+ * Iteration is weakly consistent, like {@link java.util.concurrent.ConcurrentHashMap}'s. Null values are not
+ * supported.
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final int SEGMENT_BITS = 6;
+
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    /**
+     * Occupied slots, tombstones included, per slot before a table is rebuilt.
+     */
+    private static final float MAX_LOAD = 0.6f;
+
+    /**
+     * Marks a free slot. Key {@code 0} itself is kept outside the tables.
+     */
+    private static final long FREE = 0L;
+
+    private final Segment<V>[] segments;
+
+    private final ReentrantLock zeroLock;
+
+    private volatile V zeroValue;
+
+    public ConcurrentLongMap() {
+        this(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap(int expectedSize) {
+        int segmentCapacity = tableCapacity(expectedSize / SEGMENT_COUNT + 1);
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        zeroLock = new ReentrantLock();
+    }
+
+    public V get(long key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        long hash = mix(key);
+        return segmentFor(hash).get(key, (int) hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates {@code value} with {@code key} and returns the previous value, or {@code null}.
+     */
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        if (key == FREE) {
+            zeroLock.lock();
+            try {
+                V previous = zeroValue;
+                zeroValue = value;
+                return previous;
+            } finally {
+                zeroLock.unlock();
+            }
+        }
+        long hash = mix(key);
+        return segmentFor(hash).put(key, (int) hash, value, true);
+    }
+
+    /**
+     * Associates {@code value} with {@code key} unless it already has a value, which is returned instead.
+     */
+    public V putIfAbsent(long key, V value) {
+        Objects.requireNonNull(value);
+        if (key == FREE) {
+            zeroLock.lock();
+            try {
+                V previous = zeroValue;
+                if (previous == null) {
+                    zeroValue = value;
+                }
+                return previous;
+            } finally {
+                zeroLock.unlock();
+            }
+        }
+        long hash = mix(key);
+        return segmentFor(hash).put(key, (int) hash, value, false);
+    }
+
+    /**
+     * Returns the value of {@code key}, first computing it with {@code mappingFunction} while holding the
+     * key's segment if it has none.
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        if (key == FREE) {
+            zeroLock.lock();
+            try {
+                if (zeroValue == null) {
+                    zeroValue = Objects.requireNonNull(mappingFunction.apply(key));
+                }
+                return zeroValue;
+            } finally {
+                zeroLock.unlock();
+            }
+        }
+        long hash = mix(key);
+        return segmentFor(hash).computeIfAbsent(key, (int) hash, mappingFunction);
+    }
+
+    /**
+     * Removes {@code key} and returns its value, or {@code null} when it had none.
+     */
+    public V remove(long key) {
+        if (key == FREE) {
+            zeroLock.lock();
+            try {
+                V previous = zeroValue;
+                zeroValue = null;
+                return previous;
+            } finally {
+                zeroLock.unlock();
+            }
+        }
+        long hash = mix(key);
+        return segmentFor(hash).remove(key, (int) hash);
+    }
+
+    public int size() {
+        int size = zeroValue != null ? 1 : 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void forEach(ObjLongConsumer<? super V> action) {
+        V zero = zeroValue;
+        if (zero != null) {
+            action.accept(zero, FREE);
+        }
+        for (Segment<V> segment : segments) {
+            Table table = segment.table;
+            for (int slot = 0; slot < table.keys.length; slot++) {
+                long key = (long) KEYS.getAcquire(table.keys, slot);
+                if (key != FREE) {
+                    @SuppressWarnings("unchecked")
+                    V value = (V) VALUES.getAcquire(table.values, slot);
+                    if (value != null) {
+                        action.accept(value, key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a weakly consistent view of the values.
+     */
+    public Iterable<V> values() {
+        return ValueIterator::new;
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    /**
+     * Finalizer of SplitMix64: sequential ids end up in different segments and slots.
+     */
+    private static long mix(long key) {
+        long hash = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static int tableCapacity(int entries) {
+        int capacity = MIN_SEGMENT_CAPACITY;
+        while (capacity * MAX_LOAD < entries) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+
+        private final Object[] values;
+
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+
+        private final ReentrantLock lock;
+
+        private volatile Table table;
+
+        /**
+         * Live entries; written under the lock.
+         */
+        private volatile int size;
+
+        /**
+         * Slots holding a key, live or tombstone, in the current table; written under the lock.
+         */
+        private int occupied;
+
+        private Segment(int capacity) {
+            this.lock = new ReentrantLock();
+            this.table = new Table(capacity);
+        }
+
+        @SuppressWarnings("unchecked")
+        private V get(long key, int hash) {
+            Table current = table;
+            long[] keys = current.keys;
+            for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+                long candidate = (long) KEYS.getAcquire(keys, slot);
+                if (candidate == key) {
+                    return (V) VALUES.getAcquire(current.values, slot);
+                }
+                if (candidate == FREE) {
+                    return null;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(long key, int hash, V value, boolean replace) {
+            lock.lock();
+            try {
+                Table current = table;
+                int slot = find(current, key, hash);
+                if (current.keys[slot] == key) {
+                    V previous = (V) current.values[slot];
+                    if (previous == null || replace) {
+                        VALUES.setRelease(current.values, slot, value);
+                    }
+                    if (previous == null) {
+                        size++;
+                    }
+                    return previous;
+                }
+                insert(current, slot, key, hash, value);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V computeIfAbsent(long key, int hash, LongFunction<? extends V> mappingFunction) {
+            lock.lock();
+            try {
+                Table current = table;
+                int slot = find(current, key, hash);
+                if (current.keys[slot] == key && current.values[slot] != null) {
+                    return (V) current.values[slot];
+                }
+                V value = Objects.requireNonNull(mappingFunction.apply(key));
+                if (current.keys[slot] == key) {
+                    VALUES.setRelease(current.values, slot, value);
+                    size++;
+                } else {
+                    insert(current, slot, key, hash, value);
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(long key, int hash) {
+            lock.lock();
+            try {
+                Table current = table;
+                int slot = find(current, key, hash);
+                if (current.keys[slot] != key) {
+                    return null;
+                }
+                V previous = (V) current.values[slot];
+                if (previous != null) {
+                    VALUES.setRelease(current.values, slot, null);
+                    size--;
+                }
+                return previous;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns the slot holding {@code key}, or the free slot ending its probe sequence.
+         */
+        private static int find(Table table, long key, int hash) {
+            int slot = hash & table.mask;
+            while (table.keys[slot] != key && table.keys[slot] != FREE) {
+                slot = (slot + 1) & table.mask;
+            }
+            return slot;
+        }
+
+        private void insert(Table current, int slot, long key, int hash, V value) {
+            if (occupied + 1 > current.keys.length * MAX_LOAD) {
+                current = rebuild(current, size + 1 + ((size + 1) >> 1));
+                slot = find(current, key, hash);
+            }
+            VALUES.setRelease(current.values, slot, value);
+            KEYS.setRelease(current.keys, slot, key);
+            occupied++;
+            size++;
+        }
+
+        /**
+         * Copies the live entries into a new table with room for {@code entries} and publishes it. Growing
+         * for half again the live entries keeps a table that was mostly tombstones at its capacity.
+         */
+        private Table rebuild(Table current, int entries) {
+            Table rebuilt = new Table(tableCapacity(entries));
+            int live = 0;
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                long key = current.keys[slot];
+                Object value = current.values[slot];
+                if (key != FREE && value != null) {
+                    int target = find(rebuilt, key, (int) mix(key));
+                    rebuilt.values[target] = value;
+                    rebuilt.keys[target] = key;
+                    live++;
+                }
+            }
+            occupied = live;
+            table = rebuilt;
+            return rebuilt;
+        }
+    }
+
+    private final class ValueIterator implements Iterator<V> {
+
+        private int segmentIndex = -1;
+
+        private Table table;
+
+        private int slot;
+
+        private V next;
+
+        private ValueIterator() {
+            next = zeroValue;
+            if (next == null) {
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V current = next;
+            advance();
+            return current;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (true) {
+                if (table == null || slot == table.keys.length) {
+                    if (++segmentIndex == SEGMENT_COUNT) {
+                        return;
+                    }
+                    table = segments[segmentIndex].table;
+                    slot = 0;
+                    continue;
+                }
+                int current = slot++;
+                if ((long) KEYS.getAcquire(table.keys, current) != FREE) {
+                    V value = (V) VALUES.getAcquire(table.values, current);
+                    if (value != null) {
+                        next = value;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.tinybank.management.engine;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.engine")
+@Data
+public class LedgerEngineProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Number of single-writer shards; {@code 0} uses one per available processor.
+     */
+    private int shards = 0;
+
+    /**
+     * Capacity of each shard's ring buffer, a power of two.
+     */
+    private int ringBufferSize = 4096;
+}
@@ -0,0 +1,104 @@
+package com.tinybank.management.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event loop owning one partition of the accounts: the only thread that mutates them while the engine
+ * runs. Idles by spinning, then yielding, then parking briefly, so an idle shard costs little CPU.
+ */
+@Slf4j
+final class LedgerShard implements Runnable {
+
+    private static final int SPIN_TRIES = 1_000;
+
+    private static final int YIELD_TRIES = 100;
+
+    private static final long PARK_NANOS = 50_000L;
+
+    private final int index;
+
+    private final ShardRingBuffer<ShardTask> ringBuffer;
+
+    private volatile boolean running;
+
+    /**
+     * Producers between their check of {@code running} and the end of their put; the loop only exits once
+     * there are none left, so no task is published after the last drain.
+     */
+    private final AtomicInteger submitting;
+
+    private Thread thread;
+
+    LedgerShard(int index, int ringBufferSize) {
+        this.index = index;
+        this.ringBuffer = new ShardRingBuffer<>(ringBufferSize);
+        this.submitting = new AtomicInteger();
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, "ledger-shard-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop once every task already submitted has run. Tasks still queued when the loop is gone,
+     * which only happens when its thread died, are failed.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+        for (ShardTask task = ringBuffer.poll(); task != null; task = ringBuffer.poll()) {
+            task.fail(new IllegalStateException("Ledger shard " + index + " stopped before running the task"));
+        }
+    }
+
+    /**
+     * Queues {@code task}, or throws when the shard is stopping. The count of producers is raised before
+     * {@code running} is read, and {@link #stop()} clears {@code running} before the loop reads the count, so
+     * either the producer sees the shard stopping or the loop waits for its task.
+     */
+    void submit(ShardTask task) {
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Ledger shard " + index + " is not running");
+            }
+            ringBuffer.put(task);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (true) {
+            ShardTask task = ringBuffer.poll();
+            if (task != null) {
+                idle = 0;
+                execute(task);
+            } else if (!running && submitting.get() == 0 && ringBuffer.isEmpty()) {
+                return;
+            } else if (++idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private void execute(ShardTask task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            log.error("Error in ledger shard task, shard: {}", index, ex);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.tinybank.management.engine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Partitions account ids across single-writer {@link LedgerShard}s, each fed by a lock-free ring buffer,
+ * so an account is only ever mutated by the thread of its shard and hot accounts stay in one core's cache.
+ * <p>
+ * An operation on two accounts of different shards is run by the lower shard, the coordinator, after it
+ * has sent a barrier message to the higher shard and the higher shard has parked on it. The higher shard
+ * resumes once the operation completes. Shards only ever wait for higher shards, so coordinators cannot
+ * deadlock.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.engine", name = "enabled", havingValue = "true")
+@Slf4j
+public class PartitionedLedgerEngine {
+
+    private final LedgerShard[] shards;
+
+    @Autowired
+    public PartitionedLedgerEngine(LedgerEngineProperties properties) {
+        int shardCount = properties.getShards() > 0 ? properties.getShards() : Runtime.getRuntime().availableProcessors();
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, properties.getRingBufferSize());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        log.info("Partitioned ledger engine started, shards: {}", shards.length);
+    }
+
+    /**
+     * Stops the shards from the lowest to the highest, so every barrier a coordinator still sends is
+     * served by a running shard.
+     */
+    @PreDestroy
+    public void stop() {
+        try {
+            for (LedgerShard shard : shards) {
+                shard.stop();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Partitioned ledger engine stopped");
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(Long accountId) {
+        return (int) Math.floorMod(accountId, (long) shards.length);
+    }
+
+    /**
+     * Runs {@code action} on the shard owning {@code accountId}.
+     */
+    public <T> CompletableFuture<T> execute(Long accountId, Supplier<T> action) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        shards[shardOf(accountId)].submit(task(future, () -> complete(future, action)));
+        return future;
+    }
+
+    /**
+     * Runs {@code action} while both owning shards are held, on the lower one of them.
+     */
+    public <T> CompletableFuture<T> execute(Long firstAccountId, Long secondAccountId, Supplier<T> action) {
+        int firstShard = shardOf(firstAccountId);
+        int secondShard = shardOf(secondAccountId);
+        if (firstShard == secondShard) {
+            return execute(firstAccountId, action);
+        }
+        LedgerShard coordinator = shards[Math.min(firstShard, secondShard)];
+        LedgerShard participant = shards[Math.max(firstShard, secondShard)];
+        CompletableFuture<T> future = new CompletableFuture<>();
+        coordinator.submit(task(future, () -> {
+            ShardBarrier barrier = new ShardBarrier();
+            try {
+                participant.submit(barrier);
+                barrier.awaitHeld();
+                complete(future, action);
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                barrier.release();
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Waits for {@code future}, rethrowing a runtime exception of the action as is.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Completes {@code future} with the result of {@code action}, or with whatever it threw, errors
+     * included, so no caller is left waiting on a future that never completes.
+     */
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> action) {
+        try {
+            future.complete(action.get());
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private static ShardTask task(CompletableFuture<?> future, Runnable body) {
+        return new ShardTask() {
+            @Override
+            public void run() {
+                body.run();
+            }
+
+            @Override
+            public void fail(RuntimeException cause) {
+                future.completeExceptionally(cause);
+            }
+        };
+    }
+
+    /**
+     * Parks the participant shard of a cross-shard operation. When that shard stops before reaching the
+     * barrier, the coordinator is woken up with the failure instead.
+     */
+    private static final class ShardBarrier implements ShardTask {
+
+        private final CountDownLatch held = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private volatile RuntimeException failure;
+
+        @Override
+        public void run() {
+            held.countDown();
+            await(released);
+        }
+
+        @Override
+        public void fail(RuntimeException cause) {
+            failure = cause;
+            held.countDown();
+        }
+
+        private void awaitHeld() {
+            await(held);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        private static void await(CountDownLatch latch) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
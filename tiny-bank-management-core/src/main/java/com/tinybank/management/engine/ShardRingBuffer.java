@@ -0,0 +1,97 @@
+package com.tinybank.management.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer. Producers claim a slot by CAS on {@code tail} and
+ * publish it by advancing the slot's sequence; the consumer owns {@code head} and hands the slot back by
+ * moving its sequence one lap ahead. No locks are taken and entries are preallocated slots of one array.
+ */
+final class ShardRingBuffer<E> {
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final long PARK_NANOS = 50_000L;
+
+    private final Object[] entries;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail;
+
+    private long head;
+
+    ShardRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * Publishes {@code entry}, returning {@code false} without side effects when the buffer is full.
+     */
+    boolean offer(E entry) {
+        while (true) {
+            long claim = tail.get();
+            int index = (int) (claim & mask);
+            long sequence = sequences.getAcquire(index);
+            if (sequence == claim) {
+                if (tail.compareAndSet(claim, claim + 1)) {
+                    entries[index] = entry;
+                    sequences.setRelease(index, claim + 1);
+                    return true;
+                }
+            } else if (sequence < claim) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Publishes {@code entry}, backing off while the consumer frees up a slot.
+     */
+    void put(E entry) {
+        int tries = 0;
+        while (!offer(entry)) {
+            if (++tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Whether the next entry has not been published yet; must only be called by the consumer thread.
+     */
+    boolean isEmpty() {
+        return sequences.getAcquire((int) (head & mask)) != head + 1;
+    }
+
+    /**
+     * Takes the next entry; must only be called by the consumer thread.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) (head & mask);
+        if (sequences.getAcquire(index) != head + 1) {
+            return null;
+        }
+        E entry = (E) entries[index];
+        entries[index] = null;
+        sequences.setRelease(index, head + entries.length);
+        head++;
+        return entry;
+    }
+}
@@ -0,0 +1,10 @@
+package com.tinybank.management.engine;
+
+/**
+ * Work queued on a {@link LedgerShard}. A task the shard can no longer run, because it stopped before
+ * reaching it, is failed instead, so whoever waits for it is never left hanging.
+ */
+interface ShardTask extends Runnable {
+
+    void fail(RuntimeException cause);
+}
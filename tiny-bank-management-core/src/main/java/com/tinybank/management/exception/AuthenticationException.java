@@ -0,0 +1,14 @@
+package com.tinybank.management.exception;
+
+public class AuthenticationException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public AuthenticationException() {
+        super("Invalid user name or password");
+    }
+
+    public AuthenticationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tinybank.management.exception;
+
+public class InvalidUserException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidUserException() {
+        super("Invalid user");
+    }
+
+    public InvalidUserException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.tinybank.management.export;
+
+import java.util.Objects;
+
+public enum TransactionExportFormat {
+
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String code;
+
+    private final String contentType;
+
+    TransactionExportFormat(String code, String contentType) {
+        this.code = code;
+        this.contentType = contentType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static TransactionExportFormat of(String code) {
+        for (TransactionExportFormat format : values()) {
+            if (format.code.equalsIgnoreCase(Objects.requireNonNull(code))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + code);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tinybank.management.export;
+
+/**
+ * What one export wrote and how long it took, including the time spent blocked on the client.
+ */
+public record TransactionExportSummary(int entries, long bytes, long elapsedNanos) {
+
+    public double megabytesPerSecond() {
+        return elapsedNanos > 0 ? bytes / (1024.0 * 1024.0) / (elapsedNanos / 1_000_000_000.0) : 0.0;
+    }
+}
@@ -0,0 +1,313 @@
+package com.tinybank.management.export;
+
+import com.tinybank.management.account.MinorUnits;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes the history of one account as NDJSON or CSV straight from the columns of its journal, without
+ * materializing {@code Transaction}s or a document. Lines are encoded into a fixed {@value #CHUNK_SIZE}
+ * byte chunk that is written and flushed whenever it fills up, so memory stays bounded whatever the
+ * history length.
+ * <p>
+ * The export covers the entries present when it starts; entries appended meanwhile are left out.
+ */
+public final class TransactionExporter {
+
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Upper bound of one line without its remarks.
+     */
+    private static final int MAX_LINE_PREFIX = 256;
+
+    /**
+     * What follows the remarks of a line: a closing brace and a newline.
+     */
+    private static final int LINE_SUFFIX = 2;
+
+    private static final int MAX_CACHED_REMARKS = 1024;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+
+    private static final byte[] CSV_HEADER = ascii("accountId,amount,transactionType,transactionDate,remarks\n");
+
+    private static final byte[] JSON_ACCOUNT_ID = ascii("{\"accountId\":");
+
+    private static final byte[] JSON_AMOUNT = ascii(",\"amount\":");
+
+    private static final byte[] JSON_TRANSACTION_TYPE = ascii(",\"transactionType\":\"");
+
+    private static final byte[] JSON_TRANSACTION_DATE = ascii("\",\"transactionDate\":\"");
+
+    private static final byte[] JSON_REMARKS = ascii("\",\"remarks\":");
+
+    private static final byte[] JSON_NULL = ascii("null");
+
+    private static final byte[][] TYPE_NAMES = typeNames();
+
+    private final TransactionExportFormat format;
+
+    private final OutputStream out;
+
+    private final byte[] chunk;
+
+    private int position;
+
+    private long bytesWritten;
+
+    /**
+     * Encoded remarks by identity; the journal keeps one instance per distinct remarks (per sealed segment
+     * for history moved to the history store).
+     */
+    private final Map<String, byte[]> encodedRemarks;
+
+    private long cachedSecond;
+
+    private byte[] cachedSecondText;
+
+    /**
+     * Creates an exporter that encodes into its own chunk and writes it to {@code out}; for callers that
+     * pace the export themselves, otherwise see {@link #export}.
+     */
+    public TransactionExporter(TransactionExportFormat format, OutputStream out) {
+        this.format = format;
+        this.out = out;
+        this.chunk = new byte[CHUNK_SIZE];
+        this.encodedRemarks = new IdentityHashMap<>();
+        this.cachedSecond = Long.MIN_VALUE;
+    }
+
+    /**
+     * Writes the entries of {@code journal} in {@code [from, to)}, the whole history when both are null,
+     * to {@code out}. Does not close {@code out}.
+     */
+    public static TransactionExportSummary export(Long accountId, TransactionJournal journal, LocalDateTime from, LocalDateTime to,
+                                                  TransactionExportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        int end = endIndex(journal, to);
+        int first = startIndex(journal, from, end);
+        TransactionExporter exporter = new TransactionExporter(format, out);
+        exporter.writeHeader();
+        exporter.writeEntries(accountId, journal, first, end);
+        exporter.flush();
+        return new TransactionExportSummary(end - first, exporter.bytesWritten, System.nanoTime() - start);
+    }
+
+    /**
+     * Index after the last entry before {@code to}, taken from the entries present now.
+     */
+    public static int endIndex(TransactionJournal journal, LocalDateTime to) {
+        int size = journal.size();
+        return Objects.nonNull(to) ? journal.indexAtOrAfter(TransactionJournal.toEpochMicros(to), size) : size;
+    }
+
+    public static int startIndex(TransactionJournal journal, LocalDateTime from, int endIndex) {
+        return Objects.nonNull(from) ? journal.indexAtOrAfter(TransactionJournal.toEpochMicros(from), endIndex) : 0;
+    }
+
+    /**
+     * Writes the CSV header line; nothing for NDJSON.
+     */
+    public void writeHeader() {
+        if (format == TransactionExportFormat.CSV) {
+            writeBuffered(CSV_HEADER);
+        }
+    }
+
+    public void writeEntries(Long accountId, TransactionJournal journal, int fromIndex, int toIndex) throws IOException {
+        for (int i = fromIndex; i < toIndex; i++) {
+            writeEntry(accountId, journal, i);
+        }
+    }
+
+    /**
+     * Writes and flushes what is left in the chunk.
+     */
+    public void flush() throws IOException {
+        flushChunk();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void writeEntry(Long accountId, TransactionJournal journal, int index) throws IOException {
+        byte[] remarks = encodeRemarks(journal.getRemarks(index));
+        if (position + MAX_LINE_PREFIX + remarks.length > CHUNK_SIZE) {
+            flushChunk();
+        }
+        if (format == TransactionExportFormat.NDJSON) {
+            writeBuffered(JSON_ACCOUNT_ID);
+            writeLong(accountId);
+            writeBuffered(JSON_AMOUNT);
+            writeAmount(journal.getAmount(index));
+            writeBuffered(JSON_TRANSACTION_TYPE);
+            writeBuffered(TYPE_NAMES[journal.getTransactionType(index).ordinal()]);
+            writeBuffered(JSON_TRANSACTION_DATE);
+            writeDate(journal.getEpochMicros(index));
+            writeBuffered(JSON_REMARKS);
+            writeRemarks(remarks);
+            writeByte('}');
+        } else {
+            writeLong(accountId);
+            writeByte(',');
+            writeAmount(journal.getAmount(index));
+            writeByte(',');
+            writeBuffered(TYPE_NAMES[journal.getTransactionType(index).ordinal()]);
+            writeByte(',');
+            writeDate(journal.getEpochMicros(index));
+            writeByte(',');
+            writeRemarks(remarks);
+        }
+        writeByte('\n');
+    }
+
+    private void writeAmount(long minorUnits) {
+        if (minorUnits < 0) {
+            writeByte('-');
+            minorUnits = -minorUnits;
+        }
+        writeLong(minorUnits / MinorUnits.FACTOR);
+        writeByte('.');
+        int fraction = (int) (minorUnits % MinorUnits.FACTOR);
+        writeByte('0' + fraction / 10);
+        writeByte('0' + fraction % 10);
+    }
+
+    /**
+     * Writes the ISO local date-time with microseconds, formatting the part up to the second only when
+     * the second changes.
+     */
+    private void writeDate(long epochMicros) {
+        long second = Math.floorDiv(epochMicros, MICROS_PER_SECOND);
+        if (second != cachedSecond) {
+            cachedSecondText = ascii(SECOND_FORMATTER.format(TransactionJournal.toLocalDateTime(second * MICROS_PER_SECOND)));
+            cachedSecond = second;
+        }
+        writeBuffered(cachedSecondText);
+        writeByte('.');
+        int micros = (int) Math.floorMod(epochMicros, MICROS_PER_SECOND);
+        for (int divisor = 100_000; divisor > 0; divisor /= 10) {
+            writeByte('0' + micros / divisor % 10);
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long bound = 10; digits < 19 && value >= bound; bound *= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            chunk[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void writeByte(int value) {
+        chunk[position++] = (byte) value;
+    }
+
+    /**
+     * Copies {@code bytes}, which fit into the space reserved for the current line before it is started.
+     */
+    private void writeBuffered(byte[] bytes) {
+        System.arraycopy(bytes, 0, chunk, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Copies remarks too long to share a chunk with the rest of their line straight to the output.
+     */
+    private void writeRemarks(byte[] remarks) throws IOException {
+        if (position + remarks.length + LINE_SUFFIX > CHUNK_SIZE) {
+            flushChunk();
+            out.write(remarks);
+            bytesWritten += remarks.length;
+        } else {
+            writeBuffered(remarks);
+        }
+    }
+
+    private void flushChunk() throws IOException {
+        if (position > 0) {
+            out.write(chunk, 0, position);
+            out.flush();
+            bytesWritten += position;
+            position = 0;
+        }
+    }
+
+    private byte[] encodeRemarks(String remarks) {
+        if (Objects.isNull(remarks)) {
+            return format == TransactionExportFormat.NDJSON ? JSON_NULL : new byte[0];
+        }
+        byte[] encoded = encodedRemarks.get(remarks);
+        if (Objects.isNull(encoded)) {
+            String text = format == TransactionExportFormat.NDJSON ? jsonString(remarks) : csvField(remarks);
+            encoded = text.getBytes(StandardCharsets.UTF_8);
+            if (encodedRemarks.size() < MAX_CACHED_REMARKS) {
+                encodedRemarks.put(remarks, encoded);
+            }
+        }
+        return encoded;
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[][] typeNames() {
+        TransactionType[] types = TransactionType.values();
+        byte[][] names = new byte[types.length][];
+        for (TransactionType type : types) {
+            names[type.ordinal()] = ascii(type.name());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tinybank.management.metrics;
+
+import com.tinybank.management.account.JournalLockObserver;
+import com.tinybank.management.service.AccountStorageDB;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms and counters for the ledger operations, exported through the application's
+ * {@link MeterRegistry}.
+ * <p>
+ * Every meter is registered up front, one per operation and outcome, so recording is an array lookup
+ * followed by an allocation-free {@link Timer#record(long, TimeUnit)} and never builds tags on the hot path.
+ * Lock wait and hold are reported by the journals themselves, through a {@link JournalLockObserver}, for every
+ * outermost acquisition of a journal lock; the hold of a transfer's first journal includes acquiring the
+ * second one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.metrics", name = "enabled", havingValue = "true")
+public class LedgerMetrics {
+
+    public enum Operation {
+        DEPOSIT, WITHDRAW, TRANSFER, BATCH;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Timer[] succeeded;
+
+    private final Timer[] failed;
+
+    private final Timer lockWait;
+
+    private final Timer lockHold;
+
+    private final Counter slowLockWaits;
+
+    private final Timer lookup;
+
+    private final long slowLockWaitNanos;
+
+    @Autowired
+    public LedgerMetrics(MeterRegistry meterRegistry, AccountStorageDB accountStorageDB, LedgerMetricsProperties properties) {
+        this.succeeded = new Timer[OPERATIONS.length];
+        this.failed = new Timer[OPERATIONS.length];
+        for (Operation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            succeeded[i] = operationTimer(meterRegistry, operation, "success");
+            failed[i] = operationTimer(meterRegistry, operation, "failure");
+        }
+        this.lockWait = histogram(Timer.builder("tinybank.ledger.lock.wait")
+                .description("Time spent acquiring the journal lock"), Duration.ofNanos(100))
+                .register(meterRegistry);
+        this.lockHold = histogram(Timer.builder("tinybank.ledger.lock.hold")
+                .description("Time the journal lock is held"), Duration.ofNanos(100))
+                .register(meterRegistry);
+        this.slowLockWaits = Counter.builder("tinybank.ledger.lock.slow")
+                .description("Journal lock acquisitions slower than tinybank.metrics.slow-lock-wait-micros")
+                .register(meterRegistry);
+        this.lookup = histogram(Timer.builder("tinybank.ledger.lookup")
+                .description("Time spent looking up an account"), Duration.ofNanos(100))
+                .register(meterRegistry);
+        this.slowLockWaitNanos = TimeUnit.MICROSECONDS.toNanos(properties.getSlowLockWaitMicros());
+        Gauge.builder("tinybank.ledger.accounts", accountStorageDB, AccountStorageDB::getAccountCount)
+                .description("Number of accounts")
+                .register(meterRegistry);
+        Gauge.builder("tinybank.ledger.journal.entries", accountStorageDB, AccountStorageDB::getJournalEntryCount)
+                .description("Number of journal entries across all accounts")
+                .register(meterRegistry);
+        accountStorageDB.setJournalLockObserver(this::recordLock);
+    }
+
+    public void recordOperation(Operation operation, long durationNanos, boolean success) {
+        (success ? succeeded : failed)[operation.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLookup(long durationNanos) {
+        lookup.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLock(long waitNanos, long holdNanos) {
+        lockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        lockHold.record(holdNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos > slowLockWaitNanos) {
+            slowLockWaits.increment();
+        }
+    }
+
+    private static Timer operationTimer(MeterRegistry meterRegistry, Operation operation, String outcome) {
+        return histogram(Timer.builder("tinybank.ledger.operation")
+                .description("Latency of a ledger operation, including durability")
+                .tag("operation", operation.tag)
+                .tag("outcome", outcome), Duration.ofNanos(1000))
+                .register(meterRegistry);
+    }
+
+    private static Timer.Builder histogram(Timer.Builder builder, Duration minimumExpectedValue) {
+        return builder.publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .minimumExpectedValue(minimumExpectedValue)
+                .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,18 @@
+package com.tinybank.management.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.metrics")
+@Data
+public class LedgerMetricsProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Journal lock waits longer than this are counted as slow.
+     */
+    private long slowLockWaitMicros = 1000L;
+}
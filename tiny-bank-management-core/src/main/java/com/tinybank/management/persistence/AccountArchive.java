@@ -0,0 +1,253 @@
+package com.tinybank.management.persistence;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.collection.ConcurrentLongMap;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Closed accounts, moved out of the in-memory ledger: one append-only file of
+ * {@code [int length][payload][int crc32(payload)]} records, where the payload is the account id, the owner's
+ * name, user name and role (never the password), the whole history encoded like a sealed history segment and
+ * the owner's user id, missing from records archived before it was.
+ * <p>
+ * Unlike the history store the archive is the only copy of a closed account, so every record is forced
+ * before {@link #archive(Account)} returns and the file is kept across restarts. Opening it rebuilds the
+ * id index from the records and truncates a torn tail; loads are positional reads, which need no lock.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.archive", name = "enabled", havingValue = "true")
+@Slf4j
+public class AccountArchive {
+
+    private static final String FILE_NAME = "accounts.archive";
+
+    private static final int MAX_RECORD_SIZE = 1 << 30;
+
+    private final Path file;
+
+    private final ConcurrentLongMap<Entry> index;
+
+    private FileChannel channel;
+
+    private long fileOffset;
+
+    private volatile long maxAccountId;
+
+    @Autowired
+    public AccountArchive(ArchiveProperties properties) {
+        this.file = Paths.get(properties.getDirectory()).resolve(FILE_NAME);
+        this.index = new ConcurrentLongMap<>();
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileOffset = scan();
+            if (fileOffset < channel.size()) {
+                log.warn("Account archive has a torn tail, truncating {} bytes, file: {}", channel.size() - fileOffset, file);
+                channel.truncate(fileOffset);
+                channel.force(true);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Account archive could not be opened, file: " + file, ex);
+        }
+        log.info("Account archive opened, file: {}, accounts: {}", file, index.size());
+    }
+
+    /**
+     * Appends {@code account}, which must be closed, and forces it to disk. Archiving an account twice is a
+     * no-op and returns {@code false}.
+     */
+    public synchronized boolean archive(Account account) {
+        if (index.containsKey(account.getAccountId())) {
+            return false;
+        }
+        byte[] record = encode(account);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, fileOffset + buffer.position());
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Account could not be archived, accountId: " + account.getAccountId(), ex);
+        }
+        index.put(account.getAccountId(), new Entry(fileOffset, record.length));
+        maxAccountId = Math.max(maxAccountId, account.getAccountId());
+        fileOffset += record.length;
+        return true;
+    }
+
+    /**
+     * Returns the archived account with {@code accountId}, rebuilt in the closed state, or {@code null}.
+     */
+    public Account load(long accountId) {
+        Entry entry = index.get(accountId);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.position() + buffer.position()) < 0) {
+                    throw new EOFException("Account archive truncated at position " + entry.position());
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Archived account could not be read, accountId: " + accountId, ex);
+        }
+        buffer.flip().position(Integer.BYTES);
+        return decode(buffer);
+    }
+
+    public boolean contains(long accountId) {
+        return index.containsKey(accountId);
+    }
+
+    public int getAccountCount() {
+        return index.size();
+    }
+
+    public long getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            log.error("Error in closing account archive, file: {}", file, ex);
+        }
+        log.info("Account archive closed, accounts: {}", index.size());
+    }
+
+    /**
+     * Indexes every intact record and returns the offset after the last one.
+     */
+    private long scan() throws IOException {
+        long size = channel.size();
+        long offset = 0L;
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (offset + Integer.BYTES <= size) {
+            header.clear();
+            readFully(header, offset);
+            int payloadSize = header.getInt(0);
+            if (payloadSize < Long.BYTES || payloadSize > MAX_RECORD_SIZE || offset + payloadSize + 2L * Integer.BYTES > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(payloadSize + 2 * Integer.BYTES);
+            readFully(record, offset);
+            if (record.getInt(Integer.BYTES + payloadSize) != crc(record.array(), Integer.BYTES, payloadSize)) {
+                break;
+            }
+            long accountId = record.getLong(Integer.BYTES);
+            index.put(accountId, new Entry(offset, record.capacity()));
+            maxAccountId = Math.max(maxAccountId, accountId);
+            offset += record.capacity();
+        }
+        return offset;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Account archive truncated at offset " + offset);
+            }
+        }
+    }
+
+    private static byte[] encode(Account account) {
+        User user = account.getUser();
+        byte[] name = bytes(Objects.nonNull(user) ? user.getName() : null);
+        byte[] userName = bytes(Objects.nonNull(user) ? user.getUserName() : null);
+        byte[] role = bytes(Objects.nonNull(user) && Objects.nonNull(user.getRole()) ? user.getRole().name() : null);
+        byte[] history = account.getJournal().encodeHistory();
+        int payloadSize = Long.BYTES + size(name) + size(userName) + size(role) + size(history) + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(payloadSize + 2 * Integer.BYTES);
+        buffer.putInt(payloadSize);
+        buffer.putLong(account.getAccountId());
+        put(buffer, name);
+        put(buffer, userName);
+        put(buffer, role);
+        put(buffer, history);
+        buffer.putLong(Objects.nonNull(user) && Objects.nonNull(user.getId()) ? user.getId() : 0L);
+        buffer.putInt(crc(buffer.array(), Integer.BYTES, payloadSize));
+        return buffer.array();
+    }
+
+    private static Account decode(ByteBuffer buffer) {
+        long accountId = buffer.getLong();
+        String name = string(buffer);
+        String userName = string(buffer);
+        String role = string(buffer);
+        byte[] history = new byte[buffer.getInt()];
+        buffer.get(history);
+        long userId = buffer.remaining() >= Long.BYTES ? buffer.getLong() : 0L;
+        User user = User.builder()
+                .id(userId != 0L ? userId : null)
+                .name(name)
+                .userName(userName)
+                .role(Objects.nonNull(role) ? Role.valueOf(role) : null)
+                .build();
+        return Account.fromArchive(accountId, user, history);
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, offset, length);
+        return (int) crc32.getValue();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int size(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private record Entry(long position, int length) {
+    }
+}
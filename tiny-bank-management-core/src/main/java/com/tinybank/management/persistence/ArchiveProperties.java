@@ -0,0 +1,15 @@
+package com.tinybank.management.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.archive")
+@Data
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "./data/archive";
+}
@@ -0,0 +1,198 @@
+package com.tinybank.management.persistence;
+
+import com.tinybank.management.account.HistorySegmentStore;
+import com.tinybank.management.collection.ConcurrentLongMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the transaction journals: sealed history segments of every account appended to shared,
+ * append-only files, rolled over at {@code fileSizeBytes}. A position is the file number in the upper 24 bits
+ * and the offset in the lower 40. Segments are read back with positional reads, which need no lock.
+ * <p>
+ * Snapshots refer to the segments sealed before them instead of copying them, so the files are kept across
+ * restarts: the store reopens them and appends to a new file. Writes are not forced one by one;
+ * {@link #force()} makes everything written so far durable and is called before a snapshot referring to it
+ * is committed. Segments no longer referenced, such as those sealed after the latest snapshot and sealed
+ * again on replay, are not reclaimed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.history", name = "enabled", havingValue = "true")
+@Slf4j
+public class FileHistorySegmentStore implements HistorySegmentStore {
+
+    private static final String FILE_PREFIX = "history-";
+
+    private static final String FILE_SUFFIX = ".seg";
+
+    private static final int OFFSET_BITS = 40;
+
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private final HistoryStoreProperties properties;
+
+    private final Path directory;
+
+    private final ConcurrentLongMap<FileChannel> files;
+
+    private int fileNumber;
+
+    /**
+     * First file written to since the last {@link #force()}; files before it are durable and never change.
+     */
+    private int firstUnforcedFile;
+
+    private long fileOffset;
+
+    private volatile long segmentCount;
+
+    private volatile long bytesWritten;
+
+    @Autowired
+    public FileHistorySegmentStore(HistoryStoreProperties properties) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.getDirectory());
+        this.files = new ConcurrentLongMap<>();
+        this.fileNumber = -1;
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            Files.createDirectories(directory);
+            for (Path file : listFiles()) {
+                String fileName = file.getFileName().toString();
+                int number = Integer.parseInt(fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+                files.put(number, FileChannel.open(file, StandardOpenOption.READ));
+                fileNumber = Math.max(fileNumber, number);
+            }
+            rollFile();
+            firstUnforcedFile = fileNumber;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("History store could not be opened, directory: " + directory, ex);
+        }
+        log.info("History store opened, directory: {}, files: {}, hotEntries: {}", directory, fileNumber + 1, properties.getHotEntries());
+    }
+
+    public int getHotEntries() {
+        return properties.getHotEntries();
+    }
+
+    public long getSegmentCount() {
+        return segmentCount;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public synchronized long write(byte[] segment) {
+        try {
+            if (fileOffset > 0 && fileOffset + segment.length > properties.getFileSizeBytes()) {
+                rollFile();
+            }
+            FileChannel channel = files.get(fileNumber);
+            ByteBuffer buffer = ByteBuffer.wrap(segment);
+            long offset = fileOffset;
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            fileOffset += segment.length;
+            segmentCount++;
+            bytesWritten += segment.length;
+            return ((long) fileNumber << OFFSET_BITS) | offset;
+        } catch (IOException ex) {
+            // Journals keep the entries in memory when sealing fails, so this is the only trace of it.
+            log.error("Error in writing history segment, directory: {}", directory, ex);
+            throw new UncheckedIOException("History segment could not be written, directory: " + directory, ex);
+        }
+    }
+
+    /**
+     * Makes every segment written so far durable. Only the files written to since the previous call are
+     * forced, and outside the lock, so sealing continues meanwhile.
+     */
+    public void force() throws IOException {
+        int first;
+        int last;
+        synchronized (this) {
+            first = firstUnforcedFile;
+            last = fileNumber;
+            firstUnforcedFile = last;
+        }
+        for (int number = first; number <= last; number++) {
+            FileChannel channel = files.get(number);
+            if (channel != null) {
+                channel.force(false);
+            }
+        }
+    }
+
+    @Override
+    public byte[] read(long position, int length) {
+        FileChannel channel = files.get(position >>> OFFSET_BITS);
+        if (channel == null) {
+            throw new IllegalArgumentException("Unknown history segment position: " + position);
+        }
+        byte[] segment = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(segment);
+        long offset = position & OFFSET_MASK;
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("History segment truncated at position " + position);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("History segment could not be read, directory: " + directory, ex);
+        }
+        return segment;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (FileChannel channel : files.values()) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.error("Error in closing history store, directory: {}", directory, ex);
+            }
+        }
+        log.info("History store closed, segments: {}, bytes: {}", segmentCount, bytesWritten);
+    }
+
+    private void rollFile() throws IOException {
+        int next = fileNumber + 1;
+        Path file = directory.resolve(String.format("%s%06d%s", FILE_PREFIX, next, FILE_SUFFIX));
+        files.put(next, FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        fileNumber = next;
+        fileOffset = 0;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> {
+                        String fileName = path.getFileName().toString();
+                        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX);
+                    })
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.tinybank.management.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.history")
+@Data
+public class HistoryStoreProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "./data/history";
+
+    /**
+     * Most recent entries of each account kept in memory, rounded up to a power of two; the older half is
+     * sealed to disk whenever they are all used.
+     */
+    private int hotEntries = 1024;
+
+    /**
+     * Size after which a new segment file is started.
+     */
+    private long fileSizeBytes = 64L * 1024 * 1024;
+}
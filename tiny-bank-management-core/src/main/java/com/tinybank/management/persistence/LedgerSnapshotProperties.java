@@ -0,0 +1,20 @@
+package com.tinybank.management.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.snapshot")
+@Data
+public class LedgerSnapshotProperties {
+
+    /**
+     * Snapshots only take effect together with the write-ahead log, which provides the log suffix.
+     */
+    private boolean enabled = false;
+
+    private String directory = "./data/snapshot";
+
+    private long intervalSeconds = 300;
+}
@@ -0,0 +1,61 @@
+package com.tinybank.management.persistence;
+
+import com.tinybank.management.service.AccountStorageDB;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a ledger snapshot every {@code tinybank.snapshot.interval-seconds} on a dedicated thread, which
+ * bounds both the size of the write-ahead log and the time spent replaying it on startup.
+ */
+@Component
+@ConditionalOnProperty(name = {"tinybank.wal.enabled", "tinybank.snapshot.enabled"}, havingValue = "true")
+@Slf4j
+public class LedgerSnapshotScheduler {
+
+    private final AccountStorageDB accountStorageDB;
+
+    private final LedgerSnapshotProperties properties;
+
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public LedgerSnapshotScheduler(AccountStorageDB accountStorageDB, LedgerSnapshotProperties properties) {
+        this.accountStorageDB = accountStorageDB;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getIntervalSeconds();
+        executor.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void snapshot() {
+        try {
+            long start = System.nanoTime();
+            accountStorageDB.writeSnapshot();
+            log.info("Ledger snapshot completed, durationMs: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception ex) {
+            log.error("Error in writing ledger snapshot", ex);
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.tinybank.management.persistence;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.AccountStatus;
+import com.tinybank.management.account.JournalState;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time snapshots of every account, written to and read from memory-mapped files.
+ * <p>
+ * A snapshot is tagged with the first LSN of the write-ahead log segment opened right before it was
+ * taken. Every record below that LSN is already reflected in the snapshot; records from that LSN on may or
+ * may not be, which replay tolerates because it skips accounts that exist and journal entries whose index
+ * is already present. Each journal is written as its counters, captured together, references to its
+ * sealed history segments and its in-memory entries column by column, so loading copies columns in bulk
+ * instead of appending entry by entry and leaves the sealed history in the history store. Balances are set
+ * to the journal's net, so a snapshot never pairs a balance with a journal it does not match.
+ */
+@Component
+@ConditionalOnProperty(name = {"tinybank.wal.enabled", "tinybank.snapshot.enabled"}, havingValue = "true")
+@Slf4j
+public class LedgerSnapshotStore {
+
+    private static final long MAGIC = 0x54424C4544474552L;
+
+    private static final int VERSION = 4;
+
+    /**
+     * Snapshots written before user ids were, still loaded.
+     */
+    private static final int VERSION_WITHOUT_USER_ID = 1;
+
+    /**
+     * Snapshots written entry by entry, without journal counters, still loaded by replaying the entries.
+     */
+    private static final int VERSION_WITHOUT_JOURNAL_STATE = 2;
+
+    /**
+     * Snapshots holding every journal entry, without references to history segments, still loaded.
+     */
+    private static final int VERSION_WITHOUT_SEGMENTS = 3;
+
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES + Long.BYTES;
+
+    private static final int ACCOUNT_COUNT_OFFSET = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    private final Path directory;
+
+    @Autowired
+    public LedgerSnapshotStore(LedgerSnapshotProperties properties) {
+        this.directory = Paths.get(properties.getDirectory());
+    }
+
+    /**
+     * Writes a snapshot of {@code accounts} tagged with {@code startLsn} and removes the older snapshots.
+     * Accounts keep serving requests while they are written. The history segments the snapshot refers to
+     * are forced in {@code historyStore}, if any, before the snapshot replaces the previous one.
+     */
+    public long write(long startLsn, Iterable<Account> accounts, FileHistorySegmentStore historyStore) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(startLsn));
+        Path temporary = directory.resolve(fileName(startLsn) + ".tmp");
+        long accountCount = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             MappedOutput output = new MappedOutput(channel)) {
+            output.putLong(MAGIC);
+            output.putInt(VERSION);
+            output.putLong(startLsn);
+            output.putLong(0L);
+            output.putLong(System.currentTimeMillis());
+            for (Account account : accounts) {
+                writeAccount(output, account);
+                accountCount++;
+            }
+            output.putLong(MAGIC);
+            output.finish();
+            if (historyStore != null) {
+                historyStore.force();
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putLong(ACCOUNT_COUNT_OFFSET, accountCount);
+            header.force();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+        for (Path snapshot : listSnapshots()) {
+            if (!snapshot.equals(target)) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        log.info("Ledger snapshot written, snapshot: {}, accounts: {}, bytes: {}", target, accountCount, Files.size(target));
+        return accountCount;
+    }
+
+    /**
+     * Loads the latest snapshot into {@code consumer} and returns the LSN replay has to continue from,
+     * {@code 1} when there is no snapshot yet. Journals are restored with {@code historyStore} attached, which
+     * has to hold the segments the snapshot refers to; a snapshot referring to segments cannot be loaded
+     * without one.
+     */
+    public long loadLatest(FileHistorySegmentStore historyStore, Consumer<Account> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 1L;
+        }
+        List<Path> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return 1L;
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            MappedInput input = new MappedInput(channel);
+            if (input.getLong() != MAGIC) {
+                throw new IOException("Invalid ledger snapshot: " + latest);
+            }
+            int version = input.getInt();
+            if (version < VERSION_WITHOUT_USER_ID || version > VERSION) {
+                throw new IOException("Invalid ledger snapshot: " + latest);
+            }
+            long startLsn = input.getLong();
+            long accountCount = input.getLong();
+            input.getLong();
+            for (long i = 0; i < accountCount; i++) {
+                consumer.accept(readAccount(input, version, historyStore));
+            }
+            if (input.getLong() != MAGIC) {
+                throw new IOException("Truncated ledger snapshot: " + latest);
+            }
+            log.info("Ledger snapshot loaded, snapshot: {}, accounts: {}, startLsn: {}", latest, accountCount, startLsn);
+            return startLsn;
+        }
+    }
+
+    private static void writeAccount(MappedOutput output, Account account) {
+        TransactionJournal journal = account.getJournal();
+        JournalState state = journal.captureState();
+        int first = state.sealedSize();
+        int entryCount = state.size() - first;
+        User user = account.getUser();
+        output.putLong(account.getAccountId());
+        output.putByte((byte) account.getAccountStatus().ordinal());
+        output.putString(Objects.nonNull(user) ? user.getName() : null);
+        output.putString(Objects.nonNull(user) ? user.getUserName() : null);
+        output.putString(Objects.nonNull(user) ? user.getPassword() : null);
+        output.putString(Objects.nonNull(user) && Objects.nonNull(user.getRole()) ? user.getRole().name() : null);
+        output.putLong(Objects.nonNull(user) && Objects.nonNull(user.getId()) ? user.getId() : 0L);
+        output.putInt(state.size());
+        output.putLong(state.netMinorUnits());
+        output.putLong(state.checksum());
+        output.putInt(state.aggregates().length);
+        output.putLongs(state.aggregates(), state.aggregates().length);
+        output.putInt(first);
+        output.putInt(state.segmentShift());
+        output.putInt(state.segmentCount());
+        output.putLongs(state.segmentPositions(), state.segmentCount());
+        for (int length : state.segmentLengths()) {
+            output.putInt(length);
+        }
+        output.putLongs(state.segmentFirstEpochMicros(), state.segmentCount());
+        long[] values = new long[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            values[i] = journal.getAmount(first + i);
+        }
+        output.putLongs(values, entryCount);
+        byte[] types = new byte[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            types[i] = (byte) journal.getTransactionType(first + i).ordinal();
+        }
+        output.putBytes(types, entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            values[i] = journal.getEpochMicros(first + i);
+        }
+        output.putLongs(values, entryCount);
+        writeRemarks(output, journal, first, entryCount);
+    }
+
+    /**
+     * Writes the distinct remarks once, then a reference into them per entry, {@code -1} for none.
+     */
+    private static void writeRemarks(MappedOutput output, TransactionJournal journal, int first, int entryCount) {
+        Map<String, Integer> refs = new HashMap<>();
+        int[] entryRefs = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            String remarks = journal.getRemarks(first + i);
+            entryRefs[i] = remarks == null ? -1 : refs.computeIfAbsent(remarks, key -> refs.size());
+        }
+        String[] dictionary = new String[refs.size()];
+        refs.forEach((remarks, ref) -> dictionary[ref] = remarks);
+        output.putInt(dictionary.length);
+        for (String remarks : dictionary) {
+            output.putString(remarks);
+        }
+        for (int ref : entryRefs) {
+            output.putInt(ref);
+        }
+    }
+
+    private static Account readAccount(MappedInput input, int version, FileHistorySegmentStore historyStore) {
+        Account account = new Account();
+        account.setAccountId(input.getLong());
+        AccountStatus accountStatus = STATUSES[input.getByte()];
+        String name = input.getString();
+        String userName = input.getString();
+        String password = input.getString();
+        String role = input.getString();
+        long userId = version != VERSION_WITHOUT_USER_ID ? input.getLong() : 0L;
+        account.setUser(User.builder()
+                .id(userId != 0L ? userId : null)
+                .name(name)
+                .userName(userName)
+                .password(password)
+                .role(Objects.nonNull(role) ? Role.valueOf(role) : null)
+                .build());
+        if (version >= VERSION_WITHOUT_SEGMENTS) {
+            readJournal(input, account, version, historyStore);
+        } else {
+            replayJournal(input, account);
+        }
+        account.setAccountStatus(accountStatus);
+        return account;
+    }
+
+    private static void readJournal(MappedInput input, Account account, int version, FileHistorySegmentStore historyStore) {
+        int size = input.getInt();
+        long netMinorUnits = input.getLong();
+        long checksum = input.getLong();
+        long[] aggregates = new long[input.getInt()];
+        input.getLongs(aggregates, aggregates.length);
+        int sealedSize = 0;
+        int segmentShift = 0;
+        long[] positions = new long[0];
+        int[] lengths = new int[0];
+        long[] firstEpochMicros = new long[0];
+        if (version != VERSION_WITHOUT_SEGMENTS) {
+            sealedSize = input.getInt();
+            segmentShift = input.getInt();
+            int segmentCount = input.getInt();
+            positions = new long[segmentCount];
+            input.getLongs(positions, segmentCount);
+            lengths = new int[segmentCount];
+            for (int number = 0; number < segmentCount; number++) {
+                lengths[number] = input.getInt();
+            }
+            firstEpochMicros = new long[segmentCount];
+            input.getLongs(firstEpochMicros, segmentCount);
+        }
+        if (sealedSize > 0 && historyStore == null) {
+            throw new UncheckedIOException(new IOException("Ledger snapshot refers to history segments, "
+                    + "tinybank.history.enabled is required to load it, account: " + account.getAccountId()));
+        }
+        int entryCount = size - sealedSize;
+        long[] amounts = new long[entryCount];
+        input.getLongs(amounts, entryCount);
+        byte[] types = new byte[entryCount];
+        input.getBytes(types, entryCount);
+        for (byte type : types) {
+            if (type < 0 || type >= TRANSACTION_TYPES.length) {
+                throw new UncheckedIOException(new IOException("Invalid transaction type in ledger snapshot: " + type));
+            }
+        }
+        long[] epochMicros = new long[entryCount];
+        input.getLongs(epochMicros, entryCount);
+        String[] dictionary = new String[input.getInt()];
+        for (int ref = 0; ref < dictionary.length; ref++) {
+            dictionary[ref] = input.getString();
+        }
+        String[] remarks = new String[entryCount];
+        for (int index = 0; index < entryCount; index++) {
+            int ref = input.getInt();
+            remarks[index] = ref < 0 ? null : dictionary[ref];
+        }
+        JournalState state = new JournalState(size, netMinorUnits, checksum, aggregates, sealedSize, segmentShift,
+                positions, lengths, firstEpochMicros);
+        account.restoreJournal(state, amounts, types, epochMicros, remarks, historyStore,
+                historyStore != null ? historyStore.getHotEntries() : 0);
+    }
+
+    private static void replayJournal(MappedInput input, Account account) {
+        int entryCount = input.getInt();
+        for (int index = 0; index < entryCount; index++) {
+            long minorUnits = input.getLong();
+            TransactionType transactionType = TRANSACTION_TYPES[input.getByte()];
+            long epochMicros = input.getLong();
+            account.replayTransaction(transactionType, minorUnits, epochMicros, input.getString());
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String fileName = path.getFileName().toString();
+                        return fileName.startsWith(SNAPSHOT_PREFIX) && fileName.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Makes the rename durable before older snapshots are deleted; without it a crash could keep the old
+     * directory entry and lose the new snapshot.
+     */
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static String fileName(long startLsn) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, startLsn, SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Sequential writer over a file mapped in {@link #WINDOW_SIZE} windows, so snapshots are not limited
+     * by the 2 GB size of a single mapping.
+     */
+    private static final class MappedOutput implements Closeable {
+
+        private final FileChannel channel;
+
+        private MappedByteBuffer window;
+
+        private long windowStart;
+
+        private MappedOutput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, WINDOW_SIZE);
+        }
+
+        private void putLong(long value) {
+            ensure(Long.BYTES).putLong(value);
+        }
+
+        private void putInt(int value) {
+            ensure(Integer.BYTES).putInt(value);
+        }
+
+        private void putByte(byte value) {
+            ensure(Byte.BYTES).put(value);
+        }
+
+        private void putLongs(long[] values, int count) {
+            int offset = 0;
+            while (offset < count) {
+                MappedByteBuffer buffer = ensure(Long.BYTES);
+                int length = Math.min(count - offset, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Long.BYTES);
+                offset += length;
+            }
+        }
+
+        private void putBytes(byte[] values, int count) {
+            int offset = 0;
+            while (offset < count) {
+                MappedByteBuffer buffer = ensure(Byte.BYTES);
+                int length = Math.min(count - offset, buffer.remaining());
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length).put(bytes);
+        }
+
+        private MappedByteBuffer ensure(int bytes) {
+            if (window.remaining() < bytes) {
+                window.force();
+                windowStart += window.position();
+                try {
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_SIZE, bytes));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return window;
+        }
+
+        private void finish() throws IOException {
+            window.force();
+            channel.truncate(windowStart + window.position());
+            channel.force(true);
+        }
+
+        @Override
+        public void close() {
+            window = null;
+        }
+    }
+
+    private static final class MappedInput {
+
+        private final FileChannel channel;
+
+        private MappedByteBuffer window;
+
+        private long windowStart;
+
+        private MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW_SIZE, channel.size()));
+        }
+
+        private long getLong() {
+            return ensure(Long.BYTES).getLong();
+        }
+
+        private int getInt() {
+            return ensure(Integer.BYTES).getInt();
+        }
+
+        private byte getByte() {
+            return ensure(Byte.BYTES).get();
+        }
+
+        private void getLongs(long[] values, int count) {
+            int offset = 0;
+            while (offset < count) {
+                MappedByteBuffer buffer = ensure(Long.BYTES);
+                int length = Math.min(count - offset, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().get(values, offset, length);
+                buffer.position(buffer.position() + length * Long.BYTES);
+                offset += length;
+            }
+        }
+
+        private void getBytes(byte[] values, int count) {
+            int offset = 0;
+            while (offset < count) {
+                MappedByteBuffer buffer = ensure(Byte.BYTES);
+                int length = Math.min(count - offset, buffer.remaining());
+                buffer.get(values, offset, length);
+                offset += length;
+            }
+        }
+
+        private String getString() {
+            int length = getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            ensure(length).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private MappedByteBuffer ensure(int bytes) {
+            if (window.remaining() < bytes) {
+                windowStart += window.position();
+                try {
+                    long size = Math.min(Math.max(WINDOW_SIZE, bytes), channel.size() - windowStart);
+                    if (size < bytes) {
+                        throw new UncheckedIOException(new IOException("Unexpected end of ledger snapshot"));
+                    }
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, size);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return window;
+        }
+    }
+}
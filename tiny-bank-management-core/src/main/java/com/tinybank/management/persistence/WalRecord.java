@@ -0,0 +1,39 @@
+package com.tinybank.management.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class WalRecord {
+    private long lsn;
+    private WalRecordType recordType;
+    private long accountId;
+    /**
+     * Index of the journal entry a DEPOSIT/WITHDRAW record was produced from, used to skip entries that
+     * are already present when replaying.
+     */
+    private int entryIndex;
+    /**
+     * Credited account and its journal entry index of a TRANSFER record; {@code accountId} and
+     * {@code entryIndex} describe the debited side.
+     */
+    private long counterpartyAccountId;
+    private int counterpartyEntryIndex;
+    private long minorUnits;
+    private long epochMicros;
+    private String remarks;
+    private String name;
+    private String userName;
+    private String password;
+    private String role;
+    /**
+     * User id of a CREATE_ACCOUNT record, {@code 0} when the account has no user or the record was logged
+     * before user ids were.
+     */
+    private long userId;
+}
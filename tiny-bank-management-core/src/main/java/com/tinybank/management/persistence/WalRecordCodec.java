@@ -0,0 +1,152 @@
+package com.tinybank.management.persistence;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Binary framing of {@link WalRecord}s: {@code [int length][payload][int crc32(payload)]}. Strings are
+ * written as an int byte length ({@code -1} for null) followed by their UTF-8 bytes. Only CREATE_ACCOUNT
+ * records end with the user id, so the other records do not pay for it and records logged before it was
+ * added still decode.
+ */
+final class WalRecordCodec {
+
+    static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private static final int FIXED_PAYLOAD_SIZE = Long.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES
+            + Long.BYTES + Long.BYTES;
+
+    private static final WalRecordType[] RECORD_TYPES = WalRecordType.values();
+
+    private WalRecordCodec() {
+    }
+
+    /**
+     * Appends the framed record to {@code target}, returning a larger buffer (with the existing content
+     * copied over) when the record does not fit.
+     */
+    static ByteBuffer encode(WalRecord record, ByteBuffer target) {
+        byte[] remarks = bytes(record.getRemarks());
+        byte[] name = bytes(record.getName());
+        byte[] userName = bytes(record.getUserName());
+        byte[] password = bytes(record.getPassword());
+        byte[] role = bytes(record.getRole());
+        boolean withUserId = record.getRecordType() == WalRecordType.CREATE_ACCOUNT;
+        int payloadSize = FIXED_PAYLOAD_SIZE + size(remarks) + size(name) + size(userName) + size(password) + size(role)
+                + (withUserId ? Long.BYTES : 0);
+        if (payloadSize > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Write ahead log record too large: " + payloadSize);
+        }
+        ByteBuffer buffer = ensureCapacity(target, payloadSize + 2 * Integer.BYTES);
+        buffer.putInt(payloadSize);
+        int payloadStart = buffer.position();
+        buffer.putLong(record.getLsn());
+        buffer.put((byte) record.getRecordType().ordinal());
+        buffer.putLong(record.getAccountId());
+        buffer.putInt(record.getEntryIndex());
+        buffer.putLong(record.getCounterpartyAccountId());
+        buffer.putInt(record.getCounterpartyEntryIndex());
+        buffer.putLong(record.getMinorUnits());
+        buffer.putLong(record.getEpochMicros());
+        put(buffer, remarks);
+        put(buffer, name);
+        put(buffer, userName);
+        put(buffer, password);
+        put(buffer, role);
+        if (withUserId) {
+            buffer.putLong(record.getUserId());
+        }
+        buffer.putInt(crc(buffer, payloadStart, buffer.position()));
+        return buffer;
+    }
+
+    /**
+     * Reads the next record, returning {@code null} at the end of the stream or at a torn/corrupt tail.
+     */
+    static WalRecord read(DataInputStream input) throws IOException {
+        try {
+            int payloadSize = input.readInt();
+            if (payloadSize < FIXED_PAYLOAD_SIZE || payloadSize > MAX_RECORD_SIZE) {
+                return null;
+            }
+            byte[] payload = new byte[payloadSize];
+            input.readFully(payload);
+            int checksum = input.readInt();
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            if (checksum != crc(buffer, 0, payloadSize)) {
+                return null;
+            }
+            return decode(buffer);
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    private static WalRecord decode(ByteBuffer buffer) {
+        return WalRecord.builder()
+                .lsn(buffer.getLong())
+                .recordType(RECORD_TYPES[buffer.get()])
+                .accountId(buffer.getLong())
+                .entryIndex(buffer.getInt())
+                .counterpartyAccountId(buffer.getLong())
+                .counterpartyEntryIndex(buffer.getInt())
+                .minorUnits(buffer.getLong())
+                .epochMicros(buffer.getLong())
+                .remarks(string(buffer))
+                .name(string(buffer))
+                .userName(string(buffer))
+                .password(string(buffer))
+                .role(string(buffer))
+                .userId(buffer.remaining() >= Long.BYTES ? buffer.getLong() : 0L)
+                .build();
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(buffer.capacity() << 1, buffer.position() + required));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(to).position(from);
+        CRC32 crc32 = new CRC32();
+        crc32.update(view);
+        return (int) crc32.getValue();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int size(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,9 @@
+package com.tinybank.management.persistence;
+
+public enum WalRecordType {
+    CREATE_ACCOUNT,
+    DEPOSIT,
+    WITHDRAW,
+    CANCEL_ACCOUNT,
+    TRANSFER
+}
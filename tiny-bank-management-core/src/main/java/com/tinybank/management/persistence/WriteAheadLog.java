@@ -0,0 +1,425 @@
+package com.tinybank.management.persistence;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Binary write-ahead log with group commit. Producers enqueue records and a single committer thread
+ * writes whatever has queued up (bounded by {@code batchSize} and {@code fsyncIntervalMs}) with one
+ * {@code write} and one {@code force()}. Callers block in {@link #awaitDurable()} until every record they
+ * enqueued is on disk.
+ * <p>
+ * Each start and each {@link #rollSegment()} opens a new segment file named after its first LSN; a torn
+ * record at the end of a segment is ignored on replay.
+ * <p>
+ * The log holds an exclusive lock on a lock file in its directory from recovery until it is closed, so a
+ * second process started on the same directory fails instead of writing to and deleting the same segments.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.wal", name = "enabled", havingValue = "true")
+@Slf4j
+public class WriteAheadLog {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String LOCK_FILE = "wal.lock";
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final long STATISTICS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final WriteAheadLogProperties properties;
+
+    private final Path directory;
+
+    private final BlockingQueue<WalRecord> queue;
+
+    /**
+     * Number of records handed to the queue, incremented before the record is enqueued. As the queue is
+     * FIFO, once {@code durableLsn} reaches the value read after enqueueing, the caller's record is durable.
+     */
+    private final AtomicLong reservedLsn;
+
+    private volatile long durableLsn;
+
+    private final ReentrantLock durableLock;
+
+    private final Condition durableCondition;
+
+    private volatile boolean running;
+
+    private volatile IOException failure;
+
+    private Thread committer;
+
+    /**
+     * Guards the active segment: held by the committer while writing a batch and by {@link #rollSegment()}.
+     */
+    private final ReentrantLock segmentLock;
+
+    private FileChannel channel;
+
+    private FileChannel lockChannel;
+
+    private FileLock directoryLock;
+
+    private ByteBuffer buffer;
+
+    private long lastLsn;
+
+    private volatile long committedRecords;
+
+    private volatile long commitBatches;
+
+    private volatile long forceNanos;
+
+    private long startNanos;
+
+    @Autowired
+    public WriteAheadLog(WriteAheadLogProperties properties) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.getDirectory());
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        this.reservedLsn = new AtomicLong();
+        this.durableLock = new ReentrantLock();
+        this.durableCondition = durableLock.newCondition();
+        this.segmentLock = new ReentrantLock();
+    }
+
+    /**
+     * Replays every record of the existing segments in LSN order, then opens a new segment and starts
+     * accepting appends.
+     */
+    public void recover(Consumer<WalRecord> consumer) {
+        recover(1L, consumer);
+    }
+
+    /**
+     * Replays the records with an LSN of at least {@code fromLsn}, typically the start LSN of the snapshot
+     * the state was loaded from, without reading the segments that lie entirely before it.
+     */
+    public synchronized void recover(long fromLsn, Consumer<WalRecord> consumer) {
+        if (running) {
+            throw new IllegalStateException("Write ahead log already started");
+        }
+        try {
+            Files.createDirectories(directory);
+            lockDirectory();
+            long replayed = 0;
+            List<Path> segments = listSegments();
+            for (int i = 0; i < segments.size(); i++) {
+                if (i + 1 < segments.size() && firstLsn(segments.get(i + 1)) <= fromLsn) {
+                    continue;
+                }
+                replayed += replaySegment(segments.get(i), fromLsn, consumer);
+            }
+            lastLsn = Math.max(lastLsn, fromLsn - 1);
+            log.info("Write ahead log replayed, directory: {}, records: {}, lastLsn: {}", directory, replayed, lastLsn);
+            openSegment();
+        } catch (IOException ex) {
+            unlockDirectory();
+            throw new UncheckedIOException("Write ahead log recovery failed", ex);
+        } catch (RuntimeException ex) {
+            unlockDirectory();
+            throw ex;
+        }
+        reservedLsn.set(lastLsn);
+        durableLsn = lastLsn;
+        buffer = ByteBuffer.allocateDirect(64 * 1024);
+        startNanos = System.nanoTime();
+        running = true;
+        committer = new Thread(this::commitLoop, "wal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    public void append(WalRecord record) {
+        checkAvailable();
+        reservedLsn.incrementAndGet();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(record);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks until every record appended before this call, by any thread, has been forced to disk.
+     */
+    public void awaitDurable() {
+        long target = reservedLsn.get();
+        if (durableLsn >= target) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableLsn < target) {
+                checkAvailable();
+                durableCondition.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write ahead log");
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Forces and closes the active segment and opens a new one. Returns the first LSN of the new segment:
+     * every record with a lower LSN is durable and was applied in memory before it was appended.
+     */
+    public long rollSegment() {
+        checkAvailable();
+        segmentLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+            openSegment();
+            return lastLsn + 1;
+        } catch (IOException ex) {
+            failure = ex;
+            signalDurable();
+            throw new UncheckedIOException("Write ahead log segment roll failed", ex);
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments that only contain records below {@code lsn}.
+     */
+    public void deleteSegmentsBefore(long lsn) {
+        try {
+            List<Path> segments = listSegments();
+            for (int i = 0; i + 1 < segments.size() && firstLsn(segments.get(i + 1)) <= lsn; i++) {
+                Files.deleteIfExists(segments.get(i));
+                log.info("Write ahead log segment deleted, segment: {}", segments.get(i));
+            }
+        } catch (IOException ex) {
+            log.error("Error in deleting write ahead log segments, lsn: {}", lsn, ex);
+        }
+    }
+
+    public WriteAheadLogStatistics getStatistics() {
+        long batches = commitBatches;
+        long records = committedRecords;
+        double elapsedSeconds = Math.max(System.nanoTime() - startNanos, 1L) / 1e9;
+        return new WriteAheadLogStatistics(records, batches, batches / elapsedSeconds, records / elapsedSeconds,
+                batches == 0 ? 0 : (double) records / batches, batches == 0 ? 0 : forceNanos / 1e3 / batches);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            committer.join();
+            channel.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.error("Error in closing write ahead log, directory: {}", directory, ex);
+        }
+        unlockDirectory();
+        log.info("Write ahead log closed, statistics: {}", getStatistics());
+    }
+
+    /**
+     * Takes the exclusive lock on the directory, failing when another process, or another log in this one,
+     * holds it.
+     */
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            directoryLock = null;
+        }
+        if (directoryLock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IllegalStateException("Write ahead log directory is used by another process: " + directory.toAbsolutePath());
+        }
+    }
+
+    private void unlockDirectory() {
+        if (lockChannel == null) {
+            return;
+        }
+        try {
+            // Closing the channel releases the lock.
+            lockChannel.close();
+        } catch (IOException ex) {
+            log.error("Error in releasing write ahead log directory lock, directory: {}", directory, ex);
+        }
+        lockChannel = null;
+        directoryLock = null;
+    }
+
+    private void checkAvailable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write ahead log failed", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Write ahead log is not running");
+        }
+    }
+
+    private void commitLoop() {
+        List<WalRecord> batch = new ArrayList<>(properties.getBatchSize());
+        long lastStatisticsLog = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            try {
+                WalRecord first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+                if (System.nanoTime() - lastStatisticsLog > STATISTICS_LOG_INTERVAL_NANOS) {
+                    lastStatisticsLog = System.nanoTime();
+                    log.info("Write ahead log statistics: {}", getStatistics());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException ex) {
+                log.error("Error in write ahead log commit, directory: {}", directory, ex);
+                failure = ex;
+                signalDurable();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<WalRecord> batch) throws InterruptedException {
+        int batchSize = properties.getBatchSize();
+        queue.drainTo(batch, batchSize - batch.size());
+        if (properties.getFsyncIntervalMs() <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFsyncIntervalMs());
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            WalRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void commit(List<WalRecord> batch) throws IOException {
+        segmentLock.lock();
+        try {
+            buffer.clear();
+            for (WalRecord record : batch) {
+                record.setLsn(++lastLsn);
+                buffer = WalRecordCodec.encode(record, buffer);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            long forceStart = System.nanoTime();
+            channel.force(false);
+            forceNanos += System.nanoTime() - forceStart;
+        } finally {
+            segmentLock.unlock();
+        }
+        committedRecords += batch.size();
+        commitBatches++;
+        durableLsn = lastLsn;
+        signalDurable();
+    }
+
+    private void signalDurable() {
+        durableLock.lock();
+        try {
+            durableCondition.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String fileName = path.getFileName().toString();
+                        return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long replaySegment(Path segment, long fromLsn, Consumer<WalRecord> consumer) throws IOException {
+        long replayed = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 64 * 1024))) {
+            WalRecord record;
+            while ((record = WalRecordCodec.read(input)) != null) {
+                lastLsn = Math.max(lastLsn, record.getLsn());
+                if (record.getLsn() >= fromLsn) {
+                    consumer.accept(record);
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    private static long firstLsn(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lastLsn + 1, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
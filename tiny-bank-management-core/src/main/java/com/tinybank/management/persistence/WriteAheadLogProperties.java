@@ -0,0 +1,28 @@
+package com.tinybank.management.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.wal")
+@Data
+public class WriteAheadLogProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "./data/wal";
+
+    /**
+     * Maximum number of records written with a single {@code force()}.
+     */
+    private int batchSize = 256;
+
+    /**
+     * How long the committer keeps collecting records for a batch before forcing it; 0 forces as soon as
+     * the queue is drained.
+     */
+    private long fsyncIntervalMs = 0;
+
+    private int queueCapacity = 65_536;
+}
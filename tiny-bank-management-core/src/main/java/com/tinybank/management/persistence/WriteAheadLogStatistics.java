@@ -0,0 +1,5 @@
+package com.tinybank.management.persistence;
+
+public record WriteAheadLogStatistics(long committedRecords, long commitBatches, double commitsPerSecond,
+                                      double recordsPerSecond, double averageBatchSize, double averageForceMicros) {
+}
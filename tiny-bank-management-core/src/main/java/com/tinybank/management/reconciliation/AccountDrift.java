@@ -0,0 +1,8 @@
+package com.tinybank.management.reconciliation;
+
+/**
+ * An account found inconsistent: {@code expected} is the value derived from the journal (its running sum,
+ * or the sum or checksum of its entries) and {@code actual} the value it was compared with.
+ */
+public record AccountDrift(long accountId, DriftType type, long expected, long actual) {
+}
@@ -0,0 +1,19 @@
+package com.tinybank.management.reconciliation;
+
+public enum DriftType {
+
+    /**
+     * The balance differs from the running sum of the journal.
+     */
+    BALANCE,
+
+    /**
+     * The running sum of the journal differs from the sum of its entries.
+     */
+    RUNNING_SUM,
+
+    /**
+     * The running checksum of the journal differs from the checksum of its entries.
+     */
+    CHECKSUM
+}
@@ -0,0 +1,139 @@
+package com.tinybank.management.reconciliation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Merkle-style digest of the accounts in an id range: every leaf folds the id, balance, journal size and
+ * journal checksum of {@code leafSize} consecutive account ids, and every inner node its two children. Two
+ * copies of a ledger, such as a primary and one recovered from its snapshot and log, hold the same accounts
+ * exactly when their roots match; otherwise {@link #diff(LedgerDigest)} descends only into the subtrees that
+ * differ and returns the few id ranges to verify. Hashes are 64-bit and not cryptographic.
+ */
+public final class LedgerDigest {
+
+    private final long fromAccountId;
+
+    private final long toAccountId;
+
+    private final int leafSize;
+
+    private final long[] leaves;
+
+    /**
+     * Levels of the tree, from the leaves up to the root.
+     */
+    private final List<long[]> levels;
+
+    public LedgerDigest(long fromAccountId, long toAccountId, int leafSize, long[] leaves) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.leafSize = leafSize;
+        this.leaves = leaves.clone();
+        this.levels = new ArrayList<>();
+        long[] level = this.leaves;
+        levels.add(level);
+        while (level.length > 1) {
+            long[] parent = new long[(level.length + 1) >>> 1];
+            for (int i = 0; i < parent.length; i++) {
+                parent[i] = 2 * i + 1 < level.length ? combine(level[2 * i], level[2 * i + 1]) : level[2 * i];
+            }
+            levels.add(parent);
+            level = parent;
+        }
+    }
+
+    public long getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public long getToAccountId() {
+        return toAccountId;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    public long getRoot() {
+        long[] top = levels.get(levels.size() - 1);
+        return top.length == 0 ? 0L : top[0];
+    }
+
+    public long[] getLeaves() {
+        return leaves.clone();
+    }
+
+    /**
+     * Returns the id ranges, in order, whose leaves differ from {@code other}'s, merging adjacent ones.
+     */
+    public List<AccountRange> diff(LedgerDigest other) {
+        if (fromAccountId != other.fromAccountId || toAccountId != other.toAccountId || leafSize != other.leafSize) {
+            throw new IllegalArgumentException("Digests cover different ranges: [" + fromAccountId + ", " + toAccountId + "] / " + leafSize
+                    + " and [" + other.fromAccountId + ", " + other.toAccountId + "] / " + other.leafSize);
+        }
+        List<AccountRange> ranges = new ArrayList<>();
+        if (leaves.length > 0) {
+            collect(other, levels.size() - 1, 0, ranges);
+        }
+        return ranges;
+    }
+
+    /**
+     * Folds one account into the digest of its leaf, starting from {@code 0}.
+     */
+    static long fold(long digest, long accountId, long balanceMinorUnits, int entries, long checksum) {
+        long account = mix(accountId) ^ Long.rotateLeft(mix(balanceMinorUnits), 21) ^ Long.rotateLeft(mix(entries), 42) ^ checksum;
+        return combine(digest, account);
+    }
+
+    private void collect(LedgerDigest other, int level, int index, List<AccountRange> ranges) {
+        if (levels.get(level)[index] == other.levels.get(level)[index]) {
+            return;
+        }
+        if (level == 0) {
+            long first = fromAccountId + (long) index * leafSize;
+            long last = Math.min(first + leafSize - 1, toAccountId);
+            AccountRange previous = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (previous != null && previous.toAccountId() + 1 == first) {
+                ranges.set(ranges.size() - 1, new AccountRange(previous.fromAccountId(), last));
+            } else {
+                ranges.add(new AccountRange(first, last));
+            }
+            return;
+        }
+        int children = levels.get(level - 1).length;
+        collect(other, level - 1, 2 * index, ranges);
+        if (2 * index + 1 < children) {
+            collect(other, level - 1, 2 * index + 1, ranges);
+        }
+    }
+
+    private static long combine(long left, long right) {
+        return mix(left * 0x9E3779B97F4A7C15L + right);
+    }
+
+    private static long mix(long value) {
+        long z = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LedgerDigest digest && fromAccountId == digest.fromAccountId && toAccountId == digest.toAccountId
+                && leafSize == digest.leafSize && Arrays.equals(leaves, digest.leaves);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getRoot());
+    }
+
+    /**
+     * Account ids {@code fromAccountId} to {@code toAccountId}, inclusive.
+     */
+    public record AccountRange(long fromAccountId, long toAccountId) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.tinybank.management.reconciliation;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.reconciliation.LedgerDigest.AccountRange;
+import com.tinybank.management.service.AccountStorageDB;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Detects accounts whose balance and journal have drifted apart. Every journal keeps a running sum and
+ * checksum of its entries, so {@link #checkBalances()} compares each balance with its journal in constant
+ * time, and {@link #verifyAll()} additionally recomputes both from the entries. {@link #digest(long, long)}
+ * summarises an id range as a {@link LedgerDigest}, so two copies of the ledger are compared without
+ * rescanning either history. Sweeps run on a fork/join pool of their own, over chunks of consecutive ids.
+ */
+@Component
+@Slf4j
+public class LedgerReconciler {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final AccountStorageDB accountStorageDB;
+
+    private final ReconciliationProperties properties;
+
+    @Autowired
+    public LedgerReconciler(AccountStorageDB accountStorageDB, ReconciliationProperties properties) {
+        this.accountStorageDB = accountStorageDB;
+        this.properties = properties;
+    }
+
+    /**
+     * Compares the balance of every account with the running sum of its journal.
+     */
+    public ReconciliationReport checkBalances() {
+        return sweep("checkBalances", List.of(new AccountRange(1L, accountStorageDB.getMaxAccountId())), false);
+    }
+
+    /**
+     * Compares the balance of every account with the running sum of its journal, and the running sum and
+     * checksum with those of its entries, sealed history included.
+     */
+    public ReconciliationReport verifyAll() {
+        return verify(List.of(new AccountRange(1L, accountStorageDB.getMaxAccountId())));
+    }
+
+    /**
+     * Verifies the accounts of {@code ranges} like {@link #verifyAll()}, e.g. the ranges found by
+     * {@link LedgerDigest#diff(LedgerDigest)}.
+     */
+    public ReconciliationReport verify(List<AccountRange> ranges) {
+        return sweep("verify", ranges, true);
+    }
+
+    /**
+     * Returns the digest of every account id up to the highest one in use.
+     */
+    public LedgerDigest digest() {
+        return digest(1L, accountStorageDB.getMaxAccountId());
+    }
+
+    /**
+     * Returns the digest of the accounts with ids {@code fromAccountId} to {@code toAccountId}, inclusive.
+     */
+    public LedgerDigest digest(long fromAccountId, long toAccountId) {
+        if (fromAccountId > toAccountId + 1) {
+            throw new IllegalArgumentException("Invalid account range: [" + fromAccountId + ", " + toAccountId + "]");
+        }
+        log.info("Start of digest, fromAccountId: {}, toAccountId: {}", fromAccountId, toAccountId);
+        long start = System.nanoTime();
+        int leafSize = properties.getLeafSize();
+        long leafCount = (toAccountId - fromAccountId + leafSize) / leafSize;
+        if (leafCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many leaves for leaf size " + leafSize + ": " + leafCount);
+        }
+        long[] leaves = new long[(int) leafCount];
+        inPool(() -> {
+            IntStream.range(0, leaves.length).parallel().forEach(leaf -> {
+                long first = fromAccountId + (long) leaf * leafSize;
+                long last = Math.min(first + leafSize - 1, toAccountId);
+                long digest = 0L;
+                for (long accountId = first; accountId <= last; accountId++) {
+                    Account account = accountStorageDB.findAccount(accountId);
+                    if (account != null) {
+                        long[] state = readState(account);
+                        digest = LedgerDigest.fold(digest, accountId, state[0], (int) state[3], state[2]);
+                    }
+                }
+                leaves[leaf] = digest;
+            });
+        });
+        LedgerDigest digest = new LedgerDigest(fromAccountId, toAccountId, leafSize, leaves);
+        log.info("End of digest, fromAccountId: {}, toAccountId: {}, leaves: {}, root: {}, durationMs: {}",
+                fromAccountId, toAccountId, leaves.length, digest.getRoot(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return digest;
+    }
+
+    private ReconciliationReport sweep(String name, List<AccountRange> ranges, boolean full) {
+        log.info("Start of {}, ranges: {}", name, ranges.size());
+        long start = System.nanoTime();
+        List<AccountRange> chunks = new ArrayList<>();
+        for (AccountRange range : ranges) {
+            for (long first = range.fromAccountId(); first <= range.toAccountId(); first += CHUNK_SIZE) {
+                chunks.add(new AccountRange(first, Math.min(first + CHUNK_SIZE - 1, range.toAccountId())));
+            }
+        }
+        LongAdder accounts = new LongAdder();
+        LongAdder entries = new LongAdder();
+        ConcurrentLinkedQueue<AccountDrift> drifts = new ConcurrentLinkedQueue<>();
+        inPool(() -> {
+            chunks.parallelStream().forEach(chunk -> {
+                for (long accountId = chunk.fromAccountId(); accountId <= chunk.toAccountId(); accountId++) {
+                    Account account = accountStorageDB.findAccount(accountId);
+                    if (account != null) {
+                        accounts.increment();
+                        entries.add(check(account, full, drifts));
+                    }
+                }
+            });
+        });
+        List<AccountDrift> found = new ArrayList<>(drifts);
+        found.sort(Comparator.comparingLong(AccountDrift::accountId));
+        ReconciliationReport report = new ReconciliationReport(accounts.sum(), entries.sum(), found, System.nanoTime() - start);
+        if (report.isConsistent()) {
+            log.info("End of {}, accounts: {}, entries: {}, durationMs: {}", name, report.accounts(), report.entries(),
+                    TimeUnit.NANOSECONDS.toMillis(report.elapsedNanos()));
+        } else {
+            log.warn("End of {}, accounts: {}, entries: {}, drifts: {}, durationMs: {}, first: {}", name, report.accounts(), report.entries(),
+                    found.size(), TimeUnit.NANOSECONDS.toMillis(report.elapsedNanos()), found.get(0));
+        }
+        return report;
+    }
+
+    /**
+     * Checks one account and returns the number of its entries.
+     */
+    private int check(Account account, boolean full, ConcurrentLinkedQueue<AccountDrift> drifts) {
+        long[] state = readState(account);
+        for (int attempt = 0; state[0] != state[1] && attempt < properties.getRecheckAttempts(); attempt++) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            state = readState(account);
+        }
+        if (state[0] != state[1]) {
+            drifts.add(new AccountDrift(account.getAccountId(), DriftType.BALANCE, state[1], state[0]));
+        }
+        int size = (int) state[3];
+        if (full) {
+            TransactionJournal journal = account.getJournal();
+            long net = 0L;
+            long checksum = 0L;
+            for (int index = 0; index < size; index++) {
+                TransactionType transactionType = journal.getTransactionType(index);
+                long amount = journal.getAmount(index);
+                net += transactionType == TransactionType.DEPOSIT ? amount : -amount;
+                checksum = TransactionJournal.checksum(checksum, transactionType, amount, journal.getEpochMicros(index));
+            }
+            if (net != state[1]) {
+                drifts.add(new AccountDrift(account.getAccountId(), DriftType.RUNNING_SUM, net, state[1]));
+            }
+            if (checksum != state[2]) {
+                drifts.add(new AccountDrift(account.getAccountId(), DriftType.CHECKSUM, checksum, state[2]));
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Reads balance, running sum, checksum and size while the journal is held, so the last three agree.
+     */
+    private static long[] readState(Account account) {
+        TransactionJournal journal = account.getJournal();
+        return journal.callExclusively(() -> new long[] {account.getBalanceMinorUnits(), journal.getNetMinorUnits(), journal.getChecksum(), journal.size()});
+    }
+
+    private void inPool(Runnable action) {
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism, LedgerReconciler::newWorker, null, false);
+        try {
+            pool.submit(action).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("ledger-reconcile-" + worker.getPoolIndex());
+        return worker;
+    }
+}
@@ -0,0 +1,27 @@
+package com.tinybank.management.reconciliation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.reconciliation")
+@Data
+public class ReconciliationProperties {
+
+    /**
+     * Worker threads of a sweep or digest; {@code 0} uses one per available processor.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Consecutive account ids folded into one leaf of a ledger digest.
+     */
+    private int leafSize = 1024;
+
+    /**
+     * Times an account whose balance differs from its journal is checked again before it is reported: a
+     * deposit credits the balance just before it takes the journal, so a single mismatch may be in flight.
+     */
+    private int recheckAttempts = 3;
+}
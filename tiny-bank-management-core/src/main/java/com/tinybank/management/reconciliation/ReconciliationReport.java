@@ -0,0 +1,13 @@
+package com.tinybank.management.reconciliation;
+
+import java.util.List;
+
+/**
+ * Outcome of a reconciliation sweep: accounts and journal entries checked, and the drifts found.
+ */
+public record ReconciliationReport(long accounts, long entries, List<AccountDrift> drifts, long elapsedNanos) {
+
+    public boolean isConsistent() {
+        return drifts.isEmpty();
+    }
+}
@@ -1,20 +1,59 @@
 package com.tinybank.management.service;
 
 import com.tinybank.management.account.Account;
+import com.tinybank.management.account.SummaryPeriod;
 import com.tinybank.management.account.Transaction;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionPage;
+import com.tinybank.management.account.TransactionSummary;
 import com.tinybank.management.exception.CancelAccountException;
 import com.tinybank.management.exception.CreateAccountException;
 import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.InvalidUserException;
+import com.tinybank.management.user.UserAccounts;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AccountCrudService {
 
     Account createAccount(Account account) throws CreateAccountException;
 
+    /**
+     * Creates an account for each element of {@code accounts} and returns their ids in the same order,
+     * {@code null} for elements that could not be created.
+     */
+    List<Long> createAccounts(List<Account> accounts) throws CreateAccountException;
+
     boolean cancelAccount(Long accountId) throws CancelAccountException;
 
     List<Transaction> getTransaction(Long accountId) throws InvalidAccountException;
 
+    /**
+     * Returns up to {@code pageSize} transactions starting at {@code cursor} (from the start when null),
+     * restricted to {@code [from, to)} when given. Cost depends on the page size, not the history length.
+     */
+    TransactionPage getTransactionPage(Long accountId, Long cursor, int pageSize, LocalDateTime from, LocalDateTime to) throws InvalidAccountException;
+
+    /**
+     * Returns the live journal of the account, for readers that stream its columns instead of copying them.
+     */
+    TransactionJournal getTransactionJournal(Long accountId) throws InvalidAccountException;
+
     Double getBalance(Long accountId) throws InvalidAccountException;
+
+    /**
+     * Returns deposit and withdrawal counts and totals of the day or month containing {@code date}, today
+     * when null, without scanning the history for recent periods.
+     */
+    TransactionSummary getTransactionSummary(Long accountId, SummaryPeriod period, LocalDate date) throws InvalidAccountException;
+
+    /**
+     * Returns the user with {@code userName} and the balances of their live accounts, found through the
+     * user directory instead of a scan of every account.
+     */
+    UserAccounts getUserAccounts(String userName) throws InvalidUserException;
+
+    UserAccounts getUserAccounts(long userId) throws InvalidUserException;
 }
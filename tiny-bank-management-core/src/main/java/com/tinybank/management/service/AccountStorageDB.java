@@ -1,43 +1,418 @@
 package com.tinybank.management.service;
 
 import com.tinybank.management.account.Account;
+import com.tinybank.management.account.JournalListener;
+import com.tinybank.management.account.JournalLockObserver;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.collection.ConcurrentLongMap;
 import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.persistence.AccountArchive;
+import com.tinybank.management.persistence.FileHistorySegmentStore;
+import com.tinybank.management.persistence.LedgerSnapshotStore;
+import com.tinybank.management.persistence.WalRecord;
+import com.tinybank.management.persistence.WalRecordType;
+import com.tinybank.management.persistence.WriteAheadLog;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserDirectory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
+@Slf4j
 public class AccountStorageDB {
 
-    private final Map<Long, Account> accountStorage;
+    /**
+     * Accounts by id, keyed by primitive {@code long}: a lookup is a single probe without boxing the id.
+     */
+    private final ConcurrentLongMap<Account> accountStorage;
+
+    private final UserDirectory userDirectory;
+
+    @Autowired(required = false)
+    private WriteAheadLog writeAheadLog;
+
+    @Autowired(required = false)
+    private LedgerSnapshotStore ledgerSnapshotStore;
+
+    @Autowired(required = false)
+    private FileHistorySegmentStore historySegmentStore;
+
+    @Autowired(required = false)
+    private AccountArchive accountArchive;
+
+    private volatile JournalLockObserver journalLockObserver;
+
+    /**
+     * Entries of the journals of every live account, kept up to date by the journals themselves.
+     */
+    private final LongAdder journalEntryCount = new LongAdder();
 
     public AccountStorageDB() {
-        accountStorage = new ConcurrentHashMap<>();
+        accountStorage = new ConcurrentLongMap<>();
+        userDirectory = new UserDirectory();
+    }
+
+    public AccountStorageDB(WriteAheadLog writeAheadLog) {
+        this(writeAheadLog, null);
+    }
+
+    public AccountStorageDB(WriteAheadLog writeAheadLog, LedgerSnapshotStore ledgerSnapshotStore) {
+        this();
+        this.writeAheadLog = writeAheadLog;
+        this.ledgerSnapshotStore = ledgerSnapshotStore;
+    }
+
+    public AccountStorageDB(WriteAheadLog writeAheadLog, LedgerSnapshotStore ledgerSnapshotStore, FileHistorySegmentStore historySegmentStore) {
+        this(writeAheadLog, ledgerSnapshotStore);
+        this.historySegmentStore = historySegmentStore;
+    }
+
+    public AccountStorageDB(WriteAheadLog writeAheadLog, LedgerSnapshotStore ledgerSnapshotStore, FileHistorySegmentStore historySegmentStore,
+                            AccountArchive accountArchive) {
+        this(writeAheadLog, ledgerSnapshotStore, historySegmentStore);
+        this.accountArchive = accountArchive;
+    }
+
+    /**
+     * Loads the latest snapshot, if any, and replays the write-ahead log from the snapshot's start LSN.
+     */
+    @PostConstruct
+    public void recover() {
+        if (Objects.nonNull(writeAheadLog)) {
+            long fromLsn = 1L;
+            if (Objects.nonNull(ledgerSnapshotStore)) {
+                try {
+                    fromLsn = ledgerSnapshotStore.loadLatest(historySegmentStore, account -> {
+                        attachHistoryStore(account);
+                        accountStorage.put(account.getAccountId(), account);
+                    });
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Ledger snapshot recovery failed", ex);
+                }
+            }
+            writeAheadLog.recover(fromLsn, this::replay);
+            removeArchivedAccounts();
+            accountStorage.values().forEach(this::attachWriteAheadLog);
+            accountStorage.values().forEach(account -> account.getJournal().setEntryCounter(journalEntryCount));
+            registerUsers();
+            log.info("AccountStorageDB recovered, accounts: {}", accountStorage.size());
+        }
     }
 
     public Account getAccount(Long accountId) throws InvalidAccountException {
-        if (Objects.nonNull(accountId) && accountStorage.containsKey(accountId)) {
-            return accountStorage.get(accountId);
-        } else {
+        Account account = Objects.nonNull(accountId) ? accountStorage.get(accountId) : null;
+        if (Objects.isNull(account)) {
             throw new InvalidAccountException("Invalid Account Id");
         }
+        return account;
+    }
+
+    /**
+     * Returns the account with {@code accountId}, or {@code null}: unlike {@link #getAccount(Long)}, a
+     * missing id costs no exception, which matters to a scan over the whole id range.
+     */
+    public Account findAccount(long accountId) {
+        return accountStorage.get(accountId);
     }
 
+    /**
+     * Returns the closed account with {@code accountId} from the archive, or {@code null} when it was never
+     * archived or the archive is disabled.
+     */
+    public Account getArchivedAccount(long accountId) {
+        return Objects.nonNull(accountArchive) ? accountArchive.load(accountId) : null;
+    }
+
+    /**
+     * Index of the live accounts of every user, kept up to date as accounts are added and cancelled.
+     */
+    public UserDirectory getUserDirectory() {
+        return userDirectory;
+    }
+
+    /**
+     * Attaches {@code journalLockObserver} to the journal of every account, current and future.
+     */
+    public void setJournalLockObserver(JournalLockObserver journalLockObserver) {
+        this.journalLockObserver = journalLockObserver;
+        accountStorage.values().forEach(account -> account.getJournal().setLockObserver(journalLockObserver));
+    }
+
+    /**
+     * Adds {@code account}, returning {@code null} when it has no id or its user conflicts with the user
+     * already registered under that user name.
+     */
     public Account addAccount(Account account) {
         if (Objects.nonNull(account) && Objects.nonNull(account.getAccountId())) {
-            accountStorage.put(account.getAccountId(), account);
+            if (!userDirectory.register(account)) {
+                return null;
+            }
+            insertAccount(account);
             return account;
         }
         return null;
     }
 
+    /**
+     * Inserts {@code accounts}, which must all have an id, like {@link #addAccount(Account)}, registering
+     * their users in one batch so a bulk request for one user merges its account ids once. Returns the
+     * accounts left out because their user conflicts with a registered user.
+     */
+    public List<Account> addAccounts(List<Account> accounts) {
+        List<Account> rejected = new ArrayList<>();
+        boolean[] registered = userDirectory.registerAll(accounts);
+        for (int index = 0; index < accounts.size(); index++) {
+            if (registered[index]) {
+                insertAccount(accounts.get(index));
+            } else {
+                rejected.add(accounts.get(index));
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Closes the account, waiting for the operations in progress on it, then moves it to the archive when
+     * one is enabled and drops it from memory. Only the caller that closed the account goes on, so
+     * concurrent cancellations archive it once.
+     */
     public boolean deleteAccount(Long accountId) {
-        if (Objects.nonNull(accountId) && accountStorage.containsKey(accountId)) {
+        Account account = Objects.nonNull(accountId) ? accountStorage.get(accountId) : null;
+        if (Objects.isNull(account) || !account.close()) {
+            return false;
+        }
+        if (Objects.nonNull(accountArchive)) {
+            accountArchive.archive(account);
+        }
+        accountStorage.remove(accountId);
+        account.getJournal().setEntryCounter(null);
+        userDirectory.unregister(account);
+        if (Objects.nonNull(writeAheadLog)) {
+            account.getJournal().setListener(null);
+            writeAheadLog.append(WalRecord.builder().recordType(WalRecordType.CANCEL_ACCOUNT).accountId(accountId).build());
+        }
+        return true;
+    }
+
+    public long getMaxAccountId() {
+        long[] maxAccountId = {0L};
+        accountStorage.forEach((account, accountId) -> maxAccountId[0] = Math.max(maxAccountId[0], accountId));
+        // Ids of archived accounts are never handed out again.
+        return Objects.nonNull(accountArchive) ? Math.max(maxAccountId[0], accountArchive.getMaxAccountId()) : maxAccountId[0];
+    }
+
+    public int getAccountCount() {
+        return accountStorage.size();
+    }
+
+    /**
+     * Number of journal entries of all live accounts, read from a counter the journals update on append,
+     * so it costs the same however many accounts there are.
+     */
+    public long getJournalEntryCount() {
+        return journalEntryCount.sum();
+    }
+
+    /**
+     * Blocks until every change made so far is durable. Returns immediately when durability is disabled.
+     */
+    public void awaitDurable() {
+        if (Objects.nonNull(writeAheadLog)) {
+            writeAheadLog.awaitDurable();
+        }
+    }
+
+    /**
+     * Writes a snapshot of every account and drops the log segments it makes redundant. Returns
+     * {@code false} when snapshots are disabled.
+     */
+    public boolean writeSnapshot() throws IOException {
+        if (Objects.isNull(writeAheadLog) || Objects.isNull(ledgerSnapshotStore)) {
+            return false;
+        }
+        long startLsn = writeAheadLog.rollSegment();
+        ledgerSnapshotStore.write(startLsn, accountStorage.values(), historySegmentStore);
+        writeAheadLog.deleteSegmentsBefore(startLsn);
+        return true;
+    }
+
+    private void insertAccount(Account account) {
+        attachHistoryStore(account);
+        account.getJournal().setEntryCounter(journalEntryCount);
+        account.getJournal().setLockObserver(journalLockObserver);
+        if (Objects.nonNull(writeAheadLog)) {
+            // Holding the journal lock keeps the account's first entry behind its CREATE record, while
+            // putting before appending keeps every logged account visible to a concurrent snapshot.
+            account.getJournal().runExclusively(() -> {
+                attachWriteAheadLog(account);
+                accountStorage.put(account.getAccountId(), account);
+                writeAheadLog.append(createAccountRecord(account));
+            });
+        } else {
+            accountStorage.put(account.getAccountId(), account);
+        }
+    }
+
+    /**
+     * Keeps only the recent history of {@code account} in memory when the history store is enabled.
+     */
+    private void attachHistoryStore(Account account) {
+        if (Objects.nonNull(historySegmentStore)) {
+            account.getJournal().attachHistoryStore(historySegmentStore, historySegmentStore.getHotEntries());
+        }
+    }
+
+    private void attachWriteAheadLog(Account account) {
+        account.getJournal().setListener(new WriteAheadLogListener(account.getAccountId()));
+    }
+
+    private void replay(WalRecord record) {
+        switch (record.getRecordType()) {
+            case CREATE_ACCOUNT -> accountStorage.computeIfAbsent(record.getAccountId(), accountId -> {
+                Account account = recoverAccount(record);
+                attachHistoryStore(account);
+                return account;
+            });
+            case CANCEL_ACCOUNT -> cancelOnReplay(record.getAccountId());
+            case DEPOSIT -> replayEntry(record.getAccountId(), record.getEntryIndex(), TransactionType.DEPOSIT, record);
+            case WITHDRAW -> replayEntry(record.getAccountId(), record.getEntryIndex(), TransactionType.WITHDRAW, record);
+            case TRANSFER -> {
+                replayEntry(record.getAccountId(), record.getEntryIndex(), TransactionType.WITHDRAW, record);
+                replayEntry(record.getCounterpartyAccountId(), record.getCounterpartyEntryIndex(), TransactionType.DEPOSIT, record);
+            }
+        }
+    }
+
+    /**
+     * Archives an account cancelled before the archive was enabled, so its history is kept from now on.
+     */
+    private void cancelOnReplay(long accountId) {
+        Account account = accountStorage.remove(accountId);
+        if (Objects.nonNull(account) && Objects.nonNull(accountArchive) && !accountArchive.contains(accountId)) {
+            account.close();
+            accountArchive.archive(account);
+        }
+    }
+
+    /**
+     * Drops recovered accounts that are already archived: a crash between archiving an account and logging
+     * its cancellation leaves it in both, and the archive, forced first, wins.
+     */
+    private void removeArchivedAccounts() {
+        if (Objects.isNull(accountArchive)) {
+            return;
+        }
+        List<Long> archived = new ArrayList<>();
+        accountStorage.forEach((account, accountId) -> {
+            if (accountArchive.contains(accountId)) {
+                archived.add(accountId);
+            }
+        });
+        for (Long accountId : archived) {
+            log.warn("Recovered account is already archived, cancelling it, accountId: {}", accountId);
             accountStorage.remove(accountId);
-            return true;
+            writeAheadLog.append(WalRecord.builder().recordType(WalRecordType.CANCEL_ACCOUNT).accountId(accountId).build());
+        }
+    }
+
+    /**
+     * Indexes the recovered accounts in id order, so a user logged before user ids were gets the id of their
+     * oldest live account.
+     */
+    private void registerUsers() {
+        List<Account> accounts = new ArrayList<>(accountStorage.size());
+        accountStorage.values().forEach(accounts::add);
+        accounts.sort(Comparator.comparing(Account::getAccountId));
+        boolean[] registered = userDirectory.registerAll(accounts);
+        for (int index = 0; index < accounts.size(); index++) {
+            if (!registered[index]) {
+                Account account = accounts.get(index);
+                log.warn("Recovered account conflicts with its registered user, accountId: {}, userName: {}",
+                        account.getAccountId(), account.getUser().getUserName());
+            }
+        }
+    }
+
+    private void replayEntry(long accountId, int entryIndex, TransactionType transactionType, WalRecord record) {
+        Account account = accountStorage.get(accountId);
+        if (Objects.nonNull(account) && entryIndex >= account.getJournal().size()) {
+            account.replayTransaction(transactionType, record.getMinorUnits(), record.getEpochMicros(), record.getRemarks());
+        }
+    }
+
+    private static Account recoverAccount(WalRecord record) {
+        Account account = new Account();
+        account.setAccountId(record.getAccountId());
+        account.setUser(User.builder()
+                .id(record.getUserId() != 0L ? record.getUserId() : null)
+                .name(record.getName())
+                .userName(record.getUserName())
+                .password(record.getPassword())
+                .role(Objects.nonNull(record.getRole()) ? Role.valueOf(record.getRole()) : null)
+                .build());
+        return account;
+    }
+
+    private static WalRecord createAccountRecord(Account account) {
+        User user = account.getUser();
+        return WalRecord.builder()
+                .recordType(WalRecordType.CREATE_ACCOUNT)
+                .accountId(account.getAccountId())
+                .name(Objects.nonNull(user) ? user.getName() : null)
+                .userName(Objects.nonNull(user) ? user.getUserName() : null)
+                .password(Objects.nonNull(user) ? user.getPassword() : null)
+                .role(Objects.nonNull(user) && Objects.nonNull(user.getRole()) ? user.getRole().name() : null)
+                .userId(Objects.nonNull(user) && Objects.nonNull(user.getId()) ? user.getId() : 0L)
+                .build();
+    }
+
+    /**
+     * Turns the journal entries of one account into write-ahead log records; a transfer becomes a single
+     * TRANSFER record so both of its sides are recovered or neither is.
+     */
+    private class WriteAheadLogListener implements JournalListener {
+
+        private final long accountId;
+
+        private WriteAheadLogListener(long accountId) {
+            this.accountId = accountId;
+        }
+
+        @Override
+        public void onAppend(int index, TransactionType transactionType, long minorUnits, long epochMicros, String remarks) {
+            writeAheadLog.append(WalRecord.builder()
+                    .recordType(transactionType == TransactionType.DEPOSIT ? WalRecordType.DEPOSIT : WalRecordType.WITHDRAW)
+                    .accountId(accountId)
+                    .entryIndex(index)
+                    .minorUnits(minorUnits)
+                    .epochMicros(epochMicros)
+                    .remarks(remarks)
+                    .build());
+        }
+
+        @Override
+        public void onTransfer(int index, Long counterpartyAccountId, int counterpartyIndex, long minorUnits, long epochMicros, String remarks) {
+            writeAheadLog.append(WalRecord.builder()
+                    .recordType(WalRecordType.TRANSFER)
+                    .accountId(accountId)
+                    .entryIndex(index)
+                    .counterpartyAccountId(counterpartyAccountId)
+                    .counterpartyEntryIndex(counterpartyIndex)
+                    .minorUnits(minorUnits)
+                    .epochMicros(epochMicros)
+                    .remarks(remarks)
+                    .build());
         }
-        return false;
     }
 }
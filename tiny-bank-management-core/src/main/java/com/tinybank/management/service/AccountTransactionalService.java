@@ -1,10 +1,16 @@
 package com.tinybank.management.service;
 
+import com.tinybank.management.account.BatchOperation;
+import com.tinybank.management.account.BatchOperationResult;
 import com.tinybank.management.exception.DepositOperationException;
 import com.tinybank.management.exception.InvalidAccountException;
 import com.tinybank.management.exception.TransferOperationException;
 import com.tinybank.management.exception.WithdrawOperationException;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface AccountTransactionalService {
 
     void deposit(Long accountId, double amount, String remarks) throws DepositOperationException;
@@ -12,4 +18,27 @@ public interface AccountTransactionalService {
     void withdraw(Long accountId, double amount, String remarks) throws WithdrawOperationException;
 
     void transfer(Long fromAccountId, Long toAccountId, double amount, String remarks) throws InvalidAccountException, TransferOperationException;
+
+    /**
+     * Queues a {@link #deposit}. The future completes once the deposit is applied and durable, or
+     * exceptionally with a {@link DepositOperationException}, also when the deposit has not started within
+     * {@code timeout}; a {@code null} timeout uses the configured default.
+     */
+    CompletableFuture<Void> depositAsync(Long accountId, double amount, String remarks, Duration timeout);
+
+    /**
+     * Queues a {@link #withdraw}; see {@link #depositAsync}.
+     */
+    CompletableFuture<Void> withdrawAsync(Long accountId, double amount, String remarks, Duration timeout);
+
+    /**
+     * Queues a {@link #transfer}; see {@link #depositAsync}.
+     */
+    CompletableFuture<Void> transferAsync(Long fromAccountId, Long toAccountId, double amount, String remarks, Duration timeout);
+
+    /**
+     * Applies {@code operations} with the same effect as submitting them one by one in order, and returns
+     * one result per operation. A failed operation does not stop the batch.
+     */
+    List<BatchOperationResult> executeBatch(List<BatchOperation> operations);
 }
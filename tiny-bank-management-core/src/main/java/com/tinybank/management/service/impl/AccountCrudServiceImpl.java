@@ -1,31 +1,69 @@
 package com.tinybank.management.service.impl;
 
 import com.tinybank.management.account.Account;
+import com.tinybank.management.account.SummaryPeriod;
 import com.tinybank.management.account.Transaction;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionPage;
+import com.tinybank.management.account.TransactionSummary;
+import com.tinybank.management.auth.PasswordHasher;
 import com.tinybank.management.exception.CancelAccountException;
 import com.tinybank.management.exception.CreateAccountException;
 import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.InvalidUserException;
 import com.tinybank.management.service.AccountCrudService;
 import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.user.AccountBalance;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserAccounts;
+import com.tinybank.management.user.UserDirectory;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 @Service("accountCrudService")
 @Slf4j
 public class AccountCrudServiceImpl implements AccountCrudService {
 
-    private final AtomicLong accountIdIncrementer;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Accounts created per bulk worker task, each with its own block of ids.
+     */
+    public static final int BULK_CHUNK_SIZE = 4096;
+
+    private final AccountIdAllocator accountIdAllocator;
 
     @Autowired
     private AccountStorageDB accountStorageDB;
 
+    @Autowired(required = false)
+    private PasswordHasher passwordHasher;
+
     public AccountCrudServiceImpl() {
-        accountIdIncrementer = new AtomicLong();
+        accountIdAllocator = new AccountIdAllocator();
+    }
+
+    @PostConstruct
+    public void initAccountIdIncrementer() {
+        accountIdAllocator.reset(accountStorageDB.getMaxAccountId());
     }
 
     @Override
@@ -34,8 +72,14 @@ public class AccountCrudServiceImpl implements AccountCrudService {
             log.info("Start of validateAccountInfo, account: {}", account);
             boolean validationStatus = validateAccountInfo(account);
             log.info("End of validateAccountInfo, account: {}, validationStatus: {}", account, validationStatus);
+            UserResolution users = new UserResolution();
+            if (validationStatus && !resolveUser(account, users)) {
+                log.error("Error in createAccount, account: {}, user name taken by another user", account);
+                throw new CreateAccountException("User name already registered with different details");
+            }
             if (validationStatus) {
-                Long generateAccountId = accountIdIncrementer.incrementAndGet();
+                hashPasswords(users);
+                Long generateAccountId = accountIdAllocator.nextId();
                 account.setAccountId(generateAccountId);
                 log.info("Start of saveAccount, account: {}", account);
                 Account createdAccount = saveAccount(account);
@@ -54,11 +98,72 @@ public class AccountCrudServiceImpl implements AccountCrudService {
         }
     }
 
+    /**
+     * Splits {@code accounts} into chunks that are created in parallel. Users are resolved first, once per
+     * user name; then each chunk takes one block of ids and is inserted into the storage in one call, and
+     * per-account logging is skipped. Returns the created account ids in input order, {@code null} for
+     * accounts without a user or whose user name belongs to a different user.
+     */
+    @Override
+    public List<Long> createAccounts(List<Account> accounts) throws CreateAccountException {
+        log.info("Start of createAccounts, accounts: {}", accounts.size());
+        try {
+            Long[] accountIds = new Long[accounts.size()];
+            boolean[] accepted = new boolean[accounts.size()];
+            UserResolution users = new UserResolution();
+            for (int index = 0; index < accounts.size(); index++) {
+                accepted[index] = validateAccountInfo(accounts.get(index)) && resolveUser(accounts.get(index), users);
+            }
+            hashPasswords(users);
+            int chunks = (accounts.size() + BULK_CHUNK_SIZE - 1) / BULK_CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> createChunk(accounts, chunk * BULK_CHUNK_SIZE,
+                    Math.min((chunk + 1) * BULK_CHUNK_SIZE, accounts.size()), accepted, accountIds));
+            accountStorageDB.awaitDurable();
+            long created = Arrays.stream(accountIds).filter(Objects::nonNull).count();
+            log.info("End of createAccounts, accounts: {}, created: {}", accounts.size(), created);
+            return Arrays.asList(accountIds);
+        } catch (Exception ex) {
+            log.error("Error in createAccounts, accounts: {}, Exception", accounts.size(), ex);
+            throw new CreateAccountException();
+        }
+    }
+
+    private void createChunk(List<Account> accounts, int from, int to, boolean[] accepted, Long[] accountIds) {
+        List<Account> chunk = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            if (accepted[index]) {
+                chunk.add(accounts.get(index));
+            }
+        }
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long accountId = accountIdAllocator.nextBlock(chunk.size());
+        for (int index = from; index < to; index++) {
+            if (accepted[index]) {
+                accounts.get(index).setAccountId(accountId);
+                accountIds[index] = accountId++;
+            }
+        }
+        // A user registered concurrently since the users were resolved can still reject an account.
+        List<Account> rejected = accountStorageDB.addAccounts(chunk);
+        if (!rejected.isEmpty()) {
+            Set<Account> rejectedAccounts = Collections.newSetFromMap(new IdentityHashMap<>());
+            rejectedAccounts.addAll(rejected);
+            for (int index = from; index < to; index++) {
+                if (rejectedAccounts.contains(accounts.get(index))) {
+                    accountIds[index] = null;
+                }
+            }
+        }
+    }
+
     private Account saveAccount(Account account) throws CreateAccountException {
         Account createdAccount = accountStorageDB.addAccount(account);
         if (Objects.isNull(createdAccount)) {
-            throw new CreateAccountException("Account storage failed");
+            throw new CreateAccountException("Account storage failed or user name registered concurrently with different details");
         }
+        accountStorageDB.awaitDurable();
         return createdAccount;
     }
 
@@ -67,7 +172,9 @@ public class AccountCrudServiceImpl implements AccountCrudService {
         try {
             log.info("cancelAccount request, accountId: {}", accountId);
             if (Objects.nonNull(accountId)) {
-                return accountStorageDB.deleteAccount(accountId);
+                boolean deleteStatus = accountStorageDB.deleteAccount(accountId);
+                accountStorageDB.awaitDurable();
+                return deleteStatus;
             }
         } catch (Exception ex) {
             log.info("Error in cancelAccount, accountId: {}, Exception:", accountId, ex);
@@ -79,22 +186,175 @@ public class AccountCrudServiceImpl implements AccountCrudService {
     @Override
     public List<Transaction> getTransaction(Long accountId) throws InvalidAccountException {
         if (Objects.nonNull(accountId)) {
-            Account account = accountStorageDB.getAccount(accountId);
+            Account account = getAccountForRead(accountId);
             return account.getTransactions();
         }
         return List.of();
     }
 
+    @Override
+    public TransactionPage getTransactionPage(Long accountId, Long cursor, int pageSize, LocalDateTime from, LocalDateTime to) throws InvalidAccountException {
+        Account account = getAccountForRead(accountId);
+        TransactionJournal journal = account.getJournal();
+        int size = journal.size();
+        int end = Objects.nonNull(to) ? journal.indexAtOrAfter(TransactionJournal.toEpochMicros(to), size) : size;
+        int start = Objects.nonNull(from) ? journal.indexAtOrAfter(TransactionJournal.toEpochMicros(from), end) : 0;
+        if (Objects.nonNull(cursor)) {
+            start = (int) Math.min(Math.max(cursor, start), end);
+        }
+        int limit = pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        int pageEnd = (int) Math.min((long) start + limit, end);
+        return TransactionPage.builder()
+                .transactions(journal.asList(accountId, start, pageEnd))
+                .nextCursor(pageEnd < end ? (long) pageEnd : null)
+                .build();
+    }
+
+    @Override
+    public TransactionJournal getTransactionJournal(Long accountId) throws InvalidAccountException {
+        return getAccountForRead(accountId).getJournal();
+    }
+
     @Override
     public Double getBalance(Long accountId) throws InvalidAccountException {
         if (Objects.nonNull(accountId)) {
-            Account account = accountStorageDB.getAccount(accountId);
+            Account account = getAccountForRead(accountId);
             return account.getBalance();
         }
         return null;
     }
 
+    @Override
+    public TransactionSummary getTransactionSummary(Long accountId, SummaryPeriod period, LocalDate date) throws InvalidAccountException {
+        Account account = getAccountForRead(accountId);
+        return account.getJournal().summarize(accountId, period, Objects.nonNull(date) ? date : LocalDate.now());
+    }
+
+    @Override
+    public UserAccounts getUserAccounts(String userName) throws InvalidUserException {
+        UserDirectory userDirectory = accountStorageDB.getUserDirectory();
+        return toUserAccounts(userDirectory.getUser(userName), userDirectory.getAccountIds(userName));
+    }
+
+    @Override
+    public UserAccounts getUserAccounts(long userId) throws InvalidUserException {
+        UserDirectory userDirectory = accountStorageDB.getUserDirectory();
+        return toUserAccounts(userDirectory.getUser(userId), userDirectory.getAccountIds(userId));
+    }
+
+    /**
+     * Replaces the passwords of the new users with their hashes when authentication is enabled, once per
+     * user and in parallel, before any account is inserted: a hash costs tens of milliseconds. An account of
+     * an existing user takes that user's record, so its password is not hashed again.
+     */
+    private void hashPasswords(UserResolution users) {
+        if (Objects.isNull(passwordHasher)) {
+            return;
+        }
+        users.newUsers.parallelStream()
+                .filter(user -> Objects.nonNull(user.getPassword()))
+                .forEach(user -> user.setPassword(passwordHasher.hash(user.getPassword())));
+    }
+
+    /**
+     * Makes a new account of a known user share that user's record, and returns {@code false} when its name,
+     * password or role differ from the user's: a user name identifies one user. {@code users} remembers
+     * the users resolved so far, so a bulk request checks each password against a stored hash once and
+     * shares one record between the accounts of a new user.
+     */
+    private boolean resolveUser(Account account, UserResolution users) {
+        User user = account.getUser();
+        if (Objects.isNull(user.getUserName())) {
+            users.newUsers.add(user);
+            return true;
+        }
+        ResolvedUser resolved = users.byUserName.get(user.getUserName());
+        if (Objects.isNull(resolved)) {
+            User existing = accountStorageDB.getUserDirectory().getUser(user.getUserName());
+            if (Objects.nonNull(existing)
+                    && (!isSameUser(existing, user.getName(), user.getRole()) || !passwordMatches(user.getPassword(), existing.getPassword()))) {
+                return false;
+            }
+            resolved = new ResolvedUser(Objects.nonNull(existing) ? existing : user, user.getPassword());
+            users.byUserName.put(user.getUserName(), resolved);
+            if (Objects.isNull(existing)) {
+                users.newUsers.add(user);
+            }
+        } else if (!isSameUser(resolved.user(), user.getName(), user.getRole()) || !Objects.equals(resolved.password(), user.getPassword())) {
+            return false;
+        }
+        account.setUser(resolved.user());
+        return true;
+    }
+
+    private static boolean isSameUser(User user, String name, Role role) {
+        return Objects.equals(user.getName(), name) && user.getRole() == role;
+    }
+
+    private boolean passwordMatches(String password, String storedPassword) {
+        if (Objects.isNull(passwordHasher) || Objects.isNull(password) || Objects.isNull(storedPassword)) {
+            return Objects.equals(password, storedPassword);
+        }
+        return passwordHasher.matches(password, storedPassword);
+    }
+
+    /**
+     * Looks up each account by id; an account cancelled since its id was read is left out.
+     */
+    private UserAccounts toUserAccounts(User user, long[] accountIds) throws InvalidUserException {
+        if (Objects.isNull(user)) {
+            throw new InvalidUserException();
+        }
+        List<AccountBalance> accounts = new ArrayList<>(accountIds.length);
+        for (long accountId : accountIds) {
+            Account account = accountStorageDB.findAccount(accountId);
+            if (Objects.nonNull(account)) {
+                accounts.add(new AccountBalance(accountId, account.getBalance()));
+            }
+        }
+        return UserAccounts.builder()
+                .userId(user.getId())
+                .name(user.getName())
+                .userName(user.getUserName())
+                .role(user.getRole())
+                .accounts(accounts)
+                .build();
+    }
+
+    /**
+     * Returns the live account, falling back to the archive so the history of a cancelled account can
+     * still be read.
+     */
+    private Account getAccountForRead(Long accountId) throws InvalidAccountException {
+        try {
+            return accountStorageDB.getAccount(accountId);
+        } catch (InvalidAccountException ex) {
+            Account archived = Objects.nonNull(accountId) ? accountStorageDB.getArchivedAccount(accountId) : null;
+            if (Objects.isNull(archived)) {
+                throw ex;
+            }
+            return archived;
+        }
+    }
+
     private boolean validateAccountInfo(Account account) {
         return Objects.nonNull(account) && Objects.nonNull(account.getUser());
     }
+
+    /**
+     * Users resolved for the accounts of one request: by user name, and the new ones, whose passwords are
+     * still to be hashed.
+     */
+    private static final class UserResolution {
+
+        private final Map<String, ResolvedUser> byUserName = new HashMap<>();
+
+        private final List<User> newUsers = new ArrayList<>();
+    }
+
+    /**
+     * A user resolved for an account, with the password it was given in plain text.
+     */
+    private record ResolvedUser(User user, String password) {
+    }
 }
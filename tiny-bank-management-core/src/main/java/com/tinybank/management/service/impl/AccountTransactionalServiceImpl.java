@@ -1,101 +1,279 @@
 package com.tinybank.management.service.impl;
 
 import com.tinybank.management.account.Account;
-import com.tinybank.management.account.AccountStatus;
+import com.tinybank.management.account.BatchOperation;
+import com.tinybank.management.account.BatchOperationResult;
+import com.tinybank.management.account.BatchOperationType;
+import com.tinybank.management.async.AsyncLedgerExecutor;
+import com.tinybank.management.engine.PartitionedLedgerEngine;
 import com.tinybank.management.exception.DepositOperationException;
 import com.tinybank.management.exception.InvalidAccountException;
 import com.tinybank.management.exception.TransferOperationException;
 import com.tinybank.management.exception.WithdrawOperationException;
+import com.tinybank.management.metrics.LedgerMetrics;
+import com.tinybank.management.metrics.LedgerMetrics.Operation;
 import com.tinybank.management.service.AccountStorageDB;
 import com.tinybank.management.service.AccountTransactionalService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 @Service("accountTransactionalService")
 @Slf4j
 public class AccountTransactionalServiceImpl implements AccountTransactionalService {
 
-    private static final int REVERT_ATTEMPTS = 5;
     @Autowired
     private AccountStorageDB accountStorageDB;
 
+    /**
+     * When the partitioned engine is enabled, every balance change runs on the shard owning the account.
+     */
+    @Autowired(required = false)
+    private PartitionedLedgerEngine partitionedLedgerEngine;
+
+    /**
+     * When metrics are enabled, records operation latency and account lookup time; journal lock wait and
+     * hold times are reported by the journals themselves, so the operations run exactly as without metrics.
+     */
+    @Autowired(required = false)
+    private LedgerMetrics ledgerMetrics;
+
+    /**
+     * Runs the asynchronous operations; without it they run on the calling thread.
+     */
+    @Autowired(required = false)
+    private AsyncLedgerExecutor asyncLedgerExecutor;
+
     @Override
     public void deposit(Long accountId, double amount, String remarks) throws DepositOperationException {
         log.info("Start of deposit, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks);
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            Account account = accountStorageDB.getAccount(accountId);
-            boolean addStatus = account.addBalance(amount, remarks);
+            Account account = getAccount(accountId);
+            boolean addStatus = execute(accountId, () -> account.addBalance(amount, remarks));
             log.info("End of deposit, accountId: {}, amount: {}, remarks: {}, addStatus: {}", accountId, amount, remarks, addStatus);
             if (!addStatus) {
                 throw new DepositOperationException();
             }
+            accountStorageDB.awaitDurable();
+            success = true;
         } catch (RuntimeException | DepositOperationException ex) {
             log.error("Error in deposit, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks, ex);
             throw new DepositOperationException(ex.getMessage());
         } catch (Exception ex) {
             log.error("Error in deposit, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks, ex);
             throw new DepositOperationException();
+        } finally {
+            recordOperation(Operation.DEPOSIT, start, success);
         }
     }
 
     @Override
     public void withdraw(Long accountId, double amount, String remarks) throws WithdrawOperationException {
         log.info("Start of withdraw, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks);
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            Account account = accountStorageDB.getAccount(accountId);
-            boolean subtractStatus = account.subtractBalance(amount, remarks);
+            Account account = getAccount(accountId);
+            boolean subtractStatus = execute(accountId, () -> account.subtractBalance(amount, remarks));
             log.info("End of withdraw, accountId: {}, amount: {}, remarks: {}, subtractStatus: {}", accountId, amount, remarks, subtractStatus);
             if (!subtractStatus) {
                 throw new WithdrawOperationException();
             }
+            accountStorageDB.awaitDurable();
+            success = true;
         } catch (RuntimeException | WithdrawOperationException ex) {
             log.error("Error in withdraw, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks, ex);
             throw new WithdrawOperationException(ex.getMessage());
         } catch (Exception ex) {
             log.error("Error in withdraw, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks, ex);
             throw new WithdrawOperationException();
+        } finally {
+            recordOperation(Operation.WITHDRAW, start, success);
         }
     }
 
     @Override
     public void transfer(Long fromAccountId, Long toAccountId, double amount, String remarks) throws InvalidAccountException, TransferOperationException {
         log.info("Start of transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}", fromAccountId, toAccountId, amount, remarks);
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            Account fromAccount = accountStorageDB.getAccount(fromAccountId);
-            Account toAccount = accountStorageDB.getAccount(toAccountId);
-            boolean subtractStatus = fromAccount.subtractBalance(amount, remarks);
-            log.info("transfer operation, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}, subtractStatus: {}", fromAccountId, toAccountId, amount, remarks, subtractStatus);
-            if (subtractStatus) {
-                boolean addStatus = toAccount.addBalance(amount, remarks);
-                log.info("End of transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}, addStatus: {}", fromAccountId, toAccountId, amount, remarks, addStatus);
-                if (!addStatus) {
-                    log.info("revertWithdrawalOperation, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}, addStatus: {}", fromAccountId, toAccountId, amount, remarks, addStatus);
-                    revertWithdrawalOperation(fromAccount, amount, remarks);
-                    throw new TransferOperationException();
-                }
-            } else {
+            Account fromAccount = getAccount(fromAccountId);
+            Account toAccount = getAccount(toAccountId);
+            boolean transferStatus = execute(fromAccountId, toAccountId, () -> fromAccount.transferTo(toAccount, amount, remarks));
+            log.info("End of transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}, transferStatus: {}", fromAccountId, toAccountId, amount, remarks, transferStatus);
+            if (!transferStatus) {
                 throw new TransferOperationException();
             }
+            accountStorageDB.awaitDurable();
+            success = true;
         } catch (TransferOperationException | RuntimeException | InvalidAccountException ex) {
             log.error("Error in transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}", fromAccountId, toAccountId, amount, remarks, ex);
             throw new TransferOperationException(ex.getMessage());
         } catch (Exception ex) {
             log.error("Error in transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}", fromAccountId, toAccountId, amount, remarks, ex);
             throw new TransferOperationException();
+        } finally {
+            recordOperation(Operation.TRANSFER, start, success);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> depositAsync(Long accountId, double amount, String remarks, Duration timeout) {
+        return submit(timeout, () -> deposit(accountId, amount, remarks), DepositOperationException::new);
+    }
+
+    @Override
+    public CompletableFuture<Void> withdrawAsync(Long accountId, double amount, String remarks, Duration timeout) {
+        return submit(timeout, () -> withdraw(accountId, amount, remarks), WithdrawOperationException::new);
+    }
+
+    @Override
+    public CompletableFuture<Void> transferAsync(Long fromAccountId, Long toAccountId, double amount, String remarks, Duration timeout) {
+        return submit(timeout, () -> transfer(fromAccountId, toAccountId, amount, remarks), TransferOperationException::new);
+    }
+
+    /**
+     * Splits the batch at every transfer. Between two transfers, deposits and withdrawals of different
+     * accounts are independent, so they are grouped by account and each group is applied in submission
+     * order under a single hold of the account's journal (and as a single task on its shard). The batch
+     * waits for durability once, at the end.
+     */
+    @Override
+    public List<BatchOperationResult> executeBatch(List<BatchOperation> operations) {
+        log.info("Start of executeBatch, operations: {}", operations.size());
+        long startNanos = System.nanoTime();
+        BatchOperationResult[] results = new BatchOperationResult[operations.size()];
+        int start = 0;
+        while (start < operations.size()) {
+            int end = start;
+            while (end < operations.size() && operations.get(end).getOperationType() != BatchOperationType.TRANSFER) {
+                end++;
+            }
+            applyGroupedByAccount(operations, start, end, results);
+            if (end < operations.size()) {
+                results[end] = applyTransfer(end, operations.get(end));
+                end++;
+            }
+            start = end;
+        }
+        long succeeded = Arrays.stream(results).filter(BatchOperationResult::isSuccess).count();
+        if (succeeded > 0) {
+            accountStorageDB.awaitDurable();
+        }
+        recordOperation(Operation.BATCH, startNanos, succeeded == operations.size());
+        log.info("End of executeBatch, operations: {}, succeeded: {}", operations.size(), succeeded);
+        return Arrays.asList(results);
+    }
+
+    private void applyGroupedByAccount(List<BatchOperation> operations, int from, int to, BatchOperationResult[] results) {
+        Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+        for (int index = from; index < to; index++) {
+            groups.computeIfAbsent(operations.get(index).getAccountId(), accountId -> new ArrayList<>()).add(index);
+        }
+        for (Map.Entry<Long, List<Integer>> group : groups.entrySet()) {
+            Account account;
+            try {
+                account = getAccount(group.getKey());
+            } catch (InvalidAccountException ex) {
+                group.getValue().forEach(index -> results[index] = failure(index, ex.getMessage()));
+                continue;
+            }
+            execute(group.getKey(), () -> account.getJournal().callExclusively(() -> {
+                for (int index : group.getValue()) {
+                    results[index] = applySingle(account, index, operations.get(index));
+                }
+                return true;
+            }));
         }
     }
 
-    private void revertWithdrawalOperation(Account fromAccount, double amount, String remarks) {
-        boolean revertStatus = false;
-        int maxRevertAttempts = REVERT_ATTEMPTS;
-        while (!revertStatus && maxRevertAttempts >= 0) {
-            revertStatus = fromAccount.addBalance(amount, remarks);
-            log.info("revertWithdrawalOperation, fromAccountId: {}, amount: {}, remarks: {}, addStatus: {}", fromAccount, amount, remarks, remarks);
-            maxRevertAttempts--;
+    private static BatchOperationResult applySingle(Account account, int index, BatchOperation operation) {
+        if (Objects.isNull(operation.getOperationType())) {
+            return failure(index, "Missing operation type");
         }
-        if (!revertStatus) {
-            fromAccount.setAccountStatus(AccountStatus.LOCKED);
+        try {
+            return switch (operation.getOperationType()) {
+                case DEPOSIT -> account.addBalance(operation.getAmount(), operation.getRemarks())
+                        ? success(index) : failure(index, new DepositOperationException().getMessage());
+                case WITHDRAW -> account.subtractBalance(operation.getAmount(), operation.getRemarks())
+                        ? success(index) : failure(index, new WithdrawOperationException().getMessage());
+                default -> failure(index, "Unsupported operation type: " + operation.getOperationType());
+            };
+        } catch (RuntimeException ex) {
+            return failure(index, ex.getMessage());
+        }
+    }
+
+    private BatchOperationResult applyTransfer(int index, BatchOperation operation) {
+        try {
+            Account fromAccount = getAccount(operation.getAccountId());
+            Account toAccount = getAccount(operation.getToAccountId());
+            boolean transferStatus = execute(operation.getAccountId(), operation.getToAccountId(),
+                    () -> fromAccount.transferTo(toAccount, operation.getAmount(), operation.getRemarks()));
+            return transferStatus ? success(index) : failure(index, new TransferOperationException().getMessage());
+        } catch (InvalidAccountException | RuntimeException ex) {
+            return failure(index, ex.getMessage());
+        }
+    }
+
+    private static BatchOperationResult success(int index) {
+        return BatchOperationResult.builder().index(index).success(true).build();
+    }
+
+    private static BatchOperationResult failure(int index, String errorMessage) {
+        return BatchOperationResult.builder().index(index).success(false).errorMessage(errorMessage).build();
+    }
+
+    private CompletableFuture<Void> submit(Duration timeout, AsyncLedgerExecutor.Operation operation, Function<String, ? extends Exception> failure) {
+        if (Objects.isNull(asyncLedgerExecutor)) {
+            return AsyncLedgerExecutor.runInline(operation);
+        }
+        return asyncLedgerExecutor.submit(timeout, operation, failure);
+    }
+
+    private Account getAccount(Long accountId) throws InvalidAccountException {
+        if (Objects.isNull(ledgerMetrics)) {
+            return accountStorageDB.getAccount(accountId);
+        }
+        long start = System.nanoTime();
+        try {
+            return accountStorageDB.getAccount(accountId);
+        } finally {
+            ledgerMetrics.recordLookup(System.nanoTime() - start);
+        }
+    }
+
+    private void recordOperation(Operation operation, long start, boolean success) {
+        if (Objects.nonNull(ledgerMetrics)) {
+            ledgerMetrics.recordOperation(operation, System.nanoTime() - start, success);
+        }
+    }
+
+    private boolean execute(Long accountId, Supplier<Boolean> action) {
+        if (Objects.isNull(partitionedLedgerEngine)) {
+            return action.get();
+        }
+        return PartitionedLedgerEngine.join(partitionedLedgerEngine.execute(accountId, action));
+    }
+
+    private boolean execute(Long firstAccountId, Long secondAccountId, Supplier<Boolean> action) {
+        if (Objects.isNull(partitionedLedgerEngine)) {
+            return action.get();
         }
+        return PartitionedLedgerEngine.join(partitionedLedgerEngine.execute(firstAccountId, secondAccountId, action));
     }
 }
@@ -0,0 +1,267 @@
+package com.tinybank.management.user;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.collection.ConcurrentLongMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Index of the live accounts of every user, so the accounts of one user are found without scanning the
+ * ledger. Users are keyed by {@code userName}: the first account registered for a user name supplies the
+ * {@link User} that every later account of that name shares, and its account id becomes the user id unless
+ * the user already has one. The id is logged with every account, so it survives the first account being
+ * cancelled. A later account whose name, password or role differ from the registered user is rejected.
+ * Accounts without a user name are not indexed.
+ * <p>
+ * Registrations of one user name are serialized by the map; a user's account ids are a copy-on-write
+ * array, so readers never lock. Accounts registered together with {@link #registerAll(List)} are merged
+ * into it with one copy per user rather than one per account. A user is dropped with their last account.
+ */
+public class UserDirectory {
+
+    private static final long[] NO_ACCOUNTS = new long[0];
+
+    private final ConcurrentHashMap<String, Entry> usersByUserName;
+
+    private final ConcurrentLongMap<Entry> usersById;
+
+    private final AtomicInteger adminCount;
+
+    public UserDirectory() {
+        usersByUserName = new ConcurrentHashMap<>();
+        usersById = new ConcurrentLongMap<>();
+        adminCount = new AtomicInteger();
+    }
+
+    /**
+     * Adds {@code account} to the accounts of its user and replaces its user with the shared one. Returns
+     * {@code false}, leaving the account out, when its user conflicts with the user registered under that
+     * user name.
+     */
+    public boolean register(Account account) {
+        User user = account.getUser();
+        if (Objects.isNull(user) || Objects.isNull(user.getUserName()) || Objects.isNull(account.getAccountId())) {
+            return true;
+        }
+        long accountId = account.getAccountId();
+        boolean[] conflict = {false};
+        Entry entry = usersByUserName.compute(user.getUserName(), (userName, current) -> {
+            Entry registered = current;
+            if (Objects.nonNull(registered) && !isSameUser(registered.user, user)) {
+                conflict[0] = true;
+                return registered;
+            }
+            if (Objects.isNull(registered)) {
+                registered = newEntry(user, accountId);
+            }
+            registered.add(accountId);
+            return registered;
+        });
+        if (conflict[0]) {
+            return false;
+        }
+        account.setUser(entry.user);
+        return true;
+    }
+
+    /**
+     * Registers {@code accounts} as {@link #register(Account)} does, in order, and returns whether each was
+     * registered. The account ids of one user name are sorted and merged into the user's ids at once, so a
+     * bulk request creating many accounts of one user copies that user's ids once, not once per account.
+     */
+    public boolean[] registerAll(List<Account> accounts) {
+        boolean[] registered = new boolean[accounts.size()];
+        Map<String, List<Integer>> indexesByUserName = new LinkedHashMap<>();
+        for (int index = 0; index < accounts.size(); index++) {
+            Account account = accounts.get(index);
+            User user = account.getUser();
+            if (Objects.isNull(user) || Objects.isNull(user.getUserName()) || Objects.isNull(account.getAccountId())) {
+                registered[index] = true;
+                continue;
+            }
+            indexesByUserName.computeIfAbsent(user.getUserName(), userName -> new ArrayList<>()).add(index);
+        }
+        indexesByUserName.forEach((userName, indexes) -> {
+            Entry entry = usersByUserName.compute(userName, (key, current) -> {
+                Entry result = current;
+                long[] accountIds = new long[indexes.size()];
+                int count = 0;
+                for (int index : indexes) {
+                    Account account = accounts.get(index);
+                    if (Objects.isNull(result)) {
+                        result = newEntry(account.getUser(), account.getAccountId());
+                    } else if (!isSameUser(result.user, account.getUser())) {
+                        continue;
+                    }
+                    registered[index] = true;
+                    accountIds[count++] = account.getAccountId();
+                }
+                result.addAll(accountIds, count);
+                return result;
+            });
+            for (int index : indexes) {
+                if (registered[index]) {
+                    accounts.get(index).setUser(entry.user);
+                }
+            }
+        });
+        return registered;
+    }
+
+    public void unregister(Account account) {
+        User user = account.getUser();
+        if (Objects.isNull(user) || Objects.isNull(user.getUserName()) || Objects.isNull(account.getAccountId())) {
+            return;
+        }
+        long accountId = account.getAccountId();
+        usersByUserName.computeIfPresent(user.getUserName(), (userName, current) -> {
+            if (current.remove(accountId)) {
+                return current;
+            }
+            usersById.remove(current.user.getId());
+            if (current.user.getRole() == Role.ADMIN) {
+                adminCount.decrementAndGet();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the shared user with {@code userName}, or {@code null}.
+     */
+    public User getUser(String userName) {
+        Entry entry = Objects.nonNull(userName) ? usersByUserName.get(userName) : null;
+        return Objects.nonNull(entry) ? entry.user : null;
+    }
+
+    public User getUser(long userId) {
+        Entry entry = usersById.get(userId);
+        return Objects.nonNull(entry) ? entry.user : null;
+    }
+
+    /**
+     * Returns the ids of the live accounts of the user in ascending order, empty for an unknown user.
+     */
+    public long[] getAccountIds(String userName) {
+        Entry entry = Objects.nonNull(userName) ? usersByUserName.get(userName) : null;
+        return Objects.nonNull(entry) ? entry.accountIds.clone() : NO_ACCOUNTS;
+    }
+
+    public long[] getAccountIds(long userId) {
+        Entry entry = usersById.get(userId);
+        return Objects.nonNull(entry) ? entry.accountIds.clone() : NO_ACCOUNTS;
+    }
+
+    /**
+     * Whether {@code accountId} is a live account of the user with {@code userId}: a binary search over the
+     * user's account ids, cheap enough to run on every request.
+     */
+    public boolean isOwner(long userId, long accountId) {
+        Entry entry = usersById.get(userId);
+        return Objects.nonNull(entry) && Arrays.binarySearch(entry.accountIds, accountId) >= 0;
+    }
+
+    public boolean hasAdmin() {
+        return adminCount.get() > 0;
+    }
+
+    public int getUserCount() {
+        return usersByUserName.size();
+    }
+
+    /**
+     * Creates the entry of a user registered with its first account; the caller holds the user name.
+     */
+    private Entry newEntry(User user, long accountId) {
+        if (Objects.isNull(user.getId())) {
+            user.setId(accountId);
+        }
+        Entry entry = new Entry(user);
+        usersById.put(user.getId(), entry);
+        if (user.getRole() == Role.ADMIN) {
+            adminCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    private static boolean isSameUser(User registered, User user) {
+        return registered == user || (Objects.equals(registered.getName(), user.getName())
+                && Objects.equals(registered.getPassword(), user.getPassword()) && registered.getRole() == user.getRole());
+    }
+
+    private static final class Entry {
+
+        private final User user;
+
+        private volatile long[] accountIds;
+
+        private Entry(User user) {
+            this.user = user;
+            this.accountIds = NO_ACCOUNTS;
+        }
+
+        private void add(long accountId) {
+            long[] current = accountIds;
+            int index = Arrays.binarySearch(current, accountId);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            long[] next = new long[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertAt);
+            next[insertAt] = accountId;
+            System.arraycopy(current, insertAt, next, insertAt + 1, current.length - insertAt);
+            accountIds = next;
+        }
+
+        /**
+         * Adds the first {@code count} of {@code added} with one merge into the sorted ids, skipping the ones
+         * already present.
+         */
+        private void addAll(long[] added, int count) {
+            if (count == 0) {
+                return;
+            }
+            Arrays.sort(added, 0, count);
+            long[] current = accountIds;
+            long[] next = new long[current.length + count];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < current.length || j < count) {
+                long accountId;
+                if (j == count || (i < current.length && current[i] <= added[j])) {
+                    accountId = current[i++];
+                } else {
+                    accountId = added[j++];
+                }
+                if (size == 0 || next[size - 1] != accountId) {
+                    next[size++] = accountId;
+                }
+            }
+            accountIds = size == next.length ? next : Arrays.copyOf(next, size);
+        }
+
+        /**
+         * Removes {@code accountId}, returning {@code false} when the user has no account left.
+         */
+        private boolean remove(long accountId) {
+            long[] current = accountIds;
+            int index = Arrays.binarySearch(current, accountId);
+            if (index >= 0) {
+                long[] next = new long[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+                accountIds = next;
+            }
+            return accountIds.length > 0;
+        }
+    }
+}
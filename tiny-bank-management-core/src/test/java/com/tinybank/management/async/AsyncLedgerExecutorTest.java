@@ -0,0 +1,95 @@
+package com.tinybank.management.async;
+
+import com.tinybank.management.exception.DepositOperationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLedgerExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private AsyncLedgerExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.stop();
+    }
+
+    @Test
+    void testSubmit_expiredWhileQueuedIsNotApplied() throws Exception {
+        executor = newExecutor(16);
+        CompletableFuture<Void> blocker = executor.submit(null, release::await, DepositOperationException::new);
+        AtomicBoolean applied = new AtomicBoolean();
+
+        CompletableFuture<Void> queued = executor.submit(Duration.ofMillis(1), () -> applied.set(true), DepositOperationException::new);
+        Thread.sleep(20);
+        release.countDown();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DepositOperationException.class, exception.getCause());
+        assertEquals("Operation timed out before it started", exception.getCause().getMessage());
+        assertFalse(applied.get());
+        assertDoesNotThrow(() -> blocker.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmit_rejectedWhenQueueIsFull() {
+        executor = newExecutor(1);
+        executor.submit(null, release::await, DepositOperationException::new);
+        executor.submit(null, () -> { }, DepositOperationException::new);
+
+        CompletableFuture<Void> rejected = executor.submit(null, () -> { }, DepositOperationException::new);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertEquals("Too many pending operations", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testSubmit_errorCompletesFuture() {
+        executor = newExecutor(16);
+
+        CompletableFuture<Void> failed = executor.submit(null, () -> {
+            throw new AssertionError("broken operation");
+        }, DepositOperationException::new);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, exception.getCause());
+        assertDoesNotThrow(() -> executor.submit(null, () -> { }, DepositOperationException::new).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStop_failsOperationsItDrops() throws Exception {
+        executor = newExecutor(16);
+        executor.submit(null, release::await, DepositOperationException::new);
+        CompletableFuture<Void> queued = executor.submit(null, () -> { }, DepositOperationException::new);
+        Thread stopping = new Thread(executor::stop);
+        stopping.start();
+        Thread.sleep(50);
+
+        stopping.interrupt();
+        stopping.join(5_000);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DepositOperationException.class, exception.getCause());
+        assertEquals("Operation dropped while the executor stopped", exception.getCause().getMessage());
+        CompletableFuture<Void> late = executor.submit(null, () -> { }, DepositOperationException::new);
+        assertEquals("Executor is stopped", assertThrows(ExecutionException.class, late::get).getCause().getMessage());
+    }
+
+    private static AsyncLedgerExecutor newExecutor(int queueCapacity) {
+        AsyncLedgerProperties properties = new AsyncLedgerProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(queueCapacity);
+        return new AsyncLedgerExecutor(properties);
+    }
+}
@@ -0,0 +1,131 @@
+package com.tinybank.management.auth;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.exception.AuthenticationException;
+import com.tinybank.management.service.AccountCrudService;
+import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuthenticationServiceTest {
+
+    private final PasswordHasher passwordHasher = new PasswordHasher(1_000);
+
+    private final String passwordHash = passwordHasher.hash("password");
+
+    private AccountStorageDB accountStorageDB;
+
+    private AuthenticationService authenticationService;
+
+    @BeforeEach
+    void setUp() {
+        accountStorageDB = new AccountStorageDB();
+        accountStorageDB.addAccount(newAccount(1L, "johndoe", Role.USER));
+        accountStorageDB.addAccount(newAccount(2L, "johndoe", Role.USER));
+        accountStorageDB.addAccount(newAccount(3L, "janedoe", Role.USER));
+        AuthProperties properties = new AuthProperties();
+        properties.setTokenTtlSeconds(60);
+        authenticationService = new AuthenticationService(accountStorageDB, passwordHasher, new SessionTokenCache(100), properties);
+    }
+
+    @Test
+    void testLogin_issuesTokenForValidPassword() throws Exception {
+        SessionToken sessionToken = authenticationService.login("johndoe", "password");
+
+        AuthenticatedUser user = authenticationService.authenticate(sessionToken.token());
+        assertEquals(60L, sessionToken.expiresInSeconds());
+        assertEquals(1L, user.userId());
+        assertEquals(Role.USER, user.role());
+        assertThrows(AuthenticationException.class, () -> authenticationService.login("johndoe", "wrong"));
+        assertThrows(AuthenticationException.class, () -> authenticationService.login("nobody", "password"));
+        assertNull(authenticationService.authenticate("forged"));
+
+        authenticationService.logout(sessionToken.token());
+        assertNull(authenticationService.authenticate(sessionToken.token()));
+    }
+
+    @Test
+    void testCanAccessAccount_onlyOwnAccountsForUsers() throws Exception {
+        AuthenticatedUser user = authenticationService.authenticate(authenticationService.login("johndoe", "password").token());
+        AuthenticatedUser admin = new AuthenticatedUser(99L, "admin", Role.ADMIN, Long.MAX_VALUE);
+
+        assertTrue(authenticationService.canAccessAccount(user, 2L));
+        assertFalse(authenticationService.canAccessAccount(user, 3L));
+        assertTrue(authenticationService.canAccessAccount(admin, 3L));
+        assertTrue(authenticationService.canAccessUser(user, "johndoe", 1L));
+        assertFalse(authenticationService.canAccessUser(user, "janedoe", null));
+        assertFalse(authenticationService.canAccessUser(user, null, 3L));
+
+        accountStorageDB.deleteAccount(2L);
+        assertFalse(authenticationService.canAccessAccount(user, 2L));
+    }
+
+    @Test
+    void testCanCreateAccount_signUpButNeverAnonymousAdmins() throws Exception {
+        AuthenticatedUser user = authenticationService.authenticate(authenticationService.login("johndoe", "password").token());
+
+        assertTrue(authenticationService.canCreateAccount(null, "newuser", Role.USER));
+        assertFalse(authenticationService.canCreateAccount(null, "johndoe", Role.USER));
+        assertTrue(authenticationService.canCreateAccount(user, "johndoe", Role.USER));
+        assertFalse(authenticationService.canCreateAccount(null, "root", Role.ADMIN));
+
+        accountStorageDB.addAccount(newAccount(4L, "root", Role.ADMIN));
+        assertFalse(authenticationService.canCreateAccount(null, "second", Role.ADMIN));
+        assertFalse(authenticationService.canCreateAccount(user, "second", Role.ADMIN));
+        AuthenticatedUser admin = authenticationService.authenticate(authenticationService.login("root", "password").token());
+        assertTrue(authenticationService.canCreateAccount(admin, "second", Role.ADMIN));
+    }
+
+    @Test
+    void testAdminBootstrap_createsConfiguredAdminOnce() throws Exception {
+        AccountCrudService accountCrudService = mock(AccountCrudService.class);
+        when(accountCrudService.createAccount(any(Account.class))).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            account.setAccountId(10L);
+            account.getUser().setPassword(passwordHasher.hash(account.getUser().getPassword()));
+            return accountStorageDB.addAccount(account);
+        });
+        AuthProperties properties = new AuthProperties();
+        new AdminBootstrap(accountCrudService, accountStorageDB, properties).createAdmin();
+        verify(accountCrudService, never()).createAccount(any(Account.class));
+
+        properties.setAdminUserName("root");
+        properties.setAdminPassword("password");
+        new AdminBootstrap(accountCrudService, accountStorageDB, properties).createAdmin();
+        new AdminBootstrap(accountCrudService, accountStorageDB, properties).createAdmin();
+
+        verify(accountCrudService, times(1)).createAccount(any(Account.class));
+        assertEquals(Role.ADMIN, authenticationService.authenticate(authenticationService.login("root", "password").token()).role());
+        properties.setAdminUserName("johndoe");
+        assertThrows(IllegalStateException.class, () -> new AdminBootstrap(accountCrudService, accountStorageDB, properties).createAdmin());
+    }
+
+    @Test
+    void testSessionTokenCache_evictsOldestAndExpired() {
+        SessionTokenCache tokenCache = new SessionTokenCache(2);
+        long now = System.nanoTime();
+        tokenCache.put("expired", new AuthenticatedUser(1L, "johndoe", Role.USER, now - 1));
+        assertNull(tokenCache.get("expired"));
+
+        tokenCache.put("first", new AuthenticatedUser(1L, "johndoe", Role.USER, now + 60_000_000_000L));
+        tokenCache.put("second", new AuthenticatedUser(1L, "johndoe", Role.USER, now + 60_000_000_000L));
+        tokenCache.put("third", new AuthenticatedUser(1L, "johndoe", Role.USER, now + 60_000_000_000L));
+
+        assertEquals(2, tokenCache.size());
+        assertNull(tokenCache.get("first"));
+        assertNotNull(tokenCache.get("third"));
+    }
+
+    private Account newAccount(long accountId, String userName, Role role) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setUser(User.builder().name("John Doe").userName(userName).password(passwordHash).role(role).build());
+        return account;
+    }
+}
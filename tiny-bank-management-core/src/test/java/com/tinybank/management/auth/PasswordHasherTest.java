@@ -0,0 +1,47 @@
+package com.tinybank.management.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher passwordHasher = new PasswordHasher(1_000);
+
+    @Test
+    void testHash_isSaltedAndVerifies() {
+        String first = passwordHasher.hash("secret");
+        String second = passwordHasher.hash("secret");
+
+        assertTrue(passwordHasher.isHashed(first));
+        assertNotEquals(first, second);
+        assertTrue(passwordHasher.matches("secret", first));
+        assertTrue(passwordHasher.matches("secret", second));
+        assertFalse(passwordHasher.matches("Secret", first));
+        assertFalse(passwordHasher.matches(null, first));
+    }
+
+    @Test
+    void testMatches_keepsIterationsOfStoredHash() {
+        String stored = new PasswordHasher(2_000).hash("secret");
+
+        assertTrue(stored.startsWith("pbkdf2-sha256$2000$"));
+        assertTrue(passwordHasher.matches("secret", stored));
+    }
+
+    @Test
+    void testMatches_plainTextFromBeforeHashing() {
+        assertFalse(passwordHasher.isHashed("secret"));
+        assertTrue(passwordHasher.matches("secret", "secret"));
+        assertFalse(passwordHasher.matches("secret", "other"));
+        assertFalse(passwordHasher.matches("secret", null));
+    }
+
+    @Test
+    void testMatches_malformedHashMatchesNothing() {
+        for (String stored : new String[]{"pbkdf2-sha256$", "pbkdf2-sha256$x$c2FsdA$aGFzaA", "pbkdf2-sha256$1000$!!$aGFzaA",
+                "pbkdf2-sha256$0$c2FsdA$aGFzaA", "pbkdf2-sha256$1000$$aGFzaA", "pbkdf2-sha256$1000$c2FsdA"}) {
+            assertFalse(passwordHasher.matches("secret", stored), stored);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.tinybank.management.batch;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.engine.LedgerEngineProperties;
+import com.tinybank.management.engine.PartitionedLedgerEngine;
+import com.tinybank.management.service.AccountStorageDB;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndOfDayBatchRunnerTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2024, 1, 31);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRun_accruesInterestOnceOverEveryAccount() {
+        AccountStorageDB accountStorageDB = newLedger(10, 365.0);
+        accountStorageDB.deleteAccount(5L);
+        EndOfDayBatchRunner runner = new EndOfDayBatchRunner(accountStorageDB, properties(4, 0), List.of(new InterestAccrualJob(10_000L)));
+
+        BatchRunResult result = runner.run(InterestAccrualJob.NAME, BUSINESS_DATE);
+        BatchRunResult again = runner.run(InterestAccrualJob.NAME, BUSINESS_DATE);
+
+        assertEquals(BatchRunStatus.COMPLETED, result.status());
+        assertEquals(9L, result.accounts());
+        assertEquals(9L, result.applied());
+        assertEquals(0L, result.failed());
+        assertEquals(BatchRunStatus.ALREADY_COMPLETED, again.status());
+        assertEquals(36_600L, accountStorageDB.findAccount(1L).getBalanceMinorUnits());
+        assertEquals("interest-accrual 2024-01-31", accountStorageDB.findAccount(10L).getJournal().getRemarks(1));
+        assertTrue(Files.exists(directory.resolve("interest-accrual-2024-01-31.checkpoint")));
+        assertThrows(IllegalArgumentException.class, () -> runner.run("unknown", BUSINESS_DATE));
+    }
+
+    @Test
+    void testRun_resumesStoppedRunWithoutApplyingTwice() {
+        AccountStorageDB accountStorageDB = newLedger(10, 365.0);
+        AtomicInteger applied = new AtomicInteger();
+        EndOfDayBatchRunner[] runner = new EndOfDayBatchRunner[1];
+        InterestAccrualJob job = new InterestAccrualJob(10_000L) {
+            @Override
+            public boolean apply(Account account, LocalDate businessDate) {
+                boolean result = super.apply(account, businessDate);
+                if (applied.incrementAndGet() == 6) {
+                    runner[0].stop();
+                }
+                return result;
+            }
+        };
+        runner[0] = new EndOfDayBatchRunner(accountStorageDB, properties(4, 0), List.of(job));
+
+        BatchRunResult stopped = runner[0].run(InterestAccrualJob.NAME, BUSINESS_DATE);
+        BatchRunResult resumed = runner[0].run(InterestAccrualJob.NAME, BUSINESS_DATE);
+
+        assertEquals(BatchRunStatus.STOPPED, stopped.status());
+        assertEquals(BatchRunStatus.COMPLETED, resumed.status());
+        assertEquals(10L, stopped.applied() + resumed.applied());
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            TransactionJournal journal = accountStorageDB.findAccount(accountId).getJournal();
+            assertEquals(2, journal.size(), "accountId: " + accountId);
+            assertEquals(36_600L, accountStorageDB.findAccount(accountId).getBalanceMinorUnits());
+        }
+    }
+
+    @Test
+    void testRun_chargesFeesOnShardsOfPartitionedEngine() {
+        AccountStorageDB accountStorageDB = newLedger(10, 1.0);
+        accountStorageDB.findAccount(3L).subtractBalance(0.75, "withdraw");
+        LedgerEngineProperties engineProperties = new LedgerEngineProperties();
+        engineProperties.setShards(4);
+        engineProperties.setRingBufferSize(64);
+        PartitionedLedgerEngine engine = new PartitionedLedgerEngine(engineProperties);
+        engine.start();
+        try {
+            EndOfDayBatchRunner runner = new EndOfDayBatchRunner(accountStorageDB, properties(3, 0), List.of(new MaintenanceFeeJob(0.5)), engine);
+
+            BatchRunResult result = runner.run(MaintenanceFeeJob.NAME, BUSINESS_DATE);
+
+            assertEquals(BatchRunStatus.COMPLETED, result.status());
+            assertEquals(10L, result.applied());
+            assertEquals(50L, accountStorageDB.findAccount(1L).getBalanceMinorUnits());
+            assertEquals(0L, accountStorageDB.findAccount(3L).getBalanceMinorUnits());
+        } finally {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void testRun_writesStatementOfEveryAccount() throws Exception {
+        AccountStorageDB accountStorageDB = newLedger(3, 10.0);
+        StatementCutoffJob job = new StatementCutoffJob(directory);
+        EndOfDayBatchRunner runner = new EndOfDayBatchRunner(accountStorageDB, properties(2, 0), List.of(job));
+        LocalDate today = LocalDate.now();
+
+        BatchRunResult result = runner.run(StatementCutoffJob.NAME, today);
+
+        List<String> lines = Files.readAllLines(job.statementFile(today));
+        assertEquals(3L, result.applied());
+        assertEquals(4, lines.size());
+        assertEquals(StatementCutoffJob.HEADER, lines.get(0));
+        assertTrue(lines.contains("2," + today.withDayOfMonth(1) + "," + today + ",1,10.0,0,0.0,10.0"));
+    }
+
+    @Test
+    void testRun_isThrottled() {
+        AccountStorageDB accountStorageDB = newLedger(10, 365.0);
+        EndOfDayBatchRunner runner = new EndOfDayBatchRunner(accountStorageDB, properties(2, 20), List.of(new InterestAccrualJob(10_000L)));
+
+        BatchRunResult result = runner.run(InterestAccrualJob.NAME, BUSINESS_DATE);
+
+        assertEquals(10L, result.applied());
+        assertTrue(result.elapsedNanos() >= 350_000_000L, "elapsedNanos: " + result.elapsedNanos());
+    }
+
+    private static AccountStorageDB newLedger(int accounts, double balance) {
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        for (long accountId = 1; accountId <= accounts; accountId++) {
+            Account account = new Account();
+            account.setAccountId(accountId);
+            account.addBalance(balance, "deposit");
+            accountStorageDB.addAccount(account);
+        }
+        return accountStorageDB;
+    }
+
+    private BatchProperties properties(int chunkSize, long maxAccountsPerSecond) {
+        BatchProperties properties = new BatchProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setParallelism(2);
+        properties.setChunkSize(chunkSize);
+        properties.setMaxAccountsPerSecond(maxAccountsPerSecond);
+        return properties;
+    }
+}
@@ -0,0 +1,122 @@
+package com.tinybank.management.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLongMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+
+        assertNull(map.put(1L, "one"));
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-5L, "minus five"));
+        assertEquals("one", map.put(1L, "uno"));
+
+        assertEquals("uno", map.get(1L));
+        assertEquals("zero", map.get(0L));
+        assertEquals("minus five", map.get(-5L));
+        assertNull(map.get(2L));
+        assertEquals(3, map.size());
+
+        assertEquals("uno", map.remove(1L));
+        assertNull(map.remove(1L));
+        assertNull(map.get(1L));
+        assertEquals("zero", map.remove(0L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testPutIfAbsentAndComputeIfAbsent() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+
+        assertNull(map.putIfAbsent(7L, "seven"));
+        assertEquals("seven", map.putIfAbsent(7L, "other"));
+        assertEquals("seven", map.computeIfAbsent(7L, key -> fail("must not compute")));
+        assertEquals("eight", map.computeIfAbsent(8L, key -> "eight"));
+        map.remove(8L);
+        assertEquals("again", map.computeIfAbsent(8L, key -> "again"));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testGrowsAndReusesTombstones() {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        for (long key = 1; key <= 100_000; key++) {
+            map.put(key, key);
+        }
+        for (long key = 1; key <= 100_000; key += 2) {
+            map.remove(key);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (long key = 1; key <= 100_000; key += 2) {
+                map.put(key, key);
+                map.remove(key);
+            }
+        }
+
+        assertEquals(50_000, map.size());
+        for (long key = 1; key <= 100_000; key++) {
+            assertEquals(key % 2 == 0 ? Long.valueOf(key) : null, map.get(key));
+        }
+        Set<Long> values = new HashSet<>();
+        map.values().forEach(values::add);
+        assertEquals(50_000, values.size());
+        long[] maxKey = {0L};
+        map.forEach((value, key) -> maxKey[0] = Math.max(maxKey[0], key));
+        assertEquals(100_000L, maxKey[0]);
+    }
+
+    @Test
+    void testReadersNeverMissStableKeysWhileWritersResize() throws Exception {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                long base = 1_000_000L * (writer + 1);
+                futures.add(executor.submit(() -> {
+                    for (long key = base; key < base + 200_000; key++) {
+                        map.put(key, key);
+                        if (key % 3 == 0) {
+                            map.remove(key);
+                        }
+                    }
+                    writing.set(false);
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                futures.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        for (long key = 1; key <= 1_000; key++) {
+                            assertEquals(Long.valueOf(key), map.get(key));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        int[] live = {0};
+        map.forEach((value, key) -> live[0]++);
+        assertEquals(live[0], map.size());
+    }
+}
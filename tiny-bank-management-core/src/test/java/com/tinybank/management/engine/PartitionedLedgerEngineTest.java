@@ -0,0 +1,113 @@
+package com.tinybank.management.engine;
+
+import com.tinybank.management.account.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedLedgerEngineTest {
+
+    private PartitionedLedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        LedgerEngineProperties properties = new LedgerEngineProperties();
+        properties.setEnabled(true);
+        properties.setShards(4);
+        properties.setRingBufferSize(64);
+        engine = new PartitionedLedgerEngine(properties);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void testExecute_runsOnOwningShard() throws Exception {
+        assertEquals(1, engine.shardOf(5L));
+        assertEquals(3, engine.shardOf(-1L));
+        String threadName = engine.execute(5L, () -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertEquals("ledger-shard-1", threadName);
+    }
+
+    @Test
+    void testExecute_depositsOnSingleWriterAreNotLost() throws Exception {
+        Account account = newAccount(7L, 0);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            futures.add(engine.execute(7L, () -> account.addBalance(0.01, "deposit")));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(10_000L, account.getBalanceMinorUnits());
+    }
+
+    @Test
+    void testExecute_crossShardOpposingTransfersConserveMoney() throws Exception {
+        Account first = newAccount(1L, 1_000);
+        Account second = newAccount(2L, 1_000);
+        Account third = newAccount(3L, 1_000);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            futures.add(engine.execute(1L, 2L, () -> first.transferTo(second, 0.1, "transfer")));
+            futures.add(engine.execute(2L, 1L, () -> second.transferTo(first, 0.1, "transfer")));
+            futures.add(engine.execute(3L, 1L, () -> third.transferTo(first, 0.1, "transfer")));
+            futures.add(engine.execute(1L, 3L, () -> first.transferTo(third, 0.1, "transfer")));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(100_000L, first.getBalanceMinorUnits());
+        assertEquals(100_000L, second.getBalanceMinorUnits());
+        assertEquals(100_000L, third.getBalanceMinorUnits());
+    }
+
+    @Test
+    void testJoin_rethrowsActionException() {
+        Account account = newAccount(1L, 10);
+        CompletableFuture<Boolean> future = engine.execute(1L, () -> account.subtractBalance(20, "withdraw"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> PartitionedLedgerEngine.join(future));
+        assertEquals("Insufficient balance", exception.getMessage());
+        assertEquals(1_000L, account.getBalanceMinorUnits());
+    }
+
+    @Test
+    void testStop_submissionsRacingStopCompleteOrAreRejected() throws Exception {
+        Account first = newAccount(1L, 1_000);
+        Account second = newAccount(2L, 1_000);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        Thread producer = new Thread(() -> {
+            try {
+                while (true) {
+                    futures.add(engine.execute(1L, () -> first.addBalance(0.01, "deposit")));
+                    futures.add(engine.execute(1L, 2L, () -> first.transferTo(second, 0.01, "transfer")));
+                }
+            } catch (IllegalStateException ex) {
+                // the engine has stopped
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        engine.stop();
+        producer.join(5_000);
+
+        assertFalse(producer.isAlive(), "Submissions should be rejected once the engine has stopped.");
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Account newAccount(long accountId, double balance) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.addBalance(balance, "deposit");
+        return account;
+    }
+}
@@ -0,0 +1,81 @@
+package com.tinybank.management.export;
+
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionExporterTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 2, 10, 30, 15, 123_456_000);
+
+    @Test
+    void testExportNdjson() throws Exception {
+        TransactionJournal journal = new TransactionJournal();
+        long epochMicros = TransactionJournal.toEpochMicros(DATE);
+        journal.append(TransactionType.DEPOSIT, 12_345L, "salary \"Jan\"\n", epochMicros);
+        journal.append(TransactionType.WITHDRAW, 5L, null, epochMicros + 1_000_000L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        TransactionExportSummary summary = TransactionExporter.export(7L, journal, null, null, TransactionExportFormat.NDJSON, out);
+
+        assertEquals(2, summary.entries());
+        assertEquals(out.size(), summary.bytes());
+        assertEquals("{\"accountId\":7,\"amount\":123.45,\"transactionType\":\"DEPOSIT\","
+                        + "\"transactionDate\":\"2024-01-02T10:30:15.123456\",\"remarks\":\"salary \\\"Jan\\\"\\n\"}\n"
+                        + "{\"accountId\":7,\"amount\":0.05,\"transactionType\":\"WITHDRAW\","
+                        + "\"transactionDate\":\"2024-01-02T10:30:16.123456\",\"remarks\":null}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportCsvWithRange() throws Exception {
+        TransactionJournal journal = new TransactionJournal();
+        long epochMicros = TransactionJournal.toEpochMicros(DATE);
+        for (int i = 0; i < 5; i++) {
+            journal.append(TransactionType.DEPOSIT, 100L * (i + 1), i == 2 ? "rent, \"flat\"" : "plain", epochMicros + i * 60_000_000L);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        TransactionExportSummary summary = TransactionExporter.export(3L, journal, DATE.plusMinutes(1), DATE.plusMinutes(3),
+                TransactionExportFormat.CSV, out);
+
+        assertEquals(2, summary.entries());
+        assertEquals("accountId,amount,transactionType,transactionDate,remarks\n"
+                        + "3,2.00,DEPOSIT,2024-01-02T10:31:15.123456,plain\n"
+                        + "3,3.00,DEPOSIT,2024-01-02T10:32:15.123456,\"rent, \"\"flat\"\"\"\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportSpansChunks() throws Exception {
+        TransactionJournal journal = new TransactionJournal();
+        String longRemarks = "x".repeat(TransactionExporter.CHUNK_SIZE + 10);
+        int entries = 5_000;
+        for (int i = 0; i < entries; i++) {
+            journal.append(TransactionType.DEPOSIT, i, i % 1_000 == 0 ? longRemarks : "remarks " + (i % 7));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        TransactionExportSummary summary = TransactionExporter.export(1L, journal, null, null, TransactionExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(entries, lines.length);
+        assertEquals(out.size(), summary.bytes());
+        for (int i = 0; i < entries; i++) {
+            assertTrue(lines[i].startsWith("{\"accountId\":1,\"amount\":" + i / 100 + "." + String.format("%02d", i % 100) + ","));
+            assertTrue(lines[i].endsWith("\"remarks\":\"" + (i % 1_000 == 0 ? longRemarks : "remarks " + (i % 7)) + "\"}"));
+        }
+    }
+
+    @Test
+    void testUnsupportedFormat() {
+        assertEquals(TransactionExportFormat.CSV, TransactionExportFormat.of("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionExportFormat.of("xml"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.tinybank.management.metrics;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.metrics.LedgerMetrics.Operation;
+import com.tinybank.management.service.AccountStorageDB;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedgerMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountStorageDB accountStorageDB;
+
+    private LedgerMetrics ledgerMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountStorageDB = new AccountStorageDB();
+        ledgerMetrics = new LedgerMetrics(meterRegistry, accountStorageDB, new LedgerMetricsProperties());
+    }
+
+    @Test
+    void testRecordOperation_byOutcome() {
+        ledgerMetrics.recordOperation(Operation.DEPOSIT, 5_000L, true);
+        ledgerMetrics.recordOperation(Operation.DEPOSIT, 7_000L, false);
+        ledgerMetrics.recordOperation(Operation.DEPOSIT, 9_000L, false);
+
+        assertEquals(1, meterRegistry.get("tinybank.ledger.operation").tags("operation", "deposit", "outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get("tinybank.ledger.operation").tags("operation", "deposit", "outcome", "failure").timer().count());
+        assertEquals(0, meterRegistry.get("tinybank.ledger.operation").tags("operation", "transfer", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testRecordLock_countsSlowWaits() {
+        ledgerMetrics.recordLock(TimeUnit.MICROSECONDS.toNanos(10), 2_000L);
+        ledgerMetrics.recordLock(TimeUnit.MILLISECONDS.toNanos(5), 2_000L);
+
+        assertEquals(2, meterRegistry.get("tinybank.ledger.lock.wait").timer().count());
+        assertEquals(2, meterRegistry.get("tinybank.ledger.lock.hold").timer().count());
+        assertEquals(1.0, meterRegistry.get("tinybank.ledger.lock.slow").counter().count());
+    }
+
+    @Test
+    void testRecordLock_reportedByJournals() {
+        Account account = new Account();
+        account.setAccountId(1L);
+        accountStorageDB.addAccount(account);
+        account.addBalance(10D, "deposit");
+        account.getJournal().runExclusively(() -> account.addBalance(5D, "deposit"));
+
+        assertEquals(2, meterRegistry.get("tinybank.ledger.lock.wait").timer().count(), "A reentrant acquisition is timed once, by its outermost holder.");
+        assertEquals(2, meterRegistry.get("tinybank.ledger.lock.hold").timer().count());
+    }
+
+    @Test
+    void testGauges_reportAccountsAndJournalEntries() throws Exception {
+        for (long accountId = 1; accountId <= 3; accountId++) {
+            Account account = new Account();
+            account.setAccountId(accountId);
+            account.addBalance(10D, "deposit");
+            accountStorageDB.addAccount(account);
+        }
+
+        assertEquals(3.0, meterRegistry.get("tinybank.ledger.accounts").gauge().value());
+        assertEquals(3.0, meterRegistry.get("tinybank.ledger.journal.entries").gauge().value());
+        accountStorageDB.getAccount(1L).addBalance(1D, "deposit");
+        accountStorageDB.getAccount(1L).transferTo(accountStorageDB.getAccount(2L), 1D, "transfer");
+        assertEquals(6.0, meterRegistry.get("tinybank.ledger.journal.entries").gauge().value());
+        accountStorageDB.deleteAccount(1L);
+        assertEquals(3.0, meterRegistry.get("tinybank.ledger.journal.entries").gauge().value());
+    }
+}
@@ -0,0 +1,94 @@
+package com.tinybank.management.persistence;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.AccountStatus;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testArchiveAndLoad_keepsHistoryAcrossReopen() {
+        AccountArchive archive = newArchive();
+        Account account = newAccount(7L);
+        account.addBalance(100.0, "salary");
+        account.subtractBalance(30.25, "rent");
+        assertTrue(account.close());
+
+        assertTrue(archive.archive(account));
+        assertFalse(archive.archive(account));
+        archive.close();
+
+        AccountArchive reopened = newArchive();
+        Account loaded = reopened.load(7L);
+        assertEquals(1, reopened.getAccountCount());
+        assertEquals(7L, reopened.getMaxAccountId());
+        assertNull(reopened.load(8L));
+        assertEquals(AccountStatus.CLOSED, loaded.getAccountStatus());
+        assertEquals(account.getBalanceMinorUnits(), loaded.getBalanceMinorUnits());
+        assertEquals(2, loaded.getJournal().size());
+        assertEquals("rent", loaded.getJournal().getRemarks(1));
+        assertEquals(account.getJournal().getEpochMicros(1), loaded.getJournal().getEpochMicros(1));
+        assertEquals("johndoe", loaded.getUser().getUserName());
+        assertNull(loaded.getUser().getPassword());
+        assertFalse(loaded.addBalance(1.0, "after close"));
+        reopened.close();
+    }
+
+    @Test
+    void testOpen_truncatesTornTail() throws Exception {
+        AccountArchive archive = newArchive();
+        Account first = newAccount(1L);
+        first.addBalance(10.0, "deposit");
+        first.close();
+        archive.archive(first);
+        archive.close();
+        Path file = directory.resolve("accounts.archive");
+        long intactSize = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        AccountArchive reopened = newArchive();
+        assertEquals(intactSize, Files.size(file));
+        assertTrue(reopened.contains(1L));
+        Account second = newAccount(2L);
+        second.close();
+        assertTrue(reopened.archive(second));
+        reopened.close();
+
+        AccountArchive reopenedAgain = newArchive();
+        assertEquals(2, reopenedAgain.getAccountCount());
+        assertEquals(1000L, reopenedAgain.load(1L).getBalanceMinorUnits());
+        reopenedAgain.close();
+    }
+
+    private AccountArchive newArchive() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        AccountArchive archive = new AccountArchive(properties);
+        archive.open();
+        return archive;
+    }
+
+    private static Account newAccount(long accountId) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setUser(User.builder().name("John Doe").userName("johndoe").password("password").role(Role.USER).build());
+        return account;
+    }
+}
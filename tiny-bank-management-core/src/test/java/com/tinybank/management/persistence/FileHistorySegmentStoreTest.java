@@ -0,0 +1,66 @@
+package com.tinybank.management.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileHistorySegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndRead_rollsOverFiles() throws Exception {
+        FileHistorySegmentStore store = new FileHistorySegmentStore(properties(100));
+        store.open();
+        byte[][] segments = new byte[10][];
+        long[] positions = new long[10];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new byte[30 + i];
+            segments[i][0] = (byte) i;
+            positions[i] = store.write(segments[i]);
+        }
+
+        for (int i = 0; i < segments.length; i++) {
+            assertArrayEquals(segments[i], store.read(positions[i], segments[i].length));
+        }
+        assertEquals(10, store.getSegmentCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(5L, files.count());
+        }
+        store.close();
+    }
+
+    @Test
+    void testOpen_keepsFilesOfPreviousRun() throws Exception {
+        FileHistorySegmentStore store = new FileHistorySegmentStore(properties(1024));
+        store.open();
+        long first = store.write(new byte[] {1, 2, 3});
+        store.force();
+        store.close();
+
+        FileHistorySegmentStore reopened = new FileHistorySegmentStore(properties(1024));
+        reopened.open();
+        long second = reopened.write(new byte[] {4, 5});
+
+        assertArrayEquals(new byte[] {1, 2, 3}, reopened.read(first, 3));
+        assertArrayEquals(new byte[] {4, 5}, reopened.read(second, 2));
+        assertNotEquals(first >>> 40, second >>> 40, "A reopened store should append to a new file.");
+        assertEquals(3L, Files.size(directory.resolve("history-000000.seg")));
+        reopened.force();
+        reopened.close();
+    }
+
+    private HistoryStoreProperties properties(long fileSizeBytes) {
+        HistoryStoreProperties properties = new HistoryStoreProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setFileSizeBytes(fileSizeBytes);
+        return properties;
+    }
+}
@@ -0,0 +1,119 @@
+package com.tinybank.management.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndRecover_roundTrip() {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(properties(0));
+        writeAheadLog.recover(record -> fail("Empty directory should not replay anything"));
+        writeAheadLog.append(WalRecord.builder().recordType(WalRecordType.CREATE_ACCOUNT).accountId(1L).name("John").role("USER").build());
+        writeAheadLog.append(WalRecord.builder().recordType(WalRecordType.DEPOSIT).accountId(1L).entryIndex(0).minorUnits(12_345L).epochMicros(42L).remarks("salary").build());
+        writeAheadLog.awaitDurable();
+        writeAheadLog.close();
+
+        List<WalRecord> replayed = recoverAll();
+
+        assertEquals(2, replayed.size());
+        assertEquals(WalRecordType.CREATE_ACCOUNT, replayed.get(0).getRecordType());
+        assertEquals("John", replayed.get(0).getName());
+        assertNull(replayed.get(0).getRemarks());
+        assertEquals(1L, replayed.get(0).getLsn());
+        WalRecord deposit = replayed.get(1);
+        assertEquals(2L, deposit.getLsn());
+        assertEquals(12_345L, deposit.getMinorUnits());
+        assertEquals(42L, deposit.getEpochMicros());
+        assertEquals("salary", deposit.getRemarks());
+    }
+
+    @Test
+    void testRecover_failsWhileDirectoryIsInUse() {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(properties(0));
+        writeAheadLog.recover(record -> {
+        });
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> new WriteAheadLog(properties(0)).recover(record -> {
+        }));
+        assertTrue(exception.getMessage().startsWith("Write ahead log directory is used by another process"));
+        writeAheadLog.close();
+        assertTrue(recoverAll().isEmpty(), "The directory should be usable once the log holding it is closed.");
+    }
+
+    @Test
+    void testRecover_ignoresTornTail() throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(properties(0));
+        writeAheadLog.recover(record -> {
+        });
+        writeAheadLog.append(WalRecord.builder().recordType(WalRecordType.DEPOSIT).accountId(1L).minorUnits(1L).build());
+        writeAheadLog.awaitDurable();
+        writeAheadLog.close();
+        try (Stream<Path> segments = Files.list(directory)) {
+            Path segment = segments.filter(path -> path.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        List<WalRecord> replayed = recoverAll();
+
+        assertEquals(1, replayed.size());
+        assertEquals(1L, replayed.get(0).getMinorUnits());
+    }
+
+    @Test
+    void testAwaitDurable_groupsConcurrentWriters() throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(properties(2));
+        writeAheadLog.recover(record -> {
+        });
+        int numberOfThreads = 8;
+        int recordsPerThread = 50;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        for (int cntr = 0; cntr < numberOfThreads; cntr++) {
+            executorService.submit(() -> {
+                for (int i = 0; i < recordsPerThread; i++) {
+                    writeAheadLog.append(WalRecord.builder().recordType(WalRecordType.DEPOSIT).accountId(1L).minorUnits(i).build());
+                    writeAheadLog.awaitDurable();
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        WriteAheadLogStatistics statistics = writeAheadLog.getStatistics();
+        writeAheadLog.close();
+        assertEquals(numberOfThreads * recordsPerThread, statistics.committedRecords());
+        assertTrue(statistics.commitBatches() < statistics.committedRecords(), "Concurrent writers should share a force().");
+        assertEquals(numberOfThreads * recordsPerThread, recoverAll().size());
+    }
+
+    private List<WalRecord> recoverAll() {
+        List<WalRecord> replayed = new ArrayList<>();
+        WriteAheadLog writeAheadLog = new WriteAheadLog(properties(0));
+        writeAheadLog.recover(replayed::add);
+        writeAheadLog.close();
+        return replayed;
+    }
+
+    private WriteAheadLogProperties properties(long fsyncIntervalMs) {
+        WriteAheadLogProperties properties = new WriteAheadLogProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setFsyncIntervalMs(fsyncIntervalMs);
+        return properties;
+    }
+}
@@ -0,0 +1,79 @@
+package com.tinybank.management.reconciliation;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.reconciliation.LedgerDigest.AccountRange;
+import com.tinybank.management.service.AccountStorageDB;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerReconcilerTest {
+
+    @Test
+    void testCheckBalances_findsOnlyDriftedAccounts() {
+        AccountStorageDB accountStorageDB = newLedger(10_000);
+        accountStorageDB.deleteAccount(17L);
+        accountStorageDB.findAccount(4_321L).getJournal().append(TransactionType.DEPOSIT, 500L, "lost credit");
+        LedgerReconciler reconciler = new LedgerReconciler(accountStorageDB, properties());
+
+        ReconciliationReport report = reconciler.checkBalances();
+
+        assertEquals(9_999L, report.accounts());
+        assertEquals(List.of(new AccountDrift(4_321L, DriftType.BALANCE, 4_321L * 100 + 500L, 4_321L * 100)), report.drifts());
+        assertFalse(report.isConsistent());
+    }
+
+    @Test
+    void testVerifyAll_recomputesEveryJournal() {
+        AccountStorageDB accountStorageDB = newLedger(1_000);
+        accountStorageDB.findAccount(7L).subtractBalance(1.0, "withdraw");
+        LedgerReconciler reconciler = new LedgerReconciler(accountStorageDB, properties());
+
+        ReconciliationReport report = reconciler.verifyAll();
+
+        assertTrue(report.isConsistent());
+        assertEquals(1_000L, report.accounts());
+        assertEquals(1_001L, report.entries());
+    }
+
+    @Test
+    void testDigest_diffNarrowsDownToChangedRanges() {
+        AccountStorageDB primary = newLedger(5_000);
+        AccountStorageDB copy = newLedger(5_000);
+        copy.findAccount(130L).addBalance(0.01, "missed on primary");
+        copy.findAccount(4_999L).subtractBalance(0.01, "missed on primary");
+        LedgerReconciler primaryReconciler = new LedgerReconciler(primary, properties());
+        LedgerReconciler copyReconciler = new LedgerReconciler(copy, properties());
+
+        LedgerDigest primaryDigest = primaryReconciler.digest();
+        LedgerDigest copyDigest = copyReconciler.digest();
+
+        assertEquals(79, primaryDigest.getLeaves().length);
+        assertNotEquals(primaryDigest.getRoot(), copyDigest.getRoot());
+        assertEquals(List.of(new AccountRange(129L, 192L), new AccountRange(4_993L, 5_000L)), primaryDigest.diff(copyDigest));
+        assertTrue(primaryDigest.diff(primaryReconciler.digest()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> primaryDigest.diff(primaryReconciler.digest(1L, 4_000L)));
+    }
+
+    private static AccountStorageDB newLedger(int accounts) {
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        for (long accountId = 1; accountId <= accounts; accountId++) {
+            Account account = new Account();
+            account.setAccountId(accountId);
+            account.replayTransaction(TransactionType.DEPOSIT, accountId * 100, 1_000L, "initial");
+            accountStorageDB.addAccount(account);
+        }
+        return accountStorageDB;
+    }
+
+    private static ReconciliationProperties properties() {
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setParallelism(2);
+        properties.setLeafSize(64);
+        properties.setRecheckAttempts(1);
+        return properties;
+    }
+}
@@ -0,0 +1,338 @@
+package com.tinybank.management.service;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.AccountStatus;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.persistence.AccountArchive;
+import com.tinybank.management.persistence.ArchiveProperties;
+import com.tinybank.management.persistence.FileHistorySegmentStore;
+import com.tinybank.management.persistence.HistoryStoreProperties;
+import com.tinybank.management.persistence.LedgerSnapshotProperties;
+import com.tinybank.management.persistence.LedgerSnapshotStore;
+import com.tinybank.management.persistence.WriteAheadLog;
+import com.tinybank.management.persistence.WriteAheadLogProperties;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountStorageDBTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAddGetDeleteAccount() throws Exception {
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        Account account = new Account();
+        account.setAccountId(1L);
+
+        assertSame(account, accountStorageDB.addAccount(account));
+        assertSame(account, accountStorageDB.getAccount(1L));
+        assertNull(accountStorageDB.addAccount(new Account()));
+        assertTrue(accountStorageDB.deleteAccount(1L));
+        assertFalse(accountStorageDB.deleteAccount(1L));
+        assertThrows(InvalidAccountException.class, () -> accountStorageDB.getAccount(1L));
+        assertThrows(InvalidAccountException.class, () -> accountStorageDB.getAccount(null));
+    }
+
+    @Test
+    void testAddAccounts() throws Exception {
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        accountStorageDB.addAccounts(List.of(newAccount(1L), newAccount(2L), newAccount(3L)));
+
+        assertEquals(3L, accountStorageDB.getMaxAccountId());
+        assertEquals("johndoe", accountStorageDB.getAccount(2L).getUser().getUserName());
+
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        AccountStorageDB durableStorageDB = new AccountStorageDB(writeAheadLog);
+        durableStorageDB.recover();
+        durableStorageDB.addAccounts(List.of(newAccount(4L), newAccount(5L)));
+        durableStorageDB.awaitDurable();
+        writeAheadLog.close();
+        AccountStorageDB recovered = new AccountStorageDB(newWriteAheadLog());
+        recovered.recover();
+        assertEquals(5L, recovered.getMaxAccountId());
+    }
+
+    @Test
+    void testRecover_rebuildsAccountsFromWriteAheadLog() throws Exception {
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog);
+        accountStorageDB.recover();
+        accountStorageDB.addAccount(newAccount(1L));
+        accountStorageDB.addAccount(newAccount(2L));
+        accountStorageDB.getAccount(1L).addBalance(100.25, "deposit");
+        accountStorageDB.getAccount(1L).subtractBalance(0.25, "withdraw");
+        accountStorageDB.getAccount(2L).addBalance(5, "deposit");
+        accountStorageDB.addAccount(newAccount(3L));
+        accountStorageDB.getAccount(1L).transferTo(accountStorageDB.getAccount(3L), 50, "transfer");
+        accountStorageDB.deleteAccount(2L);
+        accountStorageDB.awaitDurable();
+        long depositTimestamp = accountStorageDB.getAccount(1L).getJournal().getEpochMicros(0);
+        writeAheadLog.close();
+
+        WriteAheadLog reopened = newWriteAheadLog();
+        AccountStorageDB recovered = new AccountStorageDB(reopened);
+        recovered.recover();
+
+        Account account = recovered.getAccount(1L);
+        assertEquals(5_000L, account.getBalanceMinorUnits());
+        assertEquals(3, account.getTransactions().size());
+        assertEquals(5_000L, recovered.getAccount(3L).getBalanceMinorUnits());
+        assertEquals(TransactionType.DEPOSIT, recovered.getAccount(3L).getJournal().getTransactionType(0));
+        assertEquals(TransactionType.WITHDRAW, account.getJournal().getTransactionType(1));
+        assertEquals(depositTimestamp, account.getJournal().getEpochMicros(0));
+        assertEquals("johndoe", account.getUser().getUserName());
+        assertEquals(Role.USER, account.getUser().getRole());
+        assertThrows(InvalidAccountException.class, () -> recovered.getAccount(2L));
+        assertEquals(3L, recovered.getMaxAccountId());
+
+        account.addBalance(1, "after recovery");
+        recovered.awaitDurable();
+        reopened.close();
+        AccountStorageDB recoveredAgain = new AccountStorageDB(newWriteAheadLog());
+        recoveredAgain.recover();
+        assertEquals(5_100L, recoveredAgain.getAccount(1L).getBalanceMinorUnits());
+    }
+
+    @Test
+    void testRecover_loadsSnapshotAndReplaysLogSuffix() throws Exception {
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog, newSnapshotStore());
+        accountStorageDB.recover();
+        accountStorageDB.addAccount(newAccount(1L));
+        accountStorageDB.addAccount(newAccount(2L));
+        accountStorageDB.getAccount(1L).addBalance(100, "before snapshot");
+        accountStorageDB.getAccount(2L).addBalance(7.5, "before snapshot");
+        accountStorageDB.awaitDurable();
+        assertTrue(accountStorageDB.writeSnapshot());
+        long checksumAtSnapshot = accountStorageDB.getAccount(1L).getJournal().getChecksum();
+        accountStorageDB.getAccount(1L).subtractBalance(40, "after snapshot");
+        long checksum = accountStorageDB.getAccount(1L).getJournal().getChecksum();
+        accountStorageDB.deleteAccount(2L);
+        accountStorageDB.addAccount(newAccount(3L));
+        accountStorageDB.getAccount(3L).addBalance(1, "after snapshot");
+        accountStorageDB.awaitDurable();
+        writeAheadLog.close();
+
+        try (Stream<Path> segments = Files.list(directory.resolve("wal"))) {
+            assertEquals(1L, segments.filter(path -> path.getFileName().toString().startsWith("wal-")).count());
+        }
+
+        WriteAheadLog reopened = newWriteAheadLog();
+        AccountStorageDB recovered = new AccountStorageDB(reopened, newSnapshotStore());
+        recovered.recover();
+
+        assertEquals(6_000L, recovered.getAccount(1L).getBalanceMinorUnits());
+        assertEquals(2, recovered.getAccount(1L).getTransactions().size());
+        assertEquals("after snapshot", recovered.getAccount(1L).getJournal().getRemarks(1));
+        assertNotEquals(checksumAtSnapshot, checksum);
+        assertEquals(checksum, recovered.getAccount(1L).getJournal().getChecksum());
+        assertEquals(6_000L, recovered.getAccount(1L).getJournal().getNetMinorUnits());
+        assertEquals(Role.USER, recovered.getAccount(1L).getUser().getRole());
+        assertThrows(InvalidAccountException.class, () -> recovered.getAccount(2L));
+        assertEquals(100L, recovered.getAccount(3L).getBalanceMinorUnits());
+
+        recovered.getAccount(3L).addBalance(1, "after recovery");
+        recovered.awaitDurable();
+        assertTrue(recovered.writeSnapshot());
+        reopened.close();
+        AccountStorageDB recoveredAgain = new AccountStorageDB(newWriteAheadLog(), newSnapshotStore());
+        recoveredAgain.recover();
+        assertEquals(200L, recoveredAgain.getAccount(3L).getBalanceMinorUnits());
+        assertEquals(6_000L, recoveredAgain.getAccount(1L).getBalanceMinorUnits());
+    }
+
+    @Test
+    void testRecover_sealsRecoveredHistoryIntoHistoryStore() throws Exception {
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        FileHistorySegmentStore historyStore = newHistoryStore();
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog, newSnapshotStore(), historyStore);
+        accountStorageDB.recover();
+        accountStorageDB.addAccount(newAccount(1L));
+        Account account = accountStorageDB.getAccount(1L);
+        for (int i = 1; i <= 100; i++) {
+            account.addBalance(i, "deposit " + i);
+        }
+        accountStorageDB.awaitDurable();
+        assertTrue(accountStorageDB.writeSnapshot());
+        for (int i = 101; i <= 150; i++) {
+            account.addBalance(i, "deposit " + i);
+        }
+        accountStorageDB.awaitDurable();
+        assertTrue(account.getJournal().sealedSize() >= 150 - 16);
+        writeAheadLog.close();
+        historyStore.close();
+
+        FileHistorySegmentStore reopenedHistoryStore = newHistoryStore();
+        WriteAheadLog reopened = newWriteAheadLog();
+        AccountStorageDB recovered = new AccountStorageDB(reopened, newSnapshotStore(), reopenedHistoryStore);
+        recovered.recover();
+
+        Account recoveredAccount = recovered.getAccount(1L);
+        assertEquals(150 * 151 * 100L / 2, recoveredAccount.getBalanceMinorUnits());
+        assertEquals(150, recoveredAccount.getJournal().size());
+        assertTrue(recoveredAccount.getJournal().sealedSize() >= 150 - 16);
+        for (int i = 0; i < 150; i++) {
+            assertEquals((i + 1) * 100L, recoveredAccount.getJournal().getAmount(i));
+            assertEquals("deposit " + (i + 1), recoveredAccount.getJournal().getRemarks(i));
+        }
+        assertTrue(reopenedHistoryStore.getSegmentCount() < recoveredAccount.getJournal().sealedSize() / 8,
+                "Segments referenced by the snapshot should not be written again.");
+        reopened.close();
+        reopenedHistoryStore.close();
+
+        AccountStorageDB withoutHistoryStore = new AccountStorageDB(newWriteAheadLog(), newSnapshotStore());
+        assertThrows(UncheckedIOException.class, withoutHistoryStore::recover);
+    }
+
+    @Test
+    void testDeleteAccount_movesAccountToArchive() throws Exception {
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        AccountArchive archive = newArchive();
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog, null, null, archive);
+        accountStorageDB.recover();
+        accountStorageDB.addAccount(newAccount(1L));
+        accountStorageDB.addAccount(newAccount(2L));
+        Account account = accountStorageDB.getAccount(2L);
+        account.addBalance(50.0, "deposit");
+
+        assertTrue(accountStorageDB.deleteAccount(2L));
+        assertFalse(accountStorageDB.deleteAccount(2L));
+        accountStorageDB.awaitDurable();
+        assertFalse(account.addBalance(1.0, "after cancel"));
+        assertThrows(InvalidAccountException.class, () -> accountStorageDB.getAccount(2L));
+        assertEquals(1, accountStorageDB.getAccountCount());
+        assertEquals(2L, accountStorageDB.getMaxAccountId());
+        assertEquals(5000L, accountStorageDB.getArchivedAccount(2L).getBalanceMinorUnits());
+        writeAheadLog.close();
+        archive.close();
+
+        WriteAheadLog reopened = newWriteAheadLog();
+        AccountArchive reopenedArchive = newArchive();
+        AccountStorageDB recovered = new AccountStorageDB(reopened, null, null, reopenedArchive);
+        recovered.recover();
+
+        assertEquals(1, recovered.getAccountCount());
+        assertEquals(2L, recovered.getMaxAccountId());
+        Account archived = recovered.getArchivedAccount(2L);
+        assertEquals(AccountStatus.CLOSED, archived.getAccountStatus());
+        assertEquals("deposit", archived.getJournal().getRemarks(0));
+        reopened.close();
+        reopenedArchive.close();
+    }
+
+    @Test
+    void testRecover_archivesAccountsCancelledBeforeArchiveWasEnabled() throws Exception {
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog);
+        accountStorageDB.recover();
+        accountStorageDB.addAccount(newAccount(1L));
+        accountStorageDB.getAccount(1L).addBalance(20.0, "deposit");
+        accountStorageDB.deleteAccount(1L);
+        accountStorageDB.awaitDurable();
+        writeAheadLog.close();
+
+        WriteAheadLog reopened = newWriteAheadLog();
+        AccountArchive archive = newArchive();
+        AccountStorageDB recovered = new AccountStorageDB(reopened, null, null, archive);
+        recovered.recover();
+
+        assertEquals(0, recovered.getAccountCount());
+        assertEquals(2000L, recovered.getArchivedAccount(1L).getBalanceMinorUnits());
+        reopened.close();
+        archive.close();
+    }
+
+    @Test
+    void testUserDirectory_followsAddCancelAndRecovery() throws Exception {
+        WriteAheadLog writeAheadLog = newWriteAheadLog();
+        AccountStorageDB accountStorageDB = new AccountStorageDB(writeAheadLog, newSnapshotStore());
+        accountStorageDB.recover();
+        accountStorageDB.addAccount(newAccount(1L));
+        accountStorageDB.addAccount(newAccount(2L));
+        accountStorageDB.addAccount(newAccount(3L));
+        assertSame(accountStorageDB.getAccount(1L).getUser(), accountStorageDB.getAccount(3L).getUser());
+
+        accountStorageDB.deleteAccount(1L);
+        accountStorageDB.awaitDurable();
+        assertArrayEquals(new long[] {2L, 3L}, accountStorageDB.getUserDirectory().getAccountIds("johndoe"));
+        writeAheadLog.close();
+
+        WriteAheadLog reopened = newWriteAheadLog();
+        AccountStorageDB recovered = new AccountStorageDB(reopened, newSnapshotStore());
+        recovered.recover();
+
+        assertArrayEquals(new long[] {2L, 3L}, recovered.getUserDirectory().getAccountIds("johndoe"));
+        assertEquals(1L, recovered.getUserDirectory().getUser("johndoe").getId(), "The user id should survive its first account being cancelled.");
+        assertTrue(recovered.writeSnapshot());
+        reopened.close();
+
+        AccountStorageDB fromSnapshot = new AccountStorageDB(newWriteAheadLog(), newSnapshotStore());
+        fromSnapshot.recover();
+        assertEquals(1L, fromSnapshot.getUserDirectory().getUser("johndoe").getId());
+    }
+
+    @Test
+    void testAddAccount_rejectsConflictingUser() throws Exception {
+        AccountStorageDB accountStorageDB = new AccountStorageDB();
+        accountStorageDB.addAccount(newAccount(1L));
+        Account impostor = newAccount(2L);
+        impostor.getUser().setPassword("other");
+
+        assertNull(accountStorageDB.addAccount(impostor));
+        assertEquals(List.of(impostor), accountStorageDB.addAccounts(List.of(newAccount(3L), impostor)));
+        assertThrows(InvalidAccountException.class, () -> accountStorageDB.getAccount(2L));
+        assertArrayEquals(new long[] {1L, 3L}, accountStorageDB.getUserDirectory().getAccountIds("johndoe"));
+    }
+
+    private AccountArchive newArchive() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve("archive").toString());
+        AccountArchive archive = new AccountArchive(properties);
+        archive.open();
+        return archive;
+    }
+
+    private FileHistorySegmentStore newHistoryStore() {
+        HistoryStoreProperties properties = new HistoryStoreProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve("history").toString());
+        properties.setHotEntries(16);
+        FileHistorySegmentStore historyStore = new FileHistorySegmentStore(properties);
+        historyStore.open();
+        return historyStore;
+    }
+
+    private LedgerSnapshotStore newSnapshotStore() {
+        LedgerSnapshotProperties properties = new LedgerSnapshotProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve("snapshot").toString());
+        return new LedgerSnapshotStore(properties);
+    }
+
+    private WriteAheadLog newWriteAheadLog() {
+        WriteAheadLogProperties properties = new WriteAheadLogProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve("wal").toString());
+        return new WriteAheadLog(properties);
+    }
+
+    private static Account newAccount(long accountId) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setUser(User.builder().name("John Doe").userName("johndoe").password("password").role(Role.USER).build());
+        return account;
+    }
+}
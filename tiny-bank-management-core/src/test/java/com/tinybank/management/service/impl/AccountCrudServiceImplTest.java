@@ -2,17 +2,31 @@ package com.tinybank.management.service.impl;
 
 
 import com.tinybank.management.account.Account;
+import com.tinybank.management.auth.PasswordHasher;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionPage;
 import com.tinybank.management.exception.CancelAccountException;
 import com.tinybank.management.exception.CreateAccountException;
+import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.InvalidUserException;
 import com.tinybank.management.service.AccountStorageDB;
+import com.tinybank.management.user.Role;
 import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserAccounts;
+import com.tinybank.management.user.UserDirectory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -23,6 +37,9 @@ class AccountCrudServiceImplTest {
     @Mock
     private AccountStorageDB accountStorageDB;
 
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(1_000);
+
     @InjectMocks
     private AccountCrudServiceImpl accountCrudService;
 
@@ -49,6 +66,30 @@ class AccountCrudServiceImplTest {
         verify(accountStorageDB).addAccount(any(Account.class));
     }
 
+    @Test
+    void testCreateAccounts_assignsBlocksAndSkipsInvalid() throws Exception {
+        int count = AccountCrudServiceImpl.BULK_CHUNK_SIZE * 2 + 10;
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Account bulkAccount = new Account();
+            bulkAccount.setUser(i % 100 == 0 ? null : user);
+            accounts.add(bulkAccount);
+        }
+
+        List<Long> accountIds = accountCrudService.createAccounts(accounts);
+
+        assertEquals(count, accountIds.size());
+        assertNull(accountIds.get(0));
+        assertEquals(count - (count + 99) / 100, accountIds.stream().filter(Objects::nonNull).distinct().count());
+        assertEquals(count - (count + 99) / 100, accountIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).max().orElse(0));
+        assertEquals(accountIds.get(5), accounts.get(5).getAccountId());
+        verify(accountStorageDB, times(3)).addAccounts(anyList());
+        verify(accountStorageDB).awaitDurable();
+
+        when(accountStorageDB.addAccount(any(Account.class))).thenReturn(account);
+        assertEquals(count - (count + 99) / 100 + 1, accountCrudService.createAccount(account).getAccountId());
+    }
+
     @Test
     void testCreateAccount_noUserSet() {
         Account invalidAccount = new Account(); // No user set
@@ -66,6 +107,39 @@ class AccountCrudServiceImplTest {
         assertThrows(CreateAccountException.class, () -> accountCrudService.createAccount(account));
     }
 
+    @Test
+    void testCreateAccount_rejectsUserNameOfDifferentUser() throws Exception {
+        UserDirectory userDirectory = new UserDirectory();
+        Account existing = new Account();
+        existing.setAccountId(1L);
+        existing.setUser(User.builder().name("John Doe").userName("johndoe").password("password").role(Role.USER).build());
+        userDirectory.register(existing);
+        when(accountStorageDB.getUserDirectory()).thenReturn(userDirectory);
+        Account impostor = new Account();
+        impostor.setUser(User.builder().name("John Doe").userName("johndoe").password("guess").role(Role.USER).build());
+        Account sameUser = new Account();
+        sameUser.setUser(User.builder().name("John Doe").userName("johndoe").password("password").role(Role.USER).build());
+        when(accountStorageDB.addAccount(sameUser)).thenReturn(sameUser);
+
+        CreateAccountException exception = assertThrows(CreateAccountException.class, () -> accountCrudService.createAccount(impostor));
+        assertEquals("User name already registered with different details", exception.getMessage());
+        assertSame(existing.getUser(), accountCrudService.createAccount(sameUser).getUser());
+        verify(accountStorageDB, never()).addAccount(impostor);
+    }
+
+    @Test
+    void testCreateAccount_hashesPasswordsThatLookHashed() throws Exception {
+        when(accountStorageDB.getUserDirectory()).thenReturn(new UserDirectory());
+        when(accountStorageDB.addAccount(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Account hashShaped = new Account();
+        hashShaped.setUser(User.builder().name("John Doe").userName("johndoe").password("pbkdf2-sha256$x$y$z").role(Role.USER).build());
+
+        String stored = accountCrudService.createAccount(hashShaped).getUser().getPassword();
+
+        assertNotEquals("pbkdf2-sha256$x$y$z", stored);
+        assertTrue(passwordHasher.matches("pbkdf2-sha256$x$y$z", stored));
+    }
+
     @Test
     void testCancelAccount_validId() throws Exception {
         when(accountStorageDB.deleteAccount(anyLong())).thenReturn(true);
@@ -90,4 +164,74 @@ class AccountCrudServiceImplTest {
 
         assertThrows(CancelAccountException.class, () -> accountCrudService.cancelAccount(1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetTransactionPage_walksCursorToTheEnd() throws Exception {
+        account.setAccountId(1L);
+        for (int i = 0; i < 25; i++) {
+            account.addBalance(1, "deposit-" + i);
+        }
+        when(accountStorageDB.getAccount(1L)).thenReturn(account);
+
+        TransactionPage first = accountCrudService.getTransactionPage(1L, null, 10, null, null);
+        assertEquals(10, first.getTransactions().size());
+        assertEquals("deposit-0", first.getTransactions().get(0).getRemarks());
+        assertEquals(10L, first.getNextCursor());
+
+        TransactionPage last = accountCrudService.getTransactionPage(1L, 20L, 10, null, null);
+        assertEquals(5, last.getTransactions().size());
+        assertEquals("deposit-20", last.getTransactions().get(0).getRemarks());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPage_timeRange() throws Exception {
+        account.setAccountId(1L);
+        account.addBalance(1, "before");
+        when(accountStorageDB.getAccount(1L)).thenReturn(account);
+        LocalDateTime from = TransactionJournal.toLocalDateTime(account.getJournal().getEpochMicros(0) + 1);
+        Thread.sleep(2);
+        account.addBalance(2, "inside");
+
+        TransactionPage page = accountCrudService.getTransactionPage(1L, null, 10, from, null);
+        assertEquals(1, page.getTransactions().size());
+        assertEquals("inside", page.getTransactions().get(0).getRemarks());
+
+        TransactionPage before = accountCrudService.getTransactionPage(1L, null, 10, null, from);
+        assertEquals(1, before.getTransactions().size());
+        assertEquals("before", before.getTransactions().get(0).getRemarks());
+        assertNull(before.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPage_invalidAccount() throws Exception {
+        when(accountStorageDB.getAccount(1L)).thenThrow(new InvalidAccountException());
+
+        assertThrows(InvalidAccountException.class, () -> accountCrudService.getTransactionPage(1L, null, 10, null, null));
+    }
+
+    @Test
+    void testGetUserAccounts_skipsCancelledAccounts() throws Exception {
+        UserDirectory userDirectory = new UserDirectory();
+        Account first = new Account();
+        first.setAccountId(1L);
+        first.setUser(User.builder().name("John Doe").userName("johndoe").role(Role.USER).build());
+        first.addBalance(25, "deposit");
+        Account second = new Account();
+        second.setAccountId(2L);
+        second.setUser(User.builder().name("John Doe").userName("johndoe").role(Role.USER).build());
+        userDirectory.register(first);
+        userDirectory.register(second);
+        when(accountStorageDB.getUserDirectory()).thenReturn(userDirectory);
+        when(accountStorageDB.findAccount(1L)).thenReturn(first);
+        when(accountStorageDB.findAccount(2L)).thenReturn(null);
+
+        UserAccounts userAccounts = accountCrudService.getUserAccounts("johndoe");
+
+        assertEquals(1L, userAccounts.getUserId());
+        assertEquals(Role.USER, userAccounts.getRole());
+        assertEquals(1, userAccounts.getAccounts().size());
+        assertEquals(25.0, userAccounts.getAccounts().get(0).getBalance());
+        assertThrows(InvalidUserException.class, () -> accountCrudService.getUserAccounts(9L));
+    }
+}
@@ -2,6 +2,9 @@ package com.tinybank.management.service.impl;
 
 import com.tinybank.management.account.Account;
 import com.tinybank.management.account.AccountStatus;
+import com.tinybank.management.account.BatchOperation;
+import com.tinybank.management.account.BatchOperationResult;
+import com.tinybank.management.account.BatchOperationType;
 import com.tinybank.management.exception.DepositOperationException;
 import com.tinybank.management.exception.InvalidAccountException;
 import com.tinybank.management.exception.TransferOperationException;
@@ -13,6 +16,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -129,7 +140,7 @@ class AccountTransactionalServiceImplTest {
         Account toAccount = spy(new Account());
         double currentBalance = 123D;
         fromAccount.setAccountId(1L);
-        toAccount.setAccountId(1L);
+        toAccount.setAccountId(2L);
         fromAccount.addBalance(currentBalance, "deposit");
         double transferAmount = 123D;
         when(accountStorageDB.getAccount(fromAccountId)).thenReturn(fromAccount);
@@ -138,8 +149,8 @@ class AccountTransactionalServiceImplTest {
         assertDoesNotThrow(() -> accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount, "transfer"));
         assertEquals(0D, fromAccount.getBalance());
         assertEquals(123D, toAccount.getBalance());
-        verify(fromAccount).subtractBalance(transferAmount, "transfer");
-        verify(toAccount).addBalance(transferAmount, "transfer");
+        verify(fromAccount).transferTo(toAccount, transferAmount, "transfer");
+        verify(accountStorageDB).awaitDurable();
     }
 
     @Test
@@ -148,63 +159,178 @@ class AccountTransactionalServiceImplTest {
         Account toAccount = spy(new Account());
         double currentBalance = 123D;
         fromAccount.setAccountId(1L);
+        toAccount.setAccountId(2L);
         fromAccount.addBalance(currentBalance, "deposit");
         double transferAmount = 123D;
         when(accountStorageDB.getAccount(fromAccountId)).thenReturn(fromAccount);
         when(accountStorageDB.getAccount(toAccountId)).thenReturn(toAccount);
 
-        assertThrows(TransferOperationException.class, () -> accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount + 1, "transfer"));
+        TransferOperationException exception = assertThrows(TransferOperationException.class, () ->
+                accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount + 1, "transfer"));
+        assertEquals("Insufficient balance", exception.getMessage());
         assertEquals(123D, fromAccount.getBalance());
         assertEquals(0D, toAccount.getBalance());
-        verify(fromAccount).subtractBalance(transferAmount + 1, "transfer");
-        verify(toAccount, never()).addBalance(anyDouble(), eq("transfer"));
+        assertEquals(1, fromAccount.getTransactions().size());
+        assertEquals(0, toAccount.getTransactions().size());
+        verify(accountStorageDB, never()).awaitDurable();
     }
 
     @Test
-    void testTransfer_addBalanceFailure() throws InvalidAccountException {
+    void testTransfer_creditFailureLeavesBothAccountsUnchanged() throws InvalidAccountException {
         Account fromAccount = spy(new Account());
         Account toAccount = spy(new Account());
         double currentBalance = 123D;
         fromAccount.setAccountId(1L);
-        toAccount.setAccountId(1L);
+        toAccount.setAccountId(2L);
         fromAccount.addBalance(currentBalance, "deposit");
+        toAccount.setAccountStatus(AccountStatus.LOCKED);
         double transferAmount = 123D;
         when(accountStorageDB.getAccount(fromAccountId)).thenReturn(fromAccount);
         when(accountStorageDB.getAccount(toAccountId)).thenReturn(toAccount);
 
-        when(toAccount.addBalance(eq(transferAmount), eq("transfer"))).thenReturn(false);
-
-        TransferOperationException exception = assertThrows(TransferOperationException.class, () ->
+        assertThrows(TransferOperationException.class, () ->
                 accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount, "transfer")
         );
 
         assertEquals(123D, fromAccount.getBalance());
         assertEquals(0D, toAccount.getBalance());
-        verify(fromAccount).subtractBalance(transferAmount, "transfer");
-        verify(toAccount).addBalance(transferAmount, "transfer");
-        verify(toAccount, times(1)).addBalance(transferAmount, "transfer"); // Ensuring the revert occurred
+        assertEquals(1, fromAccount.getTransactions().size());
+        verify(fromAccount, never()).subtractBalance(anyDouble(), anyString());
+        verify(toAccount, never()).addBalance(anyDouble(), anyString());
     }
 
     @Test
-    void testTransfer_subtractOperationFalseStatus() throws InvalidAccountException {
+    void testTransfer_unavailableFromAccount() throws InvalidAccountException {
         Account fromAccount = spy(new Account());
         Account toAccount = spy(new Account());
         double currentBalance = 123D;
         fromAccount.setAccountId(1L);
+        toAccount.setAccountId(2L);
         fromAccount.addBalance(currentBalance, "deposit");
+        fromAccount.setAccountStatus(AccountStatus.LOCKED);
         double transferAmount = 123D;
         when(accountStorageDB.getAccount(fromAccountId)).thenReturn(fromAccount);
         when(accountStorageDB.getAccount(toAccountId)).thenReturn(toAccount);
 
-        when(fromAccount.subtractBalance(eq(transferAmount), eq("withdraw"))).thenReturn(false);
-
-        TransferOperationException exception = assertThrows(TransferOperationException.class, () ->
+        assertThrows(TransferOperationException.class, () ->
                 accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount, "transfer")
         );
 
         assertEquals(123D, fromAccount.getBalance());
         assertEquals(0D, toAccount.getBalance());
-        verify(fromAccount).subtractBalance(transferAmount, "transfer");
-        verify(toAccount, never()).addBalance(transferAmount, "transfer");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransfer_opposingTransfersDoNotDeadlock() throws Exception {
+        Account firstAccount = new Account();
+        Account secondAccount = new Account();
+        firstAccount.setAccountId(fromAccountId);
+        secondAccount.setAccountId(toAccountId);
+        firstAccount.addBalance(2_000D, "deposit");
+        secondAccount.addBalance(2_000D, "deposit");
+        when(accountStorageDB.getAccount(fromAccountId)).thenReturn(firstAccount);
+        when(accountStorageDB.getAccount(toAccountId)).thenReturn(secondAccount);
+        int transfers = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<?> forward = executor.submit(() -> {
+            for (int i = 0; i < transfers; i++) {
+                accountTransactionalService.transfer(fromAccountId, toAccountId, 1D, "forward");
+            }
+            return null;
+        });
+        Future<?> backward = executor.submit(() -> {
+            for (int i = 0; i < transfers; i++) {
+                accountTransactionalService.transfer(toAccountId, fromAccountId, 1D, "backward");
+            }
+            return null;
+        });
+        forward.get(10, TimeUnit.SECONDS);
+        backward.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(2_000D, firstAccount.getBalance());
+        assertEquals(2_000D, secondAccount.getBalance());
+        assertEquals(1 + 2 * transfers, firstAccount.getTransactions().size());
+    }
+
+    @Test
+    void testDepositAsync_success() throws Exception {
+        Account account = new Account();
+        account.setAccountId(1L);
+        when(accountStorageDB.getAccount(fromAccountId)).thenReturn(account);
+
+        accountTransactionalService.depositAsync(fromAccountId, 123D, "deposit", null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(123D, account.getBalance());
+        verify(accountStorageDB).awaitDurable();
+    }
+
+    @Test
+    void testTransferAsync_insufficientBalance() throws InvalidAccountException {
+        Account fromAccount = new Account();
+        Account toAccount = new Account();
+        fromAccount.setAccountId(1L);
+        toAccount.setAccountId(2L);
+        when(accountStorageDB.getAccount(fromAccountId)).thenReturn(fromAccount);
+        when(accountStorageDB.getAccount(toAccountId)).thenReturn(toAccount);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () ->
+                accountTransactionalService.transferAsync(fromAccountId, toAccountId, 10D, "transfer", Duration.ofSeconds(1)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransferOperationException.class, exception.getCause());
+        assertEquals("Insufficient balance", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testExecuteBatch_appliesInOrderWithPerItemResults() throws Exception {
+        Account firstAccount = new Account();
+        Account secondAccount = new Account();
+        firstAccount.setAccountId(fromAccountId);
+        secondAccount.setAccountId(toAccountId);
+        when(accountStorageDB.getAccount(fromAccountId)).thenReturn(firstAccount);
+        when(accountStorageDB.getAccount(toAccountId)).thenReturn(secondAccount);
+        when(accountStorageDB.getAccount(3L)).thenThrow(new InvalidAccountException("Invalid Account Id"));
+        List<BatchOperation> operations = List.of(
+                batchOperation(BatchOperationType.DEPOSIT, fromAccountId, null, 100),
+                batchOperation(BatchOperationType.WITHDRAW, toAccountId, null, 10),
+                batchOperation(BatchOperationType.DEPOSIT, toAccountId, null, 5),
+                batchOperation(BatchOperationType.WITHDRAW, fromAccountId, null, 30),
+                batchOperation(BatchOperationType.TRANSFER, fromAccountId, toAccountId, 50),
+                batchOperation(BatchOperationType.WITHDRAW, toAccountId, null, 55),
+                batchOperation(BatchOperationType.DEPOSIT, 3L, null, 1),
+                batchOperation(BatchOperationType.TRANSFER, fromAccountId, 3L, 1));
+
+        List<BatchOperationResult> results = accountTransactionalService.executeBatch(operations);
+
+        assertEquals(List.of(true, false, true, true, true, true, false, false), results.stream().map(BatchOperationResult::isSuccess).toList());
+        assertEquals("Insufficient balance", results.get(1).getErrorMessage());
+        assertEquals("Invalid Account Id", results.get(6).getErrorMessage());
+        assertEquals(7, results.get(7).getIndex());
+        assertEquals(20D, firstAccount.getBalance());
+        assertEquals(0D, secondAccount.getBalance());
+        verify(accountStorageDB, times(1)).awaitDurable();
+    }
+
+    @Test
+    void testExecuteBatch_noDurabilityWaitWhenEverythingFailed() throws Exception {
+        when(accountStorageDB.getAccount(fromAccountId)).thenThrow(new InvalidAccountException("Invalid Account Id"));
+
+        List<BatchOperationResult> results = accountTransactionalService.executeBatch(List.of(
+                batchOperation(BatchOperationType.DEPOSIT, fromAccountId, null, 1),
+                batchOperation(null, fromAccountId, null, 1)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        verify(accountStorageDB, never()).awaitDurable();
+    }
+
+    private static BatchOperation batchOperation(BatchOperationType operationType, Long accountId, Long toAccountId, double amount) {
+        return BatchOperation.builder()
+                .operationType(operationType)
+                .accountId(accountId)
+                .toAccountId(toAccountId)
+                .amount(amount)
+                .remarks("batch")
+                .build();
+    }
+}
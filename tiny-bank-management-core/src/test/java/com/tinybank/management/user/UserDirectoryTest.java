@@ -0,0 +1,132 @@
+package com.tinybank.management.user;
+
+import com.tinybank.management.account.Account;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDirectoryTest {
+
+    @Test
+    void testRegister_sharesUserAcrossAccounts() {
+        UserDirectory userDirectory = new UserDirectory();
+        Account first = newAccount(5L, "johndoe");
+        Account second = newAccount(3L, "johndoe");
+        Account other = newAccount(4L, "janedoe");
+
+        userDirectory.register(first);
+        userDirectory.register(second);
+        userDirectory.register(other);
+
+        assertSame(first.getUser(), second.getUser());
+        assertEquals(5L, first.getUser().getId());
+        assertArrayEquals(new long[] {3L, 5L}, userDirectory.getAccountIds("johndoe"));
+        assertArrayEquals(new long[] {3L, 5L}, userDirectory.getAccountIds(5L));
+        assertSame(first.getUser(), userDirectory.getUser(5L));
+        assertArrayEquals(new long[] {4L}, userDirectory.getAccountIds("janedoe"));
+        assertEquals(2, userDirectory.getUserCount());
+        assertEquals(0, userDirectory.getAccountIds("nobody").length);
+    }
+
+    @Test
+    void testRegister_rejectsConflictingUser() {
+        UserDirectory userDirectory = new UserDirectory();
+        Account first = newAccount(1L, "johndoe");
+        Account otherRole = newAccount(2L, "johndoe");
+        otherRole.getUser().setRole(Role.ADMIN);
+        Account otherPassword = newAccount(3L, "johndoe");
+        otherPassword.getUser().setPassword("other");
+
+        assertTrue(userDirectory.register(first));
+        assertFalse(userDirectory.register(otherRole));
+        assertFalse(userDirectory.register(otherPassword));
+        assertTrue(userDirectory.register(newAccount(4L, "johndoe")));
+
+        assertNotSame(first.getUser(), otherRole.getUser());
+        assertFalse(userDirectory.hasAdmin());
+        assertArrayEquals(new long[] {1L, 4L}, userDirectory.getAccountIds("johndoe"));
+    }
+
+    @Test
+    void testUnregister_dropsUserWithLastAccount() {
+        UserDirectory userDirectory = new UserDirectory();
+        Account first = newAccount(1L, "johndoe");
+        Account second = newAccount(2L, "johndoe");
+        userDirectory.register(first);
+        userDirectory.register(second);
+
+        userDirectory.unregister(first);
+        assertArrayEquals(new long[] {2L}, userDirectory.getAccountIds(1L));
+        userDirectory.unregister(second);
+
+        assertNull(userDirectory.getUser("johndoe"));
+        assertNull(userDirectory.getUser(1L));
+        assertEquals(0, userDirectory.getUserCount());
+        userDirectory.register(newAccount(7L, "johndoe"));
+        assertEquals(7L, userDirectory.getUser("johndoe").getId());
+    }
+
+    @Test
+    void testRegister_concurrentAccountsOfOneUser() throws Exception {
+        UserDirectory userDirectory = new UserDirectory();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    userDirectory.register(newAccount(i * 4L + offset + 1, "johndoe"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long[] accountIds = userDirectory.getAccountIds("johndoe");
+        assertEquals(4_000, accountIds.length);
+        for (int i = 0; i < accountIds.length; i++) {
+            assertEquals(i + 1L, accountIds[i]);
+        }
+    }
+
+    @Test
+    void testRegisterAll_mergesAccountIdsOfEachUserOnce() {
+        UserDirectory userDirectory = new UserDirectory();
+        userDirectory.register(newAccount(5L, "johndoe"));
+        List<Account> accounts = new ArrayList<>();
+        for (long accountId = 100L; accountId > 0; accountId -= 10) {
+            accounts.add(newAccount(accountId, "johndoe"));
+        }
+        accounts.add(newAccount(7L, "janedoe"));
+        Account conflicting = newAccount(8L, "johndoe");
+        conflicting.getUser().setPassword("other");
+        accounts.add(conflicting);
+        accounts.add(newAccount(5L, "johndoe"));
+
+        boolean[] registered = userDirectory.registerAll(accounts);
+
+        for (int index = 0; index < accounts.size(); index++) {
+            assertEquals(accounts.get(index) != conflicting, registered[index], "Account " + accounts.get(index).getAccountId());
+        }
+        assertArrayEquals(new long[] {5L, 10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L}, userDirectory.getAccountIds("johndoe"));
+        assertSame(userDirectory.getUser("johndoe"), accounts.get(0).getUser());
+        assertEquals(5L, userDirectory.getUser("johndoe").getId());
+        assertArrayEquals(new long[] {7L}, userDirectory.getAccountIds(7L));
+        assertEquals(2, userDirectory.getUserCount());
+    }
+
+    private static Account newAccount(long accountId, String userName) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setUser(User.builder().name("John Doe").userName(userName).password("password").role(Role.USER).build());
+        return account;
+    }
+}
@@ -4,80 +4,306 @@ import com.tinybank.management.user.User;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.time.LocalDateTime;
-import java.util.LinkedList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class Account {
 
+    private static final VarHandle BALANCE;
+
+    private static final VarHandle STATUS;
+
+    private static final VarHandle IN_FLIGHT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BALANCE = lookup.findVarHandle(Account.class, "balanceMinorUnits", long.class);
+            STATUS = lookup.findVarHandle(Account.class, "accountStatus", AccountStatus.class);
+            IN_FLIGHT = lookup.findVarHandle(Account.class, "inFlight", int.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
     @Getter
     @Setter
     private Long accountId;
 
+    /**
+     * Balance in {@link MinorUnits}, only ever updated through CAS so credits and debits never block.
+     */
     @Getter
-    private volatile Double balance;
+    private volatile long balanceMinorUnits;
 
     @Getter
-    private List<Transaction> transactions;
+    private final TransactionJournal journal;
 
     @Getter
     @Setter
     private User user;
 
+    @Getter
     @Setter
-    private AccountStatus accountStatus;
+    private volatile AccountStatus accountStatus;
 
-    private final Lock lock;
+    /**
+     * Credits, debits and transfers in progress; {@link #close()} waits for it to drop to zero.
+     */
+    private volatile int inFlight;
 
-    public static final int LOCK_ATTEMPT_INTERVAL = 2000;
+    /**
+     * Orders the journals of two accounts that cannot be ordered by id or identity hash.
+     */
+    private static final ReentrantLock TIE_LOCK = new ReentrantLock();
 
     public Account() {
-        balance = 0.0D;
-        lock = new ReentrantLock();
+        balanceMinorUnits = 0L;
         accountStatus = AccountStatus.AVAILABLE;
-        transactions = new LinkedList<>();
+        journal = new TransactionJournal();
+    }
+
+    /**
+     * Returns a lazily materialized view of the history; see {@link TransactionJournal#asList(Long)}.
+     */
+    public List<Transaction> getTransactions() {
+        return journal.asList(accountId);
+    }
+
+    public Double getBalance() {
+        return MinorUnits.toMajor(balanceMinorUnits);
     }
 
+    /**
+     * Credits the account. Fails without side effects when the account is not available, the amount is
+     * invalid or the credit would overflow the balance.
+     */
     public boolean addBalance(double amount, String remarks) {
-        if (!accountStatus.equals(AccountStatus.AVAILABLE)) return false;
-        if (amount < 0) return false;
-        balance = balance + amount;
-        addTransaction(this.accountId, amount, TransactionType.DEPOSIT, remarks);
-        return true;
+        if (!enter()) return false;
+        try {
+            if (!accountStatus.equals(AccountStatus.AVAILABLE)) return false;
+            if (amount < 0) return false;
+            long minorUnits = MinorUnits.toMinorUnits(amount);
+            if (minorUnits == MinorUnits.INVALID || !credit(minorUnits)) return false;
+            record(TransactionType.DEPOSIT, minorUnits, remarks);
+            return true;
+        } finally {
+            exit();
+        }
     }
 
+    /**
+     * Debits the account. The balance can never go below zero: the overdraft check and the update are a
+     * single CAS, so concurrent debits either fit into the balance or fail with "Insufficient balance".
+     */
     public boolean subtractBalance(double amount, String remarks) {
-        if (!accountStatus.equals(AccountStatus.AVAILABLE)) return false;
-        if (amount < 0) return false;
-        if (amount > balance) throw new RuntimeException("Insufficient balance");
+        if (!enter()) return false;
         try {
-            boolean lockStatus = lock.tryLock(LOCK_ATTEMPT_INTERVAL, TimeUnit.MILLISECONDS);
-            if (!lockStatus || amount > balance)
-                throw new RuntimeException("Insufficient balance due to concurrent transaction");
-            if (amount <= balance) {
-                balance = balance - amount;
-                addTransaction(this.accountId, amount, TransactionType.WITHDRAW, remarks);
-                return true;
+            if (!accountStatus.equals(AccountStatus.AVAILABLE)) return false;
+            if (amount < 0) return false;
+            long minorUnits = MinorUnits.toMinorUnits(amount);
+            if (minorUnits == MinorUnits.INVALID) return false;
+            debit(minorUnits);
+            record(TransactionType.WITHDRAW, minorUnits, remarks);
+            return true;
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Moves {@code amount} from this account to {@code target} as a single operation. Both journals are
+     * held while the debit and the credit are applied, always acquired in account id order, so opposing
+     * transfers never deadlock and a failed credit is undone before either account sees another entry. When
+     * the listener throws, both balance changes are undone and neither journal gets an entry.
+     * Throws "Insufficient balance" like {@link #subtractBalance(double, String)}.
+     */
+    public boolean transferTo(Account target, double amount, String remarks) {
+        if (!enter()) return false;
+        try {
+            if (!target.enter()) return false;
+            try {
+                return lockedTransfer(target, amount, remarks);
+            } finally {
+                target.exit();
             }
-        } catch (Exception ex) {
-            throw new RuntimeException("Subtract balance operation failed");
         } finally {
-            lock.unlock();
+            exit();
+        }
+    }
+
+    /**
+     * Closes the account and waits for the credits, debits and transfers already in progress on it to
+     * finish: a grace period after which the balance and journal can no longer change, so the account can
+     * be archived. Operations starting afterwards fail like those on a locked account. Returns
+     * {@code false} when the account was already closed.
+     */
+    public boolean close() {
+        AccountStatus current;
+        do {
+            current = accountStatus;
+            if (current == AccountStatus.CLOSED) return false;
+        } while (!STATUS.compareAndSet(this, current, AccountStatus.CLOSED));
+        for (int spins = 0; inFlight != 0; spins++) {
+            if (spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(10_000L);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds a closed account from its archived history, encoded by {@link TransactionJournal#encodeHistory()}.
+     */
+    public static Account fromArchive(Long accountId, User user, byte[] encodedHistory) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setUser(user);
+        HistorySegment history = HistorySegment.decode(encodedHistory);
+        for (int offset = 0; offset < history.size(); offset++) {
+            account.replayTransaction(history.getTransactionType(offset), history.getAmount(offset), history.getEpochMicros(offset), history.getRemarks(offset));
+        }
+        account.accountStatus = AccountStatus.CLOSED;
+        return account;
+    }
+
+    /**
+     * Restores the journal of an account rebuilt from a snapshot, see {@link TransactionJournal#restore}, and
+     * sets the balance to its net. The balance is not taken from the snapshot: it is updated before the
+     * journal is, so one read next to the captured journal may include an operation the journal, and the
+     * snapshot, do not.
+     */
+    public void restoreJournal(JournalState state, long[] amounts, byte[] types, long[] epochMicros, String[] remarks,
+                               HistorySegmentStore historyStore, int hotEntries) {
+        journal.restore(state, amounts, types, epochMicros, remarks, historyStore, hotEntries);
+        BALANCE.setVolatile(this, journal.getNetMinorUnits());
+    }
+
+    private boolean lockedTransfer(Account target, double amount, String remarks) {
+        int order = lockOrder(this, target);
+        if (order < 0) {
+            return journal.callExclusively(() -> target.journal.callExclusively(() -> applyTransfer(target, amount, remarks)));
+        } else if (order > 0) {
+            return target.journal.callExclusively(() -> journal.callExclusively(() -> applyTransfer(target, amount, remarks)));
+        }
+        TIE_LOCK.lock();
+        try {
+            return journal.callExclusively(() -> target.journal.callExclusively(() -> applyTransfer(target, amount, remarks)));
+        } finally {
+            TIE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns the account whose journal {@link #transferTo(Account, double, String)} acquires first, or
+     * {@code null} when the two accounts can only be ordered by a lock taken before either journal.
+     */
+    public Account firstLocked(Account target) {
+        int order = lockOrder(this, target);
+        return order < 0 ? this : order > 0 ? target : null;
+    }
+
+    /**
+     * Re-applies an entry recovered from durable storage: no status or overdraft checks, and the
+     * journal keeps the original timestamp.
+     */
+    public void replayTransaction(TransactionType transactionType, long minorUnits, long epochMicros, String remarks) {
+        BALANCE.getAndAdd(this, transactionType == TransactionType.DEPOSIT ? minorUnits : -minorUnits);
+        journal.append(transactionType, minorUnits, remarks, epochMicros);
+    }
+
+    private boolean applyTransfer(Account target, double amount, String remarks) {
+        if (!accountStatus.equals(AccountStatus.AVAILABLE) || !target.accountStatus.equals(AccountStatus.AVAILABLE)) return false;
+        if (amount < 0) return false;
+        long minorUnits = MinorUnits.toMinorUnits(amount);
+        if (minorUnits == MinorUnits.INVALID) return false;
+        debit(minorUnits);
+        if (!target.credit(minorUnits)) {
+            BALANCE.getAndAdd(this, minorUnits);
+            return false;
         }
-        return false;
-    }
-
-    private void addTransaction(long accountId, double amount, TransactionType transactionType, String remarks) {
-        Transaction transaction = Transaction.builder()
-                .accountId(accountId)
-                .amount(amount)
-                .transactionType(transactionType)
-                .transactionDate(LocalDateTime.now())
-                .remarks(remarks)
-                .build();
-        this.getTransactions().add(transaction);
+        long epochMicros = TransactionJournal.currentEpochMicros();
+        int index = journal.size();
+        int targetIndex = target.journal == journal ? index + 1 : target.journal.size();
+        JournalListener listener = journal.getListener();
+        JournalListener targetListener = target.journal.getListener();
+        try {
+            if (listener != null) {
+                listener.onTransfer(index, target.accountId, targetIndex, minorUnits, epochMicros, remarks);
+            } else if (targetListener != null) {
+                targetListener.onAppend(targetIndex, TransactionType.DEPOSIT, minorUnits, target.journal.nextEpochMicros(epochMicros), remarks);
+            }
+        } catch (RuntimeException ex) {
+            BALANCE.getAndAdd(target, -minorUnits);
+            BALANCE.getAndAdd(this, minorUnits);
+            throw ex;
+        }
+        journal.appendEntry(TransactionType.WITHDRAW, minorUnits, remarks, epochMicros);
+        target.journal.appendEntry(TransactionType.DEPOSIT, minorUnits, remarks, epochMicros);
+        return true;
+    }
+
+    /**
+     * Journals a credit or debit already applied to the balance, and undoes it when the append fails. A failed
+     * append leaves the journal unchanged (see {@link JournalListener}), so the balance and the journal either
+     * both hold the amount or neither does.
+     */
+    private void record(TransactionType transactionType, long minorUnits, String remarks) {
+        try {
+            journal.append(transactionType, minorUnits, remarks);
+        } catch (RuntimeException ex) {
+            BALANCE.getAndAdd(this, transactionType == TransactionType.DEPOSIT ? -minorUnits : minorUnits);
+            throw ex;
+        }
+    }
+
+    /**
+     * Registers an operation in progress, unless the account is closed. The count is raised before the
+     * status is read, and {@link #close()} sets the status before it reads the count, so either the operation
+     * sees the account closed or {@code close()} waits for it.
+     */
+    private boolean enter() {
+        IN_FLIGHT.getAndAdd(this, 1);
+        if (accountStatus == AccountStatus.CLOSED) {
+            IN_FLIGHT.getAndAdd(this, -1);
+            return false;
+        }
+        return true;
+    }
+
+    private void exit() {
+        IN_FLIGHT.getAndAdd(this, -1);
+    }
+
+    private static int lockOrder(Account first, Account second) {
+        if (first == second) {
+            return -1;
+        }
+        if (first.accountId != null && second.accountId != null && !first.accountId.equals(second.accountId)) {
+            return Long.compare(first.accountId, second.accountId);
+        }
+        return Integer.compare(System.identityHashCode(first), System.identityHashCode(second));
+    }
+
+    private boolean credit(long minorUnits) {
+        long current;
+        do {
+            current = balanceMinorUnits;
+            if (current > Long.MAX_VALUE - minorUnits) return false;
+        } while (!BALANCE.compareAndSet(this, current, current + minorUnits));
+        return true;
+    }
+
+    private void debit(long minorUnits) {
+        long current;
+        do {
+            current = balanceMinorUnits;
+            if (minorUnits > current) throw new RuntimeException("Insufficient balance");
+        } while (!BALANCE.compareAndSet(this, current, current - minorUnits));
     }
 }
@@ -0,0 +1,174 @@
+package com.tinybank.management.account;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+
+/**
+ * Running deposit and withdrawal counts and totals of one journal for the day and the month of its latest
+ * entry, so a summary of the current period is a lookup rather than a history scan. Older periods are not
+ * kept: {@link TransactionJournal#summarize} counts them from the history, narrowed down by the sparse index
+ * of its sealed segments. A handful of fields per account, not rings of buckets, so millions of accounts can
+ * afford them.
+ * <p>
+ * Updated by the journal's appends, which already hold its lock, so recording needs no lock of its own.
+ * Readers never block: a sequence number, odd while an update is in progress, tells them to retry a read
+ * that overlapped one, the same protocol as a {@link java.util.concurrent.locks.StampedLock} optimistic read.
+ */
+final class AccountAggregates {
+
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(AccountAggregates.class, "sequence", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /**
+     * Written with release semantics only, so an append pays no full fence for it.
+     */
+    private long sequence;
+
+    private long day = NO_KEY;
+
+    private long dayDepositCount;
+
+    private long dayDepositMinorUnits;
+
+    private long dayWithdrawalCount;
+
+    private long dayWithdrawalMinorUnits;
+
+    private long month = NO_KEY;
+
+    private long monthDepositCount;
+
+    private long monthDepositMinorUnits;
+
+    private long monthWithdrawalCount;
+
+    private long monthWithdrawalMinorUnits;
+
+    private long dayStartMicros = Long.MAX_VALUE;
+
+    private long dayEndMicros = Long.MIN_VALUE;
+
+    /**
+     * Adds an entry to the totals of its day and month, starting them over when it opens a later period; the
+     * caller holds the journal. Timestamps are monotonic, so a period never comes back.
+     */
+    void record(TransactionType transactionType, long minorUnits, long epochMicros) {
+        long current = sequence;
+        SEQUENCE.setRelease(this, current + 1);
+        VarHandle.storeStoreFence();
+        if (epochMicros < dayStartMicros || epochMicros >= dayEndMicros) {
+            moveToDay(TransactionJournal.toLocalDateTime(epochMicros).toLocalDate());
+        }
+        if (transactionType == TransactionType.DEPOSIT) {
+            dayDepositCount++;
+            dayDepositMinorUnits += minorUnits;
+            monthDepositCount++;
+            monthDepositMinorUnits += minorUnits;
+        } else {
+            dayWithdrawalCount++;
+            dayWithdrawalMinorUnits += minorUnits;
+            monthWithdrawalCount++;
+            monthWithdrawalMinorUnits += minorUnits;
+        }
+        SEQUENCE.setRelease(this, current + 2);
+    }
+
+    /**
+     * Copies deposit count, deposit minor units, withdrawal count and withdrawal minor units of the period
+     * {@code key} into {@code values}. Returns {@code false} when the period is older than the latest entry's.
+     */
+    boolean read(SummaryPeriod period, long key, long[] values) {
+        while (true) {
+            long before = (long) SEQUENCE.getAcquire(this);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            boolean available;
+            if (period == SummaryPeriod.DAY) {
+                available = copy(key, day, dayDepositCount, dayDepositMinorUnits, dayWithdrawalCount, dayWithdrawalMinorUnits, values);
+            } else {
+                available = copy(key, month, monthDepositCount, monthDepositMinorUnits, monthWithdrawalCount, monthWithdrawalMinorUnits, values);
+            }
+            VarHandle.loadLoadFence();
+            if ((long) SEQUENCE.getAcquire(this) == before) {
+                return available;
+            }
+        }
+    }
+
+    /**
+     * Returns the totals and their periods, for {@link #restore(long[])}; the caller holds the journal.
+     */
+    long[] state() {
+        return new long[] {day, dayDepositCount, dayDepositMinorUnits, dayWithdrawalCount, dayWithdrawalMinorUnits,
+                month, monthDepositCount, monthDepositMinorUnits, monthWithdrawalCount, monthWithdrawalMinorUnits,
+                dayStartMicros, dayEndMicros};
+    }
+
+    /**
+     * Sets the totals captured by {@link #state()}; the caller holds the journal.
+     */
+    void restore(long[] state) {
+        if (state.length != 12) {
+            throw new IllegalArgumentException("Invalid aggregates state, length: " + state.length);
+        }
+        long current = sequence;
+        SEQUENCE.setRelease(this, current + 1);
+        VarHandle.storeStoreFence();
+        day = state[0];
+        dayDepositCount = state[1];
+        dayDepositMinorUnits = state[2];
+        dayWithdrawalCount = state[3];
+        dayWithdrawalMinorUnits = state[4];
+        month = state[5];
+        monthDepositCount = state[6];
+        monthDepositMinorUnits = state[7];
+        monthWithdrawalCount = state[8];
+        monthWithdrawalMinorUnits = state[9];
+        dayStartMicros = state[10];
+        dayEndMicros = state[11];
+        SEQUENCE.setRelease(this, current + 2);
+    }
+
+    private static boolean copy(long key, long latest, long depositCount, long depositMinorUnits, long withdrawalCount,
+                                long withdrawalMinorUnits, long[] values) {
+        if (latest != NO_KEY && key < latest) {
+            return false;
+        }
+        boolean current = key == latest;
+        values[0] = current ? depositCount : 0L;
+        values[1] = current ? depositMinorUnits : 0L;
+        values[2] = current ? withdrawalCount : 0L;
+        values[3] = current ? withdrawalMinorUnits : 0L;
+        return true;
+    }
+
+    private void moveToDay(LocalDate date) {
+        dayStartMicros = TransactionJournal.toEpochMicros(date.atStartOfDay());
+        dayEndMicros = TransactionJournal.toEpochMicros(date.plusDays(1).atStartOfDay());
+        day = SummaryPeriod.DAY.key(date);
+        dayDepositCount = 0L;
+        dayDepositMinorUnits = 0L;
+        dayWithdrawalCount = 0L;
+        dayWithdrawalMinorUnits = 0L;
+        long nextMonth = SummaryPeriod.MONTH.key(date);
+        if (nextMonth != month) {
+            month = nextMonth;
+            monthDepositCount = 0L;
+            monthDepositMinorUnits = 0L;
+            monthWithdrawalCount = 0L;
+            monthWithdrawalMinorUnits = 0L;
+        }
+    }
+}
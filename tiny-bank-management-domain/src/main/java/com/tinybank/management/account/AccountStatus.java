@@ -2,5 +2,9 @@ package com.tinybank.management.account;
 
 public enum AccountStatus {
     AVAILABLE,
-    LOCKED;
+    LOCKED,
+    /**
+     * Cancelled; set by {@link Account#close()}, which also waits for the operations in progress to finish.
+     */
+    CLOSED;
 }
@@ -0,0 +1,24 @@
+package com.tinybank.management.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BatchOperation {
+    private BatchOperationType operationType;
+    /**
+     * Account a DEPOSIT/WITHDRAW applies to, or the debited account of a TRANSFER.
+     */
+    private Long accountId;
+    /**
+     * Credited account of a TRANSFER, unused otherwise.
+     */
+    private Long toAccountId;
+    private double amount;
+    private String remarks;
+}
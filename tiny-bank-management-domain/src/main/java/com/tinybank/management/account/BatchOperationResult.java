@@ -0,0 +1,19 @@
+package com.tinybank.management.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BatchOperationResult {
+    /**
+     * Position of the operation in the submitted batch.
+     */
+    private int index;
+    private boolean success;
+    private String errorMessage;
+}
@@ -0,0 +1,7 @@
+package com.tinybank.management.account;
+
+public enum BatchOperationType {
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER
+}
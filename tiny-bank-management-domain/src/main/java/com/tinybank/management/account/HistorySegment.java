@@ -0,0 +1,180 @@
+package com.tinybank.management.account;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A sealed, immutable run of journal entries and its compact encoding. Amounts are unsigned varints,
+ * timestamps a zigzag varint followed by varint deltas (the timestamp column is monotonic), and remarks a
+ * varint reference into a table of the segment's distinct remarks, so a typical entry takes 6 to 8 bytes.
+ * <pre>
+ * count, remarksCount, remarksCount x (utf8Length, utf8), count x (type, amount, timestampDelta, remarksRef + 1)
+ * </pre>
+ */
+final class HistorySegment {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final long[] amounts;
+
+    private final byte[] types;
+
+    private final long[] epochMicros;
+
+    private final String[] remarks;
+
+    private HistorySegment(long[] amounts, byte[] types, long[] epochMicros, String[] remarks) {
+        this.amounts = amounts;
+        this.types = types;
+        this.epochMicros = epochMicros;
+        this.remarks = remarks;
+    }
+
+    int size() {
+        return amounts.length;
+    }
+
+    long getAmount(int offset) {
+        return amounts[offset];
+    }
+
+    TransactionType getTransactionType(int offset) {
+        return TYPES[types[offset]];
+    }
+
+    long getEpochMicros(int offset) {
+        return epochMicros[offset];
+    }
+
+    String getRemarks(int offset) {
+        return remarks[offset];
+    }
+
+    static byte[] encode(long[] amounts, byte[] types, long[] epochMicros, String[] remarks, int count) {
+        Output output = new Output(count * 8 + 16);
+        Map<String, Integer> remarksIndex = new HashMap<>();
+        int[] refs = new int[count];
+        for (int i = 0; i < count; i++) {
+            refs[i] = remarks[i] == null ? 0 : remarksIndex.computeIfAbsent(remarks[i], key -> remarksIndex.size()) + 1;
+        }
+        String[] table = new String[remarksIndex.size()];
+        remarksIndex.forEach((value, ref) -> table[ref] = value);
+        output.putVarint(count);
+        output.putVarint(table.length);
+        for (String value : table) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.putVarint(bytes.length);
+            output.putBytes(bytes);
+        }
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            output.putByte(types[i]);
+            output.putVarint(amounts[i]);
+            output.putVarint(i == 0 ? zigzag(epochMicros[0]) : epochMicros[i] - previous);
+            output.putVarint(refs[i]);
+            previous = epochMicros[i];
+        }
+        return output.toByteArray();
+    }
+
+    static HistorySegment decode(byte[] bytes) {
+        Input input = new Input(bytes);
+        int count = (int) input.getVarint();
+        String[] table = new String[(int) input.getVarint()];
+        for (int i = 0; i < table.length; i++) {
+            int length = (int) input.getVarint();
+            table[i] = new String(bytes, input.position, length, StandardCharsets.UTF_8);
+            input.position += length;
+        }
+        long[] amounts = new long[count];
+        byte[] types = new byte[count];
+        long[] epochMicros = new long[count];
+        String[] remarks = new String[count];
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            types[i] = bytes[input.position++];
+            amounts[i] = input.getVarint();
+            long delta = input.getVarint();
+            previous = i == 0 ? unzigzag(delta) : previous + delta;
+            epochMicros[i] = previous;
+            int ref = (int) input.getVarint();
+            remarks[i] = ref == 0 ? null : table[ref - 1];
+        }
+        return new HistorySegment(amounts, types, epochMicros, remarks);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+
+        private byte[] buffer;
+
+        private int position;
+
+        private Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        private void putByte(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        private void putBytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+
+        private void putVarint(long value) {
+            ensure(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[position++] = (byte) remaining;
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + bytes));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        private Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private long getVarint() {
+            long value = 0L;
+            int shift = 0;
+            byte current;
+            do {
+                current = buffer[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+    }
+}
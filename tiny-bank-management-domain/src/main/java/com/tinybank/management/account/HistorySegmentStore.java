@@ -0,0 +1,15 @@
+package com.tinybank.management.account;
+
+/**
+ * Cold storage for the sealed history segments of {@link TransactionJournal}s. A segment is written once and
+ * never changed; the store only has to give back the same bytes for the position it returned.
+ */
+public interface HistorySegmentStore {
+
+    /**
+     * Stores {@code segment} and returns the position to read it back from.
+     */
+    long write(byte[] segment);
+
+    byte[] read(long position, int length);
+}
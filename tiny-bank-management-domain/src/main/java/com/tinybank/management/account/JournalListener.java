@@ -0,0 +1,22 @@
+package com.tinybank.management.account;
+
+/**
+ * Notified for every entry appended to a {@link TransactionJournal}, while the journal is still held, so
+ * listeners observe the entries of one account in journal order. The notification comes before the entry
+ * becomes visible: a listener that throws fails the append and leaves the journal unchanged.
+ */
+@FunctionalInterface
+public interface JournalListener {
+
+    void onAppend(int index, TransactionType transactionType, long minorUnits, long epochMicros, String remarks);
+
+    /**
+     * Notified on the debited account's journal for a transfer, with both journals still held, instead of
+     * one {@link #onAppend} per side. {@code index} is the WITHDRAW entry of this journal and
+     * {@code counterpartyIndex} the DEPOSIT entry of the credited account's journal; {@code epochMicros} is
+     * the timestamp both entries were appended with, before either journal clamped it.
+     */
+    default void onTransfer(int index, Long counterpartyAccountId, int counterpartyIndex, long minorUnits, long epochMicros, String remarks) {
+        onAppend(index, TransactionType.WITHDRAW, minorUnits, epochMicros, remarks);
+    }
+}
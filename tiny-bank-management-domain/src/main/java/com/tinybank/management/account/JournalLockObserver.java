@@ -0,0 +1,11 @@
+package com.tinybank.management.account;
+
+/**
+ * Notified each time a {@link TransactionJournal}'s lock is released by its outermost holder, with how long
+ * that holder waited for it and then held it, so lock metrics need no lock of their own.
+ */
+@FunctionalInterface
+public interface JournalLockObserver {
+
+    void onUnlock(long waitNanos, long holdNanos);
+}
@@ -0,0 +1,17 @@
+package com.tinybank.management.account;
+
+/**
+ * Counters of a {@link TransactionJournal} captured together, under its lock, for a snapshot: the number of
+ * entries and the running net, checksum and period totals over them, and where the entries below
+ * {@code sealedSize} are stored in the history store, one position, length and first timestamp per segment
+ * of {@code 1 << segmentShift} entries. Restored with the remaining entries by {@link TransactionJournal#restore},
+ * so loading a snapshot neither recomputes the counters nor reads the sealed history.
+ */
+public record JournalState(int size, long netMinorUnits, long checksum, long[] aggregates, int sealedSize,
+                           int segmentShift, long[] segmentPositions, int[] segmentLengths,
+                           long[] segmentFirstEpochMicros) {
+
+    public int segmentCount() {
+        return segmentPositions.length;
+    }
+}
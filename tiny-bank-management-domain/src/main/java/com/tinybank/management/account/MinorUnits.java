@@ -0,0 +1,34 @@
+package com.tinybank.management.account;
+
+/**
+ * Fixed-point conversion between major currency amounts and the minor units (cents) that
+ * balances are stored in. Amounts are rounded half-up to the nearest minor unit.
+ */
+public final class MinorUnits {
+
+    public static final int SCALE = 2;
+
+    public static final long FACTOR = 100L;
+
+    /**
+     * Returned by {@link #toMinorUnits(double)} when the amount is negative, not finite or
+     * does not fit into a {@code long} number of minor units.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final double MAX_MAJOR = Long.MAX_VALUE / (double) FACTOR;
+
+    private MinorUnits() {
+    }
+
+    public static long toMinorUnits(double amount) {
+        if (!(amount >= 0) || amount >= MAX_MAJOR) {
+            return INVALID;
+        }
+        return Math.round(amount * FACTOR);
+    }
+
+    public static double toMajor(long minorUnits) {
+        return minorUnits / (double) FACTOR;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tinybank.management.account;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Calendar periods that per-account aggregates are kept for, in the system time zone like the journal's
+ * timestamps.
+ */
+public enum SummaryPeriod {
+
+    DAY("day"),
+    MONTH("month");
+
+    private final String code;
+
+    SummaryPeriod(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * First day of the period containing {@code date}.
+     */
+    public LocalDate start(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+
+    /**
+     * First day after the period containing {@code date}.
+     */
+    public LocalDate end(LocalDate date) {
+        return this == DAY ? date.plusDays(1) : date.withDayOfMonth(1).plusMonths(1);
+    }
+
+    /**
+     * Number of the period containing {@code date}, consecutive periods having consecutive keys.
+     */
+    public long key(LocalDate date) {
+        return this == DAY ? date.toEpochDay() : date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    public static SummaryPeriod of(String code) {
+        for (SummaryPeriod period : values()) {
+            if (period.code.equalsIgnoreCase(Objects.requireNonNull(code))) {
+                return period;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported summary period: " + code);
+    }
+}
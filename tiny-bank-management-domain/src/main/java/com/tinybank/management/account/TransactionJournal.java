@@ -0,0 +1,860 @@
+package com.tinybank.management.account;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Append-only, per-account transaction history stored column-wise in growable primitive arrays:
+ * amount in minor units, type ordinal, epoch-micros timestamp and a reference into a per-journal
+ * remarks dictionary. An entry costs 21 bytes plus its share of the distinct remarks.
+ * <p>
+ * Appends are serialized by the journal's lock, a {@link ReentrantLock} rather than a monitor so a virtual
+ * thread waiting for it, or blocking while holding it, never pins its carrier thread. Reads are lock-free: every column write happens before the
+ * volatile {@code size} is published and grown arrays are republished through a volatile field, so a
+ * reader that snapshots {@code size} can safely read all entries below it while appends continue.
+ * <p>
+ * With a {@link HistorySegmentStore} attached the columns become a ring of at most {@code hotEntries}
+ * recent entries. When it is full, its older half is sealed into an immutable {@link HistorySegment} in the
+ * store, and the remarks dictionary is rebuilt from the entries still in the ring, so the heap held by a
+ * journal no longer grows with its history. Entries keep their index: reads below the sealed boundary load
+ * the segment (the last one read is kept decoded), and a ring read is validated against that boundary
+ * afterwards, like a {@link java.util.concurrent.locks.StampedLock} optimistic read, because the entry may
+ * have been sealed meanwhile. Sealing moves the remaining entries to fresh arrays, so a slot is never
+ * written twice and a validated read never returns an entry that replaced the one asked for.
+ */
+public class TransactionJournal {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final int NO_REMARKS = -1;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private volatile Columns columns;
+
+    /**
+     * Remarks dictionary being appended to; published to readers through {@link Columns#remarksTable}.
+     */
+    private String[] remarksTable;
+
+    private int remarksCount;
+
+    private final Map<String, Integer> remarksIndex;
+
+    private volatile int size;
+
+    /**
+     * Entries below this index have been sealed into the history store; always a multiple of the segment size.
+     */
+    private volatile int sealedSize;
+
+    private volatile SegmentIndex segmentIndex;
+
+    private volatile LoadedSegment lastSegment;
+
+    private HistorySegmentStore historyStore;
+
+    private int hotCapacity;
+
+    private int segmentShift;
+
+    private final AccountAggregates aggregates;
+
+    /**
+     * Deposits minus withdrawals over the whole history, in minor units.
+     */
+    private long netMinorUnits;
+
+    /**
+     * Order-dependent running checksum of every entry, see {@link #checksum(long, TransactionType, long, long)}.
+     */
+    private long checksum;
+
+    private volatile JournalListener listener;
+
+    private volatile JournalLockObserver lockObserver;
+
+    /**
+     * Total shared by the journals of a ledger, see {@link #setEntryCounter(LongAdder)}; guarded by the lock.
+     */
+    private LongAdder entryCounter;
+
+    /**
+     * Whether the current outermost hold of the lock is timed for {@link #lockObserver}; guarded by the lock.
+     */
+    private boolean lockTimed;
+
+    private long lockWaitNanos;
+
+    private long lockAcquiredNanos;
+
+    private final ReentrantLock lock;
+
+    public TransactionJournal() {
+        lock = new ReentrantLock();
+        remarksTable = new String[INITIAL_CAPACITY];
+        columns = new Columns(INITIAL_CAPACITY, remarksTable);
+        remarksIndex = new HashMap<>();
+        segmentIndex = SegmentIndex.EMPTY;
+        aggregates = new AccountAggregates();
+    }
+
+    public int append(TransactionType transactionType, long minorUnits, String remarks) {
+        return append(transactionType, minorUnits, remarks, currentEpochMicros());
+    }
+
+    /**
+     * Appends an entry with the given timestamp, clamped so the timestamp column stays monotonic. The listener
+     * is notified before the entry becomes visible, so when it throws the journal is left unchanged.
+     */
+    public int append(TransactionType transactionType, long minorUnits, String remarks, long epochMicros) {
+        lock();
+        try {
+            JournalListener currentListener = listener;
+            if (currentListener != null) {
+                currentListener.onAppend(size, transactionType, minorUnits, nextEpochMicros(epochMicros), remarks);
+            }
+            return appendEntry(transactionType, minorUnits, remarks, epochMicros);
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Returns the timestamp the next entry appended with {@code epochMicros} will get; the caller must hold
+     * this journal.
+     */
+    long nextEpochMicros(long epochMicros) {
+        int index = size;
+        return index > 0 ? Math.max(epochMicros, getEpochMicros(index - 1)) : epochMicros;
+    }
+
+    /**
+     * Appends an entry without notifying the listener; the caller must hold this journal.
+     */
+    int appendEntry(TransactionType transactionType, long minorUnits, String remarks, long epochMicros) {
+        int index = size;
+        Columns current = columns;
+        if (index - sealedSize == current.capacity()) {
+            if (historyStore != null && current.capacity() >= hotCapacity) {
+                current = sealOrGrow(current);
+            } else {
+                current = current.grow();
+                columns = current;
+            }
+        }
+        int ref = remarksRef(remarks);
+        if (current.remarksTable != remarksTable) {
+            current = current.withRemarksTable(remarksTable);
+            columns = current;
+        }
+        long timestamp = epochMicros;
+        if (index > 0) {
+            long previous = current.epochMicros[(index - 1) & current.mask];
+            if (timestamp < previous) {
+                timestamp = previous;
+            }
+        }
+        int slot = index & current.mask;
+        current.amounts[slot] = minorUnits;
+        current.types[slot] = (byte) transactionType.ordinal();
+        current.epochMicros[slot] = timestamp;
+        current.remarksRefs[slot] = ref;
+        aggregates.record(transactionType, minorUnits, timestamp);
+        netMinorUnits += transactionType == TransactionType.DEPOSIT ? minorUnits : -minorUnits;
+        checksum = checksum(checksum, transactionType, minorUnits, timestamp);
+        size = index + 1;
+        if (entryCounter != null) {
+            entryCounter.increment();
+        }
+        return index;
+    }
+
+    /**
+     * Encodes the whole history like a sealed segment, for an archive; see
+     * {@link Account#fromArchive(Long, com.tinybank.management.user.User, byte[])}.
+     */
+    public byte[] encodeHistory() {
+        int count = size;
+        long[] amounts = new long[count];
+        byte[] types = new byte[count];
+        long[] timestamps = new long[count];
+        String[] remarks = new String[count];
+        for (int index = 0; index < count; index++) {
+            amounts[index] = getAmount(index);
+            types[index] = (byte) getTransactionType(index).ordinal();
+            timestamps[index] = getEpochMicros(index);
+            remarks[index] = getRemarks(index);
+        }
+        return HistorySegment.encode(amounts, types, timestamps, remarks, count);
+    }
+
+    /**
+     * Captures the number of entries, the running net, checksum and period totals over them and the segments
+     * sealed so far, consistent with each other. Only this takes the lock: the entries below the captured
+     * size never change, so a snapshot reads the ones from {@code sealedSize} on afterwards while appends
+     * continue.
+     */
+    public JournalState captureState() {
+        lock();
+        try {
+            SegmentIndex segments = segmentIndex;
+            int segmentCount = sealedSize == 0 ? 0 : sealedSize >>> segmentShift;
+            return new JournalState(size, netMinorUnits, checksum, aggregates.state(), sealedSize, segmentShift,
+                    Arrays.copyOf(segments.positions, segmentCount), Arrays.copyOf(segments.lengths, segmentCount),
+                    Arrays.copyOf(segments.firstEpochMicros, segmentCount));
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Fills this empty journal with the entries of a snapshot and the counters captured with them. The
+     * columns hold the entries from {@code state.sealedSize()} on and are copied in bulk; the sealed ones stay
+     * in {@code historyStore}, which is attached as by {@link #attachHistoryStore}. Only when the segments
+     * were sealed with another {@code hotEntries} are they read back and sealed again. Restoring therefore
+     * costs a copy of the in-memory entries rather than an append of every entry.
+     */
+    public void restore(JournalState state, long[] amounts, byte[] types, long[] epochMicros, String[] remarks,
+                        HistorySegmentStore historyStore, int hotEntries) {
+        lock();
+        try {
+            if (size != 0 || this.historyStore != null) {
+                throw new IllegalStateException("Only an empty journal without a history store can be restored");
+            }
+            int first = state.sealedSize();
+            if (first > 0 && historyStore == null) {
+                throw new IllegalStateException("Journal state refers to history segments but no history store is given");
+            }
+            if (first > 0 && (long) state.segmentCount() << state.segmentShift() != first) {
+                throw new IllegalArgumentException("Invalid journal state, sealed entries: " + first + ", segments: " + state.segmentCount());
+            }
+            if (first > 0 && state.segmentShift() != Integer.numberOfTrailingZeros(hotCapacity(hotEntries) >>> 1)) {
+                int count = state.size();
+                long[] allAmounts = new long[count];
+                byte[] allTypes = new byte[count];
+                long[] allEpochMicros = new long[count];
+                String[] allRemarks = new String[count];
+                for (int number = 0; number < state.segmentCount(); number++) {
+                    HistorySegment segment = HistorySegment.decode(historyStore.read(state.segmentPositions()[number], state.segmentLengths()[number]));
+                    int offset = number << state.segmentShift();
+                    for (int i = 0; i < segment.size(); i++) {
+                        allAmounts[offset + i] = segment.getAmount(i);
+                        allTypes[offset + i] = (byte) segment.getTransactionType(i).ordinal();
+                        allEpochMicros[offset + i] = segment.getEpochMicros(i);
+                        allRemarks[offset + i] = segment.getRemarks(i);
+                    }
+                }
+                System.arraycopy(amounts, 0, allAmounts, first, count - first);
+                System.arraycopy(types, 0, allTypes, first, count - first);
+                System.arraycopy(epochMicros, 0, allEpochMicros, first, count - first);
+                System.arraycopy(remarks, 0, allRemarks, first, count - first);
+                amounts = allAmounts;
+                types = allTypes;
+                epochMicros = allEpochMicros;
+                remarks = allRemarks;
+                first = 0;
+            } else if (first > 0) {
+                this.hotCapacity = hotCapacity(hotEntries);
+                this.segmentShift = state.segmentShift();
+                this.historyStore = historyStore;
+                segmentIndex = new SegmentIndex(state.segmentPositions().clone(), state.segmentLengths().clone(),
+                        state.segmentFirstEpochMicros().clone(), state.segmentCount());
+                sealedSize = first;
+            }
+            int count = state.size() - first;
+            int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(count - 1, 1)) << 1);
+            int mask = capacity - 1;
+            long[] ringAmounts = new long[capacity];
+            byte[] ringTypes = new byte[capacity];
+            long[] ringEpochMicros = new long[capacity];
+            int[] remarksRefs = new int[capacity];
+            for (int i = 0; i < count; i++) {
+                int slot = (first + i) & mask;
+                ringAmounts[slot] = amounts[i];
+                ringTypes[slot] = types[i];
+                ringEpochMicros[slot] = epochMicros[i];
+                remarksRefs[slot] = remarksRef(remarks[i]);
+            }
+            columns = new Columns(ringAmounts, ringTypes, ringEpochMicros, remarksRefs, remarksTable);
+            aggregates.restore(state.aggregates());
+            netMinorUnits = state.netMinorUnits();
+            checksum = state.checksum();
+            size = state.size();
+            if (entryCounter != null) {
+                entryCounter.add(size);
+            }
+            if (historyStore != null) {
+                attachHistoryStore(historyStore, hotEntries);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Moves the history of this journal to {@code historyStore}, keeping at most {@code hotEntries} recent
+     * entries (rounded up to a power of two, at least 16) in memory. Entries already beyond that are sealed
+     * right away.
+     */
+    public void attachHistoryStore(HistorySegmentStore historyStore, int hotEntries) {
+        lock();
+        try {
+            if (this.historyStore != null) {
+                return;
+            }
+            this.hotCapacity = hotCapacity(hotEntries);
+            this.segmentShift = Integer.numberOfTrailingZeros(hotCapacity >>> 1);
+            this.historyStore = historyStore;
+            Columns current = columns;
+            while (size - sealedSize >= hotCapacity) {
+                sealSegment(current);
+            }
+            rebuild(current, Math.min(current.capacity(), hotCapacity));
+        } finally {
+            unlock();
+        }
+    }
+
+    public void setListener(JournalListener listener) {
+        this.listener = listener;
+    }
+
+    JournalListener getListener() {
+        return listener;
+    }
+
+    public void setLockObserver(JournalLockObserver lockObserver) {
+        this.lockObserver = lockObserver;
+    }
+
+    /**
+     * Adds the entries of this journal, now and as they are appended, to {@code entryCounter}, which the
+     * journals of a ledger share so their total is read without visiting each. {@code null} takes them out
+     * again.
+     */
+    public void setEntryCounter(LongAdder entryCounter) {
+        lock();
+        try {
+            if (this.entryCounter != null) {
+                this.entryCounter.add(-size);
+            }
+            this.entryCounter = entryCounter;
+            if (entryCounter != null) {
+                entryCounter.add(size);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Runs {@code action} while holding the append lock, so no entry is appended (and no listener is
+     * notified) until it returns.
+     */
+    public void runExclusively(Runnable action) {
+        lock();
+        try {
+            action.run();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Same as {@link #runExclusively(Runnable)}, returning the result of {@code action}.
+     */
+    public <T> T callExclusively(Supplier<T> action) {
+        lock();
+        try {
+            return action.get();
+        } finally {
+            unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Deposits minus withdrawals over the whole history, kept up to date by every append, which matches the
+     * account balance unless they have drifted apart. Consistent with {@link #size()} and
+     * {@link #getChecksum()} only while the journal is held.
+     */
+    public long getNetMinorUnits() {
+        return netMinorUnits;
+    }
+
+    /**
+     * Running checksum of the whole history, kept up to date by every append. Consistent with
+     * {@link #size()} and {@link #getNetMinorUnits()} only while the journal is held.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Number of entries, from the start of the history, sealed into the history store.
+     */
+    public int sealedSize() {
+        return sealedSize;
+    }
+
+    public long getAmount(int index) {
+        checkIndex(index);
+        Columns current = columns;
+        long amount = current.amounts[index & current.mask];
+        VarHandle.loadLoadFence();
+        return index >= sealedSize ? amount : segment(index).getAmount(index & segmentMask());
+    }
+
+    public TransactionType getTransactionType(int index) {
+        checkIndex(index);
+        Columns current = columns;
+        byte type = current.types[index & current.mask];
+        VarHandle.loadLoadFence();
+        return index >= sealedSize ? TYPES[type] : segment(index).getTransactionType(index & segmentMask());
+    }
+
+    public long getEpochMicros(int index) {
+        checkIndex(index);
+        Columns current = columns;
+        long timestamp = current.epochMicros[index & current.mask];
+        VarHandle.loadLoadFence();
+        return index >= sealedSize ? timestamp : segment(index).getEpochMicros(index & segmentMask());
+    }
+
+    public String getRemarks(int index) {
+        checkIndex(index);
+        Columns current = columns;
+        int ref = current.remarksRefs[index & current.mask];
+        VarHandle.loadLoadFence();
+        if (index >= sealedSize) {
+            return ref == NO_REMARKS ? null : current.remarksTable[ref];
+        }
+        return segment(index).getRemarks(index & segmentMask());
+    }
+
+    public Transaction toTransaction(Long accountId, int index) {
+        return Transaction.builder()
+                .accountId(accountId)
+                .amount(MinorUnits.toMajor(getAmount(index)))
+                .transactionType(getTransactionType(index))
+                .transactionDate(toLocalDateTime(getEpochMicros(index)))
+                .remarks(getRemarks(index))
+                .build();
+    }
+
+    /**
+     * Returns a read-only view over the entries appended so far. {@link Transaction} objects are only
+     * created when an element is accessed; entries appended after this call are not visible in the view.
+     */
+    public List<Transaction> asList(Long accountId) {
+        return new TransactionView(accountId, 0, size);
+    }
+
+    /**
+     * Returns a read-only view over the entries in {@code [fromIndex, toIndex)}.
+     */
+    public List<Transaction> asList(Long accountId, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + size);
+        }
+        return new TransactionView(accountId, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Binary searches the timestamp column, which is monotonic, for the first index below {@code toIndex}
+     * whose timestamp is at or after {@code epochMicros}. Returns {@code toIndex} when there is none. Over
+     * sealed history, the first timestamp of each segment narrows the search down to one segment first.
+     */
+    public int indexAtOrAfter(long epochMicros, int toIndex) {
+        if (toIndex < 0 || toIndex > size) {
+            throw new IndexOutOfBoundsException("toIndex: " + toIndex + ", Size: " + size);
+        }
+        int low = 0;
+        int high = toIndex;
+        int sealed = Math.min(sealedSize, toIndex);
+        if (sealed > 0) {
+            SegmentIndex segments = segmentIndex;
+            int segmentSize = segmentMask() + 1;
+            int segment = segments.lastStartingBefore(epochMicros, (sealed + segmentSize - 1) >>> segmentShift);
+            if (segment < 0) {
+                return 0;
+            }
+            low = (segment << segmentShift) + 1;
+            if (segment + 1 < segments.count) {
+                high = Math.min(high, (segment + 1) << segmentShift);
+            }
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getEpochMicros(mid) < epochMicros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns deposit and withdrawal counts and totals for the {@code period} containing {@code date}. The day
+     * and month of the latest entry come from the running aggregates in constant time; older ones are counted
+     * from the entries of the period, found by {@link #indexAtOrAfter(long, int)}.
+     */
+    public TransactionSummary summarize(Long accountId, SummaryPeriod period, LocalDate date) {
+        long[] values = new long[4];
+        if (!aggregates.read(period, period.key(date), values)) {
+            int end = indexAtOrAfter(toEpochMicros(period.end(date).atStartOfDay()), size);
+            int start = indexAtOrAfter(toEpochMicros(period.start(date).atStartOfDay()), end);
+            for (int index = start; index < end; index++) {
+                int offset = getTransactionType(index) == TransactionType.DEPOSIT ? 0 : 2;
+                values[offset]++;
+                values[offset + 1] += getAmount(index);
+            }
+        }
+        long count = values[0] + values[2];
+        return TransactionSummary.builder()
+                .accountId(accountId)
+                .period(period)
+                .periodStart(period.start(date))
+                .depositCount(values[0])
+                .depositAmount(MinorUnits.toMajor(values[1]))
+                .withdrawalCount(values[2])
+                .withdrawalAmount(MinorUnits.toMajor(values[3]))
+                .averageAmount(count == 0 ? 0.0 : MinorUnits.toMajor(values[1] + values[3]) / count)
+                .build();
+    }
+
+    public static long toEpochMicros(LocalDateTime localDateTime) {
+        Instant instant = localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000L;
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMicros) {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L), Math.floorMod(epochMicros, 1_000_000L) * 1_000L);
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    /**
+     * Folds an entry into a running checksum, starting from {@code 0}; recomputing it over the entries must
+     * give {@link #getChecksum()}. The mixing function is 64-bit and not cryptographic: it detects drift and
+     * reordering, not tampering.
+     */
+    public static long checksum(long checksum, TransactionType transactionType, long minorUnits, long epochMicros) {
+        long entry = mix(minorUnits ^ ((long) transactionType.ordinal() << 62)) ^ Long.rotateLeft(mix(epochMicros), 32);
+        return mix(checksum ^ entry);
+    }
+
+    private static long mix(long value) {
+        long z = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    static long currentEpochMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000L;
+    }
+
+    /**
+     * Acquires the lock, timing the wait when an observer is attached and the lock is not already held by
+     * this thread; without an observer it costs no clock reads.
+     */
+    private void lock() {
+        if (lockObserver == null || lock.isHeldByCurrentThread()) {
+            lock.lock();
+            return;
+        }
+        long requested = System.nanoTime();
+        lock.lock();
+        lockAcquiredNanos = System.nanoTime();
+        lockWaitNanos = lockAcquiredNanos - requested;
+        lockTimed = true;
+    }
+
+    private void unlock() {
+        try {
+            if (lockTimed && lock.getHoldCount() == 1) {
+                lockTimed = false;
+                JournalLockObserver observer = lockObserver;
+                if (observer != null) {
+                    observer.onUnlock(lockWaitNanos, System.nanoTime() - lockAcquiredNanos);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the dictionary reference of {@code remarks}, adding it to {@link #remarksTable}, which is
+     * replaced when it grows; the caller republishes the columns with the new table.
+     */
+    private int remarksRef(String remarks) {
+        if (remarks == null) {
+            return NO_REMARKS;
+        }
+        Integer ref = remarksIndex.get(remarks);
+        if (ref != null) {
+            return ref;
+        }
+        if (remarksCount == remarksTable.length) {
+            remarksTable = Arrays.copyOf(remarksTable, remarksCount << 1);
+        }
+        remarksTable[remarksCount] = remarks;
+        remarksIndex.put(remarks, remarksCount);
+        return remarksCount++;
+    }
+
+    /**
+     * Seals the oldest segments until the unsealed entries fit in half of a ring of {@code hotEntries} and
+     * moves them to a fresh ring. The balance change the entry being appended belongs to has already been
+     * applied, so a history store that cannot be written must not fail the append: the entries then stay in
+     * a ring twice as large, and sealing is tried again once that one is full.
+     */
+    private Columns sealOrGrow(Columns current) {
+        try {
+            do {
+                sealSegment(current);
+            } while (size - sealedSize >= hotCapacity);
+            return rebuild(current, hotCapacity);
+        } catch (RuntimeException ex) {
+            return rebuild(current, current.capacity() << 1);
+        }
+    }
+
+    /**
+     * Encodes the oldest segment of the ring and hands it to the history store. The sealed boundary moves
+     * only once the segment can be read back, so no reader ever finds an entry in neither tier.
+     */
+    private void sealSegment(Columns current) {
+        int first = sealedSize;
+        int count = segmentMask() + 1;
+        long[] amounts = new long[count];
+        byte[] types = new byte[count];
+        long[] timestamps = new long[count];
+        String[] remarks = new String[count];
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) & current.mask;
+            amounts[i] = current.amounts[slot];
+            types[i] = current.types[slot];
+            timestamps[i] = current.epochMicros[slot];
+            int ref = current.remarksRefs[slot];
+            remarks[i] = ref == NO_REMARKS ? null : current.remarksTable[ref];
+        }
+        byte[] segment = HistorySegment.encode(amounts, types, timestamps, remarks, count);
+        long position = historyStore.write(segment);
+        segmentIndex = segmentIndex.add(position, segment.length, timestamps[0]);
+        sealedSize = first + count;
+    }
+
+    /**
+     * Publishes fresh columns of {@code capacity} holding the entries that are not sealed, each at the slot of
+     * its index, with a remarks dictionary of only their remarks. Columns are never reused, so every slot of
+     * a published ring is written once and a reader still holding older columns keeps reading the entries it
+     * found there. Only used once a history store is attached: until the first segment is sealed, slot and
+     * index are the same, so growing is a plain copy.
+     */
+    private Columns rebuild(Columns current, int capacity) {
+        int first = sealedSize;
+        int end = size;
+        int mask = capacity - 1;
+        long[] amounts = new long[capacity];
+        byte[] types = new byte[capacity];
+        long[] timestamps = new long[capacity];
+        int[] remarksRefs = new int[capacity];
+        remarksIndex.clear();
+        remarksCount = 0;
+        remarksTable = new String[INITIAL_CAPACITY];
+        for (int index = first; index < end; index++) {
+            int from = index & current.mask;
+            int to = index & mask;
+            amounts[to] = current.amounts[from];
+            types[to] = current.types[from];
+            timestamps[to] = current.epochMicros[from];
+            int ref = current.remarksRefs[from];
+            remarksRefs[to] = remarksRef(ref == NO_REMARKS ? null : current.remarksTable[ref]);
+        }
+        Columns rebuilt = new Columns(amounts, types, timestamps, remarksRefs, remarksTable);
+        columns = rebuilt;
+        return rebuilt;
+    }
+
+    private HistorySegment segment(int index) {
+        int number = index >>> segmentShift;
+        LoadedSegment loaded = lastSegment;
+        if (loaded != null && loaded.number() == number) {
+            return loaded.segment();
+        }
+        SegmentIndex segments = segmentIndex;
+        HistorySegment segment = HistorySegment.decode(historyStore.read(segments.positions[number], segments.lengths[number]));
+        lastSegment = new LoadedSegment(number, segment);
+        return segment;
+    }
+
+    private static int hotCapacity(int hotEntries) {
+        return Integer.highestOneBit(Math.max(16, hotEntries) - 1) << 1;
+    }
+
+    private int segmentMask() {
+        return (1 << segmentShift) - 1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static final class Columns {
+
+        private final long[] amounts;
+
+        private final byte[] types;
+
+        private final long[] epochMicros;
+
+        private final int[] remarksRefs;
+
+        private final String[] remarksTable;
+
+        /**
+         * Capacity minus one; the entry at index {@code i} lives in slot {@code i & mask}.
+         */
+        private final int mask;
+
+        private Columns(int capacity, String[] remarksTable) {
+            this(new long[capacity], new byte[capacity], new long[capacity], new int[capacity], remarksTable);
+        }
+
+        private Columns(long[] amounts, byte[] types, long[] epochMicros, int[] remarksRefs, String[] remarksTable) {
+            this.amounts = amounts;
+            this.types = types;
+            this.epochMicros = epochMicros;
+            this.remarksRefs = remarksRefs;
+            this.remarksTable = remarksTable;
+            this.mask = amounts.length - 1;
+        }
+
+        private int capacity() {
+            return amounts.length;
+        }
+
+        private Columns grow() {
+            int capacity = capacity() << 1;
+            return new Columns(Arrays.copyOf(amounts, capacity), Arrays.copyOf(types, capacity),
+                    Arrays.copyOf(epochMicros, capacity), Arrays.copyOf(remarksRefs, capacity), remarksTable);
+        }
+
+        private Columns withRemarksTable(String[] table) {
+            return new Columns(amounts, types, epochMicros, remarksRefs, table);
+        }
+    }
+
+    private record LoadedSegment(int number, HistorySegment segment) {
+    }
+
+    /**
+     * Sparse index of the sealed segments: where each is stored and the timestamp of its first entry.
+     */
+    private static final class SegmentIndex {
+
+        private static final SegmentIndex EMPTY = new SegmentIndex(new long[0], new int[0], new long[0], 0);
+
+        private final long[] positions;
+
+        private final int[] lengths;
+
+        private final long[] firstEpochMicros;
+
+        private final int count;
+
+        private SegmentIndex(long[] positions, int[] lengths, long[] firstEpochMicros, int count) {
+            this.positions = positions;
+            this.lengths = lengths;
+            this.firstEpochMicros = firstEpochMicros;
+            this.count = count;
+        }
+
+        /**
+         * Returns an index with one more segment. The arrays are shared until they are full, which is safe
+         * because a reader never looks past the {@code count} of the index it read.
+         */
+        private SegmentIndex add(long position, int length, long firstEpochMicro) {
+            long[] newPositions = positions;
+            int[] newLengths = lengths;
+            long[] newFirstEpochMicros = firstEpochMicros;
+            if (count == positions.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, count << 1);
+                newPositions = Arrays.copyOf(positions, capacity);
+                newLengths = Arrays.copyOf(lengths, capacity);
+                newFirstEpochMicros = Arrays.copyOf(firstEpochMicros, capacity);
+            }
+            newPositions[count] = position;
+            newLengths[count] = length;
+            newFirstEpochMicros[count] = firstEpochMicro;
+            return new SegmentIndex(newPositions, newLengths, newFirstEpochMicros, count + 1);
+        }
+
+        /**
+         * Returns the last of the first {@code limit} segments whose first timestamp is before
+         * {@code epochMicros}, or {@code -1} when there is none.
+         */
+        private int lastStartingBefore(long epochMicros, int limit) {
+            int low = 0;
+            int high = Math.min(limit, count);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (firstEpochMicros[mid] < epochMicros) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+
+    private class TransactionView extends AbstractList<Transaction> implements RandomAccess {
+
+        private final Long accountId;
+
+        private final int offset;
+
+        private final int viewSize;
+
+        private TransactionView(Long accountId, int offset, int viewSize) {
+            this.accountId = accountId;
+            this.offset = offset;
+            this.viewSize = viewSize;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= viewSize) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + viewSize);
+            }
+            return toTransaction(accountId, offset + index);
+        }
+
+        @Override
+        public int size() {
+            return viewSize;
+        }
+    }
+}
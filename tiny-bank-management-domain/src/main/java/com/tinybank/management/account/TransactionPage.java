@@ -0,0 +1,20 @@
+package com.tinybank.management.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TransactionPage {
+    private List<Transaction> transactions;
+    /**
+     * Cursor to pass for the next page, {@code null} when the requested range is exhausted.
+     */
+    private Long nextCursor;
+}
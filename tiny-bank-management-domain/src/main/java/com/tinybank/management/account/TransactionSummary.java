@@ -0,0 +1,26 @@
+package com.tinybank.management.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TransactionSummary {
+    private Long accountId;
+    private SummaryPeriod period;
+    private LocalDate periodStart;
+    private long depositCount;
+    private Double depositAmount;
+    private long withdrawalCount;
+    private Double withdrawalAmount;
+    /**
+     * Average amount of the deposits and withdrawals of the period, {@code 0} when there were none.
+     */
+    private Double averageAmount;
+}
@@ -0,0 +1,13 @@
+package com.tinybank.management.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AccountBalance {
+    private Long accountId;
+    private Double balance;
+}
@@ -0,0 +1,23 @@
+package com.tinybank.management.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class UserAccounts {
+    private Long userId;
+    private String name;
+    private String userName;
+    private Role role;
+    /**
+     * Live accounts of the user in account id order; cancelled accounts are not listed.
+     */
+    private List<AccountBalance> accounts;
+}
@@ -135,4 +135,237 @@ class AccountTest {
         assertEquals(10, successfulWithdrawals, "Only 500/50=10 threads should be able to withdraw successfully.");
         assertEquals(11, account.getTransactions().size(), "Only the initial deposit transaction + 10 withdrawl transactions should be recorded.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddBalance_testConcurrentDeposit() throws InterruptedException {
+        Account account = new Account();
+        account.setAccountId(1L);
+        int numberOfThreads = 16;
+        int depositsPerThread = 1000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        for (int cntr = 0; cntr < numberOfThreads; cntr++) {
+            executorService.submit(() -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    account.addBalance(0.01, "deposit");
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(numberOfThreads * depositsPerThread, account.getBalanceMinorUnits(), "No concurrent deposit should be lost.");
+        assertEquals(numberOfThreads * depositsPerThread, account.getTransactions().size());
+    }
+
+    @Test
+    void testAddBalance_exactMinorUnits() {
+        Account account = new Account();
+        account.setAccountId(1L);
+        account.addBalance(0.1, "deposit");
+        account.addBalance(0.2, "deposit");
+
+        assertEquals(30L, account.getBalanceMinorUnits());
+        assertEquals(0.3, account.getBalance());
+        assertTrue(account.subtractBalance(0.3, "withdraw"), "Whole balance should be withdrawable without rounding drift.");
+        assertEquals(0L, account.getBalanceMinorUnits());
+    }
+
+    @Test
+    void testAddBalance_failedDueToOverflow() {
+        Account account = new Account();
+        account.setAccountId(1L);
+        double maxAmount = MinorUnits.toMajor(Long.MAX_VALUE - 1_000_000L);
+        assertTrue(account.addBalance(maxAmount, "deposit"));
+        long balance = account.getBalanceMinorUnits();
+
+        assertFalse(account.addBalance(maxAmount, "deposit"), "A credit overflowing the balance should be rejected.");
+        assertEquals(balance, account.getBalanceMinorUnits(), "Balance should remain unchanged after a rejected credit.");
+        assertEquals(1, account.getTransactions().size());
+    }
+
+    @Test
+    void testAddBalance_failedDueToInvalidAmount() {
+        Account account = new Account();
+        account.setAccountId(1L);
+
+        assertFalse(account.addBalance(Double.NaN, "deposit"));
+        assertFalse(account.addBalance(Double.POSITIVE_INFINITY, "deposit"));
+        assertFalse(account.subtractBalance(Double.NaN, "withdraw"));
+        assertEquals(0, account.getTransactions().size());
+    }
+
+    @Test
+    void testAddBalance_failedAppendRestoresBalance() {
+        Account account = new Account();
+        account.setAccountId(1L);
+        account.addBalance(100.0, "deposit");
+        TransactionJournal journal = account.getJournal();
+        long checksum = journal.getChecksum();
+        journal.setListener((index, transactionType, minorUnits, epochMicros, remarks) -> {
+            throw new IllegalStateException("Journal unavailable");
+        });
+
+        assertThrows(IllegalStateException.class, () -> account.addBalance(50.0, "deposit"));
+        assertThrows(IllegalStateException.class, () -> account.subtractBalance(30.0, "withdraw"));
+        assertEquals(10_000L, account.getBalanceMinorUnits(), "A failed append should leave the balance unchanged.");
+        assertEquals(1, journal.size(), "A failed append should leave the journal unchanged.");
+        assertEquals(10_000L, journal.getNetMinorUnits());
+        assertEquals(checksum, journal.getChecksum());
+    }
+
+    @Test
+    void testTransferTo_failedNotificationLeavesBothAccountsUnchanged() {
+        Account fromAccount = new Account();
+        fromAccount.setAccountId(1L);
+        Account toAccount = new Account();
+        toAccount.setAccountId(2L);
+        fromAccount.addBalance(100.0, "deposit");
+        long checksum = fromAccount.getJournal().getChecksum();
+        fromAccount.getJournal().setListener(new JournalListener() {
+            @Override
+            public void onAppend(int index, TransactionType transactionType, long minorUnits, long epochMicros, String remarks) {
+            }
+
+            @Override
+            public void onTransfer(int index, Long counterpartyAccountId, int counterpartyIndex, long minorUnits, long epochMicros, String remarks) {
+                throw new IllegalStateException("Journal unavailable");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> fromAccount.transferTo(toAccount, 40.0, "transfer"));
+        assertEquals(10_000L, fromAccount.getBalanceMinorUnits());
+        assertEquals(0L, toAccount.getBalanceMinorUnits());
+        assertEquals(1, fromAccount.getJournal().size());
+        assertEquals(0, toAccount.getJournal().size());
+        assertEquals(10_000L, fromAccount.getJournal().getNetMinorUnits());
+        assertEquals(checksum, fromAccount.getJournal().getChecksum());
+    }
+
+    @Test
+    void testTransferTo_success() {
+        Account fromAccount = new Account();
+        fromAccount.setAccountId(1L);
+        Account toAccount = new Account();
+        toAccount.setAccountId(2L);
+        fromAccount.addBalance(100.0, "deposit");
+
+        assertTrue(fromAccount.transferTo(toAccount, 40.5, "transfer"));
+        assertEquals(59.5, fromAccount.getBalance());
+        assertEquals(40.5, toAccount.getBalance());
+        assertEquals(TransactionType.WITHDRAW, fromAccount.getTransactions().get(1).getTransactionType());
+        assertEquals(TransactionType.DEPOSIT, toAccount.getTransactions().get(0).getTransactionType());
+        assertEquals(1L, fromAccount.getTransactions().get(1).getAccountId());
+    }
+
+    @Test
+    void testTransferTo_failedCreditRestoresDebit() {
+        Account fromAccount = new Account();
+        fromAccount.setAccountId(1L);
+        Account toAccount = new Account();
+        toAccount.setAccountId(2L);
+        fromAccount.addBalance(100.0, "deposit");
+        toAccount.addBalance(MinorUnits.toMajor(Long.MAX_VALUE - 1_000L), "deposit");
+        long toBalance = toAccount.getBalanceMinorUnits();
+
+        assertFalse(fromAccount.transferTo(toAccount, 100.0, "transfer"), "A credit overflowing the balance should be rejected.");
+        assertEquals(10_000L, fromAccount.getBalanceMinorUnits());
+        assertEquals(toBalance, toAccount.getBalanceMinorUnits());
+        assertEquals(1, fromAccount.getTransactions().size());
+        assertEquals(1, toAccount.getTransactions().size());
+    }
+
+    @Test
+    void testTransferTo_notifiesSingleTransfer() {
+        Account fromAccount = new Account();
+        fromAccount.setAccountId(1L);
+        Account toAccount = new Account();
+        toAccount.setAccountId(2L);
+        fromAccount.addBalance(10.0, "deposit");
+        List<String> notifications = new ArrayList<>();
+        fromAccount.getJournal().setListener(new JournalListener() {
+            @Override
+            public void onAppend(int index, TransactionType transactionType, long minorUnits, long epochMicros, String remarks) {
+                notifications.add("append");
+            }
+
+            @Override
+            public void onTransfer(int index, Long counterpartyAccountId, int counterpartyIndex, long minorUnits, long epochMicros, String remarks) {
+                notifications.add("transfer:" + index + ":" + counterpartyAccountId + ":" + counterpartyIndex + ":" + minorUnits);
+            }
+        });
+        toAccount.getJournal().setListener((index, transactionType, minorUnits, epochMicros, remarks) -> notifications.add("credit"));
+
+        assertTrue(fromAccount.transferTo(toAccount, 2.5, "transfer"));
+        assertEquals(List.of("transfer:1:2:0:250"), notifications);
+    }
+
+    @Test
+    void testTransferTo_opposingTransfersConserveMoney() throws Exception {
+        Account firstAccount = new Account();
+        firstAccount.setAccountId(1L);
+        Account secondAccount = new Account();
+        secondAccount.setAccountId(2L);
+        firstAccount.addBalance(100.0, "deposit");
+        secondAccount.addBalance(100.0, "deposit");
+        int numberOfThreads = 8;
+        int transfersPerThread = 5_000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int cntr = 0; cntr < numberOfThreads; cntr++) {
+            Account from = cntr % 2 == 0 ? firstAccount : secondAccount;
+            Account to = cntr % 2 == 0 ? secondAccount : firstAccount;
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < transfersPerThread; i++) {
+                    try {
+                        from.transferTo(to, 1.0, "transfer");
+                    } catch (RuntimeException ex) {
+                        // insufficient balance, the transfer had no effect
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        assertEquals(20_000L, firstAccount.getBalanceMinorUnits() + secondAccount.getBalanceMinorUnits(), "Transfers should never create or lose money.");
+        assertEquals(firstAccount.getTransactions().size() - 1, secondAccount.getTransactions().size() - 1);
+    }
+
+    @Test
+    void testClose_waitsForOperationInProgress() throws Exception {
+        Account account = new Account();
+        account.setAccountId(1L);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> account.getJournal().runExclusively(() -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await();
+        Future<Boolean> deposit = executor.submit(() -> account.addBalance(10.0, "in flight"));
+        while (account.getBalanceMinorUnits() == 0L) {
+            Thread.onSpinWait();
+        }
+        Future<Boolean> close = CompletableFuture.supplyAsync(account::close);
+
+        assertThrows(TimeoutException.class, () -> close.get(100, TimeUnit.MILLISECONDS), "close() should wait for the deposit holding a reference.");
+        release.countDown();
+        holder.get();
+        assertTrue(deposit.get());
+        assertTrue(close.get(5, TimeUnit.SECONDS));
+        assertEquals(1, account.getJournal().size());
+        assertEquals(AccountStatus.CLOSED, account.getAccountStatus());
+        assertFalse(account.addBalance(5.0, "after close"));
+        assertFalse(account.close());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,382 @@
+package com.tinybank.management.account;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    @Test
+    void testAppend_columnsReadBack() {
+        TransactionJournal journal = new TransactionJournal();
+        int first = journal.append(TransactionType.DEPOSIT, 12_345L, "salary");
+        int second = journal.append(TransactionType.WITHDRAW, 45L, null);
+
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, journal.size());
+        assertEquals(12_345L, journal.getAmount(0));
+        assertEquals(TransactionType.WITHDRAW, journal.getTransactionType(1));
+        assertEquals("salary", journal.getRemarks(0));
+        assertNull(journal.getRemarks(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> journal.getAmount(2));
+    }
+
+    @Test
+    void testAppend_growsAndKeepsTimestampsMonotonic() {
+        TransactionJournal journal = new TransactionJournal();
+        for (int i = 0; i < 1000; i++) {
+            journal.append(TransactionType.DEPOSIT, i, "remarks-" + (i % 3));
+        }
+
+        assertEquals(1000, journal.size());
+        for (int i = 1; i < 1000; i++) {
+            assertEquals(i, journal.getAmount(i));
+            assertEquals("remarks-" + (i % 3), journal.getRemarks(i));
+            assertTrue(journal.getEpochMicros(i) >= journal.getEpochMicros(i - 1), "Timestamps should never go backwards.");
+        }
+    }
+
+    @Test
+    void testAsList_isSnapshotOfAppendedEntries() {
+        TransactionJournal journal = new TransactionJournal();
+        journal.append(TransactionType.DEPOSIT, 100L, "deposit");
+        List<Transaction> view = journal.asList(7L);
+        journal.append(TransactionType.WITHDRAW, 50L, "withdraw");
+
+        assertEquals(1, view.size(), "Entries appended after the view was taken should not be visible.");
+        Transaction transaction = view.get(0);
+        assertEquals(7L, transaction.getAccountId());
+        assertEquals(1.0, transaction.getAmount());
+        assertEquals(TransactionType.DEPOSIT, transaction.getTransactionType());
+        assertNotNull(transaction.getTransactionDate());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new Transaction()));
+    }
+
+    @Test
+    void testIndexAtOrAfter_binarySearchesTimestamps() {
+        TransactionJournal journal = new TransactionJournal();
+        for (int i = 0; i < 10; i++) {
+            journal.append(TransactionType.DEPOSIT, i, null);
+        }
+        long fifth = journal.getEpochMicros(5);
+
+        int index = journal.indexAtOrAfter(fifth, journal.size());
+        assertTrue(index <= 5);
+        assertEquals(fifth, journal.getEpochMicros(index));
+        assertEquals(0, journal.indexAtOrAfter(Long.MIN_VALUE, journal.size()));
+        assertEquals(10, journal.indexAtOrAfter(Long.MAX_VALUE, journal.size()));
+        assertEquals(List.of(3L, 4L), journal.asList(1L, 3, 5).stream().map(t -> (long) (t.getAmount() * 100)).toList());
+    }
+
+    @Test
+    void testHistoryStore_sealsOldEntriesAndReadsAcrossTiers() {
+        InMemoryHistorySegmentStore store = new InMemoryHistorySegmentStore();
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(store, 16);
+        for (int i = 0; i < 1000; i++) {
+            journal.append(i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW, i, i % 7 == 0 ? null : "remarks-" + (i % 5));
+        }
+
+        assertEquals(1000, journal.size());
+        assertTrue(journal.sealedSize() >= 1000 - 16, "Only the ring should stay in memory.");
+        assertEquals(journal.sealedSize() / 8, store.segments.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, journal.getAmount(i));
+            assertEquals(i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW, journal.getTransactionType(i));
+            assertEquals(i % 7 == 0 ? null : "remarks-" + (i % 5), journal.getRemarks(i));
+            if (i > 0) {
+                assertTrue(journal.getEpochMicros(i) >= journal.getEpochMicros(i - 1), "Timestamps should never go backwards.");
+            }
+        }
+        assertEquals(List.of(10L, 11L), journal.asList(1L, 10, 12).stream().map(t -> (long) (t.getAmount() * 100)).toList());
+        assertEquals(999L, (long) (journal.asList(1L).get(999).getAmount() * 100));
+    }
+
+    @Test
+    void testHistoryStore_indexAtOrAfterSearchesSealedSegments() {
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(new InMemoryHistorySegmentStore(), 16);
+        for (int i = 0; i < 200; i++) {
+            journal.append(TransactionType.DEPOSIT, i, null, 1_000L + (i / 3) * 10L);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            long timestamp = journal.getEpochMicros(i);
+            int expected = i;
+            while (expected > 0 && journal.getEpochMicros(expected - 1) == timestamp) {
+                expected--;
+            }
+            assertEquals(expected, journal.indexAtOrAfter(timestamp, journal.size()));
+            assertEquals(Math.min(expected + 3 - expected % 3, 200), journal.indexAtOrAfter(timestamp + 1, journal.size()));
+        }
+        assertEquals(0, journal.indexAtOrAfter(Long.MIN_VALUE, journal.size()));
+        assertEquals(200, journal.indexAtOrAfter(Long.MAX_VALUE, journal.size()));
+        assertEquals(50, journal.indexAtOrAfter(Long.MAX_VALUE, 50));
+    }
+
+    @Test
+    void testAttachHistoryStore_sealsExistingHistory() {
+        InMemoryHistorySegmentStore store = new InMemoryHistorySegmentStore();
+        TransactionJournal journal = new TransactionJournal();
+        for (int i = 0; i < 100; i++) {
+            journal.append(TransactionType.DEPOSIT, i, "remarks-" + i);
+        }
+
+        journal.attachHistoryStore(store, 32);
+        journal.append(TransactionType.WITHDRAW, 100L, "after");
+
+        assertEquals(80, journal.sealedSize());
+        assertEquals(5, store.segments.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, journal.getAmount(i));
+            assertEquals("remarks-" + i, journal.getRemarks(i));
+        }
+        assertEquals(TransactionType.WITHDRAW, journal.getTransactionType(100));
+        assertEquals("after", journal.getRemarks(100));
+    }
+
+    @Test
+    void testHistoryStore_failedWriteKeepsEntriesInMemory() {
+        InMemoryHistorySegmentStore store = new InMemoryHistorySegmentStore();
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(store, 16);
+        store.failing = true;
+        for (int i = 0; i < 100; i++) {
+            journal.append(TransactionType.DEPOSIT, i, "remarks-" + i);
+        }
+
+        assertEquals(100, journal.size());
+        assertEquals(0, journal.sealedSize());
+        store.failing = false;
+        for (int i = 100; i < 200; i++) {
+            journal.append(TransactionType.DEPOSIT, i, "remarks-" + i);
+        }
+
+        assertTrue(journal.sealedSize() >= 200 - 16, "Sealing should catch up once the store can be written again.");
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, journal.getAmount(i));
+            assertEquals("remarks-" + i, journal.getRemarks(i));
+        }
+    }
+
+    @Test
+    void testHistoryStore_concurrentReadersNeverSeeReusedSlots() throws Exception {
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(new InMemoryHistorySegmentStore(), 16);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (journal.size() < 50_000) {
+                    int size = journal.size();
+                    for (int index = Math.max(0, size - 64); index < size; index++) {
+                        assertEquals(index, journal.getAmount(index));
+                        assertEquals("remarks-" + (index % 3), journal.getRemarks(index));
+                    }
+                }
+            } catch (Throwable ex) {
+                failure.set(ex);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 50_000; i++) {
+            journal.append(TransactionType.DEPOSIT, i, "remarks-" + (i % 3));
+        }
+        reader.join();
+
+        assertNull(failure.get());
+    }
+
+    @Test
+    void testSummarize_daysAndMonthsFromRunningAggregates() {
+        TransactionJournal journal = new TransactionJournal();
+        LocalDate firstDay = LocalDate.of(2024, 1, 30);
+        for (int day = 0; day < 5; day++) {
+            long epochMicros = TransactionJournal.toEpochMicros(firstDay.plusDays(day).atTime(12, 0));
+            journal.append(TransactionType.DEPOSIT, 1_000L, null, epochMicros);
+            journal.append(TransactionType.DEPOSIT, 3_000L, null, epochMicros);
+            journal.append(TransactionType.WITHDRAW, 500L, null, epochMicros);
+        }
+
+        TransactionSummary day = journal.summarize(7L, SummaryPeriod.DAY, LocalDate.of(2024, 2, 1));
+        assertEquals(7L, day.getAccountId());
+        assertEquals(LocalDate.of(2024, 2, 1), day.getPeriodStart());
+        assertEquals(2, day.getDepositCount());
+        assertEquals(40.0, day.getDepositAmount());
+        assertEquals(1, day.getWithdrawalCount());
+        assertEquals(5.0, day.getWithdrawalAmount());
+        assertEquals(15.0, day.getAverageAmount());
+
+        TransactionSummary january = journal.summarize(7L, SummaryPeriod.MONTH, LocalDate.of(2024, 1, 15));
+        assertEquals(LocalDate.of(2024, 1, 1), january.getPeriodStart());
+        assertEquals(4, january.getDepositCount());
+        assertEquals(2, january.getWithdrawalCount());
+        TransactionSummary february = journal.summarize(7L, SummaryPeriod.MONTH, LocalDate.of(2024, 2, 29));
+        assertEquals(6, february.getDepositCount());
+        assertEquals(120.0, february.getDepositAmount());
+
+        TransactionSummary empty = journal.summarize(7L, SummaryPeriod.DAY, LocalDate.of(2024, 3, 1));
+        assertEquals(0, empty.getDepositCount());
+        assertEquals(0.0, empty.getAverageAmount());
+    }
+
+    @Test
+    void testSummarize_periodsOlderThanTheAggregatesAreCountedFromHistory() {
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(new InMemoryHistorySegmentStore(), 16);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 9, 0);
+        for (int day = 0; day < 400; day++) {
+            long epochMicros = TransactionJournal.toEpochMicros(start.plusDays(day));
+            journal.append(TransactionType.DEPOSIT, 100L * (day + 1), "day " + day, epochMicros);
+            journal.append(TransactionType.WITHDRAW, 1L, null, epochMicros);
+        }
+
+        for (int day = 0; day < 400; day += 7) {
+            TransactionSummary summary = journal.summarize(1L, SummaryPeriod.DAY, start.plusDays(day).toLocalDate());
+            assertEquals(1, summary.getDepositCount(), "Day " + day);
+            assertEquals(day + 1.0, summary.getDepositAmount(), "Day " + day);
+            assertEquals(1, summary.getWithdrawalCount(), "Day " + day);
+        }
+        TransactionSummary february = journal.summarize(1L, SummaryPeriod.MONTH, LocalDate.of(2023, 2, 10));
+        assertEquals(28, february.getDepositCount());
+        assertEquals(28, february.getWithdrawalCount());
+        assertEquals(LocalDate.of(2023, 2, 1), february.getPeriodStart());
+    }
+
+    @Test
+    void testRunningSumAndChecksum_matchEntriesAcrossTiers() {
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(new InMemoryHistorySegmentStore(), 16);
+        long expectedNet = 0L;
+        for (int i = 0; i < 100; i++) {
+            TransactionType transactionType = i % 3 == 0 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+            journal.append(transactionType, i + 1L, "entry " + (i % 5), 1_000L + i);
+            expectedNet += transactionType == TransactionType.DEPOSIT ? i + 1L : -(i + 1L);
+        }
+
+        long checksum = 0L;
+        for (int index = 0; index < journal.size(); index++) {
+            checksum = TransactionJournal.checksum(checksum, journal.getTransactionType(index), journal.getAmount(index), journal.getEpochMicros(index));
+        }
+        assertTrue(journal.sealedSize() > 0);
+        assertEquals(expectedNet, journal.getNetMinorUnits());
+        assertEquals(checksum, journal.getChecksum());
+
+        TransactionJournal swapped = new TransactionJournal();
+        swapped.append(TransactionType.DEPOSIT, 2L, null, 1_000L);
+        swapped.append(TransactionType.DEPOSIT, 1L, null, 1_000L);
+        TransactionJournal ordered = new TransactionJournal();
+        ordered.append(TransactionType.DEPOSIT, 1L, null, 1_000L);
+        ordered.append(TransactionType.DEPOSIT, 2L, null, 1_000L);
+        assertEquals(ordered.getNetMinorUnits(), swapped.getNetMinorUnits());
+        assertNotEquals(ordered.getChecksum(), swapped.getChecksum());
+    }
+
+    @Test
+    void testRestore_keepsEntriesAndCountersOfCapturedState() {
+        TransactionJournal journal = new TransactionJournal();
+        LocalDateTime start = LocalDateTime.of(2024, 3, 30, 10, 0);
+        for (int i = 0; i < 20; i++) {
+            TransactionType transactionType = i % 4 == 0 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+            journal.append(transactionType, 100L + i, i % 2 == 0 ? "entry " + (i % 3) : null, TransactionJournal.toEpochMicros(start.plusDays(i / 8)));
+        }
+        JournalState state = journal.captureState();
+        int count = state.size();
+
+        TransactionJournal restored = restore(journal, state, null, 0);
+
+        assertEquals(journal.asList(1L), restored.asList(1L));
+        assertEquals(journal.getNetMinorUnits(), restored.getNetMinorUnits());
+        assertEquals(journal.getChecksum(), restored.getChecksum());
+        assertEquals(journal.summarize(1L, SummaryPeriod.DAY, LocalDate.of(2024, 4, 1)),
+                restored.summarize(1L, SummaryPeriod.DAY, LocalDate.of(2024, 4, 1)));
+        assertEquals(journal.summarize(1L, SummaryPeriod.MONTH, LocalDate.of(2024, 4, 1)),
+                restored.summarize(1L, SummaryPeriod.MONTH, LocalDate.of(2024, 4, 1)));
+
+        restored.append(TransactionType.DEPOSIT, 7L, "entry 1", TransactionJournal.toEpochMicros(start.plusDays(3)));
+        journal.append(TransactionType.DEPOSIT, 7L, "entry 1", TransactionJournal.toEpochMicros(start.plusDays(3)));
+        assertEquals(journal.getChecksum(), restored.getChecksum());
+        assertEquals("entry 1", restored.getRemarks(count));
+        assertThrows(IllegalStateException.class, () -> restored.restore(state, new long[0], new byte[0], new long[0], new String[0], null, 0));
+    }
+
+    @Test
+    void testRestore_refersToSealedSegmentsInsteadOfCopyingThem() {
+        InMemoryHistorySegmentStore store = new InMemoryHistorySegmentStore();
+        TransactionJournal journal = new TransactionJournal();
+        journal.attachHistoryStore(store, 16);
+        for (int i = 0; i < 100; i++) {
+            journal.append(TransactionType.DEPOSIT, i, "remarks-" + (i % 4), 1_000L + i);
+        }
+        JournalState state = journal.captureState();
+        int segments = store.segments.size();
+        assertTrue(state.sealedSize() > 0);
+        assertEquals(segments, state.segmentCount());
+
+        TransactionJournal restored = restore(journal, state, store, 16);
+
+        assertEquals(segments, store.segments.size(), "Sealed segments should be referenced, not written again.");
+        assertEquals(state.sealedSize(), restored.sealedSize());
+        assertEquals(journal.asList(1L), restored.asList(1L));
+        assertEquals(50, restored.indexAtOrAfter(1_050L, restored.size()));
+        restored.append(TransactionType.WITHDRAW, 1L, null, 2_000L);
+        journal.append(TransactionType.WITHDRAW, 1L, null, 2_000L);
+        assertEquals(journal.getChecksum(), restored.getChecksum());
+
+        TransactionJournal resealed = restore(journal, journal.captureState(), store, 64);
+        assertTrue(store.segments.size() > segments, "Segments of another size should be sealed again.");
+        assertEquals(journal.asList(1L), resealed.asList(1L));
+        assertEquals(journal.getChecksum(), resealed.getChecksum());
+        assertThrows(IllegalStateException.class, () -> restore(journal, state, null, 0));
+    }
+
+    /**
+     * Restores {@code state} of {@code journal} into a new journal, passing the entries from its sealed size on.
+     */
+    private static TransactionJournal restore(TransactionJournal journal, JournalState state, HistorySegmentStore store, int hotEntries) {
+        int first = state.sealedSize();
+        int count = state.size() - first;
+        long[] amounts = new long[count];
+        byte[] types = new byte[count];
+        long[] epochMicros = new long[count];
+        String[] remarks = new String[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = journal.getAmount(first + i);
+            types[i] = (byte) journal.getTransactionType(first + i).ordinal();
+            epochMicros[i] = journal.getEpochMicros(first + i);
+            remarks[i] = journal.getRemarks(first + i);
+        }
+        TransactionJournal restored = new TransactionJournal();
+        restored.restore(state, amounts, types, epochMicros, remarks, store, hotEntries);
+        return restored;
+    }
+
+    private static final class InMemoryHistorySegmentStore implements HistorySegmentStore {
+
+        private final List<byte[]> segments = new ArrayList<>();
+
+        private volatile boolean failing;
+
+        @Override
+        public synchronized long write(byte[] segment) {
+            if (failing) {
+                throw new IllegalStateException("History store unavailable");
+            }
+            segments.add(segment);
+            return segments.size() - 1;
+        }
+
+        @Override
+        public synchronized byte[] read(long position, int length) {
+            byte[] segment = segments.get((int) position);
+            assertEquals(segment.length, length);
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.tinybank.management.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.SummaryPeriod;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.exception.CancelAccountException;
+import com.tinybank.management.exception.CreateAccountException;
+import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.InvalidUserException;
+import com.tinybank.management.export.TransactionExportFormat;
+import com.tinybank.management.export.TransactionExporter;
+import com.tinybank.management.model.account.BalanceResponseModel;
+import com.tinybank.management.model.account.CreateAccountRequestModel;
+import com.tinybank.management.model.account.CreateAccountResponseModel;
+import com.tinybank.management.model.account.CreateAccountsResponseModel;
+import com.tinybank.management.model.transaction.GetTransactionResponseModel;
+import com.tinybank.management.service.AccountCrudService;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserAccounts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The endpoints of the servlet {@code AccountCrudController} on WebFlux, with the same requests and
+ * responses. Account creation and cancellation may wait for the write-ahead log, so they run on the
+ * bounded elastic scheduler; reads only touch memory and run on the event loop.
+ */
+@RestController
+@Slf4j
+public class ReactiveAccountCrudController {
+
+    /**
+     * Entries encoded per emitted export chunk, about 64 KB of NDJSON.
+     */
+    private static final int EXPORT_CHUNK_ENTRIES = 512;
+
+    @Autowired
+    private AccountCrudService accountCrudService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping("/createAccount")
+    public Mono<ResponseResult> createAccount(@RequestBody CreateAccountRequestModel createAccountRequestModel) {
+        log.info("Start of the create account: {}", createAccountRequestModel);
+        return Mono.fromCallable(() -> {
+                    Account account = new Account();
+                    account.setUser(getUserFromRequestModel(createAccountRequestModel));
+                    Account createdAccount = accountCrudService.createAccount(account);
+                    if (Objects.nonNull(createdAccount)) {
+                        log.info("End of the create account, createAccountRequestModel: {} success, accountId: {}", createAccountRequestModel, createdAccount.getAccountId());
+                        return ResponseResult.success(new CreateAccountResponseModel(createdAccount.getAccountId()));
+                    }
+                    log.info("End of the create account, failed");
+                    return ResponseResult.failure(BizErrorCodeEnum.CREATE_ACCOUNT_FAILED);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> {
+                    log.error("End of the create account, failed with {}", ex.getClass().getSimpleName(), ex);
+                    return Mono.just(ex instanceof CreateAccountException
+                            ? ResponseResult.failure(BizErrorCodeEnum.CREATE_ACCOUNT_FAILED, ex.getMessage())
+                            : ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+                });
+    }
+
+    @PostMapping("/createAccounts")
+    public Mono<ResponseResult<CreateAccountsResponseModel>> createAccounts(@RequestBody List<CreateAccountRequestModel> createAccountRequestModels) {
+        if (Objects.isNull(createAccountRequestModels) || createAccountRequestModels.isEmpty()) {
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "No accounts"));
+        }
+        log.info("Start of the create accounts, accounts: {}", createAccountRequestModels.size());
+        return Mono.fromCallable(() -> {
+                    List<Account> accounts = new ArrayList<>(createAccountRequestModels.size());
+                    for (CreateAccountRequestModel createAccountRequestModel : createAccountRequestModels) {
+                        Account account = new Account();
+                        try {
+                            if (Objects.nonNull(createAccountRequestModel)) {
+                                account.setUser(getUserFromRequestModel(createAccountRequestModel));
+                            }
+                        } catch (CreateAccountException ex) {
+                            // left without a user, so it is reported as failed
+                        }
+                        accounts.add(account);
+                    }
+                    List<Long> accountIds = accountCrudService.createAccounts(accounts);
+                    int created = (int) accountIds.stream().filter(Objects::nonNull).count();
+                    log.info("End of the create accounts, accounts: {}, created: {}", accountIds.size(), created);
+                    return ResponseResult.success(new CreateAccountsResponseModel(created, accountIds.size() - created, accountIds));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> {
+                    log.error("End of the create accounts, failed with {}", ex.getClass().getSimpleName(), ex);
+                    return Mono.just(ex instanceof CreateAccountException
+                            ? ResponseResult.failure(BizErrorCodeEnum.CREATE_ACCOUNT_FAILED, ex.getMessage())
+                            : ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+                });
+    }
+
+    @PostMapping("/cancelAccount")
+    public Mono<ResponseResult> cancelAccount(@RequestParam(value = "accountId") Long accountId) {
+        log.info("Start of the cancel accountId: {}", accountId);
+        return Mono.fromCallable(() -> {
+                    if (accountCrudService.cancelAccount(accountId)) {
+                        log.info("End of the cancel account, accountId: {}, success", accountId);
+                        return ResponseResult.success();
+                    }
+                    log.info("End of the cancel account, accountId: {}, failed", accountId);
+                    return ResponseResult.failure(BizErrorCodeEnum.CANCEL_ACCOUNT_FAILED);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> {
+                    log.error("End of the cancel account, accountId: {}, failed with {}", accountId, ex.getClass().getSimpleName(), ex);
+                    return Mono.just(ex instanceof CancelAccountException
+                            ? ResponseResult.failure(BizErrorCodeEnum.CANCEL_ACCOUNT_FAILED, ex.getMessage())
+                            : ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+                });
+    }
+
+    @GetMapping("/getTransaction")
+    public Mono<ResponseResult> getTransaction(@RequestParam(value = "accountId") Long accountId) {
+        log.debug("Start of the getTransaction accountId: {}", accountId);
+        return read("getTransaction", accountId, () -> ResponseResult.success(accountCrudService.getTransaction(accountId)));
+    }
+
+    @GetMapping("/getTransactionPage")
+    public Mono<ResponseResult> getTransactionPage(@RequestParam(value = "accountId") Long accountId,
+                                                   @RequestParam(value = "cursor", required = false) Long cursor,
+                                                   @RequestParam(value = "pageSize", defaultValue = "100") int pageSize,
+                                                   @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Start of the getTransactionPage accountId: {}, cursor: {}, pageSize: {}, from: {}, to: {}", accountId, cursor, pageSize, from, to);
+        return read("getTransactionPage", accountId, () -> {
+            var page = accountCrudService.getTransactionPage(accountId, cursor, pageSize, from, to);
+            return ResponseResult.success(new GetTransactionResponseModel(page.getTransactions(), page.getNextCursor()));
+        });
+    }
+
+    /**
+     * Streams the history of an account as NDJSON or CSV. Chunks of {@value #EXPORT_CHUNK_ENTRIES} entries
+     * are encoded one at a time as the connection requests them, so a slow client holds back the export
+     * instead of letting encoded chunks pile up in memory.
+     */
+    @GetMapping("/exportTransactions")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportTransactions(@RequestParam(value = "accountId") Long accountId,
+                                                                     @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                                     @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                     @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Start of the exportTransactions accountId: {}, format: {}, from: {}, to: {}", accountId, format, from, to);
+        TransactionExportFormat exportFormat;
+        try {
+            exportFormat = TransactionExportFormat.of(format);
+        } catch (IllegalArgumentException ex) {
+            log.info("End of the exportTransactions, accountId: {}, unsupported format: {}", accountId, format);
+            return exportFailure(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Invalid format, Please use 'ndjson' / 'csv' for format"));
+        }
+        try {
+            TransactionJournal journal = accountCrudService.getTransactionJournal(accountId);
+            int end = TransactionExporter.endIndex(journal, to);
+            int first = TransactionExporter.startIndex(journal, from, end);
+            long start = System.nanoTime();
+            Flux<DataBuffer> body = Flux.<DataBuffer, ExportState>generate(() -> new ExportState(exportFormat, first), (state, sink) -> {
+                        if (state.index == first) {
+                            state.exporter.writeHeader();
+                        }
+                        int next = Math.min(state.index + EXPORT_CHUNK_ENTRIES, end);
+                        try {
+                            state.exporter.writeEntries(accountId, journal, state.index, next);
+                            state.exporter.flush();
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        sink.next(DefaultDataBufferFactory.sharedInstance.wrap(state.buffer.toByteArray()));
+                        state.buffer.reset();
+                        state.index = next;
+                        if (next == end) {
+                            sink.complete();
+                        }
+                        return state;
+                    }, state -> {
+                        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                        log.info("End of the exportTransactions, accountId: {}, entries: {}, bytes: {}, elapsedMs: {}, MB/s: {}", accountId,
+                                state.index - first, state.exporter.getBytesWritten(), (long) (seconds * 1000),
+                                String.format("%.1f", seconds > 0 ? state.exporter.getBytesWritten() / (1024.0 * 1024.0) / seconds : 0.0));
+                    });
+            return Mono.just(ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-" + accountId + "." + exportFormat.getCode() + "\"")
+                    .body(body));
+        } catch (InvalidAccountException ex) {
+            log.error("End of the exportTransactions, accountId: {} , failed with InvalidAccountException", accountId, ex);
+            return exportFailure(ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED, ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("End of the exportTransactions, accountId: {}, failed with Exception", accountId, ex);
+            return exportFailure(ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+        }
+    }
+
+    @GetMapping("/getBalance")
+    public Mono<ResponseResult> getBalance(@RequestParam(value = "accountId") Long accountId) {
+        log.debug("Start of the getBalance accountId: {}", accountId);
+        return read("getBalance", accountId, () -> {
+            Double balance = accountCrudService.getBalance(accountId);
+            return Objects.nonNull(balance) ? ResponseResult.success(new BalanceResponseModel(balance))
+                    : ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED);
+        });
+    }
+
+    @GetMapping("/getTransactionSummary")
+    public Mono<ResponseResult> getTransactionSummary(@RequestParam(value = "accountId") Long accountId,
+                                                      @RequestParam(value = "period", defaultValue = "day") String period,
+                                                      @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("Start of the getTransactionSummary accountId: {}, period: {}, date: {}", accountId, period, date);
+        SummaryPeriod summaryPeriod;
+        try {
+            summaryPeriod = SummaryPeriod.of(period);
+        } catch (IllegalArgumentException ex) {
+            log.info("End of the getTransactionSummary, accountId: {}, unsupported period: {}", accountId, period);
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Invalid period, Please use 'day' / 'month' for period"));
+        }
+        return read("getTransactionSummary", accountId, () -> ResponseResult.success(accountCrudService.getTransactionSummary(accountId, summaryPeriod, date)));
+    }
+
+    @GetMapping("/getUserAccounts")
+    public Mono<ResponseResult> getUserAccounts(@RequestParam(value = "userName", required = false) String userName,
+                                                @RequestParam(value = "userId", required = false) Long userId) {
+        log.debug("Start of the getUserAccounts userName: {}, userId: {}", userName, userId);
+        if (Objects.isNull(userName) == Objects.isNull(userId)) {
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Please give either userName or userId"));
+        }
+        try {
+            UserAccounts userAccounts = Objects.nonNull(userName) ? accountCrudService.getUserAccounts(userName) : accountCrudService.getUserAccounts(userId.longValue());
+            log.debug("End of the getUserAccounts, userName: {}, userId: {}, accounts: {}", userName, userId, userAccounts.getAccounts().size());
+            return Mono.just(ResponseResult.success(userAccounts));
+        } catch (InvalidUserException ex) {
+            log.error("End of the getUserAccounts, userName: {}, userId: {} , failed with InvalidUserException", userName, userId, ex);
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.GET_USER_ACCOUNTS_FAILED, ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("End of the getUserAccounts, userName: {}, userId: {}, failed with Exception", userName, userId, ex);
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+        }
+    }
+
+    /**
+     * Runs an in-memory read on the calling thread, mapping failures like the servlet controller does.
+     */
+    private static Mono<ResponseResult> read(String operation, Long accountId, AccountRead read) {
+        try {
+            ResponseResult result = read.get();
+            log.debug("End of the {}, accountId: {}", operation, accountId);
+            return Mono.just(result);
+        } catch (InvalidAccountException ex) {
+            log.error("End of the {}, accountId: {} , failed with InvalidAccountException", operation, accountId, ex);
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED, ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("End of the {}, accountId: {}, failed with Exception", operation, accountId, ex);
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+        }
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> exportFailure(ResponseResult<?> result) {
+        return Mono.fromCallable(() -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(objectMapper.writeValueAsBytes(result)))));
+    }
+
+    private static User getUserFromRequestModel(CreateAccountRequestModel createAccountRequestModel) throws CreateAccountException {
+        Role role;
+        try {
+            role = Role.of(createAccountRequestModel.role());
+        } catch (IllegalArgumentException ex) {
+            throw new CreateAccountException("Invalid role code, Please use 'user' / 'admin' for role");
+        }
+        return User.builder()
+                .name(createAccountRequestModel.name())
+                .userName(createAccountRequestModel.userName())
+                .password(createAccountRequestModel.password())
+                .role(role)
+                .build();
+    }
+
+    private interface AccountRead {
+        ResponseResult get() throws Exception;
+    }
+
+    /**
+     * Per-subscription export state: the exporter encodes into {@code buffer}, which is drained into one
+     * data buffer per emitted chunk.
+     */
+    private static final class ExportState {
+
+        private final ByteArrayOutputStream buffer;
+
+        private final TransactionExporter exporter;
+
+        private int index;
+
+        private ExportState(TransactionExportFormat format, int index) {
+            this.buffer = new ByteArrayOutputStream(TransactionExporter.CHUNK_SIZE);
+            this.exporter = new TransactionExporter(format, buffer);
+            this.index = index;
+        }
+    }
+}
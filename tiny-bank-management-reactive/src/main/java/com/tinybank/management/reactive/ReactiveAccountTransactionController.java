@@ -0,0 +1,145 @@
+package com.tinybank.management.reactive;
+
+import com.tinybank.management.account.BatchOperationResult;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.exception.DepositOperationException;
+import com.tinybank.management.exception.TransferOperationException;
+import com.tinybank.management.exception.WithdrawOperationException;
+import com.tinybank.management.idempotency.IdempotencyCache;
+import com.tinybank.management.model.transaction.BatchTransactionRequestModel;
+import com.tinybank.management.model.transaction.BatchTransactionResponseModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import com.tinybank.management.service.AccountTransactionalService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * The endpoints of the servlet {@code AccountTransactionController} on WebFlux. Deposits, withdrawals and
+ * transfers go through the asynchronous service API, so no event loop thread waits for a lock or a group
+ * commit; the synchronous and {@code Async} paths are the same handler here.
+ */
+@RestController
+@Slf4j
+public class ReactiveAccountTransactionController {
+
+    /**
+     * Optional deadline, in milliseconds, for an operation to start.
+     */
+    private static final String TIMEOUT_HEADER = "X-Timeout-Ms";
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    @Autowired
+    private AccountTransactionalService accountTransactionalService;
+
+    @Autowired(required = false)
+    private IdempotencyCache idempotencyCache;
+
+    @PostMapping({"/depositMoney", "/depositMoneyAsync"})
+    public Mono<ResponseResult> depositMoney(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel,
+                                             @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "depositMoney", accountTransactionRequestModel, () -> {
+            log.info("Start of the depositMoney, accountTransactionRequestModel: {}", accountTransactionRequestModel);
+            return accountTransactionalService.depositAsync(accountTransactionRequestModel.accountId(), accountTransactionRequestModel.amount(),
+                            accountTransactionRequestModel.remarks(), toTimeout(timeoutMs))
+                    .handle((ignored, ex) -> toResponse("depositMoney", accountTransactionRequestModel, ex,
+                            DepositOperationException.class, BizErrorCodeEnum.DEPOSIT_OPERATION_FAILED));
+        });
+    }
+
+    @PostMapping({"/withdrawMoney", "/withdrawMoneyAsync"})
+    public Mono<ResponseResult> withdrawMoney(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel,
+                                              @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "withdrawMoney", accountTransactionRequestModel, () -> {
+            log.info("Start of the withdrawMoney, accountTransactionRequestModel: {}", accountTransactionRequestModel);
+            return accountTransactionalService.withdrawAsync(accountTransactionRequestModel.accountId(), accountTransactionRequestModel.amount(),
+                            accountTransactionRequestModel.remarks(), toTimeout(timeoutMs))
+                    .handle((ignored, ex) -> toResponse("withdrawMoney", accountTransactionRequestModel, ex,
+                            WithdrawOperationException.class, BizErrorCodeEnum.WITHDRAW_OPERATION_FAILED));
+        });
+    }
+
+    @PostMapping({"/transferMoney", "/transferMoneyAsync"})
+    public Mono<ResponseResult> transferMoney(@RequestBody DualAccountTransactionRequestModel accountTransactionRequestModel,
+                                              @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "transferMoney", accountTransactionRequestModel, () -> {
+            log.info("Start of the transferMoney, accountTransactionRequestModel: {}", accountTransactionRequestModel);
+            return accountTransactionalService.transferAsync(accountTransactionRequestModel.fromAccountId(), accountTransactionRequestModel.toAccountId(),
+                            accountTransactionRequestModel.amount(), accountTransactionRequestModel.remarks(), toTimeout(timeoutMs))
+                    .handle((ignored, ex) -> toResponse("transferMoney", accountTransactionRequestModel, ex,
+                            TransferOperationException.class, BizErrorCodeEnum.TRANSFER_OPERATION_FAILED));
+        });
+    }
+
+    /**
+     * A batch holds journal locks and waits for its group commit, so it runs on the bounded elastic scheduler.
+     */
+    @PostMapping("/batchTransactions")
+    public Mono<ResponseResult<BatchTransactionResponseModel>> batchTransactions(@RequestBody BatchTransactionRequestModel batchTransactionRequestModel) {
+        if (Objects.isNull(batchTransactionRequestModel.operations()) || batchTransactionRequestModel.operations().isEmpty()) {
+            return Mono.just(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "No operations"));
+        }
+        log.info("Start of the batchTransactions, operations: {}", batchTransactionRequestModel.operations().size());
+        return Mono.fromCallable(() -> {
+                    List<BatchOperationResult> results = accountTransactionalService.executeBatch(batchTransactionRequestModel.operations());
+                    int succeeded = (int) results.stream().filter(BatchOperationResult::isSuccess).count();
+                    log.info("End of the batchTransactions, operations: {}, succeeded: {}", results.size(), succeeded);
+                    return ResponseResult.success(new BatchTransactionResponseModel(succeeded, results.size() - succeeded, results));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> {
+                    log.error("End of the batchTransactions, operations: {}, failed", batchTransactionRequestModel.operations().size(), ex);
+                    return Mono.just(ResponseResult.failure(BizErrorCodeEnum.BATCH_TRANSACTION_FAILED, ex.getMessage()));
+                });
+    }
+
+    /**
+     * Runs {@code action} once per idempotency key, taken from the header or else from the request body.
+     * The key space is shared with the servlet front end's operation names.
+     */
+    private Mono<ResponseResult> idempotent(String headerKey, String bodyKey, String operation, Object request,
+                                            Supplier<CompletableFuture<ResponseResult>> action) {
+        String key = StringUtils.hasText(headerKey) ? headerKey : bodyKey;
+        if (!StringUtils.hasText(key) || Objects.isNull(idempotencyCache)) {
+            return Mono.fromFuture(action);
+        }
+        return Mono.fromFuture(() -> idempotencyCache.executeAsync(key, operation, request, action));
+    }
+
+    private static Duration toTimeout(Long timeoutMs) {
+        return Objects.nonNull(timeoutMs) && timeoutMs > 0 ? Duration.ofMillis(timeoutMs) : null;
+    }
+
+    private static ResponseResult toResponse(String operation, Object accountTransactionRequestModel, Throwable ex,
+                                             Class<? extends Exception> operationException, BizErrorCodeEnum errorCode) {
+        if (Objects.isNull(ex)) {
+            log.info("End of the {}, accountTransactionRequestModel: {}, success", operation, accountTransactionRequestModel);
+            return ResponseResult.success();
+        }
+        Throwable cause = ex instanceof CompletionException && Objects.nonNull(ex.getCause()) ? ex.getCause() : ex;
+        log.error("End of the {}, accountTransactionRequestModel: {}, failed", operation, accountTransactionRequestModel, cause);
+        if (operationException.isInstance(cause)) {
+            return ResponseResult.failure(errorCode, cause.getMessage());
+        }
+        return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+    }
+}
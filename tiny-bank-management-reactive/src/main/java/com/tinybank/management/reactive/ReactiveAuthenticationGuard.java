@@ -0,0 +1,20 @@
+package com.tinybank.management.reactive;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refuses to start the reactive front end with {@code tinybank.auth.enabled}: it does not authenticate
+ * requests, so starting it would serve the ledger that setting is meant to protect to anyone.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+public class ReactiveAuthenticationGuard {
+
+    @PostConstruct
+    public void refuseToStart() {
+        throw new IllegalStateException("tinybank.auth.enabled is not supported by the reactive front end, which does not "
+                + "authenticate requests; serve authenticated traffic from the servlet application");
+    }
+}
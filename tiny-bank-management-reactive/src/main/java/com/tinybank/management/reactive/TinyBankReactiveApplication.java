@@ -0,0 +1,27 @@
+package com.tinybank.management.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * WebFlux front end over the same core as the servlet application. Only the core packages and the
+ * idempotency cache are scanned from the shared jars; the servlet controllers and MVC advice are not.
+ */
+@SpringBootApplication
+@ComponentScan(basePackages = {
+        "com.tinybank.management.reactive",
+        "com.tinybank.management.service",
+        "com.tinybank.management.async",
+        "com.tinybank.management.engine",
+        "com.tinybank.management.persistence",
+        "com.tinybank.management.metrics",
+        "com.tinybank.management.idempotency"},
+        excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.tinybank\\.management\\.metrics\\.BizErrorMetrics"))
+public class TinyBankReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(TinyBankReactiveApplication.class, args);
+    }
+}
@@ -0,0 +1,143 @@
+package com.tinybank.management.reactive;
+
+import com.tinybank.management.account.Account;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionType;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.exception.CreateAccountException;
+import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.model.account.CreateAccountRequestModel;
+import com.tinybank.management.service.AccountCrudService;
+import com.tinybank.management.user.AccountBalance;
+import com.tinybank.management.user.UserAccounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveAccountCrudController.class)
+class ReactiveAccountCrudControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private AccountCrudService accountCrudService;
+
+    @Test
+    void testCreateAccount_success() throws Exception {
+        Account createdAccount = new Account();
+        createdAccount.setAccountId(1L);
+
+        when(accountCrudService.createAccount(any(Account.class))).thenReturn(createdAccount);
+
+        webTestClient.post().uri("/createAccount")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateAccountRequestModel("John Doe", "johndoe", "password123", "user"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.accountId").isEqualTo(1);
+    }
+
+    @Test
+    void testCreateAccount_failure_dueToServiceException() throws Exception {
+        when(accountCrudService.createAccount(any(Account.class))).thenThrow(new CreateAccountException("Account creation failed"));
+
+        webTestClient.post().uri("/createAccount")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateAccountRequestModel("John Doe", "johndoe", "password123", "user"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.CREATE_ACCOUNT_FAILED.name());
+    }
+
+    @Test
+    void testGetBalance_success() throws Exception {
+        when(accountCrudService.getBalance(1L)).thenReturn(100.25);
+
+        webTestClient.get().uri("/getBalance?accountId=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.accountBalance").isEqualTo(100.25);
+    }
+
+    @Test
+    void testGetBalance_invalidAccount() throws Exception {
+        when(accountCrudService.getBalance(1L)).thenThrow(new InvalidAccountException("Invalid account"));
+
+        webTestClient.get().uri("/getBalance?accountId=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.GET_TRANSACTION_FAILED.name());
+    }
+
+    @Test
+    void testGetUserAccounts() throws Exception {
+        when(accountCrudService.getUserAccounts("johndoe")).thenReturn(UserAccounts.builder()
+                .userId(1L)
+                .userName("johndoe")
+                .accounts(List.of(new AccountBalance(1L, 25.0)))
+                .build());
+
+        webTestClient.get().uri("/getUserAccounts?userName=johndoe")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.accounts[0].balance").isEqualTo(25.0);
+    }
+
+    @Test
+    void testExportTransactions_chunksFollowDemand() throws Exception {
+        TransactionJournal journal = new TransactionJournal();
+        for (int i = 0; i < 1_500; i++) {
+            journal.append(TransactionType.DEPOSIT, 100L, "salary");
+        }
+
+        when(accountCrudService.getTransactionJournal(1L)).thenReturn(journal);
+
+        Flux<DataBuffer> body = webTestClient.get().uri("/exportTransactions?accountId=1&format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv")
+                .returnResult(DataBuffer.class)
+                .getResponseBody();
+
+        StringBuilder csv = new StringBuilder();
+        StepVerifier.create(body, 1)
+                .consumeNextWith(buffer -> csv.append(toString(buffer)))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(buffer -> csv.append(toString(buffer)) != null)
+                .verifyComplete();
+        String[] lines = csv.toString().split("\n");
+        assertEquals(1_501, lines.length);
+        assertEquals("accountId,amount,transactionType,transactionDate,remarks", lines[0]);
+    }
+
+    @Test
+    void testExportTransactions_invalidAccount() throws Exception {
+        when(accountCrudService.getTransactionJournal(1L)).thenThrow(new InvalidAccountException("Invalid account"));
+
+        webTestClient.get().uri("/exportTransactions?accountId=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.GET_TRANSACTION_FAILED.name());
+    }
+
+    private static String toString(DataBuffer buffer) {
+        String value = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return value;
+    }
+}
@@ -0,0 +1,91 @@
+package com.tinybank.management.reactive;
+
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.exception.TransferOperationException;
+import com.tinybank.management.idempotency.IdempotencyCache;
+import com.tinybank.management.idempotency.IdempotencyProperties;
+import com.tinybank.management.model.transaction.BatchTransactionRequestModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import com.tinybank.management.service.AccountTransactionalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveAccountTransactionController.class)
+@Import({IdempotencyCache.class, IdempotencyProperties.class})
+class ReactiveAccountTransactionControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private AccountTransactionalService accountTransactionalService;
+
+    @Test
+    void testDepositMoney_success() {
+        when(accountTransactionalService.depositAsync(1L, 100.0, "deposit", null)).thenReturn(CompletableFuture.completedFuture(null));
+
+        webTestClient.post().uri("/depositMoney")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SingleAccountTransactionRequestModel(1L, 100.0, "deposit"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.NO_ERROR.name());
+    }
+
+    @Test
+    void testTransferMoneyAsync_failure_dueToTransferOperationException() {
+        when(accountTransactionalService.transferAsync(1L, 2L, 75.0, "transfer", Duration.ofMillis(250)))
+                .thenReturn(CompletableFuture.failedFuture(new TransferOperationException("Transfer failed")));
+
+        webTestClient.post().uri("/transferMoneyAsync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Timeout-Ms", "250")
+                .bodyValue(new DualAccountTransactionRequestModel(1L, 2L, 75.0, "transfer"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.TRANSFER_OPERATION_FAILED.name())
+                .jsonPath("$.errorMessage").isEqualTo("Transfer failed");
+    }
+
+    @Test
+    void testWithdrawMoney_idempotencyKey_executesOnce() {
+        when(accountTransactionalService.withdrawAsync(1L, 50.0, "withdraw", null)).thenReturn(CompletableFuture.completedFuture(null));
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.post().uri("/withdrawMoney")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Idempotency-Key", "key-1")
+                    .bodyValue(new SingleAccountTransactionRequestModel(1L, 50.0, "withdraw"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.NO_ERROR.name());
+        }
+
+        verify(accountTransactionalService, times(1)).withdrawAsync(1L, 50.0, "withdraw", null);
+    }
+
+    @Test
+    void testBatchTransactions_noOperations() {
+        webTestClient.post().uri("/batchTransactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BatchTransactionRequestModel(List.of()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.errorCode").isEqualTo(BizErrorCodeEnum.BAD_DATA.name());
+
+        verifyNoInteractions(accountTransactionalService);
+    }
+}
@@ -0,0 +1,19 @@
+package com.tinybank.management.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveAuthenticationGuardTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ReactiveAuthenticationGuard.class);
+
+    @Test
+    void testStartup_refusedWhileAuthenticationIsEnabled() {
+        contextRunner.withPropertyValues("tinybank.auth.enabled=true")
+                .run(context -> assertInstanceOf(IllegalStateException.class, context.getStartupFailure().getCause()));
+        contextRunner.run(context -> assertNull(context.getStartupFailure()));
+    }
+}
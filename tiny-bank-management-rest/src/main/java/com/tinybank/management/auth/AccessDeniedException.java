@@ -0,0 +1,10 @@
+package com.tinybank.management.auth;
+
+class AccessDeniedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    AccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.tinybank.management.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+public class AuthenticationConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Login, logout, the error page and the API docs are open; actuator endpoints are not intercepted.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AuthenticationInterceptor(authenticationService, objectMapper))
+                .excludePathPatterns("/login", "/logout", "/error", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html");
+    }
+}
@@ -0,0 +1,124 @@
+package com.tinybank.management.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.NumberUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Authenticates every request by its {@code Authorization: Bearer} session token, a cache lookup, and
+ * authorizes it by role: handlers marked {@link AdminOnly} need {@code ADMIN}, and a {@code USER} may only name their own
+ * accounts and themselves in the {@code accountId}, {@code userName} and {@code userId} parameters, and an id
+ * that cannot be decoded is a bad request. Account
+ * ids in request bodies are checked by {@link AuthorizationAdvice}. Handlers marked
+ * {@link AnonymousAllowed}, such as {@code /createAccount}, are open to anonymous callers so new users can
+ * sign up. Both are read from the handler the request was mapped to, not from its path.
+ */
+@Slf4j
+public class AuthenticationInterceptor implements HandlerInterceptor {
+
+    /**
+     * Request attribute holding the {@link AuthenticatedUser} of the request, absent when anonymous.
+     */
+    public static final String AUTHENTICATED_USER = AuthenticationInterceptor.class.getName() + ".user";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AuthenticationService authenticationService;
+
+    private final ObjectMapper objectMapper;
+
+    public AuthenticationInterceptor(AuthenticationService authenticationService, ObjectMapper objectMapper) {
+        this.authenticationService = authenticationService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the token of an {@code Authorization: Bearer} header, or {@code null}.
+     */
+    public static String bearerToken(String authorization) {
+        return Objects.nonNull(authorization) && authorization.startsWith(BEARER_PREFIX) ? authorization.substring(BEARER_PREFIX.length()).trim() : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // An async dispatch completes a request that was authorized before it started.
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        AuthenticatedUser user = authenticationService.authenticate(bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION)));
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (Objects.nonNull(user)) {
+            request.setAttribute(AUTHENTICATED_USER, user);
+        } else if (!handlerMethod.hasMethodAnnotation(AnonymousAllowed.class)) {
+            return reject(response, HttpStatus.UNAUTHORIZED, BizErrorCodeEnum.UNAUTHORIZED, "Missing or expired session token");
+        }
+        if (Objects.isNull(user) || user.isAdmin()) {
+            return true;
+        }
+        if (handlerMethod.hasMethodAnnotation(AdminOnly.class)) {
+            return reject(response, HttpStatus.FORBIDDEN, BizErrorCodeEnum.FORBIDDEN, "Admin role required");
+        }
+        Long accountId;
+        Long userId;
+        try {
+            accountId = parseId(request, "accountId");
+            userId = parseId(request, "userId");
+        } catch (IllegalArgumentException ex) {
+            return reject(response, HttpStatus.BAD_REQUEST, BizErrorCodeEnum.BAD_DATA, ex.getMessage());
+        }
+        if (Objects.nonNull(accountId) && !authenticationService.canAccessAccount(user, accountId)) {
+            log.info("Access denied, userName: {}, path: {}, accountId: {}", user.userName(), path, accountId);
+            return reject(response, HttpStatus.FORBIDDEN, BizErrorCodeEnum.FORBIDDEN, "Account belongs to another user");
+        }
+        String userName = request.getParameter("userName");
+        if (!authenticationService.canAccessUser(user, userName, userId)) {
+            log.info("Access denied, userName: {}, path: {}, requested userName: {}, userId: {}", user.userName(), path, userName, userId);
+            return reject(response, HttpStatus.FORBIDDEN, BizErrorCodeEnum.FORBIDDEN, "Another user's data");
+        }
+        return true;
+    }
+
+    private boolean reject(HttpServletResponse response, HttpStatus status, BizErrorCodeEnum errorCode, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ResponseResult.failure(errorCode, message));
+        return false;
+    }
+
+    /**
+     * Decodes an id parameter the way the controller binds it, so hex and padded values name the same account
+     * there as here; {@code null} when absent or blank. A repeated or undecodable value throws, and the request
+     * is rejected rather than let through unchecked.
+     */
+    private static Long parseId(HttpServletRequest request, String name) {
+        String[] values = request.getParameterValues(name);
+        if (Objects.isNull(values)) {
+            return null;
+        }
+        if (values.length != 1) {
+            throw new IllegalArgumentException("Parameter " + name + " must be given once");
+        }
+        String value = values[0].trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return NumberUtils.parseNumber(value, Long.class);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.tinybank.management.auth;
+
+import com.tinybank.management.account.BatchOperation;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.model.account.CreateAccountRequestModel;
+import com.tinybank.management.model.transaction.BatchTransactionRequestModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import com.tinybank.management.user.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Checks the accounts named in request bodies, once they are read, against the caller: the account of a
+ * deposit or withdrawal, the debited account of a transfer and the accounts of every batch operation must be
+ * the caller's own, unless the caller is an admin. New accounts are checked with
+ * {@link AuthenticationService#canCreateAccount}.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+@Slf4j
+public class AuthorizationAdvice extends RequestBodyAdviceAdapter {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == SingleAccountTransactionRequestModel.class || targetType == DualAccountTransactionRequestModel.class
+                || targetType == BatchTransactionRequestModel.class || targetType == CreateAccountRequestModel.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        AuthenticatedUser user = (AuthenticatedUser) RequestContextHolder.currentRequestAttributes()
+                .getAttribute(AuthenticationInterceptor.AUTHENTICATED_USER, RequestAttributes.SCOPE_REQUEST);
+        if (body instanceof CreateAccountRequestModel model) {
+            Role role = Role.USER;
+            try {
+                role = Role.of(model.role());
+            } catch (IllegalArgumentException ex) {
+                // rejected by the controller
+            }
+            if (!authenticationService.canCreateAccount(user, model.userName(), role)) {
+                throw new AccessDeniedException("Not allowed to create this account");
+            }
+        } else if (body instanceof SingleAccountTransactionRequestModel model) {
+            checkAccount(user, model.accountId());
+        } else if (body instanceof DualAccountTransactionRequestModel model) {
+            checkAccount(user, model.fromAccountId());
+        } else if (body instanceof BatchTransactionRequestModel model && Objects.nonNull(model.operations())) {
+            for (BatchOperation operation : model.operations()) {
+                if (Objects.nonNull(operation)) {
+                    checkAccount(user, operation.getAccountId());
+                }
+            }
+        }
+        return body;
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ResponseResult<Object>> handleAccessDenied(AccessDeniedException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseResult.failure(BizErrorCodeEnum.FORBIDDEN, ex.getMessage()));
+    }
+
+    private void checkAccount(AuthenticatedUser user, Long accountId) {
+        if (Objects.nonNull(accountId) && !authenticationService.canAccessAccount(user, accountId)) {
+            log.info("Access denied, userName: {}, accountId: {}", user.userName(), accountId);
+            throw new AccessDeniedException("Account belongs to another user");
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package com.tinybank.management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tinybank.management.account.Account;
+import com.tinybank.management.account.SummaryPeriod;
 import com.tinybank.management.account.Transaction;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionPage;
+import com.tinybank.management.account.TransactionSummary;
+import com.tinybank.management.auth.AdminOnly;
+import com.tinybank.management.auth.AnonymousAllowed;
 import com.tinybank.management.exception.BizErrorCodeEnum;
 import com.tinybank.management.exception.CancelAccountException;
 import com.tinybank.management.exception.CreateAccountException;
 import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.InvalidUserException;
+import com.tinybank.management.export.TransactionExportFormat;
+import com.tinybank.management.export.TransactionExportSummary;
+import com.tinybank.management.export.TransactionExporter;
+import com.tinybank.management.model.account.BalanceResponseModel;
 import com.tinybank.management.model.account.CreateAccountRequestModel;
 import com.tinybank.management.model.account.CreateAccountResponseModel;
+import com.tinybank.management.model.account.CreateAccountsResponseModel;
+import com.tinybank.management.model.transaction.GetTransactionResponseModel;
 import com.tinybank.management.service.AccountCrudService;
 import com.tinybank.management.user.Role;
 import com.tinybank.management.user.User;
+import com.tinybank.management.user.UserAccounts;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 @RestController
@@ -26,7 +48,11 @@ public class AccountCrudController {
     @Autowired
     private AccountCrudService accountCrudService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/createAccount")
+    @AnonymousAllowed
     public ResponseResult createAccount(@RequestBody CreateAccountRequestModel createAccountRequestModel) {
         log.info("Start of the create account: {}", createAccountRequestModel);
         try {
@@ -49,6 +75,39 @@ public class AccountCrudController {
         return ResponseResult.failure(BizErrorCodeEnum.CREATE_ACCOUNT_FAILED);
     }
 
+    @PostMapping("/createAccounts")
+    @AdminOnly
+    public ResponseResult<CreateAccountsResponseModel> createAccounts(@RequestBody List<CreateAccountRequestModel> createAccountRequestModels) {
+        if (Objects.isNull(createAccountRequestModels) || createAccountRequestModels.isEmpty()) {
+            return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "No accounts");
+        }
+        log.info("Start of the create accounts, accounts: {}", createAccountRequestModels.size());
+        try {
+            List<Account> accounts = new ArrayList<>(createAccountRequestModels.size());
+            for (CreateAccountRequestModel createAccountRequestModel : createAccountRequestModels) {
+                Account account = new Account();
+                try {
+                    if (Objects.nonNull(createAccountRequestModel)) {
+                        account.setUser(getUserFromRequestModel(createAccountRequestModel));
+                    }
+                } catch (CreateAccountException ex) {
+                    // left without a user, so it is reported as failed
+                }
+                accounts.add(account);
+            }
+            List<Long> accountIds = accountCrudService.createAccounts(accounts);
+            int created = (int) accountIds.stream().filter(Objects::nonNull).count();
+            log.info("End of the create accounts, accounts: {}, created: {}", accountIds.size(), created);
+            return ResponseResult.success(new CreateAccountsResponseModel(created, accountIds.size() - created, accountIds));
+        } catch (CreateAccountException ex) {
+            log.error("End of the create accounts, failed with CreateAccountException", ex);
+            return ResponseResult.failure(BizErrorCodeEnum.CREATE_ACCOUNT_FAILED, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("End of the create accounts, failed with Exception", ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+
     @PostMapping("/cancelAccount")
     public ResponseResult cancelAccount(@RequestParam(value = "accountId") Long accountId) {
         log.info("Start of the cancel accountId: {}", accountId);
@@ -85,6 +144,63 @@ public class AccountCrudController {
         }
     }
 
+    @GetMapping("/getTransactionPage")
+    public ResponseResult getTransactionPage(@RequestParam(value = "accountId") Long accountId,
+                                             @RequestParam(value = "cursor", required = false) Long cursor,
+                                             @RequestParam(value = "pageSize", defaultValue = "100") int pageSize,
+                                             @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Start of the getTransactionPage accountId: {}, cursor: {}, pageSize: {}, from: {}, to: {}", accountId, cursor, pageSize, from, to);
+        try {
+            TransactionPage page = accountCrudService.getTransactionPage(accountId, cursor, pageSize, from, to);
+            log.debug("End of the getTransactionPage, accountId: {}, cursor: {}, nextCursor: {}", accountId, cursor, page.getNextCursor());
+            return ResponseResult.success(new GetTransactionResponseModel(page.getTransactions(), page.getNextCursor()));
+        } catch (InvalidAccountException ex) {
+            log.error("End of the getTransactionPage, accountId: {} , failed with InvalidAccountException", accountId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("End of the getTransactionPage, accountId: {}, failed with Exception", accountId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+
+    /**
+     * Streams the history of an account as NDJSON or CSV, written chunk by chunk from the journal instead
+     * of being built as one document. Failures found before streaming starts are returned as JSON results.
+     */
+    @GetMapping("/exportTransactions")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(value = "accountId") Long accountId,
+                                                                    @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                                    @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                    @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Start of the exportTransactions accountId: {}, format: {}, from: {}, to: {}", accountId, format, from, to);
+        TransactionExportFormat exportFormat;
+        try {
+            exportFormat = TransactionExportFormat.of(format);
+        } catch (IllegalArgumentException ex) {
+            log.info("End of the exportTransactions, accountId: {}, unsupported format: {}", accountId, format);
+            return exportFailure(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Invalid format, Please use 'ndjson' / 'csv' for format"));
+        }
+        try {
+            TransactionJournal journal = accountCrudService.getTransactionJournal(accountId);
+            StreamingResponseBody body = outputStream -> {
+                TransactionExportSummary summary = TransactionExporter.export(accountId, journal, from, to, exportFormat, outputStream);
+                log.info("End of the exportTransactions, accountId: {}, entries: {}, bytes: {}, elapsedMs: {}, MB/s: {}", accountId,
+                        summary.entries(), summary.bytes(), summary.elapsedNanos() / 1_000_000L, String.format("%.1f", summary.megabytesPerSecond()));
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-" + accountId + "." + exportFormat.getCode() + "\"")
+                    .body(body);
+        } catch (InvalidAccountException ex) {
+            log.error("End of the exportTransactions, accountId: {} , failed with InvalidAccountException", accountId, ex);
+            return exportFailure(ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED, ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("End of the exportTransactions, accountId: {}, failed with Exception", accountId, ex);
+            return exportFailure(ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+        }
+    }
+
     @GetMapping("/getBalance")
     public ResponseResult getBalance(@RequestParam(value = "accountId") Long accountId) {
         log.debug("Start of the getBalance accountId: {}", accountId);
@@ -92,7 +208,7 @@ public class AccountCrudController {
             Double balance = accountCrudService.getBalance(accountId);
             if (Objects.nonNull(balance)) {
                 log.debug("End of the getBalance, accountId: {}, balance: {}", accountId, balance);
-                return ResponseResult.success(Map.of("accountBalance", balance));
+                return ResponseResult.success(new BalanceResponseModel(balance));
             }
         } catch (InvalidAccountException ex) {
             log.error("End of the getBalance, accountId: {} , failed with InvalidAccountException", accountId, ex);
@@ -104,6 +220,68 @@ public class AccountCrudController {
         return ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED);
     }
 
+    /**
+     * Deposit and withdrawal counts and totals of the day or month containing {@code date} (today by
+     * default), answered from running aggregates instead of the history.
+     */
+    @GetMapping("/getTransactionSummary")
+    public ResponseResult getTransactionSummary(@RequestParam(value = "accountId") Long accountId,
+                                                @RequestParam(value = "period", defaultValue = "day") String period,
+                                                @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("Start of the getTransactionSummary accountId: {}, period: {}, date: {}", accountId, period, date);
+        SummaryPeriod summaryPeriod;
+        try {
+            summaryPeriod = SummaryPeriod.of(period);
+        } catch (IllegalArgumentException ex) {
+            log.info("End of the getTransactionSummary, accountId: {}, unsupported period: {}", accountId, period);
+            return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Invalid period, Please use 'day' / 'month' for period");
+        }
+        try {
+            TransactionSummary summary = accountCrudService.getTransactionSummary(accountId, summaryPeriod, date);
+            log.debug("End of the getTransactionSummary, accountId: {}, summary: {}", accountId, summary);
+            return ResponseResult.success(summary);
+        } catch (InvalidAccountException ex) {
+            log.error("End of the getTransactionSummary, accountId: {} , failed with InvalidAccountException", accountId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.GET_TRANSACTION_FAILED, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("End of the getTransactionSummary, accountId: {}, failed with Exception", accountId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+
+    /**
+     * Lists the live accounts of a user, given by {@code userName} or {@code userId}, with their balances.
+     */
+    @GetMapping("/getUserAccounts")
+    public ResponseResult getUserAccounts(@RequestParam(value = "userName", required = false) String userName,
+                                          @RequestParam(value = "userId", required = false) Long userId) {
+        log.debug("Start of the getUserAccounts userName: {}, userId: {}", userName, userId);
+        if (Objects.isNull(userName) == Objects.isNull(userId)) {
+            return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Please give either userName or userId");
+        }
+        try {
+            UserAccounts userAccounts = Objects.nonNull(userName) ? accountCrudService.getUserAccounts(userName) : accountCrudService.getUserAccounts(userId.longValue());
+            log.debug("End of the getUserAccounts, userName: {}, userId: {}, accounts: {}", userName, userId, userAccounts.getAccounts().size());
+            return ResponseResult.success(userAccounts);
+        } catch (InvalidUserException ex) {
+            log.error("End of the getUserAccounts, userName: {}, userId: {} , failed with InvalidUserException", userName, userId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.GET_USER_ACCOUNTS_FAILED, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("End of the getUserAccounts, userName: {}, userId: {}, failed with Exception", userName, userId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+
+    /**
+     * Writes {@code result} as the JSON document the other endpoints return; a streaming handler only
+     * accepts a {@link StreamingResponseBody}.
+     */
+    private ResponseEntity<StreamingResponseBody> exportFailure(ResponseResult<?> result) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, result));
+    }
+
     private static User getUserFromRequestModel(CreateAccountRequestModel createAccountRequestModel) throws CreateAccountException {
         Role role;
         try {
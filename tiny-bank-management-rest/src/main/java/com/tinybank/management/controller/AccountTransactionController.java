@@ -1,27 +1,59 @@
 package com.tinybank.management.controller;
 
+import com.tinybank.management.account.BatchOperationResult;
 import com.tinybank.management.exception.BizErrorCodeEnum;
 import com.tinybank.management.exception.DepositOperationException;
 import com.tinybank.management.exception.TransferOperationException;
 import com.tinybank.management.exception.WithdrawOperationException;
+import com.tinybank.management.idempotency.IdempotencyCache;
+import com.tinybank.management.model.transaction.BatchTransactionRequestModel;
+import com.tinybank.management.model.transaction.BatchTransactionResponseModel;
 import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
 import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
 import com.tinybank.management.service.AccountTransactionalService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
 @RestController
 @Slf4j
 public class AccountTransactionController {
 
+    /**
+     * Optional deadline, in milliseconds, for an asynchronous operation to start.
+     */
+    private static final String TIMEOUT_HEADER = "X-Timeout-Ms";
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private AccountTransactionalService accountTransactionalService;
 
+    /**
+     * Remembers the outcome of requests carrying an idempotency key; without it every request is executed.
+     */
+    @Autowired(required = false)
+    private IdempotencyCache idempotencyCache;
+
     @PostMapping("/depositMoney")
-    public ResponseResult depositMoney(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel) {
+    public ResponseResult depositMoney(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel,
+                                       @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "depositMoney", accountTransactionRequestModel,
+                () -> deposit(accountTransactionRequestModel));
+    }
+
+    private ResponseResult deposit(SingleAccountTransactionRequestModel accountTransactionRequestModel) {
         log.info("Start of the depositMoney, accountTransactionRequestModel: {}", accountTransactionRequestModel);
         try {
             accountTransactionalService.deposit(accountTransactionRequestModel.accountId(), accountTransactionRequestModel.amount(), accountTransactionRequestModel.remarks());
@@ -37,7 +69,13 @@ public class AccountTransactionController {
     }
 
     @PostMapping("/withdrawMoney")
-    public ResponseResult withdrawMoney(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel) {
+    public ResponseResult withdrawMoney(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel,
+                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "withdrawMoney", accountTransactionRequestModel,
+                () -> withdraw(accountTransactionRequestModel));
+    }
+
+    private ResponseResult withdraw(SingleAccountTransactionRequestModel accountTransactionRequestModel) {
         log.info("Start of the withdrawMoney, accountTransactionRequestModel: {}", accountTransactionRequestModel);
         try {
             accountTransactionalService.withdraw(accountTransactionRequestModel.accountId(), accountTransactionRequestModel.amount(), accountTransactionRequestModel.remarks());
@@ -53,7 +91,13 @@ public class AccountTransactionController {
     }
 
     @PostMapping("/transferMoney")
-    public ResponseResult transferMoney(@RequestBody DualAccountTransactionRequestModel accountTransactionRequestModel) {
+    public ResponseResult transferMoney(@RequestBody DualAccountTransactionRequestModel accountTransactionRequestModel,
+                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "transferMoney", accountTransactionRequestModel,
+                () -> transfer(accountTransactionRequestModel));
+    }
+
+    private ResponseResult transfer(DualAccountTransactionRequestModel accountTransactionRequestModel) {
         log.info("Start of the transferMoney, accountTransactionRequestModel: {}", accountTransactionRequestModel);
         try {
             accountTransactionalService.transfer(accountTransactionRequestModel.fromAccountId(), accountTransactionRequestModel.toAccountId(), accountTransactionRequestModel.amount(), accountTransactionRequestModel.remarks());
@@ -68,4 +112,107 @@ public class AccountTransactionController {
         }
     }
 
+    @PostMapping("/batchTransactions")
+    public ResponseResult<BatchTransactionResponseModel> batchTransactions(@RequestBody BatchTransactionRequestModel batchTransactionRequestModel) {
+        if (Objects.isNull(batchTransactionRequestModel.operations()) || batchTransactionRequestModel.operations().isEmpty()) {
+            return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "No operations");
+        }
+        log.info("Start of the batchTransactions, operations: {}", batchTransactionRequestModel.operations().size());
+        try {
+            List<BatchOperationResult> results = accountTransactionalService.executeBatch(batchTransactionRequestModel.operations());
+            int succeeded = (int) results.stream().filter(BatchOperationResult::isSuccess).count();
+            log.info("End of the batchTransactions, operations: {}, succeeded: {}", results.size(), succeeded);
+            return ResponseResult.success(new BatchTransactionResponseModel(succeeded, results.size() - succeeded, results));
+        } catch (Exception ex) {
+            log.error("End of the batchTransactions, operations: {}, failed", batchTransactionRequestModel.operations().size(), ex);
+            return ResponseResult.failure(BizErrorCodeEnum.BATCH_TRANSACTION_FAILED, ex.getMessage());
+        }
+    }
+
+    /**
+     * Same as {@link #depositMoney}, but the servlet thread is released while the deposit is queued.
+     */
+    @PostMapping("/depositMoneyAsync")
+    public CompletableFuture<ResponseResult> depositMoneyAsync(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel,
+                                                               @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                                                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotentAsync(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "depositMoney", accountTransactionRequestModel, () -> {
+            log.info("Start of the depositMoneyAsync, accountTransactionRequestModel: {}", accountTransactionRequestModel);
+            return accountTransactionalService.depositAsync(accountTransactionRequestModel.accountId(), accountTransactionRequestModel.amount(),
+                            accountTransactionRequestModel.remarks(), toTimeout(timeoutMs))
+                    .handle((ignored, ex) -> toResponse("depositMoneyAsync", accountTransactionRequestModel, ex,
+                            DepositOperationException.class, BizErrorCodeEnum.DEPOSIT_OPERATION_FAILED));
+        });
+    }
+
+    /**
+     * Same as {@link #withdrawMoney}, but the servlet thread is released while the withdrawal is queued.
+     */
+    @PostMapping("/withdrawMoneyAsync")
+    public CompletableFuture<ResponseResult> withdrawMoneyAsync(@RequestBody SingleAccountTransactionRequestModel accountTransactionRequestModel,
+                                                                @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotentAsync(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "withdrawMoney", accountTransactionRequestModel, () -> {
+            log.info("Start of the withdrawMoneyAsync, accountTransactionRequestModel: {}", accountTransactionRequestModel);
+            return accountTransactionalService.withdrawAsync(accountTransactionRequestModel.accountId(), accountTransactionRequestModel.amount(),
+                            accountTransactionRequestModel.remarks(), toTimeout(timeoutMs))
+                    .handle((ignored, ex) -> toResponse("withdrawMoneyAsync", accountTransactionRequestModel, ex,
+                            WithdrawOperationException.class, BizErrorCodeEnum.WITHDRAW_OPERATION_FAILED));
+        });
+    }
+
+    /**
+     * Same as {@link #transferMoney}, but the servlet thread is released while the transfer is queued.
+     */
+    @PostMapping("/transferMoneyAsync")
+    public CompletableFuture<ResponseResult> transferMoneyAsync(@RequestBody DualAccountTransactionRequestModel accountTransactionRequestModel,
+                                                                @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotentAsync(idempotencyKey, accountTransactionRequestModel.idempotencyKey(), "transferMoney", accountTransactionRequestModel, () -> {
+            log.info("Start of the transferMoneyAsync, accountTransactionRequestModel: {}", accountTransactionRequestModel);
+            return accountTransactionalService.transferAsync(accountTransactionRequestModel.fromAccountId(), accountTransactionRequestModel.toAccountId(),
+                            accountTransactionRequestModel.amount(), accountTransactionRequestModel.remarks(), toTimeout(timeoutMs))
+                    .handle((ignored, ex) -> toResponse("transferMoneyAsync", accountTransactionRequestModel, ex,
+                            TransferOperationException.class, BizErrorCodeEnum.TRANSFER_OPERATION_FAILED));
+        });
+    }
+
+    /**
+     * Runs {@code action} once per idempotency key, taken from the header or else from the request body.
+     * The synchronous and asynchronous variants of an operation share their keys.
+     */
+    private ResponseResult idempotent(String headerKey, String bodyKey, String operation, Object request, Supplier<ResponseResult> action) {
+        String key = StringUtils.hasText(headerKey) ? headerKey : bodyKey;
+        if (!StringUtils.hasText(key) || Objects.isNull(idempotencyCache)) {
+            return action.get();
+        }
+        return idempotencyCache.execute(key, operation, request, action);
+    }
+
+    private CompletableFuture<ResponseResult> idempotentAsync(String headerKey, String bodyKey, String operation, Object request,
+                                                              Supplier<CompletableFuture<ResponseResult>> action) {
+        String key = StringUtils.hasText(headerKey) ? headerKey : bodyKey;
+        if (!StringUtils.hasText(key) || Objects.isNull(idempotencyCache)) {
+            return action.get();
+        }
+        return idempotencyCache.executeAsync(key, operation, request, action);
+    }
+
+    private static Duration toTimeout(Long timeoutMs) {
+        return Objects.nonNull(timeoutMs) && timeoutMs > 0 ? Duration.ofMillis(timeoutMs) : null;
+    }
+
+    private static ResponseResult toResponse(String operation, Object accountTransactionRequestModel, Throwable ex,
+                                             Class<? extends Exception> operationException, BizErrorCodeEnum errorCode) {
+        if (Objects.isNull(ex)) {
+            log.info("End of the {}, accountTransactionRequestModel: {}, success", operation, accountTransactionRequestModel);
+            return ResponseResult.success();
+        }
+        Throwable cause = ex instanceof CompletionException && Objects.nonNull(ex.getCause()) ? ex.getCause() : ex;
+        log.error("End of the {}, accountTransactionRequestModel: {}, failed", operation, accountTransactionRequestModel, cause);
+        if (operationException.isInstance(cause)) {
+            return ResponseResult.failure(errorCode, cause.getMessage());
+        }
+        return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+    }
 }
@@ -0,0 +1,54 @@
+package com.tinybank.management.controller;
+
+import com.tinybank.management.auth.AuthenticationInterceptor;
+import com.tinybank.management.auth.AuthenticationService;
+import com.tinybank.management.auth.SessionToken;
+import com.tinybank.management.exception.AuthenticationException;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.model.auth.LoginRequestModel;
+import com.tinybank.management.model.auth.LoginResponseModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Objects;
+
+@RestController
+@ConditionalOnProperty(prefix = "tinybank.auth", name = "enabled", havingValue = "true")
+@Slf4j
+public class AuthenticationController {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    /**
+     * Verifies the password, the only place its hash is computed, and returns a session token.
+     */
+    @PostMapping("/login")
+    public ResponseResult<LoginResponseModel> login(@RequestBody LoginRequestModel loginRequestModel) {
+        String userName = Objects.nonNull(loginRequestModel) ? loginRequestModel.userName() : null;
+        log.info("Start of the login, userName: {}", userName);
+        try {
+            SessionToken sessionToken = authenticationService.login(userName, loginRequestModel.password());
+            log.info("End of the login, userName: {}, success", userName);
+            return ResponseResult.success(new LoginResponseModel(sessionToken.token(), sessionToken.expiresInSeconds()));
+        } catch (AuthenticationException ex) {
+            log.info("End of the login, userName: {}, failed", userName);
+            return ResponseResult.failure(BizErrorCodeEnum.LOGIN_FAILED, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("End of the login, userName: {}, failed with Exception", userName, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseResult logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authenticationService.logout(AuthenticationInterceptor.bearerToken(authorization));
+        return ResponseResult.success();
+    }
+}
@@ -0,0 +1,80 @@
+package com.tinybank.management.controller;
+
+import com.tinybank.management.auth.AdminOnly;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.reconciliation.LedgerDigest;
+import com.tinybank.management.reconciliation.LedgerReconciler;
+import com.tinybank.management.reconciliation.ReconciliationReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Objects;
+
+@RestController
+@Slf4j
+public class LedgerReconciliationController {
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    /**
+     * {@code balances} compares every balance with the running sum of its journal; {@code full} also
+     * recomputes every journal from its entries.
+     */
+    @GetMapping("/reconcileLedger")
+    @AdminOnly
+    public ResponseResult<ReconciliationReport> reconcileLedger(@RequestParam(value = "mode", defaultValue = "balances") String mode) {
+        log.info("Start of the reconcileLedger, mode: {}", mode);
+        try {
+            ReconciliationReport report;
+            if ("balances".equals(mode)) {
+                report = ledgerReconciler.checkBalances();
+            } else if ("full".equals(mode)) {
+                report = ledgerReconciler.verifyAll();
+            } else {
+                log.info("End of the reconcileLedger, unsupported mode: {}", mode);
+                return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Invalid mode, Please use 'balances' / 'full' for mode");
+            }
+            log.info("End of the reconcileLedger, mode: {}, accounts: {}, drifts: {}", mode, report.accounts(), report.drifts().size());
+            if (!report.isConsistent()) {
+                return new ResponseResult<ReconciliationReport>(BizErrorCodeEnum.RECONCILIATION_FAILED, report);
+            }
+            return ResponseResult.success(report);
+        } catch (Exception ex) {
+            log.error("End of the reconcileLedger, mode: {}, failed with Exception", mode, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+
+    /**
+     * Returns the digest of the accounts from {@code fromAccountId} to {@code toAccountId}, or of every
+     * account when neither is given, to compare with the digest of another copy of the ledger.
+     */
+    @GetMapping("/getLedgerDigest")
+    @AdminOnly
+    public ResponseResult<LedgerDigest> getLedgerDigest(@RequestParam(value = "fromAccountId", required = false) Long fromAccountId,
+                                                        @RequestParam(value = "toAccountId", required = false) Long toAccountId) {
+        log.info("Start of the getLedgerDigest, fromAccountId: {}, toAccountId: {}", fromAccountId, toAccountId);
+        try {
+            LedgerDigest digest;
+            if (Objects.isNull(fromAccountId) && Objects.isNull(toAccountId)) {
+                digest = ledgerReconciler.digest();
+            } else if (Objects.nonNull(fromAccountId) && Objects.nonNull(toAccountId)) {
+                digest = ledgerReconciler.digest(fromAccountId, toAccountId);
+            } else {
+                return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Please give both fromAccountId and toAccountId, or neither");
+            }
+            log.info("End of the getLedgerDigest, fromAccountId: {}, toAccountId: {}, root: {}", digest.getFromAccountId(), digest.getToAccountId(), digest.getRoot());
+            return ResponseResult.success(digest);
+        } catch (IllegalArgumentException ex) {
+            log.info("End of the getLedgerDigest, fromAccountId: {}, toAccountId: {}, {}", fromAccountId, toAccountId, ex.getMessage());
+            return ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("End of the getLedgerDigest, fromAccountId: {}, toAccountId: {}, failed with Exception", fromAccountId, toAccountId, ex);
+            return ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR);
+        }
+    }
+}
@@ -6,13 +6,19 @@ import lombok.Getter;
 public enum BizErrorCodeEnum implements ErrorCode {
     NO_ERROR(0, "Success"),
     BAD_DATA(300, "Bad Data or Bad input"),
+    UNAUTHORIZED(401, "Unauthorized"),
+    FORBIDDEN(403, "Forbidden"),
     SYSTEM_ERROR(500, "System Error"),
     CREATE_ACCOUNT_FAILED(500_001),
     CANCEL_ACCOUNT_FAILED(500_002),
     DEPOSIT_OPERATION_FAILED(500_003),
     WITHDRAW_OPERATION_FAILED(500_004),
     TRANSFER_OPERATION_FAILED(500_005),
-    GET_TRANSACTION_FAILED(500_006);
+    GET_TRANSACTION_FAILED(500_006),
+    BATCH_TRANSACTION_FAILED(500_007),
+    RECONCILIATION_FAILED(500_008),
+    GET_USER_ACCOUNTS_FAILED(500_009),
+    LOGIN_FAILED(500_010);
 
     private int code;
     private String message;
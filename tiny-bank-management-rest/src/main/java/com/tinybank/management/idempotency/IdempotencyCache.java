@@ -0,0 +1,154 @@
+package com.tinybank.management.idempotency;
+
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of requests carrying an idempotency key, so a retried request gets the stored
+ * {@link ResponseResult} instead of moving money twice.
+ * <p>
+ * The first request with a key registers a pending outcome before it runs; duplicates arriving while it
+ * runs wait for that outcome instead of running again, and later duplicates get it with a single map
+ * lookup. A key reused for a different request is rejected. Outcomes with {@link BizErrorCodeEnum#SYSTEM_ERROR}
+ * are not remembered, so such a request can be retried.
+ * <p>
+ * Keys live for a fixed TTL, so insertion order is also expiry order: a FIFO queue of keys drives eviction,
+ * both of expired keys and of the oldest keys once {@code maxEntries} is exceeded. A key whose request is
+ * still running is never evicted for capacity, since a duplicate would then run again; while the oldest key
+ * is still running and the cache is full, new keys are rejected with {@link BizErrorCodeEnum#SYSTEM_ERROR}.
+ */
+@Component
+@Slf4j
+public class IdempotencyCache {
+
+    private final Map<String, Entry> entries;
+
+    private final Queue<Node> insertionOrder;
+
+    private final ReentrantLock evictionLock;
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    @Autowired
+    public IdempotencyCache(IdempotencyProperties properties) {
+        this.entries = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.evictionLock = new ReentrantLock();
+        this.maxEntries = properties.getMaxEntries();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(properties.getTtlSeconds());
+    }
+
+    /**
+     * Runs {@code action} once per {@code key}; see {@link #executeAsync}.
+     */
+    public ResponseResult execute(String key, String operation, Object request, Supplier<ResponseResult> action) {
+        return executeAsync(key, operation, request, () -> CompletableFuture.completedFuture(action.get())).join();
+    }
+
+    /**
+     * Returns the outcome of the request registered under {@code key}, running {@code action} if there is
+     * none. {@code operation} and {@code request} identify the request a key belongs to.
+     */
+    public CompletableFuture<ResponseResult> executeAsync(String key, String operation, Object request,
+                                                          Supplier<CompletableFuture<ResponseResult>> action) {
+        long now = System.nanoTime();
+        Entry created = new Entry(operation, request, new CompletableFuture<>(), now + ttlNanos);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, created);
+            if (Objects.isNull(existing)) {
+                break;
+            }
+            if (existing.isExpired(now)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.operation().equals(operation) || !existing.request().equals(request)) {
+                log.warn("Idempotency key reused for a different request, key: {}, operation: {}", key, operation);
+                return CompletableFuture.completedFuture(ResponseResult.failure(BizErrorCodeEnum.BAD_DATA, "Idempotency key reused for a different request"));
+            }
+            log.info("Replaying outcome of idempotency key: {}, operation: {}", key, operation);
+            return existing.outcome();
+        }
+        insertionOrder.add(new Node(key, created));
+        evict(now, false);
+        if (entries.size() > maxEntries) {
+            evict(now, true);
+            if (entries.size() > maxEntries) {
+                log.warn("Idempotency cache full of requests in progress, key: {}, operation: {}", key, operation);
+                entries.remove(key, created);
+                created.outcome().complete(ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR, "Too many requests in progress"));
+                return created.outcome();
+            }
+        }
+        CompletableFuture<ResponseResult> outcome;
+        try {
+            outcome = action.get();
+        } catch (RuntimeException ex) {
+            outcome = CompletableFuture.failedFuture(ex);
+        }
+        outcome.whenComplete((result, ex) -> {
+            if (Objects.nonNull(ex) || BizErrorCodeEnum.SYSTEM_ERROR.equals(result.getErrorCode())) {
+                entries.remove(key, created);
+            }
+            if (Objects.nonNull(ex)) {
+                created.outcome().completeExceptionally(ex);
+            } else {
+                created.outcome().complete(result);
+            }
+        });
+        return created.outcome();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired keys, completed keys over capacity and keys whose outcome was not remembered from the head
+     * of the queue. Only one thread evicts at a time, so the head it inspects is the head it removes; unless
+     * {@code wait} is set, a thread finding another one evicting leaves it to that one.
+     */
+    private void evict(long now, boolean wait) {
+        if (wait) {
+            evictionLock.lock();
+        } else if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            Node head;
+            while (Objects.nonNull(head = insertionOrder.peek())
+                    && ((entries.size() > maxEntries && head.entry().outcome().isDone())
+                    || head.entry().isExpired(now) || entries.get(head.key()) != head.entry())) {
+                insertionOrder.poll();
+                entries.remove(head.key(), head.entry());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private record Entry(String operation, Object request, CompletableFuture<ResponseResult> outcome, long expiresAtNanos) {
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+    }
+
+    private record Node(String key, Entry entry) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.tinybank.management.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tinybank.idempotency")
+@Data
+public class IdempotencyProperties {
+
+    /**
+     * Maximum number of remembered keys; the oldest are evicted first. Should exceed the number of keyed
+     * requests expected within {@code ttlSeconds}.
+     */
+    private int maxEntries = 100_000;
+
+    /**
+     * How long the outcome of a keyed request is remembered.
+     */
+    private long ttlSeconds = 86_400L;
+}
@@ -0,0 +1,59 @@
+package com.tinybank.management.metrics;
+
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts failed requests by {@link BizErrorCodeEnum} as they are written, so no controller has to report
+ * its failures itself. Counters are registered up front, one per error code.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "tinybank.metrics", name = "enabled", havingValue = "true")
+public class BizErrorMetrics implements ResponseBodyAdvice<Object> {
+
+    private final Map<BizErrorCodeEnum, Counter> failures = new EnumMap<>(BizErrorCodeEnum.class);
+
+    @Autowired
+    public BizErrorMetrics(MeterRegistry meterRegistry) {
+        for (BizErrorCodeEnum errorCode : BizErrorCodeEnum.values()) {
+            if (errorCode != BizErrorCodeEnum.NO_ERROR) {
+                failures.put(errorCode, Counter.builder("tinybank.ledger.failures")
+                        .description("Failed requests by error code")
+                        .tag("code", errorCode.name())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return ResponseResult.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof ResponseResult<?> result && result.getErrorCode() instanceof BizErrorCodeEnum errorCode) {
+            Counter counter = failures.get(errorCode);
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,4 @@
+package com.tinybank.management.model.account;
+
+public record BalanceResponseModel(Double accountBalance) {
+}
@@ -0,0 +1,9 @@
+package com.tinybank.management.model.account;
+
+import java.util.List;
+
+/**
+ * Ids of the created accounts in request order; an entry is {@code null} when that account failed.
+ */
+public record CreateAccountsResponseModel(int created, int failed, List<Long> accountIds) {
+}
@@ -0,0 +1,4 @@
+package com.tinybank.management.model.auth;
+
+public record LoginRequestModel(String userName, String password) {
+}
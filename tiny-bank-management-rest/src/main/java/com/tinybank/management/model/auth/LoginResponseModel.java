@@ -0,0 +1,7 @@
+package com.tinybank.management.model.auth;
+
+/**
+ * {@code token} goes into the {@code Authorization: Bearer} header of later requests.
+ */
+public record LoginResponseModel(String token, long expiresInSeconds) {
+}
@@ -0,0 +1,8 @@
+package com.tinybank.management.model.transaction;
+
+import com.tinybank.management.account.BatchOperation;
+
+import java.util.List;
+
+public record BatchTransactionRequestModel(List<BatchOperation> operations) {
+}
@@ -0,0 +1,8 @@
+package com.tinybank.management.model.transaction;
+
+import com.tinybank.management.account.BatchOperationResult;
+
+import java.util.List;
+
+public record BatchTransactionResponseModel(int succeeded, int failed, List<BatchOperationResult> results) {
+}
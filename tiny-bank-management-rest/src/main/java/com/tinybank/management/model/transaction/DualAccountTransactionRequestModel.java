@@ -1,4 +1,11 @@
 package com.tinybank.management.model.transaction;
 
-public record DualAccountTransactionRequestModel(Long fromAccountId, Long toAccountId, double amount, String remarks) {
+/**
+ * {@code idempotencyKey} is optional; an {@code Idempotency-Key} header takes precedence over it.
+ */
+public record DualAccountTransactionRequestModel(Long fromAccountId, Long toAccountId, double amount, String remarks, String idempotencyKey) {
+
+    public DualAccountTransactionRequestModel(Long fromAccountId, Long toAccountId, double amount, String remarks) {
+        this(fromAccountId, toAccountId, amount, remarks, null);
+    }
 }
@@ -1,4 +1,8 @@
 package com.tinybank.management.model.transaction;
 
-public record GetTransactionResponseModel() {
+import com.tinybank.management.account.Transaction;
+
+import java.util.List;
+
+public record GetTransactionResponseModel(List<Transaction> transactions, Long nextCursor) {
 }
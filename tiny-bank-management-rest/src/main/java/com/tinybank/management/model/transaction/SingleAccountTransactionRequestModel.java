@@ -1,4 +1,11 @@
 package com.tinybank.management.model.transaction;
 
-public record SingleAccountTransactionRequestModel(Long accountId, double amount, String remarks) {
+/**
+ * {@code idempotencyKey} is optional; an {@code Idempotency-Key} header takes precedence over it.
+ */
+public record SingleAccountTransactionRequestModel(Long accountId, double amount, String remarks, String idempotencyKey) {
+
+    public SingleAccountTransactionRequestModel(Long accountId, double amount, String remarks) {
+        this(accountId, amount, remarks, null);
+    }
 }
@@ -0,0 +1,19 @@
+package com.tinybank.management.wire;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class BinaryFrameConfiguration implements WebMvcConfigurer {
+
+    /**
+     * Appended after the JSON converter, so clients that accept any media type keep getting JSON.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new BinaryFrameHttpMessageConverter());
+    }
+}
@@ -0,0 +1,81 @@
+package com.tinybank.management.wire;
+
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the transaction request models from, and writes {@link ResponseResult}s as, {@link BinaryFrames}
+ * when a request uses the {@value BinaryFrames#MEDIA_TYPE_VALUE} content type or accepts it. The body is
+ * read once into an array and decoded from it directly into the model's fields, without a token stream.
+ */
+public class BinaryFrameHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public BinaryFrameHttpMessageConverter() {
+        super(BinaryFrames.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == SingleAccountTransactionRequestModel.class
+                || clazz == DualAccountTransactionRequestModel.class
+                || ResponseResult.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        ByteBuffer frame = ByteBuffer.wrap(readFrame(inputMessage));
+        try {
+            if (clazz == SingleAccountTransactionRequestModel.class) {
+                return BinaryFrames.readSingleAccountRequest(frame);
+            }
+            if (clazz == DualAccountTransactionRequestModel.class) {
+                return BinaryFrames.readDualAccountRequest(frame);
+            }
+            return BinaryFrames.readResponse(frame);
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotReadableException(ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object result, HttpOutputMessage outputMessage) throws IOException {
+        byte[] frame;
+        try {
+            frame = BinaryFrames.writeResponse((ResponseResult<?>) result);
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotWritableException(ex.getMessage(), ex);
+        }
+        outputMessage.getHeaders().setContentLength(frame.length);
+        outputMessage.getBody().write(frame);
+    }
+
+    private static byte[] readFrame(HttpInputMessage inputMessage) throws IOException {
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        if (contentLength > BinaryFrames.MAX_FRAME_SIZE) {
+            throw new HttpMessageNotReadableException("Frame too large: " + contentLength + " bytes", inputMessage);
+        }
+        InputStream body = inputMessage.getBody();
+        if (contentLength >= 0) {
+            byte[] frame = new byte[(int) contentLength];
+            if (body.readNBytes(frame, 0, frame.length) < frame.length) {
+                throw new HttpMessageNotReadableException("Truncated frame", inputMessage);
+            }
+            return frame;
+        }
+        byte[] frame = body.readNBytes(BinaryFrames.MAX_FRAME_SIZE + 1);
+        if (frame.length > BinaryFrames.MAX_FRAME_SIZE) {
+            throw new HttpMessageNotReadableException("Frame too large", inputMessage);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,200 @@
+package com.tinybank.management.wire;
+
+import com.tinybank.management.account.MinorUnits;
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.model.account.BalanceResponseModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import org.springframework.http.MediaType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fixed-layout, big-endian frames for the transaction and balance operations, an alternative to JSON for
+ * high-volume clients. Amounts travel as {@code long} minor units and strings as an unsigned 16-bit
+ * length ({@code 0xFFFF} for null) followed by UTF-8 bytes.
+ * <pre>
+ * single account request: u8 version | i64 accountId | i64 amount | str remarks | str idempotencyKey
+ * dual account request:   u8 version | i64 fromAccountId | i64 toAccountId | i64 amount | str remarks | str idempotencyKey
+ * response:               u8 version | i32 errorCode | u8 payload | [i64 balance] | str errorMessage
+ * </pre>
+ * The response payload is {@link #NO_PAYLOAD} or {@link #BALANCE_PAYLOAD}, followed by the balance.
+ */
+public final class BinaryFrames {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-tinybank-frame";
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public static final byte VERSION = 1;
+
+    public static final byte NO_PAYLOAD = 0;
+
+    public static final byte BALANCE_PAYLOAD = 1;
+
+    public static final int MAX_STRING_LENGTH = 0xFFFE;
+
+    /**
+     * Largest valid frame: a dual account request with two strings of the maximum length.
+     */
+    public static final int MAX_FRAME_SIZE = 1 + 3 * Long.BYTES + 2 * (Short.BYTES + MAX_STRING_LENGTH);
+
+    private static final int NULL_STRING = 0xFFFF;
+
+    private BinaryFrames() {
+    }
+
+    public static SingleAccountTransactionRequestModel readSingleAccountRequest(ByteBuffer frame) {
+        try {
+            checkVersion(frame);
+            long accountId = frame.getLong();
+            long amount = frame.getLong();
+            String remarks = readString(frame);
+            String idempotencyKey = readString(frame);
+            checkFullyRead(frame);
+            return new SingleAccountTransactionRequestModel(accountId, MinorUnits.toMajor(amount), remarks, idempotencyKey);
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated frame");
+        }
+    }
+
+    public static DualAccountTransactionRequestModel readDualAccountRequest(ByteBuffer frame) {
+        try {
+            checkVersion(frame);
+            long fromAccountId = frame.getLong();
+            long toAccountId = frame.getLong();
+            long amount = frame.getLong();
+            String remarks = readString(frame);
+            String idempotencyKey = readString(frame);
+            checkFullyRead(frame);
+            return new DualAccountTransactionRequestModel(fromAccountId, toAccountId, MinorUnits.toMajor(amount), remarks, idempotencyKey);
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated frame");
+        }
+    }
+
+    public static byte[] writeSingleAccountRequest(long accountId, long amount, String remarks, String idempotencyKey) {
+        byte[] remarksBytes = encode(remarks);
+        byte[] keyBytes = encode(idempotencyKey);
+        ByteBuffer frame = ByteBuffer.allocate(1 + 2 * Long.BYTES + stringSize(remarksBytes) + stringSize(keyBytes));
+        frame.put(VERSION).putLong(accountId).putLong(amount);
+        putString(frame, remarksBytes);
+        putString(frame, keyBytes);
+        return frame.array();
+    }
+
+    public static byte[] writeDualAccountRequest(long fromAccountId, long toAccountId, long amount, String remarks, String idempotencyKey) {
+        byte[] remarksBytes = encode(remarks);
+        byte[] keyBytes = encode(idempotencyKey);
+        ByteBuffer frame = ByteBuffer.allocate(1 + 3 * Long.BYTES + stringSize(remarksBytes) + stringSize(keyBytes));
+        frame.put(VERSION).putLong(fromAccountId).putLong(toAccountId).putLong(amount);
+        putString(frame, remarksBytes);
+        putString(frame, keyBytes);
+        return frame.array();
+    }
+
+    /**
+     * Encodes {@code result}, whose data must be absent, an empty map or a {@link BalanceResponseModel}.
+     */
+    public static byte[] writeResponse(ResponseResult<?> result) {
+        Object data = result.getData();
+        boolean balance = data instanceof BalanceResponseModel model && Objects.nonNull(model.accountBalance());
+        if (!balance && Objects.nonNull(data) && !(data instanceof Map<?, ?> map && map.isEmpty())) {
+            throw new IllegalArgumentException("No binary layout for " + data.getClass().getSimpleName());
+        }
+        byte[] messageBytes = encode(result.getErrorMessage());
+        ByteBuffer frame = ByteBuffer.allocate(1 + Integer.BYTES + 1 + (balance ? Long.BYTES : 0) + stringSize(messageBytes));
+        frame.put(VERSION).putInt(result.getErrorCode().getCode());
+        if (balance) {
+            frame.put(BALANCE_PAYLOAD).putLong(Math.round(((BalanceResponseModel) data).accountBalance() * MinorUnits.FACTOR));
+        } else {
+            frame.put(NO_PAYLOAD);
+        }
+        putString(frame, messageBytes);
+        return frame.array();
+    }
+
+    public static ResponseResult<?> readResponse(ByteBuffer frame) {
+        try {
+            checkVersion(frame);
+            int code = frame.getInt();
+            BizErrorCodeEnum errorCode = null;
+            for (BizErrorCodeEnum candidate : BizErrorCodeEnum.values()) {
+                if (candidate.getCode() == code) {
+                    errorCode = candidate;
+                }
+            }
+            if (Objects.isNull(errorCode)) {
+                throw new IllegalArgumentException("Unknown error code: " + code);
+            }
+            byte payload = frame.get();
+            Object data = switch (payload) {
+                case NO_PAYLOAD -> null;
+                case BALANCE_PAYLOAD -> new BalanceResponseModel(MinorUnits.toMajor(frame.getLong()));
+                default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+            };
+            String errorMessage = readString(frame);
+            checkFullyRead(frame);
+            return new ResponseResult<>(errorCode, errorMessage, data);
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated frame");
+        }
+    }
+
+    private static void checkVersion(ByteBuffer frame) {
+        byte version = frame.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported frame version: " + version);
+        }
+    }
+
+    private static void checkFullyRead(ByteBuffer frame) {
+        if (frame.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes after frame: " + frame.remaining());
+        }
+    }
+
+    /**
+     * Decodes a string in place from the frame's backing array.
+     */
+    private static String readString(ByteBuffer frame) {
+        int length = Short.toUnsignedInt(frame.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length > frame.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(frame.array(), frame.arrayOffset() + frame.position(), length, StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return value;
+    }
+
+    private static byte[] encode(String value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("String too long for a frame: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return Short.BYTES + (Objects.isNull(bytes) ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer frame, byte[] bytes) {
+        if (Objects.isNull(bytes)) {
+            frame.putShort((short) NULL_STRING);
+        } else {
+            frame.putShort((short) bytes.length).put(bytes);
+        }
+    }
+}
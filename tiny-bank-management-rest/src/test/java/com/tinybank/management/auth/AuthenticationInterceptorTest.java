@@ -0,0 +1,164 @@
+package com.tinybank.management.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinybank.management.controller.AccountCrudController;
+import com.tinybank.management.controller.AccountTransactionController;
+import com.tinybank.management.controller.AuthenticationController;
+import com.tinybank.management.exception.AuthenticationException;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.model.account.CreateAccountRequestModel;
+import com.tinybank.management.model.auth.LoginRequestModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import com.tinybank.management.service.AccountCrudService;
+import com.tinybank.management.service.AccountTransactionalService;
+import com.tinybank.management.user.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {AuthenticationController.class, AccountCrudController.class, AccountTransactionController.class},
+        properties = "tinybank.auth.enabled=true")
+class AuthenticationInterceptorTest {
+
+    private static final String USER_TOKEN = "Bearer user-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private AuthenticationService authenticationService;
+
+    @MockBean
+    private AccountCrudService accountCrudService;
+
+    @MockBean
+    private AccountTransactionalService accountTransactionalService;
+
+    @BeforeEach
+    void setUp() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "johndoe", Role.USER, Long.MAX_VALUE);
+        when(authenticationService.authenticate("user-token")).thenReturn(user);
+        when(authenticationService.canAccessAccount(eq(user), anyLong())).thenAnswer(invocation -> invocation.<Long>getArgument(1) <= 2L);
+        when(authenticationService.canAccessUser(eq(user), any(), any())).thenAnswer(invocation -> invocation.getArgument(1) == null);
+    }
+
+    @Test
+    void testLogin_returnsToken() throws Exception {
+        when(authenticationService.login("johndoe", "password")).thenReturn(new SessionToken("user-token", 900L));
+        when(authenticationService.login("johndoe", "wrong")).thenThrow(new AuthenticationException());
+
+        mockMvc.perform(post("/login")
+                        .content(objectMapper.writeValueAsString(new LoginRequestModel("johndoe", "password")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.token").value("user-token"))
+                .andExpect(jsonPath("$.data.expiresInSeconds").value(900));
+        mockMvc.perform(post("/login")
+                        .content(objectMapper.writeValueAsString(new LoginRequestModel("johndoe", "wrong")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.LOGIN_FAILED.name()));
+    }
+
+    @Test
+    void testQueryParameters_requireTokenAndOwnership() throws Exception {
+        when(accountCrudService.getBalance(1L)).thenReturn(10.0);
+
+        mockMvc.perform(get("/getBalance").param("accountId", "1"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.UNAUTHORIZED.name()));
+        mockMvc.perform(get("/getBalance").param("accountId", "1").header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.accountBalance").value(10.0));
+        mockMvc.perform(get("/getBalance").param("accountId", "3").header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.FORBIDDEN.name()));
+        mockMvc.perform(get("/getUserAccounts").param("userName", "janedoe").header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/createAccounts").content("[]").contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isForbidden());
+        verify(accountCrudService, times(1)).getBalance(anyLong());
+    }
+
+    @Test
+    void testQueryParameters_decodedLikeTheController() throws Exception {
+        for (String accountId : new String[]{"0x3", "#3", " 3", "03"}) {
+            mockMvc.perform(get("/getBalance").param("accountId", accountId).header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(get("/getBalance").param("accountId", "three").header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.BAD_DATA.name()));
+        mockMvc.perform(get("/getBalance").param("accountId", "1", "3").header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/getUserAccounts").param("userId", "two").header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isBadRequest());
+
+        verify(accountCrudService, never()).getBalance(anyLong());
+    }
+
+    @Test
+    void testAdminOnly_checkedOnTheMappedHandler() throws Exception {
+        for (String path : new String[]{"/createAccounts", "/createAccounts;x=1", "/createAccounts;jsessionid=1"}) {
+            mockMvc.perform(post(path).content("[]").contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(post("/createAccounts;x=1").content("[]").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+
+        verify(accountCrudService, never()).createAccounts(any());
+    }
+
+    @Test
+    void testRequestBodies_requireOwnership() throws Exception {
+        mockMvc.perform(post("/depositMoney")
+                        .content(objectMapper.writeValueAsString(new SingleAccountTransactionRequestModel(2L, 10.0, "deposit")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.NO_ERROR.name()));
+        mockMvc.perform(post("/transferMoney")
+                        .content(objectMapper.writeValueAsString(new DualAccountTransactionRequestModel(3L, 1L, 10.0, "transfer")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, USER_TOKEN))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.FORBIDDEN.name()));
+
+        verify(accountTransactionalService).deposit(2L, 10.0, "deposit");
+        verify(accountTransactionalService, never()).transfer(any(), any(), anyDouble(), any());
+    }
+
+    @Test
+    void testCreateAccount_openToSignUp() throws Exception {
+        when(authenticationService.canCreateAccount(null, "newuser", Role.USER)).thenReturn(true);
+        when(authenticationService.canCreateAccount(null, "root", Role.ADMIN)).thenReturn(false);
+
+        mockMvc.perform(post("/createAccount")
+                        .content(objectMapper.writeValueAsString(new CreateAccountRequestModel("New User", "newuser", "password", "user")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/createAccount")
+                        .content(objectMapper.writeValueAsString(new CreateAccountRequestModel("Root", "root", "password", "admin")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+
+        verify(accountCrudService, times(1)).createAccount(any());
+    }
+}
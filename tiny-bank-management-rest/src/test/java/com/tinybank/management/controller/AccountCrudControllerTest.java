@@ -2,27 +2,48 @@ package com.tinybank.management.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tinybank.management.account.Account;
+import com.tinybank.management.account.SummaryPeriod;
 import com.tinybank.management.account.Transaction;
+import com.tinybank.management.account.TransactionJournal;
+import com.tinybank.management.account.TransactionPage;
+import com.tinybank.management.account.TransactionSummary;
+import com.tinybank.management.account.TransactionType;
 import com.tinybank.management.exception.BizErrorCodeEnum;
 import com.tinybank.management.exception.CancelAccountException;
 import com.tinybank.management.exception.CreateAccountException;
 import com.tinybank.management.exception.InvalidAccountException;
+import com.tinybank.management.exception.InvalidUserException;
+import com.tinybank.management.model.account.BalanceResponseModel;
 import com.tinybank.management.model.account.CreateAccountRequestModel;
 import com.tinybank.management.service.AccountCrudService;
+import com.tinybank.management.user.AccountBalance;
+import com.tinybank.management.user.Role;
+import com.tinybank.management.user.UserAccounts;
+import com.tinybank.management.wire.BinaryFrames;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
 import java.util.List;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -82,6 +103,34 @@ class AccountCrudControllerTest {
                 .andExpect(jsonPath("$.errorCode").value("SYSTEM_ERROR"));
     }
 
+    @Test
+    void testCreateAccounts_success() throws Exception {
+        List<CreateAccountRequestModel> requestModels = List.of(createAccountRequestModel,
+                new CreateAccountRequestModel("Jane Doe", "janedoe", "password123", "unknown"));
+        when(accountCrudService.createAccounts(anyList())).thenAnswer(invocation -> {
+            List<Account> accounts = invocation.getArgument(0);
+            return accounts.stream().map(account -> account.getUser() == null ? null : 7L).toList();
+        });
+
+        mockMvc.perform(post("/createAccounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestModels)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.created").value(1))
+                .andExpect(jsonPath("$.data.failed").value(1))
+                .andExpect(jsonPath("$.data.accountIds[0]").value(7L))
+                .andExpect(jsonPath("$.data.accountIds[1]").doesNotExist());
+    }
+
+    @Test
+    void testCreateAccounts_failure_dueToEmptyRequest() throws Exception {
+        mockMvc.perform(post("/createAccounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("BAD_DATA"));
+    }
+
     @Test
     void testCancelAccount_success() throws Exception {
         when(accountCrudService.cancelAccount(1L)).thenReturn(true);
@@ -169,6 +218,58 @@ class AccountCrudControllerTest {
         verify(accountCrudService, times(1)).getBalance(accountId);
     }
 
+    @Test
+    void testGetBalance_binaryFrame() throws Exception {
+        Long accountId = 1L;
+
+        when(accountCrudService.getBalance(accountId)).thenReturn(100.25);
+
+        MvcResult result = mockMvc.perform(get("/getBalance")
+                        .param("accountId", accountId.toString())
+                        .accept(BinaryFrames.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFrames.MEDIA_TYPE))
+                .andReturn();
+
+        ResponseResult<?> response = BinaryFrames.readResponse(ByteBuffer.wrap(result.getResponse().getContentAsByteArray()));
+        assertEquals(new BalanceResponseModel(100.25), response.getData());
+    }
+
+    @Test
+    void testGetTransactionSummary() throws Exception {
+        Long accountId = 1L;
+        LocalDate date = LocalDate.of(2024, 2, 1);
+        TransactionSummary summary = TransactionSummary.builder()
+                .accountId(accountId)
+                .period(SummaryPeriod.MONTH)
+                .periodStart(date)
+                .depositCount(3)
+                .depositAmount(30.0)
+                .withdrawalCount(1)
+                .withdrawalAmount(2.0)
+                .averageAmount(8.0)
+                .build();
+
+        when(accountCrudService.getTransactionSummary(accountId, SummaryPeriod.MONTH, date)).thenReturn(summary);
+
+        mockMvc.perform(get("/getTransactionSummary")
+                        .param("accountId", accountId.toString())
+                        .param("period", "month")
+                        .param("date", "2024-02-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.depositCount").value(3))
+                .andExpect(jsonPath("$.data.depositAmount").value(30.0))
+                .andExpect(jsonPath("$.data.averageAmount").value(8.0));
+
+        mockMvc.perform(get("/getTransactionSummary")
+                        .param("accountId", accountId.toString())
+                        .param("period", "year"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.BAD_DATA.name()));
+
+        verify(accountCrudService, times(1)).getTransactionSummary(any(), any(), any());
+    }
+
     @Test
     void testGetBalance_invalidAccount() throws Exception {
         Long accountId = 1L;
@@ -198,4 +299,122 @@ class AccountCrudControllerTest {
 
         verify(accountCrudService, times(1)).getBalance(accountId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetTransactionPage_success() throws Exception {
+        Long accountId = 1L;
+        TransactionPage page = TransactionPage.builder().transactions(List.of(new Transaction())).nextCursor(10L).build();
+
+        when(accountCrudService.getTransactionPage(eq(accountId), eq(0L), eq(10), any(), isNull())).thenReturn(page);
+
+        mockMvc.perform(get("/getTransactionPage")
+                        .param("accountId", accountId.toString())
+                        .param("cursor", "0")
+                        .param("pageSize", "10")
+                        .param("from", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.transactions").isArray())
+                .andExpect(jsonPath("$.data.nextCursor").value(10L));
+
+        verify(accountCrudService, times(1)).getTransactionPage(eq(accountId), eq(0L), eq(10), any(), isNull());
+    }
+
+    @Test
+    void testGetTransactionPage_invalidAccount() throws Exception {
+        Long accountId = 1L;
+
+        when(accountCrudService.getTransactionPage(eq(accountId), isNull(), eq(100), isNull(), isNull())).thenThrow(new InvalidAccountException("Invalid account"));
+
+        mockMvc.perform(get("/getTransactionPage")
+                        .param("accountId", accountId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.GET_TRANSACTION_FAILED.name()));
+    }
+
+    @Test
+    void testExportTransactions_csv() throws Exception {
+        Long accountId = 1L;
+        TransactionJournal journal = new TransactionJournal();
+        journal.append(TransactionType.DEPOSIT, 1_050L, "salary");
+
+        when(accountCrudService.getTransactionJournal(accountId)).thenReturn(journal);
+
+        MvcResult result = mockMvc.perform(get("/exportTransactions")
+                        .param("accountId", accountId.toString())
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andExpect(content().string(startsWith("accountId,amount,transactionType,transactionDate,remarks\n1,10.50,DEPOSIT,")));
+    }
+
+    @Test
+    void testExportTransactions_invalidAccount() throws Exception {
+        Long accountId = 1L;
+
+        when(accountCrudService.getTransactionJournal(accountId)).thenThrow(new InvalidAccountException("Invalid account"));
+
+        MvcResult result = mockMvc.perform(get("/exportTransactions")
+                        .param("accountId", accountId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.GET_TRANSACTION_FAILED.name()));
+    }
+
+    @Test
+    void testExportTransactions_invalidFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/exportTransactions")
+                        .param("accountId", "1")
+                        .param("format", "xml"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.BAD_DATA.name()));
+
+        verify(accountCrudService, never()).getTransactionJournal(any());
+    }
+
+    @Test
+    void testGetUserAccounts() throws Exception {
+        UserAccounts userAccounts = UserAccounts.builder()
+                .userId(1L)
+                .name("John Doe")
+                .userName("johndoe")
+                .role(Role.USER)
+                .accounts(List.of(new AccountBalance(1L, 25.0), new AccountBalance(4L, 0.0)))
+                .build();
+
+        when(accountCrudService.getUserAccounts("johndoe")).thenReturn(userAccounts);
+
+        mockMvc.perform(get("/getUserAccounts")
+                        .param("userName", "johndoe")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.userId").value(1))
+                .andExpect(jsonPath("$.data.accounts[1].accountId").value(4))
+                .andExpect(jsonPath("$.data.accounts[0].balance").value(25.0));
+    }
+
+    @Test
+    void testGetUserAccounts_invalidRequests() throws Exception {
+        when(accountCrudService.getUserAccounts(9L)).thenThrow(new InvalidUserException());
+
+        mockMvc.perform(get("/getUserAccounts")
+                        .param("userId", "9")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.GET_USER_ACCOUNTS_FAILED.name()));
+        mockMvc.perform(get("/getUserAccounts")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.BAD_DATA.name()));
+    }
+}
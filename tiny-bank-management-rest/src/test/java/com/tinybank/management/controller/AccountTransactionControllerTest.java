@@ -1,26 +1,46 @@
 package com.tinybank.management.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinybank.management.account.BatchOperation;
+import com.tinybank.management.account.BatchOperationResult;
+import com.tinybank.management.account.BatchOperationType;
+import com.tinybank.management.exception.BizErrorCodeEnum;
 import com.tinybank.management.exception.DepositOperationException;
 import com.tinybank.management.exception.TransferOperationException;
 import com.tinybank.management.exception.WithdrawOperationException;
+import com.tinybank.management.idempotency.IdempotencyCache;
+import com.tinybank.management.idempotency.IdempotencyProperties;
+import com.tinybank.management.model.transaction.BatchTransactionRequestModel;
 import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
 import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
 import com.tinybank.management.service.AccountTransactionalService;
+import com.tinybank.management.wire.BinaryFrames;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AccountTransactionController.class)
+@Import({IdempotencyCache.class, IdempotencyProperties.class})
 class AccountTransactionControllerTest {
 
     @Autowired
@@ -139,4 +159,124 @@ class AccountTransactionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.errorCode").value("SYSTEM_ERROR"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransferMoney_retryWithIdempotencyKeyIsNotExecutedTwice() throws Exception {
+        doNothing().when(accountTransactionalService).transfer(anyLong(), anyLong(), anyDouble(), anyString());
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/transferMoney")
+                            .header("Idempotency-Key", "transfer-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transferRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.errorCode").value("NO_ERROR"));
+        }
+        verify(accountTransactionalService, times(1)).transfer(1L, 2L, 75.0, "transfer");
+    }
+
+    @Test
+    void testDepositMoneyAsync_success() throws Exception {
+        when(accountTransactionalService.depositAsync(anyLong(), anyDouble(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult mvcResult = mockMvc.perform(post("/depositMoneyAsync")
+                        .header("X-Timeout-Ms", 500)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(depositRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("NO_ERROR"));
+        verify(accountTransactionalService).depositAsync(1L, 100.0, "deposit", Duration.ofMillis(500));
+    }
+
+    @Test
+    void testTransferMoneyAsync_failure_dueToTransferOperationException() throws Exception {
+        when(accountTransactionalService.transferAsync(anyLong(), anyLong(), anyDouble(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TransferOperationException("Operation timed out before it started")));
+
+        MvcResult mvcResult = mockMvc.perform(post("/transferMoneyAsync")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("TRANSFER_OPERATION_FAILED"))
+                .andExpect(jsonPath("$.errorMessage").value("Operation timed out before it started"));
+    }
+
+    @Test
+    void testBatchTransactions_success() throws Exception {
+        BatchTransactionRequestModel batchRequest = new BatchTransactionRequestModel(List.of(
+                BatchOperation.builder().operationType(BatchOperationType.DEPOSIT).accountId(1L).amount(100.0).build(),
+                BatchOperation.builder().operationType(BatchOperationType.TRANSFER).accountId(1L).toAccountId(2L).amount(500.0).build()));
+        when(accountTransactionalService.executeBatch(anyList())).thenReturn(List.of(
+                BatchOperationResult.builder().index(0).success(true).build(),
+                BatchOperationResult.builder().index(1).success(false).errorMessage("Insufficient balance").build()));
+
+        mockMvc.perform(post("/batchTransactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("NO_ERROR"))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(1))
+                .andExpect(jsonPath("$.data.results[1].errorMessage").value("Insufficient balance"));
+    }
+
+    @Test
+    void testBatchTransactions_failure_dueToEmptyBatch() throws Exception {
+        mockMvc.perform(post("/batchTransactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchTransactionRequestModel(List.of()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("BAD_DATA"));
+        verify(accountTransactionalService, never()).executeBatch(anyList());
+    }
+
+    @Test
+    void testDepositMoney_binaryFrame() throws Exception {
+        doNothing().when(accountTransactionalService).deposit(anyLong(), anyDouble(), anyString());
+
+        MvcResult result = mockMvc.perform(post("/depositMoney")
+                        .contentType(BinaryFrames.MEDIA_TYPE)
+                        .accept(BinaryFrames.MEDIA_TYPE)
+                        .content(BinaryFrames.writeSingleAccountRequest(1L, 10_050L, "deposit", null)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFrames.MEDIA_TYPE))
+                .andReturn();
+
+        assertEquals(BizErrorCodeEnum.NO_ERROR, BinaryFrames.readResponse(ByteBuffer.wrap(result.getResponse().getContentAsByteArray())).getErrorCode());
+        verify(accountTransactionalService).deposit(1L, 100.5, "deposit");
+    }
+
+    @Test
+    void testTransferMoney_binaryFrame_failure() throws Exception {
+        doThrow(new TransferOperationException("Transfer failed")).when(accountTransactionalService).transfer(anyLong(), anyLong(), anyDouble(), anyString());
+
+        MvcResult result = mockMvc.perform(post("/transferMoney")
+                        .contentType(BinaryFrames.MEDIA_TYPE)
+                        .accept(BinaryFrames.MEDIA_TYPE)
+                        .content(BinaryFrames.writeDualAccountRequest(1L, 2L, 7_500L, "transfer", null)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ResponseResult<?> response = BinaryFrames.readResponse(ByteBuffer.wrap(result.getResponse().getContentAsByteArray()));
+        assertEquals(BizErrorCodeEnum.TRANSFER_OPERATION_FAILED, response.getErrorCode());
+        assertEquals("Transfer failed", response.getErrorMessage());
+    }
+
+    @Test
+    void testDepositMoney_binaryFrame_malformed() throws Exception {
+        mockMvc.perform(post("/depositMoney")
+                        .contentType(BinaryFrames.MEDIA_TYPE)
+                        .content(new byte[]{BinaryFrames.VERSION, 0, 0}))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(accountTransactionalService);
+    }
+}
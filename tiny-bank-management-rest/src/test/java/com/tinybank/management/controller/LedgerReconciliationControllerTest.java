@@ -0,0 +1,66 @@
+package com.tinybank.management.controller;
+
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.reconciliation.AccountDrift;
+import com.tinybank.management.reconciliation.DriftType;
+import com.tinybank.management.reconciliation.LedgerDigest;
+import com.tinybank.management.reconciliation.LedgerReconciler;
+import com.tinybank.management.reconciliation.ReconciliationReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LedgerReconciliationController.class)
+class LedgerReconciliationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LedgerReconciler ledgerReconciler;
+
+    @Test
+    void testReconcileLedger() throws Exception {
+        when(ledgerReconciler.checkBalances()).thenReturn(new ReconciliationReport(10L, 25L, List.of(), 1_000L));
+        when(ledgerReconciler.verifyAll()).thenReturn(new ReconciliationReport(10L, 25L, List.of(new AccountDrift(3L, DriftType.BALANCE, 500L, 400L)), 1_000L));
+
+        mockMvc.perform(get("/reconcileLedger"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.NO_ERROR.name()))
+                .andExpect(jsonPath("$.data.accounts").value(10));
+
+        mockMvc.perform(get("/reconcileLedger").param("mode", "full"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.RECONCILIATION_FAILED.name()))
+                .andExpect(jsonPath("$.data.drifts[0].accountId").value(3))
+                .andExpect(jsonPath("$.data.drifts[0].type").value("BALANCE"));
+
+        mockMvc.perform(get("/reconcileLedger").param("mode", "partial"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.BAD_DATA.name()));
+    }
+
+    @Test
+    void testGetLedgerDigest() throws Exception {
+        LedgerDigest digest = new LedgerDigest(1L, 100L, 64, new long[] {11L, 22L});
+        when(ledgerReconciler.digest(1L, 100L)).thenReturn(digest);
+
+        mockMvc.perform(get("/getLedgerDigest").param("fromAccountId", "1").param("toAccountId", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.root").value(digest.getRoot()))
+                .andExpect(jsonPath("$.data.leaves[1]").value(22));
+
+        mockMvc.perform(get("/getLedgerDigest").param("fromAccountId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value(BizErrorCodeEnum.BAD_DATA.name()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.tinybank.management.idempotency;
+
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void testExecute_replaysStoredOutcome() {
+        IdempotencyCache cache = newCache(16);
+        AtomicInteger executions = new AtomicInteger();
+
+        ResponseResult first = cache.execute("key-1", "withdrawMoney", "request", () -> {
+            executions.incrementAndGet();
+            return ResponseResult.failure(BizErrorCodeEnum.WITHDRAW_OPERATION_FAILED, "Insufficient balance");
+        });
+        ResponseResult retry = cache.execute("key-1", "withdrawMoney", "request", () -> {
+            executions.incrementAndGet();
+            return ResponseResult.success();
+        });
+
+        assertEquals(1, executions.get());
+        assertSame(first, retry);
+    }
+
+    @Test
+    void testExecuteAsync_collapsesConcurrentDuplicates() {
+        IdempotencyCache cache = newCache(16);
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<ResponseResult> pending = new CompletableFuture<>();
+
+        CompletableFuture<ResponseResult> first = cache.executeAsync("key-1", "transferMoney", "request", () -> {
+            executions.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<ResponseResult> duplicate = cache.executeAsync("key-1", "transferMoney", "request", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseResult.success());
+        });
+        assertFalse(duplicate.isDone());
+        pending.complete(ResponseResult.success());
+
+        assertEquals(1, executions.get());
+        assertEquals(BizErrorCodeEnum.NO_ERROR, first.join().getErrorCode());
+        assertSame(first.join(), duplicate.join());
+    }
+
+    @Test
+    void testExecute_keyReusedForDifferentRequest() {
+        IdempotencyCache cache = newCache(16);
+        cache.execute("key-1", "depositMoney", "request", ResponseResult::success);
+
+        ResponseResult result = cache.execute("key-1", "depositMoney", "other request", () -> fail("must not run"));
+
+        assertEquals(BizErrorCodeEnum.BAD_DATA, result.getErrorCode());
+    }
+
+    @Test
+    void testExecute_systemErrorIsNotRemembered() {
+        IdempotencyCache cache = newCache(16);
+        cache.execute("key-1", "depositMoney", "request", () -> ResponseResult.failure(BizErrorCodeEnum.SYSTEM_ERROR));
+
+        ResponseResult retry = cache.execute("key-1", "depositMoney", "request", ResponseResult::success);
+
+        assertEquals(BizErrorCodeEnum.NO_ERROR, retry.getErrorCode());
+    }
+
+    @Test
+    void testExecute_evictsOldestKeysOverCapacity() {
+        IdempotencyCache cache = newCache(2);
+        AtomicInteger executions = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.execute("key-" + i, "depositMoney", "request", () -> {
+                executions.incrementAndGet();
+                return ResponseResult.success();
+            });
+        }
+
+        cache.execute("key-0", "depositMoney", "request", () -> {
+            executions.incrementAndGet();
+            return ResponseResult.success();
+        });
+
+        assertEquals(4, executions.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testExecuteAsync_neverEvictsRunningRequest() {
+        IdempotencyCache cache = newCache(1);
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<ResponseResult> pending = new CompletableFuture<>();
+        cache.executeAsync("key-0", "transferMoney", "request", () -> {
+            executions.incrementAndGet();
+            return pending;
+        });
+
+        ResponseResult rejected = cache.execute("key-1", "depositMoney", "request", () -> fail("must not run"));
+        CompletableFuture<ResponseResult> duplicate = cache.executeAsync("key-0", "transferMoney", "request", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseResult.success());
+        });
+        pending.complete(ResponseResult.success());
+
+        assertEquals(BizErrorCodeEnum.SYSTEM_ERROR, rejected.getErrorCode());
+        assertEquals(1, executions.get());
+        assertEquals(BizErrorCodeEnum.NO_ERROR, duplicate.join().getErrorCode());
+        assertEquals(BizErrorCodeEnum.NO_ERROR, cache.execute("key-1", "depositMoney", "request", ResponseResult::success).getErrorCode());
+        assertEquals(1, cache.size());
+    }
+
+    private static IdempotencyCache newCache(int maxEntries) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(maxEntries);
+        return new IdempotencyCache(properties);
+    }
+}
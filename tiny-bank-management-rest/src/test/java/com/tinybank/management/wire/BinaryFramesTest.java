@@ -0,0 +1,63 @@
+package com.tinybank.management.wire;
+
+import com.tinybank.management.controller.ResponseResult;
+import com.tinybank.management.exception.BizErrorCodeEnum;
+import com.tinybank.management.model.account.BalanceResponseModel;
+import com.tinybank.management.model.account.CreateAccountResponseModel;
+import com.tinybank.management.model.transaction.DualAccountTransactionRequestModel;
+import com.tinybank.management.model.transaction.SingleAccountTransactionRequestModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFramesTest {
+
+    @Test
+    void testSingleAccountRequestRoundTrip() {
+        byte[] frame = BinaryFrames.writeSingleAccountRequest(7L, 12_345L, "salary ✓", null);
+
+        assertEquals(1 + 16 + 2 + "salary ✓".getBytes(StandardCharsets.UTF_8).length + 2, frame.length);
+        assertEquals(new SingleAccountTransactionRequestModel(7L, 123.45, "salary ✓", null),
+                BinaryFrames.readSingleAccountRequest(ByteBuffer.wrap(frame)));
+    }
+
+    @Test
+    void testDualAccountRequestRoundTrip() {
+        byte[] frame = BinaryFrames.writeDualAccountRequest(1L, 2L, 7_500L, null, "key-1");
+
+        assertEquals(new DualAccountTransactionRequestModel(1L, 2L, 75.0, null, "key-1"),
+                BinaryFrames.readDualAccountRequest(ByteBuffer.wrap(frame)));
+    }
+
+    @Test
+    void testResponseRoundTrip() {
+        ResponseResult<?> balance = BinaryFrames.readResponse(ByteBuffer.wrap(BinaryFrames.writeResponse(
+                ResponseResult.success(new BalanceResponseModel(1234.56)))));
+        assertEquals(BizErrorCodeEnum.NO_ERROR, balance.getErrorCode());
+        assertEquals(new BalanceResponseModel(1234.56), balance.getData());
+
+        ResponseResult<?> failure = BinaryFrames.readResponse(ByteBuffer.wrap(BinaryFrames.writeResponse(
+                ResponseResult.failure(BizErrorCodeEnum.WITHDRAW_OPERATION_FAILED, "Insufficient balance"))));
+        assertEquals(BizErrorCodeEnum.WITHDRAW_OPERATION_FAILED, failure.getErrorCode());
+        assertEquals("Insufficient balance", failure.getErrorMessage());
+        assertNull(failure.getData());
+
+        assertEquals(8, BinaryFrames.writeResponse(ResponseResult.success()).length);
+    }
+
+    @Test
+    void testMalformedFrames() {
+        byte[] frame = BinaryFrames.writeSingleAccountRequest(7L, 100L, "remarks", null);
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.readSingleAccountRequest(ByteBuffer.wrap(Arrays.copyOf(frame, frame.length - 3))));
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.readSingleAccountRequest(ByteBuffer.wrap(Arrays.copyOf(frame, frame.length + 1))));
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.readDualAccountRequest(ByteBuffer.wrap(frame)));
+        frame[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.readSingleAccountRequest(ByteBuffer.wrap(frame)));
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.writeResponse(ResponseResult.success(new CreateAccountResponseModel(1L))));
+    }
+}